@@ -0,0 +1,99 @@
+-- Compares the old "latest version" lookups (MAX(versionnumber) ... GROUP BY id subqueries and
+-- the id || versionnumber string matching generated by the criteria API) with the maintained
+-- latest flag, on 100 000 orderables with 20 versions each.
+--
+-- Everything is created in a scratch schema that is dropped at the end, so the script can be run
+-- against any database with the referencedata schema migrated, for example:
+--   psql -h localhost -U postgres -d open_lmis -f performance/sql/latest_versions_benchmark.sql
+
+\timing on
+
+DROP SCHEMA IF EXISTS latest_benchmark CASCADE;
+CREATE SCHEMA latest_benchmark;
+SET search_path TO latest_benchmark;
+
+CREATE TABLE orderables (LIKE referencedata.orderables INCLUDING DEFAULTS INCLUDING INDEXES);
+
+CREATE FUNCTION refresh_latest_orderables() RETURNS trigger AS $$
+    BEGIN
+        UPDATE latest_benchmark.orderables o
+        SET latest = (o.versionnumber = m.versionnumber)
+        FROM (SELECT id, MAX(versionnumber) AS versionnumber
+              FROM latest_benchmark.orderables
+              WHERE id IN (SELECT DISTINCT id FROM changed_rows)
+              GROUP BY id) AS m
+        WHERE o.id = m.id AND o.latest <> (o.versionnumber = m.versionnumber);
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER orderables_latest_on_insert
+    AFTER INSERT ON orderables
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_latest_orderables();
+
+-- 100 000 orderables x 20 versions, loaded in one statement (the trigger fires once)
+INSERT INTO orderables (id, versionnumber, code, fullproductname, description, netcontent,
+    packroundingthreshold, roundtozero, dispensableid, lastupdated)
+SELECT
+    md5('orderable' || o)::uuid,
+    v,
+    'C' || o,
+    'Orderable ' || o,
+    'Benchmark orderable ' || o || ' version ' || v,
+    1,
+    1,
+    FALSE,
+    (SELECT id FROM referencedata.dispensables LIMIT 1),
+    NOW() - (20 - v) * INTERVAL '1 day'
+FROM generate_series(1, 100000) AS o, generate_series(1, 20) AS v;
+
+-- one more version for 1 000 orderables, as happens on a regular update
+INSERT INTO orderables (id, versionnumber, code, fullproductname, description, netcontent,
+    packroundingthreshold, roundtozero, dispensableid, lastupdated)
+SELECT id, versionnumber + 1, code, fullproductname, description, netcontent,
+    packroundingthreshold, roundtozero, dispensableid, NOW()
+FROM orderables
+WHERE latest AND code IN (SELECT 'C' || o FROM generate_series(1, 1000) AS o);
+
+ANALYZE orderables;
+
+-- sanity check: exactly one latest row per orderable
+SELECT COUNT(*) AS latest_rows, COUNT(DISTINCT id) AS orderables FROM orderables WHERE latest;
+
+-- page of latest orderables: GROUP BY subquery (JPQL WHERE_LATEST_ORDERABLE)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.id, o.versionnumber FROM orderables o
+WHERE (o.id, o.versionnumber)
+    IN (SELECT id, MAX(versionnumber) FROM orderables GROUP BY id)
+ORDER BY o.fullproductname LIMIT 10;
+
+-- page of latest orderables: string matching generated by the criteria API
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.id, o.versionnumber FROM orderables o
+WHERE (CAST(o.id AS VARCHAR) || CAST(o.versionnumber AS VARCHAR))
+    IN (SELECT CAST(id AS VARCHAR) || CAST(MAX(versionnumber) AS VARCHAR)
+        FROM orderables GROUP BY id)
+ORDER BY o.fullproductname LIMIT 10;
+
+-- page of latest orderables: latest flag
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.id, o.versionnumber FROM orderables o
+WHERE o.latest
+ORDER BY o.fullproductname LIMIT 10;
+
+-- last modified date of all latest orderables: GROUP BY join
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.lastupdated FROM orderables o
+JOIN (SELECT id, MAX(versionnumber) AS versionnumber FROM orderables GROUP BY id) AS latest
+    ON o.id = latest.id AND o.versionnumber = latest.versionnumber
+ORDER BY o.lastupdated DESC LIMIT 1;
+
+-- last modified date of all latest orderables: latest flag
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.lastupdated FROM orderables o
+WHERE o.latest
+ORDER BY o.lastupdated DESC LIMIT 1;
+
+RESET search_path;
+DROP SCHEMA latest_benchmark CASCADE;
@@ -118,4 +118,23 @@ public abstract class CrudRedisRepositoryIntegrationTest<T extends Identifiable>
     repository.delete(instance);
     Assert.assertFalse(repository.exists(id));
   }
+
+  @Test
+  public void shouldEvict() throws Exception {
+    CrudRedisRepository<T> repository = this.getRepository();
+
+    T instance = this.generateInstance();
+    repository.save(instance);
+
+    UUID id = instance.getId();
+
+    repository.evict(id);
+    Assert.assertFalse(repository.exists(id));
+    Assert.assertNull(repository.findById(id));
+  }
+
+  @Test
+  public void shouldReturnNullIfNotCached() {
+    Assert.assertNull(this.getRepository().findById(UUID.randomUUID()));
+  }
 }
@@ -36,10 +36,12 @@ import com.google.common.collect.Sets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
@@ -297,6 +299,68 @@ public class FacilityTypeApprovedProductRepositoryIntegrationTest {
     assertEquals(page.getContent().get(1).getOrderableId(), orderableNonFullSupply.getId());
   }
 
+  @Test
+  public void shouldStreamProducts() {
+    saveAndGetProduct(facilityType1, true);
+    saveAndGetProduct(facilityType1, false);
+    saveAndGetProduct(facilityType2, true);
+    saveAndGetProduct(facilityType2, false);
+
+    List<FacilityTypeApprovedProduct> ftaps;
+    try (Stream<FacilityTypeApprovedProduct> stream = ftapRepository.streamProducts(
+        facility.getId(), program.getId(), null, emptyList(), null, null, null)) {
+      ftaps = stream.collect(Collectors.toList());
+    }
+
+    assertThat(ftaps, hasSize(2));
+    assertThat(ftaps.stream().map(FacilityTypeApprovedProduct::getOrderableId)
+            .collect(Collectors.toSet()),
+        is(Sets.newHashSet(orderableFullSupply.getId(), orderableNonFullSupply.getId())));
+  }
+
+  @Test
+  public void shouldSearchProductsByFacilities() {
+    saveAndGetProduct(facilityType1, true);
+    saveAndGetProduct(facilityType1, false);
+    saveAndGetProduct(facilityType2, true);
+
+    Facility otherFacility = new FacilityDataBuilder()
+        .withType(facilityType1)
+        .withGeographicZone(facility.getGeographicZone())
+        .withoutOperator()
+        .buildAsNew();
+    facilityRepository.save(otherFacility);
+
+    Facility facilityOfOtherType = new FacilityDataBuilder()
+        .withType(facilityType2)
+        .withGeographicZone(facility.getGeographicZone())
+        .withoutOperator()
+        .buildAsNew();
+    facilityRepository.save(facilityOfOtherType);
+
+    Map<UUID, List<FacilityTypeApprovedProduct>> ftaps = ftapRepository
+        .searchProductsByFacilities(Sets.newHashSet(facility.getId(), otherFacility.getId(),
+            facilityOfOtherType.getId()), program.getId(), null, null);
+
+    assertThat(ftaps.size(), is(3));
+    assertThat(ftaps.get(facility.getId()), hasSize(2));
+    assertThat(ftaps.get(otherFacility.getId()), is(ftaps.get(facility.getId())));
+    assertThat(ftaps.get(facilityOfOtherType.getId()), hasSize(1));
+    assertThat(ftaps.get(facilityOfOtherType.getId()).get(0).getFacilityType(),
+        is(facilityType2));
+  }
+
+  @Test
+  public void shouldThrowExceptionIfAnyFacilityWasNotFoundWhenSearchingByFacilities() {
+    saveAndGetProduct(facilityType1, true);
+
+    expectedException.expect(ValidationMessageException.class);
+    expectedException.expectMessage(FacilityMessageKeys.ERROR_NOT_FOUND_WITH_ID);
+
+    ftapRepository.searchProductsByFacilities(
+        Sets.newHashSet(facility.getId(), UUID.randomUUID()), null, null, null);
+  }
+
   @Test
   public void shouldPaginate() {
     saveAndGetProduct(facilityType1, true);
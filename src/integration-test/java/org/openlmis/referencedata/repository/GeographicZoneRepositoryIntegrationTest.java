@@ -15,11 +15,14 @@
 
 package org.openlmis.referencedata.repository;
 
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertEquals;
@@ -31,9 +34,11 @@ import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.Polygon;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import javax.persistence.EntityManager;
 import org.junit.Before;
 import org.junit.Test;
 import org.openlmis.referencedata.domain.GeographicLevel;
@@ -57,6 +62,9 @@ public class GeographicZoneRepositoryIntegrationTest
   @Autowired
   private GeographicZoneRepository repository;
 
+  @Autowired
+  private EntityManager entityManager;
+
   private GeographicLevel countryLevel = new GeographicLevelDataBuilder()
       .withLevelNumber(1)
       .buildAsNew();
@@ -152,6 +160,31 @@ public class GeographicZoneRepositoryIntegrationTest
     assertEquals(regionZone.getId(), zones.iterator().next());
   }
 
+  @Test
+  public void shouldKeepHierarchyOfNewZones() {
+    // when
+    List<UUID> zones = findDescendantIds(countryZone.getId());
+
+    // then
+    assertThat(zones, containsInAnyOrder(regionZone.getId(), districtZone.getId()));
+    assertThat(findDescendantIds(districtZone.getId()), is(empty()));
+  }
+
+  @Test
+  public void shouldKeepHierarchyAfterParentChange() {
+    // given
+    districtZone.setParent(countryZone);
+    repository.save(districtZone);
+
+    // when
+    List<UUID> zones = findDescendantIds(regionZone.getId());
+
+    // then
+    assertThat(zones, is(empty()));
+    assertThat(findDescendantIds(countryZone.getId()),
+        containsInAnyOrder(regionZone.getId(), districtZone.getId()));
+  }
+
   @Test
   public void shouldFindByLevel() {
     // when
@@ -177,6 +210,59 @@ public class GeographicZoneRepositoryIntegrationTest
     assertThat(zones, hasItem(countryZone));
   }
 
+  @Test
+  public void shouldFindByLocationAfterBoundaryChange() {
+    // given
+    Coordinate[] districtCoords  = new Coordinate[] {
+        new Coordinate(2, 0),
+        new Coordinate(4, 0),
+        new Coordinate(4, 2),
+        new Coordinate(2, 2),
+        new Coordinate(2, 0)
+    };
+    districtZone.setBoundary(gf.createPolygon(districtCoords));
+    repository.save(districtZone);
+
+    Point location = gf.createPoint(new Coordinate(3, 1));
+
+    // when
+    List<GeographicZone> zones = repository.findByLocation(location);
+
+    // then
+    assertEquals(3, zones.size());
+    assertThat(zones, hasItem(districtZone));
+  }
+
+  @Test
+  public void shouldFindByLocationOnEdgesOfBoundaryParts() {
+    // given
+    // the bottom edge has enough vertices for the boundary to be cut into several parts
+    List<Coordinate> districtCoords = new ArrayList<>();
+    for (int i = 0; i <= 400; i++) {
+      districtCoords.add(new Coordinate(i * 0.005, 0));
+    }
+    districtCoords.add(new Coordinate(2, 2));
+    districtCoords.add(new Coordinate(0, 2));
+    districtCoords.add(new Coordinate(0, 0));
+    districtZone.setBoundary(gf.createPolygon(districtCoords.toArray(new Coordinate[0])));
+    repository.save(districtZone);
+    entityManager.flush();
+
+    List<Point> locations = findPointsOnCutEdges(districtZone.getId());
+    assertThat(locations, is(not(empty())));
+    locations.add(gf.createPoint(new Coordinate(2, 1)));
+    locations.add(gf.createPoint(new Coordinate(0, 0)));
+
+    for (Point location : locations) {
+      // when
+      List<GeographicZone> zones = repository.findByLocation(location);
+
+      // then
+      assertThat(zones, hasItem(districtZone));
+      assertThat(zones, containsInAnyOrder(findByWholeBoundary(location).toArray()));
+    }
+  }
+
   @Test
   public void shouldFindGeographicZonesWithSimilarCode() {
     Pageable pageable = mockPageable(0, 10);
@@ -317,6 +403,49 @@ public class GeographicZoneRepositoryIntegrationTest
     return pageable;
   }
 
+  private List<Point> findPointsOnCutEdges(UUID zoneId) {
+    List<?> rows = entityManager
+        .createNativeQuery("SELECT ST_X(pt), ST_Y(pt) FROM ("
+            + "SELECT ST_ClosestPoint(ST_Intersection(a.part, b.part),"
+            + " ST_Centroid(ST_Intersection(a.part, b.part))) AS pt"
+            + " FROM referencedata.geographic_zone_boundary_parts a"
+            + " JOIN referencedata.geographic_zone_boundary_parts b ON b.zoneid = a.zoneid"
+            + " AND NOT ST_Equals(a.part, b.part)"
+            + " WHERE a.zoneid = :zoneId AND ST_Intersects(a.part, b.part)) AS cuts")
+        .setParameter("zoneId", zoneId)
+        .getResultList();
+
+    List<Point> points = new ArrayList<>();
+    for (Object row : rows) {
+      Object[] coordinates = (Object[]) row;
+      points.add(gf.createPoint(new Coordinate(((Number) coordinates[0]).doubleValue(),
+          ((Number) coordinates[1]).doubleValue())));
+    }
+    return points;
+  }
+
+  private List<GeographicZone> findByWholeBoundary(Point location) {
+    List<?> ids = entityManager
+        .createNativeQuery("SELECT CAST(gz.id AS varchar)"
+            + " FROM referencedata.geographic_zones gz"
+            + " WHERE ST_Covers(gz.boundary, ST_MakePoint(:x, :y))")
+        .setParameter("x", location.getX())
+        .setParameter("y", location.getY())
+        .getResultList();
+
+    List<GeographicZone> zones = new ArrayList<>();
+    ids.forEach(id -> zones.add(repository.findById(UUID.fromString((String) id)).orElse(null)));
+    return zones;
+  }
+
+  private List<UUID> findDescendantIds(UUID ancestorId) {
+    return entityManager
+        .createQuery("SELECT h.link.descendantId FROM GeographicZoneHierarchy h"
+            + " WHERE h.link.ancestorId = :ancestorId AND h.depth > 0", UUID.class)
+        .setParameter("ancestorId", ancestorId)
+        .getResultList();
+  }
+
   @Override
   protected void assertInstance(GeographicZone district) {
     super.assertInstance(district);
@@ -32,7 +32,6 @@ import static org.openlmis.referencedata.domain.Orderable.TRADE_ITEM;
 
 import com.google.common.collect.Sets;
 import java.sql.Timestamp;
-import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -604,6 +603,22 @@ public class OrderableRepositoryIntegrationTest {
     assertThat(actual.getContent().get(0).getVersionNumber(), is(orderable.getVersionNumber() - 1));
   }
 
+  @Test
+  public void shouldFindPreviousVersionsByQueryAndIdVersionNumberPairs() {
+    Orderable orderable = saveAndGetOrderable();
+    saveAndGetOrderable();
+
+    Page<Orderable> actual = repository.search(
+        new TestSearchParams(null, null, null,
+            Sets.newHashSet(Pair.of(orderable.getId(), orderable.getVersionNumber() - 1)),
+            CODE),
+        pageable);
+
+    assertThat(actual.getNumberOfElements(), is(1));
+    assertThat(actual.getContent().get(0).getVersionIdentity().getId(), is(orderable.getId()));
+    assertThat(actual.getContent().get(0).getVersionNumber(), is(orderable.getVersionNumber() - 1));
+  }
+
   @Test
   public void shouldFindByIdentifier() {
     String identifierValue1 = UUID.randomUUID().toString();
@@ -649,6 +664,36 @@ public class OrderableRepositoryIntegrationTest {
     checkSingleResultOrderableVersion(orderables, orderable.getVersionNumber());
   }
 
+  @Test
+  public void shouldFindIdentifiersOfLatestOrderables() {
+    String identifierValue1 = UUID.randomUUID().toString();
+    String identifierValue2 = UUID.randomUUID().toString();
+
+    Orderable orderable1 = new OrderableDataBuilder()
+        .withIdentifier(TRADE_ITEM, identifierValue1)
+        .buildAsNew();
+
+    Orderable orderable2 = new OrderableDataBuilder()
+        .withIdentifier(COMMODITY_TYPE, identifierValue2)
+        .buildAsNew();
+
+    repository.save(orderable1);
+    repository.save(orderable2);
+
+    List<Object[]> identifiers = repository
+        .findAllLatestIdentifiers(Collections.singletonList(TRADE_ITEM));
+
+    List<Object[]> found = identifiers
+        .stream()
+        .filter(row -> identifierValue1.equals(row[2]) || identifierValue2.equals(row[2]))
+        .collect(Collectors.toList());
+
+    assertThat(found, hasSize(1));
+    assertThat((UUID) found.get(0)[0], is(orderable1.getId()));
+    assertThat((String) found.get(0)[1], is(TRADE_ITEM));
+    assertThat((Dispensable) found.get(0)[3], is(orderable1.getDispensable()));
+  }
+
   @Test
   public void findFirstByIdentityIdOrderByIdentityersionNumberDescShouldReturnNewestVersion() {
     // given
@@ -664,6 +709,28 @@ public class OrderableRepositoryIntegrationTest {
 
   }
 
+  @Test
+  public void shouldFindAllLatestOrderablesByProductCodes() {
+    // given
+    Orderable orderable1 = saveAndGetOrderable();
+    Orderable orderable2 = saveAndGetOrderable();
+    saveAndGetOrderable();
+    entityManager.flush();
+    entityManager.clear();
+
+    // when
+    List<Orderable> found = repository.findAllLatestByProductCodes(Sets.newHashSet(
+        orderable1.getProductCode().toString(), orderable2.getProductCode().toString()));
+
+    // then
+    assertThat(found, hasSize(2));
+    assertThat(found, hasItems(orderable1, orderable2));
+    found.forEach(orderable -> assertEquals(
+        orderable.getProductCode().equals(orderable1.getProductCode())
+            ? orderable1.getVersionNumber() : orderable2.getVersionNumber(),
+        orderable.getVersionNumber()));
+  }
+
   @Test
   public void shouldFindLatestModifiedDateFromOrderablesRetrievedByIds() {
     //given
@@ -688,74 +755,72 @@ public class OrderableRepositoryIntegrationTest {
   }
 
   @Test
-  public void shouldFindLastUpdatedDateFromOrderablesRetrievedByIds() {
+  public void shouldFindLastModifiedDateFromOrderablesRetrievedByIds() {
     //given
     Orderable orderable1 = saveAndGetOrderable();
     Orderable orderable2 = saveAndGetOrderable();
-    Orderable orderable3 = saveAndGetOrderable();
-    orderable1.setLastUpdated(ZonedDateTime.now().minusHours(1));
-    orderable2.setLastUpdated(ZonedDateTime.now().minusHours(2));
-    orderable3.setLastUpdated(ZonedDateTime.now());
-    repository.save(orderable1);
-    repository.save(orderable2);
-    repository.save(orderable3);
+    Set<UUID> ids = newHashSet(orderable1.getId(), orderable2.getId());
+    Timestamp before = repository.findLatestModifiedDateByIds(ids);
 
     //when
-    Set<UUID> ids = newHashSet(orderable1.getId(), orderable2.getId(), orderable3.getId());
+    Orderable orderable3 = saveAndGetOrderable();
+    Timestamp after = repository.findLatestModifiedDateByIds(
+        newHashSet(orderable1.getId(), orderable2.getId(), orderable3.getId()));
+
+    //then
+    assertNotNull(before);
+    assertTrue(after.after(before));
+    assertEquals(before, repository.findLatestModifiedDateByIds(ids));
+  }
 
-    Timestamp timestamp = repository.findLatestModifiedDateByIds(ids);
-    ZonedDateTime lastUpdated = ZonedDateTime.of(timestamp.toLocalDateTime(),
-        ZoneId.of(ZoneId.systemDefault().toString()));
+  @Test
+  public void shouldFindLastModifiedDateFromAllOrderables() {
+    //given
+    saveAndGetOrderable();
+    Timestamp before = repository.findLatestModifiedDateOfAll();
+
+    //when
+    saveAndGetOrderable();
+    Timestamp after = repository.findLatestModifiedDateOfAll();
 
     //then
-    assertEquals(lastUpdated, orderable3.getLastUpdated());
+    assertNotNull(before);
+    assertTrue(after.after(before));
   }
 
   @Test
-  public void shouldFindLastUpdatedDateFromAllOrderables() {
+  public void shouldNotChangeLastModifiedDateWhenOnlyLatestFlagChanges() {
     //given
-    Orderable orderable1 = saveAndGetOrderable();
-    Orderable orderable2 = saveAndGetOrderable();
-    Orderable orderable3 = saveAndGetOrderable();
-    orderable1.setLastUpdated(ZonedDateTime.now().minusHours(1));
-    orderable2.setLastUpdated(ZonedDateTime.now().minusHours(2));
-    orderable3.setLastUpdated(ZonedDateTime.now());
-    repository.save(orderable1);
-    repository.save(orderable2);
-    repository.save(orderable3);
+    Orderable orderable = saveAndGetOrderable();
+    Timestamp before = repository.findLatestModifiedDateOfAll();
 
     //when
-    Timestamp timestamp = repository.findLatestModifiedDateOfAll();
-    ZonedDateTime lastUpdated = ZonedDateTime.of(timestamp.toLocalDateTime(),
-        ZoneId.of(ZoneId.systemDefault().toString()));
+    entityManager
+        .createNativeQuery("UPDATE referencedata.orderables SET latest = NOT latest"
+            + " WHERE id = :id")
+        .setParameter("id", orderable.getId())
+        .executeUpdate();
 
     //then
-    assertEquals(lastUpdated, orderable3.getLastUpdated());
+    assertEquals(before, repository.findLatestModifiedDateOfAll());
   }
 
   @Test
-  public void shouldFindLastUpdatedDateFromOrderablesRetrievedByParams() {
+  public void shouldFindLastModifiedDateFromOrderablesRetrievedByParams() {
     //given
-    Orderable orderable1 = saveAndGetOrderable();
-    Orderable orderable2 = saveAndGetOrderable();
-    Orderable orderable3 = saveAndGetOrderable();
-    orderable1.setLastUpdated(ZonedDateTime.now().minusHours(1));
-    orderable2.setLastUpdated(ZonedDateTime.now().minusHours(2));
-    orderable3.setLastUpdated(ZonedDateTime.now());
-    repository.save(orderable1);
-    repository.save(orderable2);
-    repository.save(orderable3);
+    Orderable orderable = saveAndGetOrderable();
+    TestSearchParams searchParams = new TestSearchParams(
+        orderable.getProductCode().toString(), orderable.getFullProductName(), null, null);
+    ZonedDateTime before = repository.findLatestModifiedDateByParams(searchParams);
 
     //when
-    ZonedDateTime lastUpdated = repository.findLatestModifiedDateByParams(
-        new TestSearchParams(orderable3.getProductCode().toString(),
-            orderable3.getFullProductName(), null,
-            Sets.newHashSet(Pair.of(orderable1.getId(), orderable1.getVersionNumber()),
-                Pair.of(orderable2.getId(), orderable2.getVersionNumber()),
-                Pair.of(orderable3.getId(), orderable3.getVersionNumber()))));
+    orderable.setLastUpdated(ZonedDateTime.now());
+    repository.save(orderable);
+    ZonedDateTime after = repository.findLatestModifiedDateByParams(searchParams);
 
     //then
-    assertEquals(lastUpdated, orderable3.getLastUpdated().withZoneSameLocal(ZoneId.of("GMT")));
+    assertNotNull(before);
+    assertTrue(after.isAfter(before));
   }
 
   @Test
@@ -892,6 +957,12 @@ public class OrderableRepositoryIntegrationTest {
     private String name;
     private Set<String> programCodes;
     private Set<Pair<UUID, Long>> identityPairs;
+    private String query;
+
+    TestSearchParams(String code, String name, Set<String> programCodes,
+        Set<Pair<UUID, Long>> identityPairs) {
+      this(code, name, programCodes, identityPairs, null);
+    }
 
     @Override
     public Set<UUID> getTradeItemId() {
@@ -27,6 +27,7 @@ import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.Sets;
 import java.util.UUID;
+import javax.persistence.EntityManager;
 import org.junit.Before;
 import org.junit.Test;
 import org.openlmis.referencedata.domain.Facility;
@@ -84,6 +85,9 @@ public class SupervisoryNodeRepositoryIntegrationTest extends
   @Autowired
   private RequisitionGroupProgramScheduleRepository requisitionGroupProgramScheduleRepository;
 
+  @Autowired
+  private EntityManager entityManager;
+
   private Facility facility;
   private FacilityType facilityType;
   private GeographicLevel geographicLevel;
@@ -435,6 +439,58 @@ public class SupervisoryNodeRepositoryIntegrationTest extends
     assertEquals(supervisoryNode, result.getContent().get(0));
   }
 
+  @Test
+  public void shouldFindFacilitiesSupervisedThroughChildNodes() {
+    Program program = programRepository.save(new ProgramDataBuilder().build());
+    Facility supervisedFacility = saveSupervisedFacility(program);
+
+    SupervisoryNode parentNode = supervisoryNodeRepository.save(generateInstance());
+    SupervisoryNode childNode = supervisoryNodeRepository.save(new SupervisoryNodeDataBuilder()
+        .withoutId()
+        .withFacility(facility)
+        .withParentNode(parentNode)
+        .build());
+    saveRequisitionGroup(childNode, supervisedFacility, program);
+    refreshSupervisedFacilities();
+
+    Page<Facility> result = facilityRepository
+        .findSupervisedFacilities(parentNode.getId(), program.getId(), pageRequest);
+
+    assertEquals(1, result.getTotalElements());
+    assertEquals(supervisedFacility, result.getContent().get(0));
+    assertEquals(1, facilityRepository
+        .findSupervisedFacilities(parentNode.getId(), pageRequest).getTotalElements());
+    assertEquals(0, facilityRepository
+        .findSupervisedFacilities(parentNode.getId(), UUID.randomUUID(), pageRequest)
+        .getTotalElements());
+  }
+
+  @Test
+  public void shouldFindSupervisedFacilitiesAfterNodeIsMoved() {
+    Program program = programRepository.save(new ProgramDataBuilder().build());
+    Facility supervisedFacility = saveSupervisedFacility(program);
+
+    SupervisoryNode oldParentNode = supervisoryNodeRepository.save(generateInstance());
+    SupervisoryNode newParentNode = supervisoryNodeRepository.save(generateInstance());
+    SupervisoryNode childNode = supervisoryNodeRepository.save(new SupervisoryNodeDataBuilder()
+        .withoutId()
+        .withFacility(facility)
+        .withParentNode(oldParentNode)
+        .build());
+    saveRequisitionGroup(childNode, supervisedFacility, program);
+
+    childNode.assignParentNode(newParentNode);
+    supervisoryNodeRepository.saveAndFlush(childNode);
+    refreshSupervisedFacilities();
+
+    assertEquals(0, facilityRepository
+        .findSupervisedFacilities(oldParentNode.getId(), program.getId(), pageRequest)
+        .getTotalElements());
+    assertEquals(1, facilityRepository
+        .findSupervisedFacilities(newParentNode.getId(), program.getId(), pageRequest)
+        .getTotalElements());
+  }
+
   @Test
   public void shouldAssignChildNodes() {
     // given
@@ -552,4 +608,38 @@ public class SupervisoryNodeRepositoryIntegrationTest extends
     assertThat(supervisoryNode2.getPartnerNodeOf(), is(nullValue()));
     assertThat(supervisoryNode3.getPartnerNodeOf(), is(nullValue()));
   }
+
+  private Facility saveSupervisedFacility(Program program) {
+    return facilityRepository.save(new FacilityDataBuilder()
+        .withType(facilityType)
+        .withGeographicZone(geographicZone)
+        .withoutOperator()
+        .withSupportedProgram(program)
+        .buildAsNew());
+  }
+
+  private void saveRequisitionGroup(SupervisoryNode supervisoryNode, Facility memberFacility,
+      Program program) {
+    RequisitionGroup requisitionGroup = requisitionGroupRepository
+        .save(new RequisitionGroupDataBuilder()
+            .withSupervisoryNode(supervisoryNode)
+            .withMemberFacility(memberFacility)
+            .buildAsNew());
+
+    requisitionGroupProgramScheduleRepository.save(new RequisitionGroupProgramScheduleDataBuilder()
+        .withProgram(program)
+        .withRequisitionGroup(requisitionGroup)
+        .withSchedule(scheduleRepository.save(new ProcessingScheduleDataBuilder().buildWithoutId()))
+        .withDropOffFacility(facility)
+        .buildAsNew());
+    requisitionGroupRepository.flush();
+  }
+
+  // supervised facilities are refreshed on commit, and test transactions are rolled back
+  private void refreshSupervisedFacilities() {
+    entityManager
+        .createNativeQuery("SET CONSTRAINTS referencedata.supervised_facilities_refresh_on_commit"
+            + " IMMEDIATE")
+        .executeUpdate();
+  }
 }
@@ -27,7 +27,6 @@ import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
-import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
@@ -48,6 +47,7 @@ import guru.nidi.ramltester.RamlDefinition;
 import guru.nidi.ramltester.RamlLoaders;
 import guru.nidi.ramltester.restassured.RestAssuredClient;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.UUID;
 import javax.annotation.PostConstruct;
 import org.assertj.core.api.Assertions;
@@ -95,14 +95,20 @@ import org.openlmis.referencedata.service.AuthenticationHelper;
 import org.openlmis.referencedata.service.FacilityService;
 import org.openlmis.referencedata.service.FacilityTypeService;
 import org.openlmis.referencedata.service.GeographicZoneService;
+import org.openlmis.referencedata.service.GeographicZoneTree;
+import org.openlmis.referencedata.service.GeographicZoneTreeCache;
 import org.openlmis.referencedata.service.IdealStockAmountService;
+import org.openlmis.referencedata.service.OrderableFulfillCache;
 import org.openlmis.referencedata.service.OrderableService;
 import org.openlmis.referencedata.service.RequisitionGroupProgramScheduleService;
 import org.openlmis.referencedata.service.RequisitionGroupService;
 import org.openlmis.referencedata.service.RightService;
 import org.openlmis.referencedata.service.SupplyPartnerBuilder;
+import org.openlmis.referencedata.service.UserPermissionCache;
+import org.openlmis.referencedata.service.UserPermissions;
 import org.openlmis.referencedata.service.UserService;
 import org.openlmis.referencedata.service.export.DataExportService;
+import org.openlmis.referencedata.service.export.DataImportJobService;
 import org.openlmis.referencedata.service.export.DataImportService;
 import org.openlmis.referencedata.testbuilder.UserDataBuilder;
 import org.openlmis.referencedata.util.Message;
@@ -248,6 +254,12 @@ public abstract class BaseWebIntegrationTest {
   @MockBean
   protected GeographicZoneService geographicZoneService;
 
+  @MockBean
+  protected GeographicZoneTreeCache geographicZoneTreeCache;
+
+  @MockBean
+  protected UserPermissionCache userPermissionCache;
+
   @MockBean
   protected LotRepository lotRepository;
 
@@ -312,7 +324,7 @@ public abstract class BaseWebIntegrationTest {
   protected IdealStockAmountService idealStockAmountService;
 
   @MockBean
-  protected OrderableFulfillFactory factory;
+  protected OrderableFulfillCache orderableFulfillCache;
 
   @MockBean
   protected FacilityTypeService facilityTypeService;
@@ -332,6 +344,9 @@ public abstract class BaseWebIntegrationTest {
   @MockBean
   protected DataImportService dataImportService;
 
+  @MockBean
+  protected DataImportJobService dataImportJobService;
+
   /**
    * Constructor for test.
    */
@@ -382,8 +397,10 @@ public abstract class BaseWebIntegrationTest {
   public void setUp() {
     // by default user has no access to resources
     given(userRepository.existsById(ADMIN_ID)).willReturn(true);
-    given(rightAssignmentRepository.existsByUserIdAndRightName(eq(ADMIN_ID), anyString()))
-        .willReturn(false);
+    given(userPermissionCache.get(any(UUID.class)))
+        .willReturn(UserPermissions.of(Collections.emptySet()));
+    given(geographicZoneTreeCache.getTree())
+        .willReturn(GeographicZoneTree.of(Collections.emptyList()));
 
     mockUserAuthenticated();
   }
@@ -21,7 +21,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.verify;
 import static org.openlmis.referencedata.domain.RightName.DATA_EXPORT;
 import static org.openlmis.referencedata.web.export.DataExportController.RESOURCE_PATH;
@@ -32,6 +32,7 @@ import static org.openlmis.referencedata.web.export.DataExportParams.FORMAT;
 import com.jayway.restassured.response.Response;
 import guru.nidi.ramltester.junit.RamlMatchers;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.commons.io.FileUtils;
@@ -61,7 +62,10 @@ public class DataExportControllerIntegrationTest extends BaseWebIntegrationTest
   public void shouldReturnZipArchiveBytes() throws IOException {
     ClassPathResource file = new ClassPathResource("csv/export_results.zip");
     byte[] zipBytes = FileUtils.readFileToByteArray(file.getFile());
-    given(dataExportService.exportData(any(DataExportParams.class))).willReturn(zipBytes);
+    willAnswer(invocation -> {
+      ((OutputStream) invocation.getArguments()[1]).write(zipBytes);
+      return null;
+    }).given(dataExportService).exportData(any(DataExportParams.class), any(OutputStream.class));
 
     Response response = restAssured.given()
             .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
@@ -73,7 +77,8 @@ public class DataExportControllerIntegrationTest extends BaseWebIntegrationTest
             .statusCode(200)
             .extract().response();
 
-    verify(dataExportService).exportData(any(DataExportParams.class));
+    verify(dataExportService)
+        .exportData(any(DataExportParams.class), any(OutputStream.class));
     assertEquals(response.getContentType(), ZIP_MEDIA_TYPE);
     assertArrayEquals(response.getBody().asByteArray(), zipBytes);
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
@@ -17,36 +17,48 @@ package org.openlmis.referencedata.web;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.openlmis.referencedata.domain.RightName.DATA_IMPORT;
+import static org.openlmis.referencedata.web.export.DataImportController.JOBS;
 import static org.openlmis.referencedata.web.export.DataImportController.RESOURCE_PATH;
 
 import guru.nidi.ramltester.junit.RamlMatchers;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.UUID;
 import org.junit.Before;
 import org.junit.Test;
+import org.openlmis.referencedata.domain.DataImportJob;
+import org.openlmis.referencedata.domain.DataImportJob.Status;
 import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.dto.DataImportJobDto;
 import org.openlmis.referencedata.dto.OrderableDto;
+import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.testbuilder.OrderableDataBuilder;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.messagekeys.DataImportMessageKeys;
 import org.springframework.http.HttpHeaders;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
 public class DataImportControllerIntegrationTest extends BaseWebIntegrationTest {
 
+  private static final String JOB_URL = RESOURCE_PATH + JOBS + "/{id}";
   private static final MultipartFile file = new MockMultipartFile(
       "orderable.csv", "test-data".getBytes());
   private final Orderable orderable = new OrderableDataBuilder().build();
   private final OrderableDto orderableDto = OrderableDto.newInstances(orderable);
+  private final DataImportJob job = DataImportJob.newInstance("data.zip");
 
   @Before
   @Override
   public void setUp() {
     super.setUp();
     mockUserHasRight(DATA_IMPORT);
+    job.setId(UUID.randomUUID());
 
     given(dataImportService.importData(any(MultipartFile.class)))
         .willReturn(Collections.singletonList(orderableDto));
@@ -66,6 +78,101 @@ public class DataImportControllerIntegrationTest extends BaseWebIntegrationTest
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldSubmitImportJobWithCorrectRight() throws IOException {
+    given(dataImportJobService.submit(any(MultipartFile.class))).willReturn(job);
+
+    DataImportJobDto response = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .multiPart("file", file.getOriginalFilename(), file.getInputStream())
+        .when()
+        .post(RESOURCE_PATH + JOBS)
+        .then()
+        .statusCode(202)
+        .extract()
+        .as(DataImportJobDto.class);
+
+    assertEquals(job.getId(), response.getId());
+    assertEquals(Status.QUEUED, response.getStatus());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotSubmitImportJobWithIncorrectRight() throws IOException {
+    mockUserHasNoRight(DATA_IMPORT);
+
+    String response = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .multiPart("file", file.getOriginalFilename(), file.getInputStream())
+        .when()
+        .post(RESOURCE_PATH + JOBS)
+        .then()
+        .statusCode(403)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertThat(response, is(equalTo(MESSAGEKEY_ERROR_UNAUTHORIZED)));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldGetImportJob() {
+    job.start();
+    job.addProcessedRows(10);
+    given(dataImportJobService.getJob(job.getId())).willReturn(job);
+
+    DataImportJobDto response = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .pathParam(ID, job.getId())
+        .when()
+        .get(JOB_URL)
+        .then()
+        .statusCode(200)
+        .extract()
+        .as(DataImportJobDto.class);
+
+    assertEquals(Status.IN_PROGRESS, response.getStatus());
+    assertEquals(10, response.getProcessedRows());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldReturnNotFoundForNonExistentImportJob() {
+    given(dataImportJobService.getJob(job.getId())).willThrow(new NotFoundException(
+        new Message(DataImportMessageKeys.ERROR_JOB_NOT_FOUND, job.getId())));
+
+    String response = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .pathParam(ID, job.getId())
+        .when()
+        .get(JOB_URL)
+        .then()
+        .statusCode(404)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertThat(response, is(equalTo(DataImportMessageKeys.ERROR_JOB_NOT_FOUND)));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotGetImportJobWithIncorrectRight() {
+    mockUserHasNoRight(DATA_IMPORT);
+
+    String response = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .pathParam(ID, job.getId())
+        .when()
+        .get(JOB_URL)
+        .then()
+        .statusCode(403)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertThat(response, is(equalTo(MESSAGEKEY_ERROR_UNAUTHORIZED)));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldNotImportDataWithIncorrectRight() throws IOException {
     mockUserHasNoRight(DATA_IMPORT);
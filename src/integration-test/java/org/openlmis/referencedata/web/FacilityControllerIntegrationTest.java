@@ -30,20 +30,26 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.openlmis.referencedata.domain.RightName.FACILITIES_MANAGE_RIGHT;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.Polygon;
 import guru.nidi.ramltester.junit.RamlMatchers;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.assertj.core.util.Lists;
 import org.hamcrest.Matchers;
 import org.junit.Before;
@@ -95,6 +101,7 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
   private static final String NAME_KEY = "name";
   private static final String FULL_SUPPLY = "fullSupply";
   private static final String APPROVED_PRODUCTS = "/approvedProducts";
+  private static final String SMILE_MEDIA_TYPE = "application/x-jackson-smile";
   public static final String PAGE = "page";
   public static final String CODE = "code";
 
@@ -370,6 +377,112 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldStreamApprovedProductsForFacility() {
+    Orderable orderable = new OrderableDataBuilder().build();
+    FacilityTypeApprovedProduct approvedProduct = new FacilityTypeApprovedProductsDataBuilder()
+        .withOrderableId(orderable.getId())
+        .build();
+
+    when(orderableRepository
+        .findAllLatestByIds(eq(Collections.singleton(orderable.getId())), any(Pageable.class)))
+        .thenReturn(new PageImpl<>(Collections.singletonList(orderable)));
+    when(facilityTypeApprovedProductRepository.streamProducts(eq(facility.getId()),
+        eq(program.getId()), eq(false), eq(null), eq(null), eq(null), eq(null)))
+        .thenReturn(Stream.of(approvedProduct));
+
+    PageDto productDtos = restAssured.given()
+        .queryParam(PROGRAM_ID, program.getId())
+        .queryParam(FULL_SUPPLY, false)
+        .queryParam("stream", true)
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .when()
+        .get(RESOURCE_URL + "/" + facility.getId() + APPROVED_PRODUCTS)
+        .then()
+        .statusCode(200)
+        .extract().as(PageDto.class);
+
+    assertEquals(1, productDtos.getContent().size());
+    assertEquals(1, productDtos.getTotalElements());
+    assertEquals(1, productDtos.getTotalPages());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldBadRequestWhenStreamingProductsForNonExistentFacility() {
+    when(facilityTypeApprovedProductRepository
+        .streamProducts(any(UUID.class), nullable(UUID.class), nullable(Boolean.class),
+            nullable(List.class), nullable(Boolean.class), nullable(String.class),
+            nullable(String.class)))
+        .thenThrow(new ValidationMessageException(FacilityMessageKeys.ERROR_NOT_FOUND));
+
+    restAssured.given()
+        .queryParam(PROGRAM_ID, UUID.randomUUID())
+        .queryParam("stream", true)
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .when()
+        .get(RESOURCE_URL + "/" + UUID.randomUUID() + APPROVED_PRODUCTS)
+        .then()
+        .statusCode(400);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldSearchApprovedProductsForManyFacilities() {
+    Orderable orderable = new OrderableDataBuilder().build();
+    FacilityTypeApprovedProduct approvedProduct = new FacilityTypeApprovedProductsDataBuilder()
+        .withOrderableId(orderable.getId())
+        .build();
+    List<FacilityTypeApprovedProduct> products = Collections.singletonList(approvedProduct);
+    Set<UUID> facilityIds = new HashSet<>(asList(facility.getId(), facility1.getId()));
+
+    Map<UUID, List<FacilityTypeApprovedProduct>> found = new HashMap<>();
+    found.put(facility.getId(), products);
+    found.put(facility1.getId(), products);
+
+    when(orderableRepository
+        .findAllLatestByIds(eq(Collections.singleton(orderable.getId())), any(Pageable.class)))
+        .thenReturn(new PageImpl<>(Collections.singletonList(orderable)));
+    when(facilityTypeApprovedProductRepository
+        .searchProductsByFacilities(facilityIds, program.getId(), false, null))
+        .thenReturn(found);
+
+    Map<String, List<Object>> response = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(new FacilityApprovedProductsSearchParams(facilityIds, program.getId(), false, null))
+        .when()
+        .post(RESOURCE_URL + APPROVED_PRODUCTS + "/search")
+        .then()
+        .statusCode(200)
+        .extract().as(Map.class);
+
+    assertEquals(2, response.size());
+    assertEquals(1, response.get(facility.getId().toString()).size());
+    assertEquals(1, response.get(facility1.getId().toString()).size());
+    verify(orderableRepository)
+        .findAllLatestByIds(eq(Collections.singleton(orderable.getId())), any(Pageable.class));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldBadRequestWhenSearchingApprovedProductsWithoutFacilities() {
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(new FacilityApprovedProductsSearchParams(
+            Collections.emptySet(), program.getId(), null, null))
+        .when()
+        .post(RESOURCE_URL + APPROVED_PRODUCTS + "/search")
+        .then()
+        .statusCode(400)
+        .body(MESSAGE_KEY,
+            equalTo(FacilityMessageKeys.ERROR_APPROVED_PRODUCTS_SEARCH_LACKS_PARAMS));
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void getApprovedProductsShouldReturnUnauthorizedWithoutAuthorization() {
 
@@ -522,6 +635,31 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
     verifyZeroInteractions(rightService);
   }
 
+  @Test
+  public void getAllShouldReturnMinimalFacilitiesInSmileWhenRequested() throws IOException {
+    List<Facility> storedFacilities = asList(facility, new FacilityDataBuilder()
+        .withSupportedProgram(program).build());
+    given(facilityRepository.findAll(any(Pageable.class))).willReturn(
+        Pagination.getPage(storedFacilities, PageRequest.of(0, 10)));
+
+    byte[] response = restAssured
+        .given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .accept(SMILE_MEDIA_TYPE)
+        .when()
+        .get(MINIMAL_URL)
+        .then()
+        .statusCode(200)
+        .contentType(SMILE_MEDIA_TYPE)
+        .extract().asByteArray();
+
+    JsonNode page = new ObjectMapper(new SmileFactory()).readTree(response);
+
+    assertEquals(storedFacilities.size(), page.get("content").size());
+    assertEquals(facility.getName(), page.get("content").get(0).get(NAME_KEY).asText());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void getFullRepresentationFacilitiesShouldReturnUnauthorizedWithoutAuthorization() {
 
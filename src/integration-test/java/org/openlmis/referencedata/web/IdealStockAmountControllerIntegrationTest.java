@@ -20,6 +20,7 @@ import static org.apache.commons.lang3.StringUtils.joinWith;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.refEq;
@@ -38,7 +39,6 @@ import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Optional;
 import java.util.UUID;
 import org.apache.commons.lang3.StringUtils;
 import org.hamcrest.Matchers;
@@ -75,12 +75,13 @@ public class IdealStockAmountControllerIntegrationTest extends BaseWebIntegratio
   @Before
   @Override
   public void setUp() {
-    facility = new FacilityDataBuilder().build();
+    // codes of the references in the uploaded CSV files
+    facility = new FacilityDataBuilder().withCode("facility-code").build();
 
-    commodityType = new CommodityType("Name", "cSys", "cId", null, new ArrayList<>());
+    commodityType = new CommodityType("Name", "system", "id", null, new ArrayList<>());
 
     schedule = new ProcessingSchedule();
-    schedule.setCode(Code.code("schedule-code"));
+    schedule.setCode(Code.code("schedule"));
     schedule.setDescription("desc");
     schedule.setId(UUID.randomUUID());
     schedule.setModifiedDate(ZonedDateTime.now());
@@ -97,13 +98,15 @@ public class IdealStockAmountControllerIntegrationTest extends BaseWebIntegratio
     when(idealStockAmountRepository.save(any(IdealStockAmount.class)))
         .thenAnswer(new SaveAnswer<IdealStockAmount>());
 
-    when(facilityRepository.findByCode(any(String.class))).thenReturn(Optional.of(facility));
-    when(periodRepository.findOneByNameAndProcessingSchedule(any(String.class),
-        any(ProcessingSchedule.class)))
-        .thenReturn(Optional.of(period));
-    when(scheduleRepository.findOneByCode(any(Code.class))).thenReturn(Optional.of(schedule));
-    when(commodityTypeRepository.findByClassificationIdAndClassificationSystem(any(String.class),
-        any(String.class))).thenReturn(Optional.of(commodityType));
+    when(facilityRepository.findAllByCodeIn(anyCollection()))
+        .thenReturn(singletonList(facility));
+    when(periodRepository.findAllByProcessingScheduleInAndNameIn(anyCollection(),
+        anyCollection()))
+        .thenReturn(singletonList(period));
+    when(scheduleRepository.findAllByCodes(anyCollection()))
+        .thenReturn(singletonList(schedule));
+    when(commodityTypeRepository.findAllByClassificationIdIn(anyCollection()))
+        .thenReturn(singletonList(commodityType));
 
     mockUserHasRight(RightName.SYSTEM_IDEAL_STOCK_AMOUNTS_MANAGE);
   }
@@ -32,6 +32,7 @@ import org.openlmis.referencedata.domain.GeographicZone;
 import org.openlmis.referencedata.fhir.FhirCoding;
 import org.openlmis.referencedata.fhir.FhirIdentifier;
 import org.openlmis.referencedata.fhir.Status;
+import org.openlmis.referencedata.service.GeographicZoneTree;
 import org.openlmis.referencedata.testbuilder.FacilityDataBuilder;
 import org.openlmis.referencedata.testbuilder.GeographicZoneDataBuilder;
 import org.openlmis.referencedata.testbuilder.ProgramDataBuilder;
@@ -55,8 +56,10 @@ public class LocationControllerIntegrationTest extends BaseWebIntegrationTest {
     GeographicZone zone = new GeographicZoneDataBuilder()
         .withParent(new GeographicZoneDataBuilder().build())
         .build();
-    given(geographicZoneRepository.findAll(pageable))
-        .willReturn(new PageImpl<>(ImmutableList.of(zone)));
+    given(geographicZoneTreeCache.getTree()).willReturn(GeographicZoneTree.of(ImmutableList.of(
+        new GeographicZoneTree.Node(zone.getId(), zone.getCode(), zone.getName(),
+            zone.getParent().getId(), zone.getLevel().getId(), zone.getLevel().getLevelNumber(),
+            zone.getLatitude(), zone.getLongitude()))));
 
     ValidatableResponse response = getLocations();
 
@@ -15,14 +15,14 @@
 
 package org.openlmis.referencedata.web;
 
-import static java.util.Collections.emptyList;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
@@ -36,38 +36,43 @@ import java.util.UUID;
 import org.junit.Before;
 import org.junit.Test;
 import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
-import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.service.OrderableFulfillCache.Projection;
 import org.openlmis.referencedata.testbuilder.FacilityTypeApprovedProductsDataBuilder;
-import org.openlmis.referencedata.testbuilder.OrderableDataBuilder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 
 public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegrationTest {
 
   private static final String CAN_BE_FULFILLED_BY_ME = ".canBeFulfilledByMe";
   private static final String CAN_FULFILL_FOR_ME_FIELD_NAME = ".canFulfillForMe";
+  private static final String VERSION = "3";
+  private static final long LAST_MODIFIED = 1_500_000_000_000L;
 
-  private Orderable orderable = new OrderableDataBuilder().build();
   private UUID facilityId = UUID.randomUUID();
   private UUID programId = UUID.randomUUID();
 
   private UUID tradeItemOrderableId = UUID.randomUUID();
   private UUID commodityTypeOrderableId = UUID.randomUUID();
 
+  private Map<UUID, OrderableFulfill> fulfills = new HashMap<>();
+
   @Override
   @Before
   public void setUp() {
     super.setUp();
-    given(orderableRepository.findAllLatest(any())).willReturn(getPage(orderable));
+
+    fulfills.put(tradeItemOrderableId, OrderableFulfill.ofTradeItem(commodityTypeOrderableId));
+    fulfills.put(commodityTypeOrderableId,
+        OrderableFulfill.ofCommodityType(tradeItemOrderableId));
+
+    given(orderableFulfillCache.getProjection())
+        .willReturn(new Projection(fulfills, VERSION, LAST_MODIFIED));
   }
 
   @Test
   public void shouldCreateResourceForTradeItem() {
-    orderable.setId(tradeItemOrderableId);
-    given(factory.createFor(eq(orderable), any(), any()))
-        .willReturn(OrderableFulfill.ofTradeItem(commodityTypeOrderableId));
-
     String canFulfillForMeField = tradeItemOrderableId + CAN_FULFILL_FOR_ME_FIELD_NAME;
     String canBeFulfilledByMeField = tradeItemOrderableId + CAN_BE_FULFILLED_BY_ME;
 
@@ -79,10 +84,6 @@ public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegratio
 
   @Test
   public void shouldCreateResourceForCommodityType() {
-    orderable.setId(commodityTypeOrderableId);
-    given(factory.createFor(eq(orderable), any(), any()))
-        .willReturn(OrderableFulfill.ofCommodityType(tradeItemOrderableId));
-
     String canBeFulfilledByMeField = commodityTypeOrderableId + CAN_BE_FULFILLED_BY_ME;
     String canFulfillForMeField = commodityTypeOrderableId + CAN_FULFILL_FOR_ME_FIELD_NAME;
 
@@ -94,20 +95,13 @@ public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegratio
 
   @Test
   public void shouldReturnEmptyListIfThereAreNoOrderables() {
-    given(orderableRepository.findAllLatest(any())).willReturn(new PageImpl<>(emptyList()));
+    fulfills.clear();
 
     doRequest(null).body("isEmpty()", is(true));
-    verifyZeroInteractions(factory);
   }
 
   @Test
   public void shouldCreateResourceBasingOnIds() {
-    orderable.setId(commodityTypeOrderableId);
-
-    given(orderableRepository.findAllLatestByIds(any(), any())).willReturn(getPage(orderable));
-    given(factory.createFor(eq(orderable), any(), any()))
-        .willReturn(OrderableFulfill.ofCommodityType(tradeItemOrderableId));
-
     String canFulfillForMeField = commodityTypeOrderableId + CAN_FULFILL_FOR_ME_FIELD_NAME;
 
     HashMap<String, Object> params = Maps.newHashMap();
@@ -115,22 +109,19 @@ public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegratio
 
     ValidatableResponse response = doRequest(params);
     response.body(canFulfillForMeField, hasItem(tradeItemOrderableId.toString()));
+    response.body(tradeItemOrderableId.toString(), is(nullValue()));
 
-    verify(orderableRepository, times(0)).findAllLatest(any());
+    verifyZeroInteractions(orderableRepository);
   }
 
   @Test
   public void shouldCreateResourceBasingOnFacilityIdAndProgramIdParams() {
-    orderable.setId(commodityTypeOrderableId);
     FacilityTypeApprovedProduct ftap = new FacilityTypeApprovedProductsDataBuilder()
         .withOrderableId(commodityTypeOrderableId).build();
 
     given(facilityTypeApprovedProductRepository
         .searchProducts(eq(facilityId), eq(programId), any(), any(), eq(true), any(), any(),any()))
         .willReturn(getPage(ftap));
-    given(orderableRepository.findAllLatestByIds(any(), any())).willReturn(getPage(orderable));
-    given(factory.createFor(eq(orderable), any(), any()))
-        .willReturn(OrderableFulfill.ofCommodityType(tradeItemOrderableId));
 
     String canFulfillForMeField = commodityTypeOrderableId + CAN_FULFILL_FOR_ME_FIELD_NAME;
 
@@ -140,12 +131,44 @@ public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegratio
 
     ValidatableResponse response = doRequest(params);
     response.body(canFulfillForMeField, hasItem(tradeItemOrderableId.toString()));
+    response.body(tradeItemOrderableId.toString(), is(nullValue()));
+    response.header(HttpHeaders.LAST_MODIFIED, is(nullValue()));
 
-    verify(orderableRepository, times(0)).findAllLatest(any());
+    verifyZeroInteractions(orderableRepository);
     verify(facilityTypeApprovedProductRepository)
         .searchProducts(eq(facilityId), eq(programId), any(), any(), eq(true), any(), any(), any());
   }
 
+  @Test
+  public void shouldReturnETagAndLastModifiedOfProjection() {
+    doRequest(null)
+        .header(HttpHeaders.ETAG, is('"' + VERSION + '"'))
+        .header(HttpHeaders.LAST_MODIFIED, is(notNullValue()));
+  }
+
+  @Test
+  public void shouldReturnNotModifiedIfETagMatches() {
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .header(HttpHeaders.IF_NONE_MATCH, '"' + VERSION + '"')
+        .when()
+        .get("/api/orderableFulfills")
+        .then()
+        .statusCode(HttpStatus.NOT_MODIFIED.value());
+  }
+
+  @Test
+  public void shouldReturnResourcesIfETagDoesNotMatch() {
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+        .when()
+        .get("/api/orderableFulfills")
+        .then()
+        .statusCode(HttpStatus.OK.value())
+        .header(HttpHeaders.ETAG, is('"' + VERSION + '"'));
+  }
+
   @SafeVarargs
   private final <T> Page<T> getPage(T... instance) {
     return new PageImpl<>(Lists.newArrayList(instance));
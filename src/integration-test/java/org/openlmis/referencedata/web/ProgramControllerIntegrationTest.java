@@ -97,8 +97,6 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
     mockUserHasRight(RightName.PROGRAMS_MANAGE);
 
     given(programRepository.findById(programId)).willReturn(Optional.of(program));
-    given(programRedisRepository.exists(programId)).willReturn(true);
-    given(programRedisRepository.findById(programId)).willReturn(program);
 
     restAssured
         .given()
@@ -110,7 +108,7 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
         .then()
         .statusCode(204);
 
-    verify(programRedisRepository, times(1)).delete(program);
+    verify(programRedisRepository, times(1)).evict(programId);
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
@@ -222,8 +220,6 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
 
     programDto.setDescription(DESCRIPTION);
     given(programRepository.findById(programId)).willReturn(Optional.of(program));
-    given(programRedisRepository.findById(programId)).willReturn(program);
-    given(programRedisRepository.exists(programId)).willReturn(true);
 
     Program response = restAssured
         .given()
@@ -239,7 +235,7 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
 
     assertEquals(program, response);
     assertEquals("OpenLMIS", response.getDescription());
-    verify(programRedisRepository, times(1)).delete(program);
+    verify(programRedisRepository, times(1)).evict(programId);
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
@@ -384,7 +380,6 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
 
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
     given(programRepository.existsById(programId)).willReturn(true);
-    given(programRedisRepository.exists(programId)).willReturn(false);
     given(programRepository.findById(programId)).willReturn(Optional.of(program));
 
     Program response = restAssured
@@ -429,7 +424,6 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
 
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
     given(programRepository.existsById(programId)).willReturn(true);
-    given(programRedisRepository.exists(programId)).willReturn(true);
     given(programRedisRepository.findById(programId)).willReturn(program);
 
     Program response = restAssured
@@ -452,7 +446,6 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
   public void shouldThrowErrorNotFoundWhenNeitherInDatabaseNorInCache() {
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
     given(supervisoryNodeRepository.existsById(programId)).willReturn(false);
-    given(supervisoryNodeDtoRedisRepository.exists(programId)).willReturn(false);
 
     restAssured
         .given()
@@ -31,7 +31,6 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -44,7 +43,6 @@ import static org.openlmis.referencedata.web.SupervisoryNodeSearchParams.PROGRAM
 import static org.openlmis.referencedata.web.SupervisoryNodeSearchParams.ZONE_ID;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import com.jayway.restassured.response.ValidatableResponse;
 import guru.nidi.ramltester.junit.RamlMatchers;
 import java.util.Collections;
@@ -186,9 +184,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
     mockUserHasRight(RightName.SUPERVISORY_NODES_MANAGE);
     given(supervisoryNodeRepository.findById(supervisoryNodeId))
         .willReturn(Optional.of(supervisoryNode));
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(true);
-    given(supervisoryNodeDtoRedisRepository.findById(supervisoryNodeId))
-        .willReturn(supervisoryNodeDto);
 
     restAssured
         .given()
@@ -201,7 +196,7 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
         .statusCode(204);
 
     verify(supervisoryNodeDtoRedisRepository, times(1))
-        .delete(supervisoryNodeDto);
+        .evict(supervisoryNodeId);
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
@@ -489,9 +484,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
     supervisoryNodeDto.setDescription(DESCRIPTION);
     given(supervisoryNodeRepository.findById(supervisoryNodeId))
         .willReturn(Optional.of(supervisoryNode));
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(true);
-    given(supervisoryNodeDtoRedisRepository.findById(supervisoryNodeId))
-        .willReturn(supervisoryNodeDto);
 
     ValidatableResponse response = restAssured
         .given()
@@ -506,7 +498,7 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
 
     assertResponseBody(response, is(supervisoryNodeDto.getId().toString()));
     verify(supervisoryNodeDtoRedisRepository,
-        times(1)).delete(supervisoryNodeDto);
+        times(1)).evict(supervisoryNodeId);
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
@@ -730,7 +722,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
 
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
     given(supervisoryNodeRepository.existsById(supervisoryNodeId)).willReturn(true);
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(false);
     given(supervisoryNodeRepository.findById(supervisoryNodeId))
         .willReturn(Optional.of(supervisoryNode));
 
@@ -753,7 +744,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
 
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
     given(supervisoryNodeRepository.existsById(supervisoryNodeId)).willReturn(true);
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(false);
     given(supervisoryNodeRepository.findById(supervisoryNodeId))
         .willReturn(Optional.of(supervisoryNode));
 
@@ -776,7 +766,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
   public void shouldGetSupervisoryNodeFromCache() {
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
     given(supervisoryNodeRepository.existsById(supervisoryNodeId)).willReturn(true);
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(true);
     given(supervisoryNodeDtoRedisRepository.findById(supervisoryNodeId))
         .willReturn(supervisoryNodeDto);
 
@@ -800,7 +789,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
   public void shouldThrowErrorNotFoundWhenNeitherInDatabaseNorInCache() {
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
     given(supervisoryNodeRepository.existsById(supervisoryNodeId)).willReturn(false);
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(false);
 
     restAssured
         .given()
@@ -1107,12 +1095,10 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
 
   @Test
   public void shouldReturnSupervisingFacilities() {
-    SupervisoryNode spy = spy(supervisoryNode);
-    given(spy.getAllSupervisedFacilities(program)).willReturn(Sets.newHashSet(facility));
-
-    given(supervisoryNodeRepository.findById(supervisoryNodeId))
-        .willReturn(Optional.of(spy));
-    given(programRepository.findById(programId)).willReturn(Optional.of(program));
+    given(supervisoryNodeRepository.existsById(supervisoryNodeId)).willReturn(true);
+    given(programRepository.existsById(programId)).willReturn(true);
+    given(facilityRepository.findSupervisedFacilities(eq(supervisoryNodeId), eq(programId),
+        any(Pageable.class))).willReturn(new PageImpl<>(Collections.singletonList(facility)));
     mockUserHasRight(RightName.SUPERVISORY_NODES_MANAGE);
 
     restAssured
@@ -1159,7 +1145,7 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
 
   @Test
   public void shouldThrowNotFoundErrorIfSupervisoryNodeDoesNotExistForGetSupervisingFacilities() {
-    given(supervisoryNodeRepository.findById(supervisoryNodeId)).willReturn(Optional.empty());
+    given(supervisoryNodeRepository.existsById(supervisoryNodeId)).willReturn(false);
     mockUserHasRight(RightName.SUPERVISORY_NODES_MANAGE);
 
     restAssured
@@ -1176,9 +1162,8 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
 
   @Test
   public void shouldThrowNotFoundErrorIfProgramDoesNotExistForGetSupervisingFacilities() {
-    given(supervisoryNodeRepository.findById(supervisoryNodeId))
-        .willReturn(Optional.of(supervisoryNode));
-    given(programRepository.findById(any(UUID.class))).willReturn(Optional.empty());
+    given(supervisoryNodeRepository.existsById(supervisoryNodeId)).willReturn(true);
+    given(programRepository.existsById(any(UUID.class))).willReturn(false);
     mockUserHasRight(RightName.SUPERVISORY_NODES_MANAGE);
 
     restAssured
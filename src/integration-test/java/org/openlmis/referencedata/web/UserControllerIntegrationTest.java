@@ -84,6 +84,7 @@ import org.openlmis.referencedata.exception.UnauthorizedException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.UserSearchParams;
 import org.openlmis.referencedata.service.PageDto;
+import org.openlmis.referencedata.service.UserPermissions;
 import org.openlmis.referencedata.testbuilder.FacilityDataBuilder;
 import org.openlmis.referencedata.testbuilder.GeographicZoneDataBuilder;
 import org.openlmis.referencedata.testbuilder.SupervisoryNodeDataBuilder;
@@ -1002,8 +1003,8 @@ public class UserControllerIntegrationTest extends BaseWebIntegrationTest {
 
     given(userRepository.existsById(userId)).willReturn(true);
     given(userRepository.findById(userId)).willReturn(Optional.of(user1));
-    given(rightAssignmentRepository.findByUser(userId))
-        .willReturn(Sets.newHashSet(ADMIN_RIGHT_NAME));
+    given(userPermissionCache.get(userId))
+        .willReturn(UserPermissions.of(Sets.newHashSet(ADMIN_RIGHT_NAME)));
 
     String[] response = getUsersPermissionStrings()
         .then()
@@ -1023,8 +1024,8 @@ public class UserControllerIntegrationTest extends BaseWebIntegrationTest {
 
     given(userRepository.existsById(userId)).willReturn(true);
     given(userRepository.findById(userId)).willReturn(Optional.of(user1));
-    given(rightAssignmentRepository.findByUser(userId))
-        .willReturn(Sets.newHashSet(ADMIN_RIGHT_NAME));
+    given(userPermissionCache.get(userId))
+        .willReturn(UserPermissions.of(Sets.newHashSet(ADMIN_RIGHT_NAME)));
 
     String[] response = getUsersPermissionStrings()
         .then()
@@ -1217,8 +1218,8 @@ public class UserControllerIntegrationTest extends BaseWebIntegrationTest {
     given(rightRepository.findById(supervisionRightId)).willReturn(Optional.of(supervisionRight));
     given(programRepository.existsById(program1Id)).willReturn(true);
     given(programRepository.existsById(program2Id)).willReturn(true);
-    given(rightAssignmentRepository.existsByUserIdAndAndRightNameAndFacilityIdAndProgramId(
-        userId, supervisionRight.getName(), homeFacilityId, program1Id)).willReturn(true);
+    given(userPermissionCache.get(userId)).willReturn(UserPermissions.of(Sets.newHashSet(
+        supervisionRight.getName() + "|" + homeFacilityId + "|" + program1Id)));
 
     return restAssured
         .given()
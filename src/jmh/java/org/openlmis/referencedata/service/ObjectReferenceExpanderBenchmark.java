@@ -0,0 +1,125 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openlmis.referencedata.domain.SupplyLine;
+import org.openlmis.referencedata.dto.SupplyLineObjectReferenceDto;
+import org.openlmis.referencedata.testbuilder.FacilityDataBuilder;
+import org.openlmis.referencedata.testbuilder.RequisitionGroupDataBuilder;
+import org.openlmis.referencedata.testbuilder.SupervisoryNodeDataBuilder;
+import org.openlmis.referencedata.testbuilder.SupplyLineDataBuilder;
+
+/**
+ * Compares expanding a page of supply lines with the cached expansion plans of
+ * {@link ObjectReferenceExpander} and with the reflection based expander it replaced. Run with
+ * {@code gradle jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectReferenceExpanderBenchmark {
+
+  private static final Set<String> EXPANDS = new HashSet<>(Arrays.asList(
+      "supervisoryNode.facility", "supervisoryNode.requisitionGroup.memberFacilities",
+      "supplyingFacility"));
+  private static final int MEMBER_FACILITIES = 10;
+
+  @Param({"10", "500"})
+  private int pageSize;
+
+  private List<SupplyLine> supplyLines;
+  private ObjectReferenceExpander expander;
+  private ReflectionObjectReferenceExpander reflectionExpander;
+
+  /**
+   * Builds the page of supply lines, each with a requisition group of a few member facilities.
+   */
+  @Setup
+  public void setUp() {
+    supplyLines = new ArrayList<>();
+
+    for (int i = 0; i < pageSize; ++i) {
+      RequisitionGroupDataBuilder requisitionGroup = new RequisitionGroupDataBuilder();
+
+      for (int j = 0; j < MEMBER_FACILITIES; ++j) {
+        requisitionGroup.withMemberFacility(new FacilityDataBuilder().build());
+      }
+
+      supplyLines.add(new SupplyLineDataBuilder()
+          .withSupervisoryNode(new SupervisoryNodeDataBuilder()
+              .withRequisitionGroup(requisitionGroup.build())
+              .build())
+          .build());
+    }
+
+    expander = new ObjectReferenceExpander();
+    reflectionExpander = new ReflectionObjectReferenceExpander();
+  }
+
+  /**
+   * Expands the page with the cached expansion plans.
+   */
+  @Benchmark
+  public List<SupplyLineObjectReferenceDto> expandWithPlans() {
+    List<SupplyLineObjectReferenceDto> dtos = new ArrayList<>(supplyLines.size());
+
+    for (SupplyLine supplyLine : supplyLines) {
+      SupplyLineObjectReferenceDto dto = new SupplyLineObjectReferenceDto();
+      supplyLine.export(dto);
+      expander.expandDto(dto, supplyLine, EXPANDS);
+      dtos.add(dto);
+    }
+
+    return dtos;
+  }
+
+  /**
+   * Expands the page with the reflection based expander.
+   */
+  @Benchmark
+  public List<SupplyLineObjectReferenceDto> expandWithReflection() {
+    List<SupplyLineObjectReferenceDto> dtos = new ArrayList<>(supplyLines.size());
+
+    for (SupplyLine supplyLine : supplyLines) {
+      SupplyLineObjectReferenceDto dto = new SupplyLineObjectReferenceDto();
+      supplyLine.export(dto);
+      reflectionExpander.expandDto(dto, supplyLine, EXPANDS);
+      dtos.add(dto);
+    }
+
+    return dtos;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata;
+
+import org.openlmis.referencedata.service.export.DataImportJobService;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * DataImportJobInitializer runs after its associated Spring application has loaded. It marks the
+ * data import jobs that were interrupted by the previous shutdown as failed, so that clients
+ * polling them do not wait forever.
+ */
+@Component
+@Order(30)
+public class DataImportJobInitializer implements CommandLineRunner {
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(
+      DataImportJobInitializer.class);
+
+  @Autowired
+  private DataImportJobService dataImportJobService;
+
+  /**
+   * Fails the interrupted data import jobs.
+   * @param args command line arguments
+   */
+  public void run(String... args) {
+    XLOGGER.entry();
+    dataImportJobService.failInterruptedJobs();
+    XLOGGER.exit();
+  }
+}
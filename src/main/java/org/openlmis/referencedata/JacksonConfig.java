@@ -16,8 +16,13 @@
 package org.openlmis.referencedata;
 
 import com.bedatadriven.jackson.datatype.jts.JtsModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 @Configuration
 public class JacksonConfig {
@@ -26,4 +31,26 @@ public class JacksonConfig {
   JtsModule jtsModule() {
     return new JtsModule();
   }
+
+  /**
+   * Serves Smile (application/x-jackson-smile) to clients asking for it. Replaces the default
+   * Smile converter, so the mapper has the same modules and features as the JSON one.
+   */
+  @Bean
+  MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(
+        builder.createXmlMapper(false).factory(new SmileFactory()).build());
+  }
+
+  /**
+   * Serves CBOR (application/cbor) to clients asking for it. Replaces the default CBOR
+   * converter, so the mapper has the same modules and features as the JSON one.
+   */
+  @Bean
+  MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(
+        builder.createXmlMapper(false).factory(new CBORFactory()).build());
+  }
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.domain;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Embeddable;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.OrderColumn;
+import javax.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+
+/**
+ * State of a data import that is processed in the background. Created when the archive is
+ * uploaded and updated by the worker as the import progresses, so that clients can poll it.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "data_import_jobs")
+public class DataImportJob extends BaseEntity {
+
+  private static final String TEXT = "text";
+
+  @Column(columnDefinition = TEXT)
+  private String fileName;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  private Status status;
+
+  @Column(nullable = false)
+  private int processedRows;
+
+  private Integer importedRecords;
+
+  @Column(nullable = false)
+  private ZonedDateTime createdDate;
+
+  private ZonedDateTime startDate;
+
+  private ZonedDateTime finishDate;
+
+  @ElementCollection(fetch = FetchType.EAGER)
+  @CollectionTable(
+      name = "data_import_job_errors",
+      joinColumns = @JoinColumn(name = "jobid"))
+  @Column(name = "error", nullable = false, columnDefinition = TEXT)
+  private List<String> errors = new ArrayList<>();
+
+  // fetched by a separate select, as joining it with the errors would repeat them
+  @ElementCollection(fetch = FetchType.EAGER)
+  @Fetch(FetchMode.SELECT)
+  @CollectionTable(
+      name = "data_import_job_row_errors",
+      joinColumns = @JoinColumn(name = "jobid"))
+  @OrderColumn(name = "rowerrorindex")
+  private List<RowError> rowErrors = new ArrayList<>();
+
+  /**
+   * Creates a new, queued import job of the given archive.
+   *
+   * @param fileName name of the uploaded archive.
+   * @return new instance of import job.
+   */
+  public static DataImportJob newInstance(String fileName) {
+    DataImportJob job = new DataImportJob();
+    job.fileName = fileName;
+    job.status = Status.QUEUED;
+    job.createdDate = ZonedDateTime.now();
+    return job;
+  }
+
+  /**
+   * Marks the job as picked up by a worker.
+   */
+  public void start() {
+    status = Status.IN_PROGRESS;
+    startDate = ZonedDateTime.now();
+  }
+
+  /**
+   * Adds the given number of rows to the rows processed so far.
+   */
+  public void addProcessedRows(int rows) {
+    processedRows += rows;
+  }
+
+  /**
+   * Marks the job as successfully finished.
+   *
+   * @param importedRecords number of records created or updated by the import.
+   */
+  public void complete(int importedRecords) {
+    this.importedRecords = importedRecords;
+    finish(Status.COMPLETED);
+  }
+
+  /**
+   * Marks the job as failed. As the import is atomic, nothing from the archive is persisted.
+   *
+   * @param error reason of the failure.
+   */
+  public void fail(String error) {
+    errors.add(error);
+    finish(Status.FAILED);
+  }
+
+  /**
+   * Marks the job as failed because of invalid rows. As the import is atomic, nothing from the
+   * archive is persisted.
+   *
+   * @param error reason of the failure.
+   * @param rowErrors the invalid rows, in the order they were found.
+   */
+  public void fail(String error, List<RowError> rowErrors) {
+    this.rowErrors.addAll(rowErrors);
+    fail(error);
+  }
+
+  private void finish(Status finalStatus) {
+    status = finalStatus;
+    finishDate = ZonedDateTime.now();
+  }
+
+  /**
+   * Exports current state of import job object.
+   *
+   * @param exporter instance of {@link Exporter}
+   */
+  public void export(Exporter exporter) {
+    exporter.setId(id);
+    exporter.setFileName(fileName);
+    exporter.setStatus(status);
+    exporter.setProcessedRows(processedRows);
+    exporter.setImportedRecords(importedRecords);
+    exporter.setCreatedDate(createdDate);
+    exporter.setStartDate(startDate);
+    exporter.setFinishDate(finishDate);
+    exporter.setErrors(new ArrayList<>(errors));
+    exporter.setRowErrors(new ArrayList<>(rowErrors));
+  }
+
+  public enum Status {
+    QUEUED, IN_PROGRESS, COMPLETED, FAILED
+  }
+
+  /**
+   * An invalid row of one of the imported files. The row number does not count the header; it is
+   * empty if the error could not be tied to a single row.
+   */
+  @Embeddable
+  @Getter
+  @EqualsAndHashCode
+  @NoArgsConstructor(access = AccessLevel.PROTECTED)
+  @AllArgsConstructor
+  public static class RowError {
+
+    @Column(nullable = false, columnDefinition = TEXT)
+    private String fileName;
+
+    private Integer rowNumber;
+
+    @Column(nullable = false, columnDefinition = TEXT)
+    private String error;
+
+  }
+
+  public interface Exporter extends BaseExporter {
+
+    void setFileName(String fileName);
+
+    void setStatus(Status status);
+
+    void setProcessedRows(int processedRows);
+
+    void setImportedRecords(Integer importedRecords);
+
+    void setCreatedDate(ZonedDateTime createdDate);
+
+    void setStartDate(ZonedDateTime startDate);
+
+    void setFinishDate(ZonedDateTime finishDate);
+
+    void setErrors(List<String> errors);
+
+    void setRowErrors(List<RowError> rowErrors);
+  }
+
+}
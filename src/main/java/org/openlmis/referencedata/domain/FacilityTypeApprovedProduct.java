@@ -34,6 +34,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.javers.core.metamodel.annotation.DiffIgnore;
 import org.javers.core.metamodel.annotation.TypeName;
 import org.openlmis.referencedata.domain.BaseEntity.BaseExporter;
 import org.openlmis.referencedata.domain.BaseEntity.BaseImporter;
@@ -46,7 +47,7 @@ import org.openlmis.referencedata.domain.VersionIdentity.VersionImporter;
         columnNames = {"orderableId", "programId", "facilityTypeId"}))
 @NoArgsConstructor
 @AllArgsConstructor
-@EqualsAndHashCode
+@EqualsAndHashCode(exclude = "latest")
 @TypeName("FacilityTypeApprovedProduct")
 @ToString
 public class FacilityTypeApprovedProduct implements Versionable {
@@ -93,6 +94,15 @@ public class FacilityTypeApprovedProduct implements Versionable {
   @Setter
   private ZonedDateTime lastUpdated;
 
+  /**
+   * Whether this is the newest version of the approved product. The flag is maintained by
+   * a database trigger, so it is never written from the application.
+   */
+  @Column(insertable = false, updatable = false)
+  @DiffIgnore
+  @Getter
+  private boolean latest;
+
   /**
    * A minimal constructor with only required fields.
    *
@@ -0,0 +1,72 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.domain;
+
+import java.io.Serializable;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+import org.hibernate.annotations.Type;
+
+/**
+ * A single ancestor-descendant link of the geographic zone tree, including the link of every
+ * zone to itself at depth 0. The table is maintained by database triggers on geographic zones,
+ * so the entity is read-only and is used to query whole subtrees at once. Queries on it flush
+ * pending geographic zone changes first, so that the triggers had a chance to run.
+ */
+@Entity
+@Immutable
+@Synchronize("referencedata.geographic_zones")
+@Table(name = "geographic_zone_hierarchy")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class GeographicZoneHierarchy {
+
+  @EmbeddedId
+  private Link link;
+
+  @Column(nullable = false)
+  private int depth;
+
+  @Embeddable
+  @Getter
+  @EqualsAndHashCode
+  @NoArgsConstructor(access = AccessLevel.PROTECTED)
+  @AllArgsConstructor
+  public static class Link implements Serializable {
+
+    @Type(type = BaseEntity.UUID_TYPE)
+    @Column(nullable = false)
+    private UUID ancestorId;
+
+    @Type(type = BaseEntity.UUID_TYPE)
+    @Column(nullable = false)
+    private UUID descendantId;
+
+  }
+
+}
@@ -221,6 +221,15 @@ public class Orderable implements Versionable {
   @Setter
   private ZonedDateTime lastUpdated;
 
+  /**
+   * Whether this is the newest version of the orderable. The flag is maintained by a database
+   * trigger, so it is never written from the application.
+   */
+  @Column(insertable = false, updatable = false)
+  @DiffIgnore
+  @Getter
+  private boolean latest;
+
   @Getter
   @Setter
   @Embedded
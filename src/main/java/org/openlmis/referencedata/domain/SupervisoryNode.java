@@ -270,10 +270,18 @@ public class SupervisoryNode extends BaseEntity {
   }
 
   /**
-   * Check to see if this supervisory node supervises the specified facility, by program.
+   * Check to see if this supervisory node supervises the specified facility, by program. The
+   * search stops at the first requisition group that has the facility as a supported member.
    */
   public boolean supervises(Facility facility, Program program) {
-    return getAllSupervisedFacilities(program).contains(facility);
+    if (requisitionGroup != null && (null == program || requisitionGroup.supports(program))
+        && requisitionGroup.getMemberFacilities().stream().anyMatch(member ->
+            member.equals(facility) && (null == program || member.supports(program)))) {
+      return true;
+    }
+
+    return childNodes != null
+        && childNodes.stream().anyMatch(childNode -> childNode.supervises(facility, program));
   }
 
   /**
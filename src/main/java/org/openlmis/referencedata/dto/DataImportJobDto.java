@@ -0,0 +1,57 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.dto;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.openlmis.referencedata.domain.DataImportJob;
+import org.openlmis.referencedata.domain.DataImportJob.RowError;
+import org.openlmis.referencedata.domain.DataImportJob.Status;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public final class DataImportJobDto extends BaseDto implements DataImportJob.Exporter {
+
+  private String fileName;
+  private Status status;
+  private int processedRows;
+  private Integer importedRecords;
+  private ZonedDateTime createdDate;
+  private ZonedDateTime startDate;
+  private ZonedDateTime finishDate;
+  private List<String> errors;
+  private List<RowError> rowErrors;
+
+  /**
+   * Creates new instance based on domain object.
+   */
+  public static DataImportJobDto newInstance(DataImportJob job) {
+    DataImportJobDto dto = new DataImportJobDto();
+    job.export(dto);
+
+    return dto;
+  }
+
+}
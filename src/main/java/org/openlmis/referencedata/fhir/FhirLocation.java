@@ -30,6 +30,7 @@ import lombok.Getter;
 import lombok.ToString;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.GeographicZone;
+import org.openlmis.referencedata.service.GeographicZoneTree;
 import org.openlmis.referencedata.web.FacilityOperatorController;
 import org.openlmis.referencedata.web.FacilityTypeController;
 import org.openlmis.referencedata.web.GeographicLevelController;
@@ -64,12 +65,26 @@ public final class FhirLocation extends FhirResource {
    * Creates new instance of FHIR Location based on data from {@link GeographicZone}.
    */
   static FhirLocation newInstance(String serviceUrl, GeographicZone zone) {
+    UUID parentId = Optional
+        .ofNullable(zone.getParent())
+        .map(GeographicZone::getId)
+        .orElse(null);
+
+    return newInstance(serviceUrl, new GeographicZoneTree.Node(zone.getId(), zone.getCode(),
+        zone.getName(), parentId, zone.getLevel().getId(), zone.getLevel().getLevelNumber(),
+        zone.getLatitude(), zone.getLongitude()));
+  }
+
+  /**
+   * Creates new instance of FHIR Location based on a zone of the {@link GeographicZoneTree}.
+   */
+  static FhirLocation newInstance(String serviceUrl, GeographicZoneTree.Node zone) {
     FhirLocation fhirLocation = new FhirLocation(zone.getId());
 
     // mandatory
     fhirLocation.addAlias(zone.getCode());
     fhirLocation.addIdentifier(
-        serviceUrl, GeographicLevelController.RESOURCE_PATH, zone.getLevel().getId());
+        serviceUrl, GeographicLevelController.RESOURCE_PATH, zone.getLevelId());
     fhirLocation.physicalType = new FhirPhysicalType(AREA);
 
     // optional
@@ -77,10 +92,10 @@ public final class FhirLocation extends FhirResource {
         .ofNullable(zone.getName())
         .ifPresent(name -> fhirLocation.name = name);
     Optional
-        .ofNullable(zone.getParent())
-        .ifPresent(parent ->
+        .ofNullable(zone.getParentId())
+        .ifPresent(parentId ->
             fhirLocation.partOf =
-                new FhirReference(serviceUrl, LocationController.RESOURCE_PATH, parent.getId()));
+                new FhirReference(serviceUrl, LocationController.RESOURCE_PATH, parentId));
 
     if (null != zone.getLatitude() && null != zone.getLongitude()) {
       fhirLocation.position = new FhirPosition(zone.getLongitude(), zone.getLatitude());
@@ -17,6 +17,7 @@ package org.openlmis.referencedata.fhir;
 
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.GeographicZone;
+import org.openlmis.referencedata.service.GeographicZoneTree;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -30,6 +31,10 @@ public class LocationFactory {
     return FhirLocation.newInstance(serviceUrl, zone);
   }
 
+  public FhirLocation createFor(GeographicZoneTree.Node zone) {
+    return FhirLocation.newInstance(serviceUrl, zone);
+  }
+
   public FhirLocation createFor(Facility facility) {
     return FhirLocation.newInstance(serviceUrl, facility);
   }
@@ -15,6 +15,8 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.CommodityType;
@@ -30,6 +32,8 @@ public interface CommodityTypeRepository
   Optional<CommodityType> findByClassificationIdAndClassificationSystem(
       String classificationId, String classificationSystem);
 
+  List<CommodityType> findAllByClassificationIdIn(Collection<String> classificationIds);
+
   @Query(value = "SELECT\n"
       + "    ct.*\n"
       + "FROM\n"
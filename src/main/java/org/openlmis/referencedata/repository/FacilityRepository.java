@@ -15,7 +15,10 @@
 
 package org.openlmis.referencedata.repository;
 
+import static org.openlmis.referencedata.repository.RepositoryConstants.SELECT_SUPERVISED_FACILITY_IDS;
+
 import com.vividsolutions.jts.geom.Polygon;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -35,7 +38,10 @@ public interface FacilityRepository
 
   @Query(value = "SELECT f.*"
       + " FROM referencedata.facilities f"
-      + " WHERE ST_Covers(:boundary, f.location)",
+      + " WHERE f.id IN ("
+      + "SELECT pf.id"
+      + " FROM ST_Subdivide(:boundary, 256) AS part"
+      + " JOIN referencedata.facilities pf ON ST_Covers(part, pf.location))",
       nativeQuery = true
   )
   List<Facility> findByBoundary(@Param("boundary") Polygon boundary);
@@ -44,6 +50,8 @@ public interface FacilityRepository
 
   Optional<Facility> findByCode(String code);
 
+  List<Facility> findAllByCodeIn(Collection<String> codes);
+
   @Query(name = "Facility.findSupervisionFacilitiesByUser",
       nativeQuery = true)
   Set<NamedResource> findSupervisionFacilitiesByUser(@Param("userId") UUID userId);
@@ -52,6 +60,24 @@ public interface FacilityRepository
 
   Page<Facility> findByActive(Boolean active, Pageable pageable);
 
+  @Query(value = "SELECT f.*"
+      + " FROM referencedata.facilities f"
+      + " WHERE f.id IN (" + SELECT_SUPERVISED_FACILITY_IDS + " AND sf.programid IS NULL)",
+      countQuery = "SELECT COUNT(*) FROM (" + SELECT_SUPERVISED_FACILITY_IDS
+          + " AND sf.programid IS NULL) AS ids",
+      nativeQuery = true)
+  Page<Facility> findSupervisedFacilities(@Param("supervisoryNodeId") UUID supervisoryNodeId,
+      Pageable pageable);
+
+  @Query(value = "SELECT f.*"
+      + " FROM referencedata.facilities f"
+      + " WHERE f.id IN (" + SELECT_SUPERVISED_FACILITY_IDS + " AND sf.programid = :programId)",
+      countQuery = "SELECT COUNT(*) FROM (" + SELECT_SUPERVISED_FACILITY_IDS
+          + " AND sf.programid = :programId) AS ids",
+      nativeQuery = true)
+  Page<Facility> findSupervisedFacilities(@Param("supervisoryNodeId") UUID supervisoryNodeId,
+      @Param("programId") UUID programId, Pageable pageable);
+
   @Query(value = "SELECT\n"
       + "    f.*\n"
       + "FROM\n"
@@ -37,13 +37,24 @@ public interface GeographicZoneRepository extends PagingAndSortingRepository<Geo
   @Query(name = "GeographicZone.findIdsByParent")
   Set<UUID> findIdsByParent(@Param("parentId") UUID parentId);
 
+  /**
+   * Returns id, code, name, parent id, level id, level number, latitude and longitude of every
+   * zone, ordered by code, which is all that is needed to build the in-memory zone tree.
+   */
+  @Query("SELECT z.id, z.code, z.name, p.id, l.id, l.levelNumber, z.latitude, z.longitude"
+      + " FROM GeographicZone z LEFT JOIN z.parent p JOIN z.level l ORDER BY z.code")
+  List<Object[]> findAllTreeNodes();
+
   List<GeographicZone> findByLevel(GeographicLevel level);
 
   <S extends GeographicZone> S findByCode(String code);
 
   @Query(value = "SELECT gz.*"
       + " FROM referencedata.geographic_zones gz"
-      + " WHERE ST_Covers(gz.boundary, :location)",
+      + " WHERE gz.id IN ("
+      + "SELECT p.zoneid"
+      + " FROM referencedata.geographic_zone_boundary_parts p"
+      + " WHERE ST_Covers(p.part, :location))",
       nativeQuery = true
   )
   List<GeographicZone> findByLocation(@Param("location") Point location);
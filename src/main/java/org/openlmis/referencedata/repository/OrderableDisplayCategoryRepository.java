@@ -15,6 +15,8 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.OrderableDisplayCategory;
@@ -22,6 +24,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface OrderableDisplayCategoryRepository extends
         PagingAndSortingRepository<OrderableDisplayCategory, UUID>,
@@ -29,6 +32,9 @@ public interface OrderableDisplayCategoryRepository extends
 
   OrderableDisplayCategory findByCode(Code code);
 
+  @Query("SELECT odc FROM OrderableDisplayCategory odc WHERE odc.code.code IN :codes")
+  List<OrderableDisplayCategory> findAllByCodes(@Param("codes") Collection<String> codes);
+
   @Query(value = "SELECT\n"
       + "    odc.*\n"
       + "FROM\n"
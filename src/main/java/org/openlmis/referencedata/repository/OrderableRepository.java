@@ -16,20 +16,22 @@
 package org.openlmis.referencedata.repository;
 
 import static org.openlmis.referencedata.repository.RepositoryConstants.FROM_ORDERABLES_CLAUSE;
+import static org.openlmis.referencedata.repository.RepositoryConstants.FROM_ORDERABLES_LAST_MODIFIED_CLAUSE;
 import static org.openlmis.referencedata.repository.RepositoryConstants.FROM_REFERENCEDATA_ORDERABLES_CLAUSE;
-import static org.openlmis.referencedata.repository.RepositoryConstants.JOIN_WITH_LATEST_ORDERABLE;
-import static org.openlmis.referencedata.repository.RepositoryConstants.ORDER_BY_LAST_UPDATED_DESC_LIMIT_1;
+import static org.openlmis.referencedata.repository.RepositoryConstants.NATIVE_WHERE_LATEST_ORDERABLE;
 import static org.openlmis.referencedata.repository.RepositoryConstants.ORDER_BY_PAGEABLE;
 import static org.openlmis.referencedata.repository.RepositoryConstants.SELECT_DISTINCT_ORDERABLE;
-import static org.openlmis.referencedata.repository.RepositoryConstants.SELECT_LAST_UPDATED;
+import static org.openlmis.referencedata.repository.RepositoryConstants.SELECT_MAX_LAST_MODIFIED;
 import static org.openlmis.referencedata.repository.RepositoryConstants.SELECT_ORDERABLE;
 import static org.openlmis.referencedata.repository.RepositoryConstants.WHERE_LATEST_ORDERABLE;
 import static org.openlmis.referencedata.repository.RepositoryConstants.WHERE_VERSIONNUMBER_AND_CODE_IGNORE_CASE;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 import javax.persistence.QueryHint;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Orderable;
@@ -116,10 +118,30 @@ public interface OrderableRepository extends
   )
   List<Orderable> findAllLatestByIdentifier(@Param("key") String key, @Param("value") String value);
 
+  /**
+   * Finds identifiers with the given keys of all latest orderables. Each row holds the orderable
+   * ID, the identifier key, the identifier value and the dispensable of the orderable.
+   */
+  @Query(value = "SELECT o.identity.id, KEY(oi), VALUE(oi), d"
+          + FROM_ORDERABLES_CLAUSE
+          + " JOIN o.identifiers oi"
+          + " JOIN o.dispensable d"
+          + WHERE_LATEST_ORDERABLE
+          + " AND KEY(oi) IN :keys"
+  )
+  List<Object[]> findAllLatestIdentifiers(@Param("keys") Collection<String> keys);
+
   Orderable findFirstByIdentityIdOrderByIdentityVersionNumberDesc(UUID id);
 
   Orderable findFirstByProductCodeOrderByIdentityVersionNumberDesc(Code code);
 
+  @Query(SELECT_ORDERABLE
+          + FROM_ORDERABLES_CLAUSE
+          + WHERE_LATEST_ORDERABLE
+          + " AND o.productCode.code IN :codes"
+  )
+  List<Orderable> findAllLatestByProductCodes(@Param("codes") Collection<String> codes);
+
   Orderable findByIdentityIdAndIdentityVersionNumber(UUID id, Long versionNumber);
 
   @Query(value = SELECT_ORDERABLE
@@ -148,19 +170,51 @@ public interface OrderableRepository extends
           nativeQuery = true)
   Page<Orderable> findAllWithoutSnapshots(Pageable pageable);
 
-  @Query(value = SELECT_LAST_UPDATED
-          + FROM_REFERENCEDATA_ORDERABLES_CLAUSE
-          + JOIN_WITH_LATEST_ORDERABLE
-          + ORDER_BY_LAST_UPDATED_DESC_LIMIT_1,
+  /**
+   * Streams all versions of all orderables. The stream must be consumed inside a transaction
+   * and closed.
+   */
+  @QueryHints(value = {
+      @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+      @QueryHint(name = "org.hibernate.readOnly", value = "true")
+  })
+  @Query(SELECT_ORDERABLE + FROM_ORDERABLES_CLAUSE)
+  Stream<Orderable> streamAll();
+
+  /**
+   * Returns the last modification date of all orderables. Orderable versions and the program
+   * watermarks are stamped by database triggers with the database clock. The latest orderable
+   * date is read from an index and there is one watermark per program, so the orderables are
+   * not scanned.
+   */
+  @Query(value = "SELECT GREATEST("
+          + "(" + SELECT_MAX_LAST_MODIFIED + FROM_REFERENCEDATA_ORDERABLES_CLAUSE + "),"
+          + " (SELECT MAX(w.lastmodified)" + FROM_ORDERABLES_LAST_MODIFIED_CLAUSE + "))",
           nativeQuery = true
   )
   Timestamp findLatestModifiedDateOfAll();
 
-  @Query(value = SELECT_LAST_UPDATED
+  /**
+   * Returns the last modification date of orderables from the given programs. The codes must be
+   * lower case. Like {@link #findLatestModifiedDateOfAll()}, it reads the maintained value.
+   */
+  @Query(value = "SELECT MAX(w.lastmodified)"
+          + FROM_ORDERABLES_LAST_MODIFIED_CLAUSE
+          + " JOIN referencedata.programs p ON p.id = w.programid"
+          + " WHERE LOWER(p.code) IN :programCodes",
+          nativeQuery = true
+  )
+  Timestamp findLatestModifiedDateByProgramCodes(
+      @Param("programCodes") Iterable<String> programCodes);
+
+  /**
+   * Returns the last modification date of the latest versions of the given orderables, stamped
+   * with the same database clock as {@link #findLatestModifiedDateOfAll()}.
+   */
+  @Query(value = SELECT_MAX_LAST_MODIFIED
           + FROM_REFERENCEDATA_ORDERABLES_CLAUSE
-          + JOIN_WITH_LATEST_ORDERABLE
-          + " WHERE o.id IN :ids"
-          + ORDER_BY_LAST_UPDATED_DESC_LIMIT_1,
+          + NATIVE_WHERE_LATEST_ORDERABLE
+          + " AND o.id IN :ids",
           nativeQuery = true
   )
   Timestamp findLatestModifiedDateByIds(@Param("ids") Iterable<UUID> ids);
@@ -15,6 +15,8 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.Code;
@@ -23,12 +25,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ProcessingScheduleRepository
       extends JpaRepository<ProcessingSchedule, UUID>,
       BaseAuditableRepository<ProcessingSchedule, UUID> {
   Optional<ProcessingSchedule> findOneByCode(Code code);
 
+  @Query("SELECT ps FROM ProcessingSchedule ps WHERE ps.code.code IN :codes")
+  List<ProcessingSchedule> findAllByCodes(@Param("codes") Collection<String> codes);
+
   @Query(value = "SELECT\n"
       + "    ps.*\n"
       + "FROM\n"
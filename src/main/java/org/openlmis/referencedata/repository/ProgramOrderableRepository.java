@@ -15,10 +15,15 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.openlmis.referencedata.domain.ProgramOrderable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -38,4 +43,36 @@ public interface ProgramOrderableRepository extends JpaRepository<ProgramOrderab
       @Param("orderable_code") String orderableCode,
       @Param("category_code") String categoryCode);
 
+  /**
+   * For each program, orderable and category codes combination of the given orderables returns
+   * the id of the program orderable {@link #findByProgramCodeOrderableCodeCategoryCode} would
+   * return, followed by the three codes.
+   */
+  @Query(value = "SELECT DISTINCT ON (p.code, o.code, odc.code)\n"
+      + "CAST(po.id AS varchar), p.code, o.code, odc.code\n"
+      + "FROM referencedata.program_orderables po\n"
+      + "JOIN referencedata.orderables o ON o.id = po.orderableid \n"
+      + "JOIN referencedata.orderable_display_categories odc "
+      + "ON odc.id = po.orderabledisplaycategoryid \n"
+      + "JOIN referencedata.programs p ON p.id = po.programid \n"
+      + "WHERE o.code IN (:orderable_codes)\n"
+      + "ORDER BY p.code, o.code, odc.code, po.orderableversionnumber, po.active DESC",
+      nativeQuery = true)
+  List<Object[]> findIdsByOrderableCodes(
+      @Param("orderable_codes") Collection<String> orderableCodes);
+
+  /**
+   * Streams all program orderables with the program, the orderable and the category fetched in
+   * the same query. The stream must be consumed inside a transaction and closed.
+   */
+  @QueryHints(value = {
+      @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+      @QueryHint(name = "org.hibernate.readOnly", value = "true")
+  })
+  @Query("SELECT po FROM ProgramOrderable po"
+      + " JOIN FETCH po.program"
+      + " JOIN FETCH po.product"
+      + " JOIN FETCH po.orderableDisplayCategory")
+  Stream<ProgramOrderable> streamAll();
+
 }
@@ -38,6 +38,9 @@ public interface ProgramRepository
 
   <S extends Program> S findByCode(Code code);
 
+  @Query("SELECT p FROM Program p WHERE p.code.code IN :codes")
+  List<Program> findAllByCodes(@Param("codes") Collection<String> codes);
+
   @Query(value = "SELECT DISTINCT p.*"
       + " FROM referencedata.programs p"
       + "   JOIN referencedata.right_assignments ra ON ra.programid = p.id"
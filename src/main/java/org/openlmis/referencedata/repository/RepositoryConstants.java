@@ -19,19 +19,19 @@ class RepositoryConstants {
 
   static final String FROM_ORDERABLES_CLAUSE = " FROM Orderable o";
   static final String FROM_REFERENCEDATA_ORDERABLES_CLAUSE = " FROM referencedata.orderables o";
-  static final String WHERE_LATEST_ORDERABLE = " WHERE (o.identity.id, o.identity.versionNumber)"
-      + " IN (SELECT identity.id, MAX(identity.versionNumber)"
-      + " FROM Orderable GROUP BY identity.id)";
-  static final String JOIN_WITH_LATEST_ORDERABLE = " JOIN (SELECT id, MAX(versionNumber)"
-          + " AS versionNumber FROM referencedata.orderables GROUP BY id) AS latest"
-          + " ON o.id = latest.id AND o.versionNumber = latest.versionNumber";
+  static final String WHERE_LATEST_ORDERABLE = " WHERE o.latest = true";
+  static final String NATIVE_WHERE_LATEST_ORDERABLE = " WHERE o.latest = TRUE";
   static final String ORDER_BY_PAGEABLE = " ";
   static final String SELECT_ORDERABLE = "Select o";
   static final String SELECT_DISTINCT_ORDERABLE = "Select DISTINCT o";
-  static final String SELECT_LAST_UPDATED = "SELECT o.lastupdated";
-  static final String ORDER_BY_LAST_UPDATED_DESC_LIMIT_1 = " ORDER BY o.lastupdated DESC LIMIT 1";
+  static final String SELECT_MAX_LAST_MODIFIED = "SELECT MAX(o.lastmodified)";
+  static final String FROM_ORDERABLES_LAST_MODIFIED_CLAUSE =
+      " FROM referencedata.orderables_last_modified w";
   static final String WHERE_VERSIONNUMBER_AND_CODE_IGNORE_CASE =
       " WHERE LOWER(o.productCode) = LOWER(:code) AND o.identity.versionNumber = :versionNumber";
+  static final String SELECT_SUPERVISED_FACILITY_IDS = "SELECT sf.facilityid"
+      + " FROM referencedata.supervised_facilities sf"
+      + " WHERE sf.supervisorynodeid = :supervisoryNodeId";
 
   private RepositoryConstants() {}
 }
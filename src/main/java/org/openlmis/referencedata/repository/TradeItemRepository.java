@@ -50,4 +50,7 @@ public interface TradeItemRepository
   @Query(nativeQuery = true)
   List<TradeItemCsvModel> findAllTradeItemCsvModels();
 
+  @Query("SELECT DISTINCT t FROM TradeItem t LEFT JOIN FETCH t.classifications")
+  List<TradeItem> findAllWithClassifications();
+
 }
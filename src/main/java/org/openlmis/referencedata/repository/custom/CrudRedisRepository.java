@@ -26,4 +26,6 @@ public interface CrudRedisRepository<T> {
   void save(T object);
 
   void delete(T object);
+
+  void evict(UUID uuid);
 }
@@ -35,5 +35,18 @@ public interface FacilityRepositoryCustom {
     String getFacilityTypeCode();
 
     Set<UUID> getIds();
+
+    /**
+     * Returns the zone of facilities. Used only with {@link #isRecurse()} and when no zone ids
+     * are passed to the search, to search in the whole hierarchy of the zone; other zone
+     * restrictions are passed to the search directly.
+     */
+    default UUID getZoneId() {
+      return null;
+    }
+
+    default Boolean isRecurse() {
+      return false;
+    }
   }
 }
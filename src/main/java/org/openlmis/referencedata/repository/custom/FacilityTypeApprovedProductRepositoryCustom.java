@@ -15,11 +15,16 @@
 
 package org.openlmis.referencedata.repository.custom;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
+import org.openlmis.referencedata.util.ContinuationToken;
+import org.openlmis.referencedata.util.KeysetPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -37,6 +42,24 @@ public interface FacilityTypeApprovedProductRepositoryCustom {
 
   Page<FacilityTypeApprovedProduct> searchProducts(SearchParams searchParams, Pageable pageable);
 
+  Map<UUID, List<FacilityTypeApprovedProduct>> searchProductsByFacilities(
+      Collection<UUID> facilityIds,
+      UUID program,
+      Boolean fullSupply,
+      Boolean active);
+
+  Stream<FacilityTypeApprovedProduct> streamProducts(
+      UUID facilityId,
+      UUID program,
+      Boolean fullSupply,
+      List<UUID> orderableIds,
+      Boolean active,
+      String orderableCode,
+      String orderableName);
+
+  KeysetPage<FacilityTypeApprovedProduct> seekProducts(SearchParams searchParams,
+      ContinuationToken after, int size, boolean includeTotal);
+
   interface SearchParams {
 
     Set<String> getFacilityTypeCodes();
@@ -16,10 +16,13 @@
 package org.openlmis.referencedata.repository.custom;
 
 import java.time.ZonedDateTime;
+import java.util.Collections;
 import java.util.Set;
 import java.util.UUID;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.util.ContinuationToken;
+import org.openlmis.referencedata.util.KeysetPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -29,6 +32,9 @@ public interface OrderableRepositoryCustom {
 
   ZonedDateTime findLatestModifiedDateByParams(SearchParams searchParams);
 
+  KeysetPage<Orderable> seek(SearchParams searchParams, ContinuationToken after, int size,
+      boolean includeTotal);
+
   interface SearchParams {
 
     String getCode();
@@ -41,5 +47,13 @@ public interface OrderableRepositoryCustom {
 
     Set<UUID> getTradeItemId();
 
+    default Set<UUID> getIds() {
+      return Collections.emptySet();
+    }
+
+    default String getQuery() {
+      return null;
+    }
+
   }
 }
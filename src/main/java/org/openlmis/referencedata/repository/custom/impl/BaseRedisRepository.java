@@ -15,58 +15,52 @@
 
 package org.openlmis.referencedata.repository.custom.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.UUID;
-import javax.annotation.PostConstruct;
-import lombok.Setter;
 import org.openlmis.referencedata.domain.Identifiable;
 import org.openlmis.referencedata.repository.custom.CrudRedisRepository;
-import org.springframework.data.redis.core.HashOperations;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.stereotype.Repository;
+import org.openlmis.referencedata.service.NearCache;
+import org.openlmis.referencedata.service.NearCacheManager;
 
-@Repository
+/**
+ * Keeps objects in a {@link NearCache}, so that reads are served from memory when possible and
+ * take a single Redis request otherwise.
+ */
 public abstract class BaseRedisRepository<T extends Identifiable>
     implements CrudRedisRepository<T> {
 
-  private RedisTemplate redisTemplate;
-  private HashOperations hashOperations;
-  private ObjectMapper mapper = new ObjectMapper();
-
-  @Setter
-  private Class<T> clazz;
-
-  public BaseRedisRepository(RedisTemplate redisTemplate, Class<T> clazz) {
-    this.redisTemplate = redisTemplate;
-    this.clazz = clazz;
-  }
+  private final NearCache<T> cache;
 
-  @PostConstruct
-  protected void init() {
-    hashOperations = redisTemplate.opsForHash();
+  protected BaseRedisRepository(NearCacheManager nearCacheManager, String name,
+      Class<T> clazz) {
+    this.cache = nearCacheManager.create(name, clazz);
   }
 
   @Override
   public boolean exists(UUID id) {
-    return hashOperations.hasKey(getHashKey(), id.toString());
+    return cache.contains(id);
   }
 
+  /**
+   * Returns the cached object with the given id or null if it is not cached.
+   */
   @Override
   public T findById(UUID id) {
-    return mapper.convertValue(this.redisTemplate.opsForHash()
-        .get(getHashKey(), id), clazz);
+    return cache.get(id);
   }
 
   @Override
   public void save(T entity) {
-    hashOperations.put(getHashKey(), entity.getId(), entity);
+    cache.put(entity.getId(), entity);
   }
 
   @Override
   public void delete(T entity) {
-    hashOperations.delete(getHashKey(), entity.getId().toString());
+    evict(entity.getId());
   }
 
-  protected abstract String getHashKey();
+  @Override
+  public void evict(UUID id) {
+    cache.evict(id);
+  }
 
 }
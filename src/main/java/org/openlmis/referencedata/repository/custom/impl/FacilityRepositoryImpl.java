@@ -63,6 +63,10 @@ public class FacilityRepositoryImpl implements FacilityRepositoryCustom {
   private static final String WITH_CODE = "UPPER(f.code) LIKE :code";
   private static final String WITH_NAME = "UPPER(f.name) LIKE :name";
   private static final String WITH_ZONE = "g.id IN (:zones)";
+  private static final String WITH_ZONE_HIERARCHY = "g.id IN (SELECT h.link.descendantId"
+      + " FROM GeographicZoneHierarchy AS h WHERE h.link.ancestorId = :ancestorZoneId)";
+  private static final String NATIVE_WITH_ZONE_HIERARCHY = "g.id IN (SELECT h.descendantid"
+      + " FROM referencedata.geographic_zone_hierarchy AS h WHERE h.ancestorid = :ancestorZoneId)";
   private static final String WITH_IDS = "f.id IN (:ids)";
   private static final String WITH_TYPE = "t.code = :typeCode";
   private static final String WITH_EXTRA_DATA = "f.extradata @> (:extraData)\\:\\:jsonb";
@@ -75,7 +79,8 @@ public class FacilityRepositoryImpl implements FacilityRepositoryCustom {
    * Method is ignoring case for facility code and name.
    *
    * @param searchParams      Params to search facilities by.
-   * @param geographicZoneIds Geographic zone IDs.
+   * @param geographicZoneIds Geographic zone IDs. If empty, a recursive search by zone expands
+   *                          the zone hierarchy in the query instead.
    * @param extraData         extra data
    * @param pageable object used to encapsulate the pagination related values: page, size and sort.
    * @return Page of Facilities matching the parameters.
@@ -177,6 +182,14 @@ public class FacilityRepositoryImpl implements FacilityRepositoryCustom {
       params.put("zones", geographicZoneIds);
     }
 
+    if (isEmpty(geographicZoneIds) && null != searchParams.getZoneId()
+        && Boolean.TRUE.equals(searchParams.isRecurse())) {
+      where.add(NATIVE_SELECT_BY_PARAMS.equals(baseSql)
+          ? NATIVE_WITH_ZONE_HIERARCHY
+          : WITH_ZONE_HIERARCHY);
+      params.put("ancestorZoneId", searchParams.getZoneId());
+    }
+
     if (isNotBlank(extraData)) {
       where.add(WITH_EXTRA_DATA);
       params.put("extraData", extraData);
@@ -18,15 +18,24 @@ package org.openlmis.referencedata.repository.custom.impl;
 import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
@@ -37,7 +46,6 @@ import javax.persistence.criteria.Join;
 import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import javax.persistence.criteria.Subquery;
 import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.hibernate.query.NativeQuery;
@@ -52,6 +60,8 @@ import org.openlmis.referencedata.domain.VersionIdentity;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.custom.FacilityTypeApprovedProductRepositoryCustom;
 import org.openlmis.referencedata.repository.custom.FacilityTypeApprovedProductRepositoryCustom.SearchParams;
+import org.openlmis.referencedata.util.ContinuationToken;
+import org.openlmis.referencedata.util.KeysetPage;
 import org.openlmis.referencedata.util.Pagination;
 import org.openlmis.referencedata.util.messagekeys.FacilityMessageKeys;
 import org.slf4j.ext.XLogger;
@@ -72,6 +82,11 @@ public class FacilityTypeApprovedProductRepositoryImpl
       + " FROM referencedata.facility_types AS ft"
       + " INNER JOIN referencedata.facilities f ON f.typeId = ft.id AND f.id = '%s'";
 
+  private static final String NATIVE_SELECT_FACILITY_TYPE_IDS = "SELECT f.id AS facility_id,"
+      + " f.typeId AS type_id"
+      + " FROM referencedata.facilities f"
+      + " WHERE f.id IN (:facilityIds)";
+
   private static final String FROM_FTAP_TABLE =
       " FROM referencedata.facility_type_approved_products AS ftap";
 
@@ -84,9 +99,8 @@ public class FacilityTypeApprovedProductRepositoryImpl
   private static final String NATIVE_PROGRAM_INNER_JOIN =
       " INNER JOIN referencedata.programs AS p ON p.id = ftap.programId";
   private static final String NATIVE_ORDERABLE_INNER_JOIN_TEMPLATE =
-      " INNER JOIN (SELECT id, MAX(versionNumber) AS versionNumber"
-          + "   FROM referencedata.orderables o WHERE (%s) GROUP BY id) AS o"
-          + "   ON o.id = ftap.orderableId";
+      " INNER JOIN referencedata.orderables AS o"
+          + "   ON o.id = ftap.orderableId AND o.latest = TRUE AND (%s)";
   private static final String NATIVE_PROGRAM_ORDERABLE_INNER_JOIN =
       " INNER JOIN referencedata.program_orderables AS po"
           + " ON o.id = po.orderableId"
@@ -95,19 +109,27 @@ public class FacilityTypeApprovedProductRepositoryImpl
           + " AND po.active IS TRUE";
   private static final String NATIVE_FACILITY_TYPE_INNER_JOIN =
       " INNER JOIN referencedata.facility_types AS ft ON ft.id = ftap.facilityTypeId";
-  private static final String NATIVE_LATEST_FTAPS_INNER_JOIN =
-      " INNER JOIN (SELECT id, MAX(versionNumber) AS versionNumber"
-          + "   FROM referencedata.facility_type_approved_products GROUP BY id) AS latest"
-          + "   ON ftap.id = latest.id AND ftap.versionNumber = latest.versionNumber";
-  private static final String NATIVE_FTAP_ACTIVE_FLAG = " ftap.active = :active";
+  private static final String NATIVE_LATEST_FTAPS_FLAG = " ftap.latest = TRUE";
+  private static final String NATIVE_FTAP_ACTIVE_FLAG = " AND ftap.active = :active";
 
   private static final String NATIVE_PAGEABLE = " LIMIT :limit OFFSET :offset";
 
+  private static final String NATIVE_SEEK_SELECT = "SELECT ftap.id AS id,"
+      + " ftap.versionNumber AS versionNumber, o.fullProductName AS name";
+  private static final String NATIVE_SEEK_COUNT = "SELECT COUNT(*)";
+  private static final String NATIVE_LATEST_ORDERABLE_INNER_JOIN =
+      " INNER JOIN referencedata.orderables AS o"
+          + " ON o.id = ftap.orderableId AND o.latest = TRUE";
+  private static final String NATIVE_SEEK_NAME_COLUMN = "o.fullProductName";
+  private static final String NATIVE_SEEK_ID_COLUMN = "ftap.id";
+
   private static final String WHERE = " WHERE ";
+  private static final String AND = " AND ";
   private static final String IDENTITY = "identity";
   private static final String ID = "id";
   private static final String VERSION_NUMBER = "versionNumber";
   private static final String ACTIVE = "active";
+  private static final String LATEST = "latest";
   private static final String FTAP_ALIAS = "ftap";
   private static final String PROGRAM = "program";
   private static final String CODE = "code";
@@ -193,6 +215,141 @@ public class FacilityTypeApprovedProductRepositoryImpl
     return Pagination.getPage(ftaps, pageable, total);
   }
 
+  /**
+   * Retrieves approved products of many facilities at once. Facilities are grouped by their
+   * type and approved products are searched once per distinct facility type, so facilities of
+   * the same type share the same list.
+   *
+   * @return approved products matching the parameters, by facility ID
+   */
+  @Override
+  public Map<UUID, List<FacilityTypeApprovedProduct>> searchProductsByFacilities(
+      Collection<UUID> facilityIds,
+      UUID programId,
+      Boolean fullSupply,
+      Boolean active
+  ) {
+    Profiler profiler = new Profiler("FTAP_REPOSITORY_SEARCH_BY_FACILITIES");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("SEARCH_FACILITY_TYPE_IDS");
+    Map<UUID, UUID> facilityTypeIds = getFacilityTypeIds(facilityIds, profiler);
+
+    Map<UUID, List<FacilityTypeApprovedProduct>> ftapsByType = new HashMap<>();
+    for (UUID facilityTypeId : new HashSet<>(facilityTypeIds.values())) {
+      profiler.start("GET_VERSION_IDENTITY");
+      Query nativeQuery = prepareNativeQuery(facilityTypeId, programId, fullSupply, null,
+          active, null, null, false, null);
+      List<VersionIdentity> identities = executeNativeQuery(nativeQuery);
+
+      profiler.start("RETRIEVE_FTAPS");
+      List<FacilityTypeApprovedProduct> ftaps = new ArrayList<>();
+      for (List<VersionIdentity> partition
+          : ListUtils.partition(identities, MAX_IDENTITIES_SIZE)) {
+        ftaps.addAll(retrieveFtaps(partition));
+      }
+      ftapsByType.put(facilityTypeId, ftaps);
+    }
+
+    Map<UUID, List<FacilityTypeApprovedProduct>> ftapsByFacility = new HashMap<>();
+    facilityTypeIds.forEach((facilityId, facilityTypeId) ->
+        ftapsByFacility.put(facilityId, ftapsByType.get(facilityTypeId)));
+
+    profiler.stop().log();
+    return ftapsByFacility;
+  }
+
+  /**
+   * Streams all approved products matching the parameters. Identities of the products are
+   * scrolled from the database and the products are retrieved in batches, as the stream is
+   * consumed, so only one batch is loaded at a time. The stream must be consumed inside a
+   * transaction and closed.
+   */
+  @Override
+  public Stream<FacilityTypeApprovedProduct> streamProducts(
+      UUID facilityId,
+      UUID programId,
+      Boolean fullSupply,
+      List<UUID> orderableIds,
+      Boolean active,
+      String orderableCode,
+      String orderableName
+  ) {
+    Profiler profiler = new Profiler("FTAP_REPOSITORY_STREAM");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("SEARCH_FACILITY_TYPE_ID");
+    UUID facilityTypeId = getFacilityTypeId(facilityId, profiler);
+
+    profiler.start("OPEN_VERSION_IDENTITY_CURSOR");
+    Query nativeQuery = prepareNativeQuery(facilityTypeId, programId, fullSupply, orderableIds,
+        active, orderableCode, orderableName, false, null);
+
+    // appropriate configuration has been set in the native query
+    @SuppressWarnings("unchecked")
+    Stream<Object[]> rows = nativeQuery
+        .unwrap(NativeQuery.class)
+        .setFetchSize(MAX_IDENTITIES_SIZE)
+        .stream();
+
+    Iterator<List<VersionIdentity>> partitions = Iterators.partition(rows
+        .map(row -> new VersionIdentity((UUID) row[0], (Long) row[1]))
+        .iterator(), MAX_IDENTITIES_SIZE);
+
+    profiler.stop().log();
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(partitions, Spliterator.ORDERED), false)
+        .flatMap(partition -> retrieveFtaps(partition).stream())
+        .onClose(rows::close);
+  }
+
+  /**
+   * Retrieves a page of approved products matching the parameters, ordered by the full product
+   * name of their orderables and by id. Instead of an offset the page starts right after
+   * the given position, so the cost of a request does not depend on how deep the page is.
+   *
+   * @param searchParams  the search parameters.
+   * @param after         the position of the last element of the previous page, null for
+   *                      the first page.
+   * @param size          the page size.
+   * @param includeTotal  whether the total number of matching approved products should be
+   *                      calculated.
+   * @return the page of approved products with a continuation token for the next one.
+   */
+  @Override
+  public KeysetPage<FacilityTypeApprovedProduct> seekProducts(SearchParams searchParams,
+      ContinuationToken after, int size, boolean includeTotal) {
+    Profiler profiler = new Profiler("FTAP_REPOSITORY_SEEK");
+    profiler.setLogger(XLOGGER);
+
+    Map<String, Object> params = Maps.newHashMap();
+    String fromWhere = prepareSeekFromWhere(searchParams, params);
+
+    Long total = null;
+    if (includeTotal) {
+      profiler.start("COUNT");
+      total = KeysetQueries.count(entityManager, NATIVE_SEEK_COUNT + fromWhere, params);
+    }
+
+    profiler.start("GET_VERSION_IDENTITY");
+    String sql = NATIVE_SEEK_SELECT + fromWhere
+        + KeysetQueries.after(after, NATIVE_SEEK_NAME_COLUMN, NATIVE_SEEK_ID_COLUMN, params)
+        + KeysetQueries.orderAndLimit(NATIVE_SEEK_NAME_COLUMN, NATIVE_SEEK_ID_COLUMN, size,
+            params);
+    KeysetPage<Object[]> rows = KeysetPage.of(KeysetQueries.rows(entityManager, sql, params),
+        size, KeysetQueries::position, total);
+
+    profiler.start("RETRIEVE_FTAPS");
+    List<VersionIdentity> identities = KeysetQueries.identities(rows.getContent());
+    List<FacilityTypeApprovedProduct> ftaps = new ArrayList<>();
+    for (List<VersionIdentity> partition : ListUtils.partition(identities, MAX_IDENTITIES_SIZE)) {
+      ftaps.addAll(retrieveFtaps(partition));
+    }
+
+    profiler.stop().log();
+    return rows.withContent(KeysetQueries.inOrder(identities, ftaps));
+  }
+
   private UUID getFacilityTypeId(UUID facilityId, Profiler profiler) {
     String queryString = String.format(NATIVE_SELECT_FACILITY_TYPE_ID, facilityId);
     Query query = entityManager.createNativeQuery(queryString);
@@ -208,6 +365,36 @@ public class FacilityTypeApprovedProductRepositoryImpl
     }
   }
 
+  private Map<UUID, UUID> getFacilityTypeIds(Collection<UUID> facilityIds, Profiler profiler) {
+    Set<UUID> distinctIds = new HashSet<>(facilityIds);
+    Map<UUID, UUID> facilityTypeIds = new HashMap<>();
+
+    for (List<UUID> partition : Iterables.partition(distinctIds, MAX_IDENTITIES_SIZE)) {
+      Query query = entityManager
+          .createNativeQuery(NATIVE_SELECT_FACILITY_TYPE_IDS)
+          .setParameter("facilityIds", partition);
+
+      NativeQuery sql = query.unwrap(NativeQuery.class);
+      sql.addScalar("facility_id", PostgresUUIDType.INSTANCE);
+      sql.addScalar("type_id", PostgresUUIDType.INSTANCE);
+
+      // appropriate configuration has been set in the native query
+      @SuppressWarnings("unchecked")
+      List<Object[]> rows = query.getResultList();
+      rows.forEach(row -> facilityTypeIds.put((UUID) row[0], (UUID) row[1]));
+    }
+
+    for (UUID facilityId : distinctIds) {
+      if (!facilityTypeIds.containsKey(facilityId)) {
+        profiler.stop().log();
+        throw new ValidationMessageException(FacilityMessageKeys.ERROR_NOT_FOUND_WITH_ID,
+            facilityId);
+      }
+    }
+
+    return facilityTypeIds;
+  }
+
   @Override
   <E> TypedQuery<E> prepareQuery(SearchParams searchParams, CriteriaQuery<E> query,
       boolean count, Collection<VersionIdentity> identities, Pageable pageable) {
@@ -253,11 +440,7 @@ public class FacilityTypeApprovedProductRepositoryImpl
     if (!isEmpty(identities)) {
       predicate = builder.and(predicate, builder.in(root.get(IDENTITY)).value(identities));
     } else {
-      Subquery<String> latestFtapQuery = createFtapSubQuery(newQuery, builder);
-      predicate = builder.and(predicate, builder.in(builder.concat(
-          root.get(IDENTITY).get(ID).as(String.class),
-          root.get(IDENTITY).get(VERSION_NUMBER).as(String.class)))
-          .value(latestFtapQuery));
+      predicate = builder.and(predicate, builder.isTrue(root.get(LATEST)));
     }
 
     Boolean isActive = searchParams.getActive();
@@ -330,8 +513,8 @@ public class FacilityTypeApprovedProductRepositoryImpl
     }
 
     builder
-        .append(NATIVE_LATEST_FTAPS_INNER_JOIN)
         .append(WHERE)
+        .append(NATIVE_LATEST_FTAPS_FLAG)
         .append(NATIVE_FTAP_ACTIVE_FLAG);
     params.put(ACTIVE, null == active || active);
 
@@ -342,6 +525,56 @@ public class FacilityTypeApprovedProductRepositoryImpl
     return createNativeQuery(builder, params, count);
   }
 
+  private String prepareSeekFromWhere(SearchParams searchParams, Map<String, Object> params) {
+    StringBuilder builder = new StringBuilder(FROM_FTAP_TABLE)
+        .append(NATIVE_LATEST_ORDERABLE_INNER_JOIN);
+    List<String> wheres = new ArrayList<>();
+
+    String programCode = searchParams.getProgramCode();
+    if (isNotBlank(programCode)) {
+      builder.append(NATIVE_PROGRAM_INNER_JOIN);
+      wheres.add("LOWER(p.code) = :programCode");
+      params.put("programCode", programCode.toLowerCase());
+    }
+
+    Set<String> facilityTypeCodes = searchParams.getFacilityTypeCodes();
+    if (!isEmpty(facilityTypeCodes)) {
+      builder.append(NATIVE_FACILITY_TYPE_INNER_JOIN);
+      wheres.add("ft.code IN (:facilityTypeCodes)");
+      params.put("facilityTypeCodes", facilityTypeCodes);
+    }
+
+    Set<UUID> orderableIds = searchParams.getOrderableIds();
+    if (!isEmpty(orderableIds)) {
+      wheres.add("ftap.orderableId IN (:orderableIds)");
+      params.put("orderableIds", orderableIds);
+    }
+
+    Set<Pair<UUID, Long>> identityPairs = searchParams.getIdentityPairs();
+    if (isEmpty(identityPairs)) {
+      wheres.add("ftap.latest = TRUE");
+    } else {
+      List<String> identityConditions = new ArrayList<>();
+      int index = 0;
+      for (Pair<UUID, Long> identity : identityPairs) {
+        identityConditions.add(String.format(
+            "(ftap.id = :identityId%1$d AND ftap.versionNumber = :identityVersion%1$d)", index));
+        params.put("identityId" + index, identity.getLeft());
+        params.put("identityVersion" + index, identity.getRight());
+        index++;
+      }
+      wheres.add("(" + String.join(" OR ", identityConditions) + ")");
+    }
+
+    Boolean active = searchParams.getActive();
+    if (null != active) {
+      wheres.add("ftap.active = :active");
+      params.put(ACTIVE, active);
+    }
+
+    return builder.append(WHERE).append(String.join(AND, wheres)).toString();
+  }
+
   private void setPagination(StringBuilder builder, Map<String, Object> params, Pageable pageable) {
     Pair<Integer, Integer> maxAndFirst = PageableUtil.querysMaxAndFirstResult(pageable);
     Integer limit = maxAndFirst.getLeft();
@@ -383,21 +616,6 @@ public class FacilityTypeApprovedProductRepositoryImpl
         .collect(Collectors.toList());
   }
 
-  private Subquery<String> createFtapSubQuery(CriteriaQuery query, CriteriaBuilder builder) {
-    Subquery<String> latestFtapsQuery = query.subquery(String.class);
-    Root<FacilityTypeApprovedProduct> latestFtapsRoot =
-        latestFtapsQuery.from(FacilityTypeApprovedProduct.class);
-    latestFtapsRoot.alias("latestFtap");
-
-    latestFtapsQuery.select(
-        builder.concat(
-            latestFtapsRoot.get(IDENTITY).get(ID).as(String.class),
-            builder.max(latestFtapsRoot.get(IDENTITY).get(VERSION_NUMBER)).as(String.class)));
-    latestFtapsQuery.groupBy(latestFtapsRoot.get(IDENTITY).get(ID));
-
-    return latestFtapsQuery;
-  }
-
   // appropriate class has been passed in the EntityManager.createNativeQuery method
   @SuppressWarnings("unchecked")
   private List<FacilityTypeApprovedProduct> retrieveFtaps(Collection<VersionIdentity> identities) {
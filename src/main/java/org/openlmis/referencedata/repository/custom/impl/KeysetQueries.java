@@ -0,0 +1,134 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.repository.custom.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.LongType;
+import org.hibernate.type.PostgresUUIDType;
+import org.hibernate.type.StringType;
+import org.openlmis.referencedata.domain.VersionIdentity;
+import org.openlmis.referencedata.domain.Versionable;
+import org.openlmis.referencedata.util.ContinuationToken;
+
+/**
+ * Helpers for native searches of versioned resources. Each row consists of the id, the version
+ * number and the name. Keyset pages are ordered by a name column (nulls last) and then by an id
+ * column.
+ */
+final class KeysetQueries {
+
+  static final String ID = "id";
+  static final String VERSION_NUMBER = "versionNumber";
+  static final String NAME = "name";
+
+  private static final String AFTER_NAME = "afterName";
+  private static final String AFTER_ID = "afterId";
+  private static final String LIMIT = "limit";
+
+  private KeysetQueries() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns a condition that matches rows after the given position or an empty string for the
+   * first page. Rows with a null name are placed at the end, the same as PostgreSQL does for
+   * an ascending order.
+   */
+  static String after(ContinuationToken after, String nameColumn, String idColumn,
+      Map<String, Object> params) {
+    if (null == after) {
+      return "";
+    }
+
+    params.put(AFTER_ID, after.getId());
+
+    if (null == after.getName()) {
+      return String.format(" AND (%1$s IS NULL AND %2$s > :%3$s)", nameColumn, idColumn, AFTER_ID);
+    }
+
+    params.put(AFTER_NAME, after.getName());
+    return String.format(" AND (%1$s > :%3$s OR (%1$s = :%3$s AND %2$s > :%4$s)"
+        + " OR %1$s IS NULL)", nameColumn, idColumn, AFTER_NAME, AFTER_ID);
+  }
+
+  /**
+   * Returns the ORDER BY and LIMIT clause fetching one row more than the page size, so that
+   * {@link org.openlmis.referencedata.util.KeysetPage#of} can tell whether a next page exists.
+   */
+  static String orderAndLimit(String nameColumn, String idColumn, int size,
+      Map<String, Object> params) {
+    params.put(LIMIT, size + 1);
+    return String.format(" ORDER BY %s, %s LIMIT :%s", nameColumn, idColumn, LIMIT);
+  }
+
+  static long count(EntityManager entityManager, String sql, Map<String, Object> params) {
+    Query query = entityManager.createNativeQuery(sql);
+    params.forEach(query::setParameter);
+    return ((Number) query.getSingleResult()).longValue();
+  }
+
+  static List<Object[]> rows(EntityManager entityManager, String sql,
+      Map<String, Object> params) {
+    Query query = entityManager.createNativeQuery(sql);
+    params.forEach(query::setParameter);
+
+    NativeQuery sqlQuery = query.unwrap(NativeQuery.class);
+    sqlQuery.addScalar(ID, PostgresUUIDType.INSTANCE);
+    sqlQuery.addScalar(VERSION_NUMBER, LongType.INSTANCE);
+    sqlQuery.addScalar(NAME, StringType.INSTANCE);
+
+    // appropriate scalars have been set in the native query
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows = query.getResultList();
+    return rows;
+  }
+
+  static ContinuationToken position(Object[] row) {
+    return new ContinuationToken((String) row[2], (UUID) row[0]);
+  }
+
+  static List<VersionIdentity> identities(List<Object[]> rows) {
+    return rows
+        .stream()
+        .map(row -> new VersionIdentity((UUID) row[0], (Long) row[1]))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Sorts entities retrieved by their identities in the order of the identities.
+   */
+  static <T extends Versionable> List<T> inOrder(List<VersionIdentity> identities,
+      Collection<T> entities) {
+    Map<VersionIdentity, T> byIdentity = entities
+        .stream()
+        .collect(Collectors.toMap(Versionable::getVersionIdentity, Function.identity()));
+
+    return identities
+        .stream()
+        .map(byIdentity::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+}
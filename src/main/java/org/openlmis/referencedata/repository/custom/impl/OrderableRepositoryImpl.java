@@ -25,6 +25,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -42,7 +43,6 @@ import javax.persistence.criteria.Join;
 import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import javax.persistence.criteria.Subquery;
 import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.SetUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -55,6 +55,8 @@ import org.openlmis.referencedata.domain.VersionIdentity;
 import org.openlmis.referencedata.repository.OrderableRepository;
 import org.openlmis.referencedata.repository.custom.OrderableRepositoryCustom;
 import org.openlmis.referencedata.repository.custom.OrderableRepositoryCustom.SearchParams;
+import org.openlmis.referencedata.util.ContinuationToken;
+import org.openlmis.referencedata.util.KeysetPage;
 import org.openlmis.referencedata.util.Pagination;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
@@ -74,34 +76,38 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
   static final String IDENTITY = "identity";
   static final String PROGRAM = "program";
   static final String CODE = "code";
+  static final String LATEST = "latest";
   private static final XLogger XLOGGER = XLoggerFactory.getXLogger(OrderableRepositoryImpl.class);
+  private static final String TRADE_ITEM = "tradeItem";
   private static final String FROM_ORDERABLES_TABLE = " FROM referencedata.orderables AS o";
-  private static final String NATIVE_PROGRAM_ORDERABLE_JOIN =
-      " JOIN referencedata.program_orderables AS po"
-          + "  ON o.id = po.orderableId AND o.versionNumber = po.orderableVersionNumber";
-  private static final String NATIVE_PROGRAM_ORDERABLE_INNER_JOIN =
-      " INNER" + NATIVE_PROGRAM_ORDERABLE_JOIN;
-  private static final String NATIVE_PROGRAM_JOIN =
-      " JOIN referencedata.programs AS p"
-          + "  ON p.id = po.programId";
-  private static final String NATIVE_PROGRAM_INNER_JOIN =
-      " INNER" + NATIVE_PROGRAM_JOIN;
-  private static final String NATIVE_LATEST_ORDERABLE_INNER_JOIN =
-      " INNER JOIN (SELECT id, MAX (versionNumber) AS versionNumber"
-          + "  FROM referencedata.orderables GROUP BY id) AS latest"
-          + "  ON o.id = latest.id AND o.versionNumber = latest.versionNumber";
-  static final String NATIVE_SELECT_LAST_UPDATED = "SELECT o.lastupdated "
-      + FROM_ORDERABLES_TABLE + NATIVE_LATEST_ORDERABLE_INNER_JOIN;
-  static final String NATIVE_COUNT_LAST_UPDATED = "SELECT COUNT(*) "
-      + FROM_ORDERABLES_TABLE + NATIVE_LATEST_ORDERABLE_INNER_JOIN;
-  private static final String ORDER_BY_LAST_UPDATED_DESC_LIMIT_1 = " ORDER BY o.lastupdated"
-      + " DESC LIMIT 1";
+  private static final String NATIVE_PROGRAM_CONDITION = "EXISTS (SELECT 1"
+      + " FROM referencedata.program_orderables AS po"
+      + " INNER JOIN referencedata.programs AS p ON p.id = po.programId"
+      + " WHERE po.orderableId = o.id AND po.orderableVersionNumber = o.versionNumber"
+      + " AND LOWER(p.code) IN (:programCodes))";
+  private static final String NATIVE_LATEST_ORDERABLE_CONDITION = "o.latest = TRUE";
+  static final String NATIVE_SELECT_MAX_LAST_MODIFIED = "SELECT MAX(o.lastmodified)"
+      + FROM_ORDERABLES_TABLE;
+  private static final String NATIVE_SELECT_IDENTITY = "SELECT o.id AS id,"
+      + " o.versionNumber AS versionNumber, o.fullProductName AS name" + FROM_ORDERABLES_TABLE;
+  private static final String NATIVE_COUNT = "SELECT COUNT(*)" + FROM_ORDERABLES_TABLE;
+  private static final String NATIVE_QUERY_CONDITION = "(LOWER(o.code) LIKE :queryPattern"
+      + " OR LOWER(o.fullProductName) LIKE :queryPattern)";
+  private static final String NATIVE_ORDER_BY_RELEVANCE = " ORDER BY GREATEST("
+      + "public.similarity(LOWER(o.code), :query),"
+      + " public.similarity(LOWER(o.fullProductName), :query)) DESC,"
+      + " o.fullProductName, o.id"
+      + " LIMIT :limit OFFSET :offset";
+  private static final String NATIVE_TRADE_ITEM_CONDITION = "EXISTS (SELECT 1"
+      + " FROM referencedata.orderable_identifiers AS oi"
+      + " WHERE oi.orderableId = o.id AND oi.orderableVersionNumber = o.versionNumber"
+      + " AND oi.key = '" + TRADE_ITEM + "' AND oi.value IN (:tradeItemIds))";
+  private static final String NATIVE_SEEK_NAME_COLUMN = "o.fullProductName";
+  private static final String NATIVE_SEEK_ID_COLUMN = "o.id";
   private static final String WHERE = " WHERE ";
   private static final String AND = " AND ";
   private static final String GMT = "GMT";
   private static final String ORDERABLE = "orderable";
-  private static final String LATEST_ORDERABLE_ALIAS = "latest";
-  private static final String TRADE_ITEM = "tradeItem";
   @PersistenceContext
   private EntityManager entityManager;
   @Autowired
@@ -110,7 +116,8 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
   /**
    * This method is supposed to retrieve all orderables with matched parameters. Method is ignoring
    * case for orderable code and name. To find all wanted orderables by code and name we use
-   * criteria query and like operator.
+   * criteria query and like operator. If the free text query is given, the orderables are
+   * found with a native query instead and ordered by relevance, see {@link #searchByRelevance}.
    *
    * @return List of orderables matching the parameters.
    */
@@ -119,6 +126,12 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
     Profiler profiler = new Profiler("ORDERABLE_REPOSITORY_SEARCH_BY_PARAMS");
     profiler.setLogger(XLOGGER);
 
+    if (isNotBlank(searchParams.getQuery())) {
+      Page<Orderable> page = searchByRelevance(searchParams, pageable, profiler);
+      profiler.stop().log();
+      return page;
+    }
+
     profiler.start("CALCULATE_FULL_LIST_SIZE");
     CriteriaBuilder builder = entityManager.getCriteriaBuilder();
     List<VersionIdentity> identityList = new ArrayList<>();
@@ -154,30 +167,110 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
   }
 
   /**
-   * This method is supposed to get the latest last update date from the retrieved orderables
-   * based on params passed to the request.
+   * Finds orderables whose code or full product name contains the free text query, ignoring case.
+   * Both columns are covered by trigram indexes, so the substring match does not need
+   * a sequential scan. The most similar orderables come first, the rest are ordered by full
+   * product name and id. The other search parameters are applied as well.
+   */
+  private Page<Orderable> searchByRelevance(SearchParams searchParams, Pageable pageable,
+      Profiler profiler) {
+    Map<String, Object> params = new HashMap<>();
+    String where = prepareNativeConditions(searchParams, params);
+
+    profiler.start("CALCULATE_FULL_LIST_SIZE");
+    long total = KeysetQueries.count(entityManager, NATIVE_COUNT + where, params);
+
+    if (total < 1) {
+      return Pagination.getPage(Collections.emptyList(), pageable, 0);
+    }
+
+    profiler.start("GET_VERSION_IDENTITY");
+    Pair<Integer, Integer> maxAndFirst = PageableUtil.querysMaxAndFirstResult(pageable);
+    params.put("limit", maxAndFirst.getLeft());
+    params.put("offset", maxAndFirst.getRight());
+    List<VersionIdentity> identities = KeysetQueries.identities(KeysetQueries.rows(
+        entityManager, NATIVE_SELECT_IDENTITY + where + NATIVE_ORDER_BY_RELEVANCE, params));
+
+    profiler.start("RETRIEVE_ORDERABLES");
+    List<Orderable> orderables = new ArrayList<>();
+    for (List<VersionIdentity> partition : ListUtils.partition(identities, MAX_IDENTITIES_SIZE)) {
+      orderables.addAll(retrieveOrderables(partition));
+    }
+
+    return Pagination.getPage(KeysetQueries.inOrder(identities, orderables), pageable, total);
+  }
+
+  /**
+   * Retrieves a page of orderables matching the parameters, ordered by full product name and id.
+   * Instead of an offset the page starts right after the given position, so the cost of
+   * a request does not depend on how deep the page is. Like {@link #search}, the latest versions
+   * are returned unless trade items or identities are given, in which case the versions they point
+   * to are used.
    *
-   * @return ZonedDateTime of the latest last updated orderable.
+   * @param searchParams  the search parameters, may be null.
+   * @param after         the position of the last element of the previous page, null for
+   *                      the first page.
+   * @param size          the page size.
+   * @param includeTotal  whether the total number of matching orderables should be calculated.
+   * @return the page of orderables with a continuation token for the next one.
    */
   @Override
-  public ZonedDateTime findLatestModifiedDateByParams(SearchParams searchParams) {
-    Profiler profiler = new Profiler("GET_ZONED_DATE_TIME_FROM_PARAMS");
+  public KeysetPage<Orderable> seek(SearchParams searchParams, ContinuationToken after,
+      int size, boolean includeTotal) {
+    Profiler profiler = new Profiler("ORDERABLE_REPOSITORY_SEEK");
     profiler.setLogger(XLOGGER);
 
-    profiler.start("CALCULATE_FULL_LIST_SIZE_LAST_UPDATED");
-    Query countNativeQuery = getLastUpdatedQuery(searchParams, true);
-    int total = ((Number) countNativeQuery.getSingleResult()).intValue();
+    Map<String, Object> params = new HashMap<>();
+    String where = prepareNativeConditions(searchParams, params);
 
-    if (total <= 0) {
-      profiler.stop().log();
-      return null;
+    Long total = null;
+    if (includeTotal) {
+      profiler.start("COUNT");
+      total = KeysetQueries.count(entityManager, NATIVE_COUNT + where, params);
     }
 
-    profiler.start("GET_ZONED_DATE_TIME_QUERY");
-    Query query = getLastUpdatedQuery(searchParams, false);
+    profiler.start("GET_VERSION_IDENTITY");
+    String sql = NATIVE_SELECT_IDENTITY + where
+        + KeysetQueries.after(after, NATIVE_SEEK_NAME_COLUMN, NATIVE_SEEK_ID_COLUMN, params)
+        + KeysetQueries.orderAndLimit(NATIVE_SEEK_NAME_COLUMN, NATIVE_SEEK_ID_COLUMN, size,
+            params);
+    KeysetPage<Object[]> rows = KeysetPage.of(KeysetQueries.rows(entityManager, sql, params),
+        size, KeysetQueries::position, total);
+
+    profiler.start("RETRIEVE_ORDERABLES");
+    List<VersionIdentity> identities = KeysetQueries.identities(rows.getContent());
+    List<Orderable> orderables = new ArrayList<>();
+    for (List<VersionIdentity> partition : ListUtils.partition(identities, MAX_IDENTITIES_SIZE)) {
+      orderables.addAll(retrieveOrderables(partition));
+    }
+
+    profiler.stop().log();
+    return rows.withContent(KeysetQueries.inOrder(identities, orderables));
+  }
+
+  /**
+   * This method is supposed to get the latest modification date from the retrieved orderables
+   * based on params passed to the request. The dates are stamped with the database clock, like
+   * the ones returned for all orderables or for programs.
+   *
+   * @return ZonedDateTime of the latest modified orderable.
+   */
+  @Override
+  public ZonedDateTime findLatestModifiedDateByParams(SearchParams searchParams) {
+    Profiler profiler = new Profiler("GET_ZONED_DATE_TIME_FROM_PARAMS");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("GET_MAX_LAST_UPDATED");
+    Map<String, Object> params = new HashMap<>();
+    Query query = entityManager.createNativeQuery(
+        NATIVE_SELECT_MAX_LAST_MODIFIED + prepareNativeConditions(searchParams, params));
+    params.forEach(query::setParameter);
     Timestamp timestamp = (Timestamp) query.getSingleResult();
     profiler.stop().log();
-    return ZonedDateTime.of(timestamp.toLocalDateTime(), ZoneId.of(GMT));
+
+    return null == timestamp
+        ? null
+        : ZonedDateTime.of(timestamp.toLocalDateTime(), ZoneId.of(GMT));
   }
 
   @Override
@@ -199,7 +292,7 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
       newQuery = (CriteriaQuery<E>) typeQuery.select(root.get(IDENTITY));
     }
 
-    Predicate where = prepareParams(root, newQuery, searchParams, identities);
+    Predicate where = prepareParams(root, searchParams, identities);
 
     newQuery.where(where);
 
@@ -218,9 +311,8 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
     return entityManager.createQuery(newQuery);
   }
 
-  private <E> Predicate prepareParams(Root<Orderable> root, CriteriaQuery<E> query,
-                                      SearchParams searchParams,
-                                      Collection<VersionIdentity> identities) {
+  private Predicate prepareParams(Root<Orderable> root, SearchParams searchParams,
+                                  Collection<VersionIdentity> identities) {
     CriteriaBuilder builder = entityManager.getCriteriaBuilder();
     Predicate where = builder.conjunction();
 
@@ -234,11 +326,7 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
       }
 
       if (isEmpty(identities)) {
-        Subquery<String> latestOrderablesQuery = createSubQuery(query, builder);
-        where = builder.and(where, builder.in(builder.concat(
-                root.get(IDENTITY).get(ID).as(String.class),
-                root.get(IDENTITY).get(VERSION_NUMBER)).as(String.class))
-            .value(latestOrderablesQuery));
+        where = builder.and(where, builder.isTrue(root.get(LATEST)));
       } else {
         where = builder.and(where, builder.in(root.get(IDENTITY)).value(identities));
       }
@@ -253,11 +341,7 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
             "%" + searchParams.getName().toLowerCase() + "%"));
       }
     } else {
-      Subquery<String> latestOrderablesQuery = createSubQuery(query, builder);
-      where = builder.and(where, builder.in(builder.concat(
-              root.get(IDENTITY).get(ID).as(String.class),
-              root.get(IDENTITY).get(VERSION_NUMBER)).as(String.class))
-          .value(latestOrderablesQuery));
+      where = builder.and(where, builder.isTrue(root.get(LATEST)));
     }
 
     return where;
@@ -273,72 +357,81 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
         .collect(Collectors.toSet());
   }
 
-  private Subquery<String> createSubQuery(CriteriaQuery query, CriteriaBuilder builder) {
-    Subquery<String> latestOrderablesQuery = query.subquery(String.class);
-    Root<Orderable> latestOrderablesRoot = latestOrderablesQuery.from(Orderable.class);
-    latestOrderablesRoot.alias(LATEST_ORDERABLE_ALIAS);
+  /**
+   * Builds the WHERE clause of native orderable searches. All values are passed as parameters.
+   * Like the criteria search, the versions pointed to by trade items and identity pairs are used
+   * (both have to match if both are given), otherwise the latest versions are returned.
+   */
+  private String prepareNativeConditions(SearchParams searchParams, Map<String, Object> params) {
+    List<String> wheres = Lists.newArrayList();
 
-    latestOrderablesQuery.select(
-        builder.concat(
-            latestOrderablesRoot.get(IDENTITY).get(ID).as(String.class),
-            builder.max(latestOrderablesRoot.get(IDENTITY).get(VERSION_NUMBER)).as(String.class)));
-    latestOrderablesQuery.groupBy(latestOrderablesRoot.get(IDENTITY).get(ID));
+    Set<String> programCodes = getProgramCodesLowerCase(searchParams);
+    if (!programCodes.isEmpty()) {
+      wheres.add(NATIVE_PROGRAM_CONDITION);
+      params.put("programCodes", programCodes);
+    }
 
-    return latestOrderablesQuery;
-  }
+    Set<UUID> tradeItemIds = null == searchParams
+        ? Collections.emptySet()
+        : searchParams.getTradeItemId();
+    if (!tradeItemIds.isEmpty()) {
+      wheres.add(NATIVE_TRADE_ITEM_CONDITION);
+      params.put("tradeItemIds",
+          tradeItemIds.stream().map(UUID::toString).collect(Collectors.toSet()));
+    }
 
-  private Query getLastUpdatedQuery(SearchParams searchParams, boolean count) {
-    String startNativeQuery = count ? NATIVE_COUNT_LAST_UPDATED : NATIVE_SELECT_LAST_UPDATED;
-    StringBuilder builder = new StringBuilder(startNativeQuery);
-    List<String> wheres = Lists.newArrayList();
-    String queryCondition;
+    Set<Pair<UUID, Long>> identityPairs = null == searchParams
+        ? Collections.emptySet()
+        : searchParams.getIdentityPairs();
+    if (!isEmpty(identityPairs)) {
+      List<String> identityConditions = new ArrayList<>();
+      int index = 0;
+      for (Pair<UUID, Long> identity : identityPairs) {
+        identityConditions.add(String.format(
+            "(o.id = :identityId%1$d AND o.versionNumber = :identityVersion%1$d)", index));
+        params.put("identityId" + index, identity.getLeft());
+        params.put("identityVersion" + index, identity.getRight());
+        index++;
+      }
+      wheres.add("(" + String.join(" OR ", identityConditions) + ")");
+    }
+
+    if (tradeItemIds.isEmpty() && isEmpty(identityPairs)) {
+      wheres.add(NATIVE_LATEST_ORDERABLE_CONDITION);
+    }
 
     if (null != searchParams) {
-      Set<String> programCodes = getProgramCodesLowerCase(searchParams);
-      if (!isEmpty(programCodes)) {
-        builder.append(NATIVE_PROGRAM_ORDERABLE_INNER_JOIN + NATIVE_PROGRAM_INNER_JOIN);
-        queryCondition = "LOWER (p.code) IN ("
-            + generateProgramCodesText(programCodes) + ")";
-        wheres.add(queryCondition);
+      if (!searchParams.getIds().isEmpty()) {
+        wheres.add("o.id IN (:ids)");
+        params.put("ids", searchParams.getIds());
       }
 
-      if (null != searchParams.getCode()) {
-        queryCondition = "LOWER (o.code) LIKE '%"
-            + searchParams.getCode().toLowerCase() + "%'";
-        wheres.add(queryCondition);
+      if (isNotBlank(searchParams.getCode())) {
+        wheres.add("LOWER(o.code) LIKE :code");
+        params.put(CODE, "%" + searchParams.getCode().toLowerCase() + "%");
       }
 
-      if (null != searchParams.getName()) {
-        queryCondition = "LOWER (o.fullproductname) LIKE '%"
-            + searchParams.getName().toLowerCase() + "%'";
-        wheres.add(queryCondition);
+      if (isNotBlank(searchParams.getName())) {
+        wheres.add("LOWER(o.fullProductName) LIKE :name");
+        params.put("name", "%" + searchParams.getName().toLowerCase() + "%");
       }
 
-      if (!wheres.isEmpty()) {
-        builder.append(WHERE).append(String.join(AND, wheres));
+      if (isNotBlank(searchParams.getQuery())) {
+        String query = searchParams.getQuery().trim().toLowerCase();
+        wheres.add(NATIVE_QUERY_CONDITION);
+        params.put("query", query);
+        params.put("queryPattern", "%" + escapeLikePattern(query) + "%");
       }
     }
 
-    if (!count) {
-      builder.append(ORDER_BY_LAST_UPDATED_DESC_LIMIT_1);
-    }
-    String builderText = builder.toString();
-    XLOGGER.info("QueryParamString: " + builderText);
-    return entityManager.createNativeQuery(builderText);
+    return WHERE + String.join(AND, wheres);
   }
 
-  private String generateProgramCodesText(Set<String> programCodesLowerCase) {
-
-    return programCodesLowerCase.stream()
-        .map(programCode -> {
-          StringBuilder builder = new StringBuilder();
-          builder
-              .append('\'')
-              .append(programCode)
-              .append('\'');
-          return builder.toString();
-        })
-        .collect(Collectors.joining(", "));
+  private static String escapeLikePattern(String value) {
+    return value
+        .replace("\\", "\\\\")
+        .replace("%", "\\%")
+        .replace("_", "\\_");
   }
 
   private List<Orderable> retrieveOrderables(Collection<VersionIdentity> identities) {
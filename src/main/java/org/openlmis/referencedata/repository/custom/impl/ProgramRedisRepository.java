@@ -16,22 +16,17 @@
 package org.openlmis.referencedata.repository.custom.impl;
 
 import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.service.NearCacheManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class ProgramRedisRepository extends BaseRedisRepository<Program> {
 
-  private static final String HASH_KEY = "PROGRAM";
+  private static final String CACHE_NAME = "programs";
 
   @Autowired
-  ProgramRedisRepository(RedisTemplate redisTemplate) {
-    super(redisTemplate, Program.class);
-  }
-
-  @Override
-  protected String getHashKey() {
-    return HASH_KEY;
+  ProgramRedisRepository(NearCacheManager nearCacheManager) {
+    super(nearCacheManager, CACHE_NAME, Program.class);
   }
 }
@@ -16,23 +16,18 @@
 package org.openlmis.referencedata.repository.custom.impl;
 
 import org.openlmis.referencedata.dto.SupervisoryNodeDto;
+import org.openlmis.referencedata.service.NearCacheManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class SupervisoryNodeDtoRedisRepository
     extends BaseRedisRepository<SupervisoryNodeDto> {
 
-  private static final String HASH_KEY = "SUPERVISORY_NODE_DTO";
+  private static final String CACHE_NAME = "supervisoryNodes";
 
   @Autowired
-  SupervisoryNodeDtoRedisRepository(RedisTemplate redisTemplate) {
-    super(redisTemplate, SupervisoryNodeDto.class);
-  }
-
-  @Override
-  protected String getHashKey() {
-    return HASH_KEY;
+  SupervisoryNodeDtoRedisRepository(NearCacheManager nearCacheManager) {
+    super(nearCacheManager, CACHE_NAME, SupervisoryNodeDto.class);
   }
 }
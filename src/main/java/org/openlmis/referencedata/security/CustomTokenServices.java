@@ -13,24 +13,127 @@
  * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
  */
 
+
 package org.openlmis.referencedata.security;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.RemoteTokenServices;
 
 public class CustomTokenServices extends RemoteTokenServices {
 
   private int invalidTokenRetryLimit;
+  private Cache<String, CachedAuthentication> authentications;
+  private long maxAge;
+  private long invalidTokenMaxAge;
+  private Clock clock = Clock.systemUTC();
 
   public CustomTokenServices(int invalidTokenRetryLimit) {
+    this(invalidTokenRetryLimit, 0, 0, 0);
+  }
+
+  /**
+   * Creates token services that keep the results of token checks for a while, so that the auth
+   * service is not called on every request made with the same token.
+   *
+   * @param invalidTokenRetryLimit how many times an invalid token is checked again
+   * @param cacheMaxSize maximum number of cached tokens; 0 disables the cache
+   * @param maxAge for how many seconds the authentication of a valid token is kept, at most
+   *               until the token expires
+   * @param invalidTokenMaxAge for how many seconds a token is remembered as invalid
+   */
+  public CustomTokenServices(int invalidTokenRetryLimit, long cacheMaxSize, long maxAge,
+      long invalidTokenMaxAge) {
     super();
     this.invalidTokenRetryLimit = invalidTokenRetryLimit;
+    this.maxAge = TimeUnit.SECONDS.toMillis(maxAge);
+    this.invalidTokenMaxAge = TimeUnit.SECONDS.toMillis(invalidTokenMaxAge);
+    this.authentications = cacheMaxSize > 0 && maxAge > 0
+        ? CacheBuilder.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(Math.max(maxAge, invalidTokenMaxAge), TimeUnit.SECONDS)
+            .recordStats()
+            .build()
+        : null;
+    setAccessTokenConverter(new DefaultAccessTokenConverter());
+  }
+
+  /**
+   * Sets the converter of check_token responses. The expiry time of the token is taken from the
+   * response as well, so that a valid token is not kept in the cache after it expires.
+   */
+  @Override
+  public final void setAccessTokenConverter(AccessTokenConverter accessTokenConverter) {
+    super.setAccessTokenConverter(new ExpiryReadingConverter(accessTokenConverter));
+  }
+
+  /**
+   * Returns the cache of token check results, or null if caching is disabled. Tokens are stored
+   * under their SHA-256 hash, never in plain text.
+   */
+  public Cache<String, CachedAuthentication> getAuthenticationCache() {
+    return authentications;
+  }
+
+  void setClock(Clock clock) {
+    this.clock = clock;
   }
 
   @Override
   public OAuth2Authentication loadAuthentication(String accessToken) {
-    return loadAuthentication(accessToken, 0);
+    if (null == authentications) {
+      return loadAuthentication(accessToken, 0);
+    }
+
+    String key = Hashing.sha256().hashString(accessToken, UTF_8).toString();
+    CachedAuthentication cached = getCached(key, accessToken);
+
+    if (cached.isExpired(clock.millis())) {
+      authentications.asMap().remove(key, cached);
+      cached = getCached(key, accessToken);
+    }
+
+    return cached.get();
+  }
+
+  private CachedAuthentication getCached(String key, String accessToken) {
+    try {
+      // concurrent requests with the same token wait for a single check
+      return authentications.get(key, () -> check(accessToken));
+    } catch (ExecutionException | UncheckedExecutionException exp) {
+      if (exp.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exp.getCause();
+      }
+      throw new IllegalStateException(exp.getCause());
+    }
+  }
+
+  private CachedAuthentication check(String accessToken) {
+    try {
+      OAuth2Authentication authentication = loadAuthentication(accessToken, 0);
+      long expiresAt = clock.millis() + maxAge;
+
+      if (authentication instanceof ExpiringAuthentication) {
+        expiresAt = Math.min(expiresAt, ((ExpiringAuthentication) authentication).expiresAt);
+      }
+
+      return new CachedAuthentication(authentication, null, expiresAt);
+    } catch (InvalidTokenException exp) {
+      return new CachedAuthentication(null, exp.getMessage(), clock.millis() + invalidTokenMaxAge);
+    }
   }
 
   private OAuth2Authentication loadAuthentication(String accessToken, int attempt) {
@@ -46,4 +149,81 @@ public class CustomTokenServices extends RemoteTokenServices {
       }
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Result of a single token check: either the authentication or the reason the token was
+   * rejected. Invalid tokens are forgotten sooner than valid ones.
+   */
+  public static final class CachedAuthentication {
+    private final OAuth2Authentication authentication;
+    private final String invalidTokenMessage;
+    private final long expiresAt;
+
+    private CachedAuthentication(OAuth2Authentication authentication,
+        String invalidTokenMessage, long expiresAt) {
+      this.authentication = authentication;
+      this.invalidTokenMessage = invalidTokenMessage;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+
+    OAuth2Authentication get() {
+      if (null == authentication) {
+        throw new InvalidTokenException(invalidTokenMessage);
+      }
+
+      // the security filters set request details on the returned object, so each request
+      // gets its own copy
+      return new OAuth2Authentication(
+          authentication.getOAuth2Request(), authentication.getUserAuthentication());
+    }
+  }
+
+  /**
+   * Authentication read from a check_token response that contained the expiry time of the token.
+   */
+  private static final class ExpiringAuthentication extends OAuth2Authentication {
+    private static final long serialVersionUID = 1L;
+
+    private final long expiresAt;
+
+    private ExpiringAuthentication(OAuth2Authentication authentication, long expiresAt) {
+      super(authentication.getOAuth2Request(), authentication.getUserAuthentication());
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private static final class ExpiryReadingConverter implements AccessTokenConverter {
+    private final AccessTokenConverter delegate;
+
+    private ExpiryReadingConverter(AccessTokenConverter delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Map<String, ?> convertAccessToken(OAuth2AccessToken token,
+        OAuth2Authentication authentication) {
+      return delegate.convertAccessToken(token, authentication);
+    }
+
+    @Override
+    public OAuth2AccessToken extractAccessToken(String value, Map<String, ?> map) {
+      return delegate.extractAccessToken(value, map);
+    }
+
+    @Override
+    public OAuth2Authentication extractAuthentication(Map<String, ?> map) {
+      OAuth2Authentication authentication = delegate.extractAuthentication(map);
+      Object exp = map.get(EXP);
+
+      // exp is given in seconds since the epoch
+      return exp instanceof Number
+          ? new ExpiringAuthentication(authentication,
+              TimeUnit.SECONDS.toMillis(((Number) exp).longValue()))
+          : authentication;
+    }
+  }
+}
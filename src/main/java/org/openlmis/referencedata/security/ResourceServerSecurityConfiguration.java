@@ -15,12 +15,15 @@
 
 package org.openlmis.referencedata.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import java.io.IOException;
 import java.util.Arrays;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -110,7 +113,8 @@ public class ResourceServerSecurityConfiguration implements ResourceServerConfig
   }
 
   /**
-   * RemoteTokenServices bean initializer.
+   * RemoteTokenServices bean initializer. Results of token checks are cached, and the hit and
+   * miss counts of the cache are published as the authTokens cache metrics.
    *
    * @param checkTokenUrl url to check tokens against
    * @param clientId      client's id
@@ -123,8 +127,19 @@ public class ResourceServerSecurityConfiguration implements ResourceServerConfig
       @Value("${auth.server.url}") String checkTokenUrl,
       @Value("${auth.server.clientId}") String clientId,
       @Value("${auth.server.clientSecret}") String clientSecret,
-      @Value("${auth.server.invalidToken.retryLimit}") int invalidTokenRetryLimit) {
-    final RemoteTokenServices remoteTokenServices = new CustomTokenServices(invalidTokenRetryLimit);
+      @Value("${auth.server.invalidToken.retryLimit}") int invalidTokenRetryLimit,
+      @Value("${auth.server.tokenCache.maxSize}") long tokenCacheMaxSize,
+      @Value("${auth.server.tokenCache.maxAge}") long tokenCacheMaxAge,
+      @Value("${auth.server.tokenCache.invalidTokenMaxAge}") long invalidTokenMaxAge,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    final CustomTokenServices remoteTokenServices = new CustomTokenServices(
+        invalidTokenRetryLimit, tokenCacheMaxSize, tokenCacheMaxAge, invalidTokenMaxAge);
+
+    if (null != remoteTokenServices.getAuthenticationCache()) {
+      meterRegistry.ifAvailable(registry -> GuavaCacheMetrics.monitor(
+          registry, remoteTokenServices.getAuthenticationCache(), "authTokens"));
+    }
+
     remoteTokenServices.setCheckTokenEndpointUrl(checkTokenUrl);
     remoteTokenServices.setClientId(clientId);
     remoteTokenServices.setClientSecret(clientSecret);
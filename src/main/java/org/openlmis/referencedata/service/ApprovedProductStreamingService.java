@@ -0,0 +1,126 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Iterators;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
+import org.openlmis.referencedata.dto.ApprovedProductDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.repository.FacilityTypeApprovedProductRepository;
+import org.openlmis.referencedata.util.ApprovedProductDtoBuilder;
+import org.openlmis.referencedata.util.Pagination;
+import org.openlmis.referencedata.util.messagekeys.MessageKeys;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class ApprovedProductStreamingService {
+
+  private static final XLogger XLOGGER =
+      XLoggerFactory.getXLogger(ApprovedProductStreamingService.class);
+
+  private static final int BATCH_SIZE = 500;
+
+  @Autowired
+  private FacilityTypeApprovedProductRepository facilityTypeApprovedProductRepository;
+
+  @Autowired
+  private ApprovedProductDtoBuilder approvedProductDtoBuilder;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Writes all approved products of the given facility that match the parameters to the given
+   * output stream, as a single page in the same JSON format as the paginated response. Products
+   * are streamed from the database and written in batches: the persistence context is cleared
+   * after each batch, so the memory used does not depend on the number of products. The facility
+   * is looked up before anything is written. The output stream is not closed.
+   *
+   * @param facilityId   ID of the facility
+   * @param outputStream stream the page is written to
+   */
+  @Transactional(readOnly = true)
+  public void writeApprovedProducts(UUID facilityId, UUID programId, Boolean fullSupply,
+      List<UUID> orderableIds, Boolean active, String orderableCode, String orderableName,
+      OutputStream outputStream) {
+    Profiler profiler = new Profiler("WRITE_FACILITY_APPROVED_PRODUCTS");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("OPEN_APPROVED_PRODUCTS_STREAM");
+    try (Stream<FacilityTypeApprovedProduct> ftaps = facilityTypeApprovedProductRepository
+        .streamProducts(facilityId, programId, fullSupply, orderableIds, active, orderableCode,
+            orderableName)) {
+      JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+      profiler.start("WRITE_APPROVED_PRODUCTS");
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("content");
+
+      int written = 0;
+      Iterator<List<FacilityTypeApprovedProduct>> batches = Iterators
+          .partition(ftaps.iterator(), BATCH_SIZE);
+      while (batches.hasNext()) {
+        for (ApprovedProductDto productDto : approvedProductDtoBuilder.build(batches.next())) {
+          generator.writeObject(productDto);
+          written++;
+        }
+
+        generator.flush();
+        entityManager.clear();
+      }
+
+      generator.writeEndArray();
+      writePageFields(generator, written);
+      generator.writeEndObject();
+      generator.close();
+    } catch (IOException ex) {
+      throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
+    } finally {
+      profiler.stop().log();
+    }
+  }
+
+  // the same values a page of all elements has
+  private void writePageFields(JsonGenerator generator, int elements) throws IOException {
+    generator.writeNumberField("totalPages", elements > 0 ? 1 : 0);
+    generator.writeNumberField("totalElements", elements);
+    generator.writeNumberField("size", Pagination.NO_PAGINATION);
+    generator.writeNumberField("number", Pagination.DEFAULT_PAGE_NUMBER);
+    generator.writeNumberField("numberOfElements", elements);
+    generator.writeBooleanField("first", true);
+    generator.writeBooleanField("last", true);
+  }
+}
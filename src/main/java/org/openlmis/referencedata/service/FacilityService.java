@@ -52,6 +52,9 @@ public class FacilityService {
   @Autowired
   private GeographicZoneRepository geographicZoneRepository;
 
+  @Autowired
+  private GeographicZoneTreeCache geographicZoneTreeCache;
+
   @Autowired
   private GeographicZoneService geographicZoneService;
 
@@ -71,7 +74,10 @@ public class FacilityService {
     profiler.setLogger(LOGGER);
 
     profiler.start("CHECK_IF_GEO_ZONE_EXISTS");
-    if (null != params.getZoneId() && !geographicZoneRepository.existsById(params.getZoneId())) {
+    // a zone added moments ago may not be in the tree yet, so the database has the last word
+    if (null != params.getZoneId()
+        && !geographicZoneTreeCache.getTree().contains(params.getZoneId())
+        && !geographicZoneRepository.existsById(params.getZoneId())) {
       throw new ValidationMessageException(GeographicZoneMessageKeys.ERROR_NOT_FOUND);
     }
 
@@ -91,11 +97,14 @@ public class FacilityService {
       Profiler profiler) {
         
     profiler.start("GET_GEOGRAPHIC_ZONES");
+    // a zone that is not in the tree yet is left to the repository, which searches the zone
+    // hierarchy by itself
     Set<UUID> zones = Sets.newHashSet();
     if (null != params.getZoneId()) {
-      zones.add(params.getZoneId());
-      if (params.isRecurse()) {
-        profiler.start("GET_ALL_ZONES_IN_HIERARCHY");
+      if (!Boolean.TRUE.equals(params.isRecurse())) {
+        zones.add(params.getZoneId());
+      } else if (geographicZoneTreeCache.getTree().contains(params.getZoneId())) {
+        zones.add(params.getZoneId());
         zones.addAll(geographicZoneService.getAllZonesInHierarchy(params.getZoneId()));
       }
     }
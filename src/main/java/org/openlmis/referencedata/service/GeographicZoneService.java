@@ -15,7 +15,6 @@
 
 package org.openlmis.referencedata.service;
 
-import com.google.common.collect.Sets;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -50,6 +49,9 @@ public class GeographicZoneService {
   @Autowired
   private GeographicLevelRepository geographicLevelRepository;
 
+  @Autowired
+  private GeographicZoneTreeCache geographicZoneTreeCache;
+
   /**
    * Method returns page of geographic zones with matched parameters.
    * The result will be ordered using sort parameter from pageable.
@@ -85,27 +87,23 @@ public class GeographicZoneService {
   }
 
   /**
-   * Retrieves recursively all geographic zone IDs that are descendants of the given one.
+   * Retrieves all geographic zone IDs that are descendants of the given one, from the in-memory
+   * zone tree.
    *
    * @param root root of zone hierarchy
    * @return collection with all descendant zone IDs.
    */
   public Set<UUID> getAllZonesInHierarchy(UUID root) {
-    Set<UUID> children = geographicZoneRepository.findIdsByParent(root);
-    Set<UUID> result = Sets.newHashSet(children);
-
-    for (UUID zone : children) {
-      Set<UUID> descendants = getAllZonesInHierarchy(zone);
-      result.addAll(descendants);
-    }
-
-    return result;
+    return geographicZoneTreeCache.getTree().getDescendantIds(root);
   }
 
+  // the search needs the parent only as a reference, so zones from the tree are not loaded
   private GeographicZone findGeographicZone(Optional<UUID> parentId) {
     GeographicZone parent = null;
     if (parentId.isPresent()) {
-      parent = geographicZoneRepository.findById(parentId.get()).orElse(null);
+      parent = geographicZoneTreeCache.getTree().contains(parentId.get())
+          ? geographicZoneRepository.getOne(parentId.get())
+          : geographicZoneRepository.findById(parentId.get()).orElse(null);
       if (parent == null) {
         throw new ValidationMessageException(
             new Message(GeographicZoneMessageKeys.ERROR_NOT_FOUND_WITH_ID, parentId));
@@ -0,0 +1,203 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Immutable in-memory snapshot of the geographic zone tree. Ancestors and descendants of every
+ * zone are calculated once, when the snapshot is built, so all lookups are plain map reads.
+ */
+public final class GeographicZoneTree {
+
+  private final Map<UUID, Node> nodes;
+  private final Map<String, UUID> codes;
+  private final Map<UUID, List<UUID>> ancestors;
+  private final Map<UUID, Set<UUID>> children;
+  private final Map<UUID, Set<UUID>> descendants;
+
+  private GeographicZoneTree(Map<UUID, Node> nodes, Map<String, UUID> codes,
+      Map<UUID, List<UUID>> ancestors, Map<UUID, Set<UUID>> children,
+      Map<UUID, Set<UUID>> descendants) {
+    this.nodes = nodes;
+    this.codes = codes;
+    this.ancestors = ancestors;
+    this.children = children;
+    this.descendants = descendants;
+  }
+
+  /**
+   * Builds the tree from the given zones, which keep their order. A parent that is not one of
+   * the given zones is treated as missing, and a broken parent chain that loops back to itself is
+   * cut where the loop starts.
+   *
+   * @param zones all geographic zones
+   * @return the immutable tree
+   */
+  public static GeographicZoneTree of(Collection<Node> zones) {
+    Map<UUID, Node> nodes = new LinkedHashMap<>();
+    Map<String, UUID> codes = new HashMap<>();
+    zones.forEach(node -> {
+      nodes.put(node.getId(), node);
+      codes.put(node.getCode(), node.getId());
+    });
+
+    Map<UUID, List<UUID>> ancestors = new HashMap<>();
+    Map<UUID, Set<UUID>> children = new HashMap<>();
+    Map<UUID, Set<UUID>> descendants = new HashMap<>();
+    nodes.keySet().forEach(id -> {
+      children.put(id, new HashSet<>());
+      descendants.put(id, new HashSet<>());
+    });
+
+    for (Node node : nodes.values()) {
+      if (nodes.containsKey(node.getParentId())) {
+        children.get(node.getParentId()).add(node.getId());
+      }
+
+      ImmutableList.Builder<UUID> path = ImmutableList.builder();
+      Set<UUID> visited = new HashSet<>();
+      visited.add(node.getId());
+
+      Node parent = nodes.get(node.getParentId());
+      while (null != parent && visited.add(parent.getId())) {
+        path.add(parent.getId());
+        descendants.get(parent.getId()).add(node.getId());
+        parent = nodes.get(parent.getParentId());
+      }
+
+      ancestors.put(node.getId(), path.build());
+    }
+
+    return new GeographicZoneTree(ImmutableMap.copyOf(nodes), ImmutableMap.copyOf(codes),
+        ImmutableMap.copyOf(ancestors), toImmutable(children), toImmutable(descendants));
+  }
+
+  public int size() {
+    return nodes.size();
+  }
+
+  public boolean contains(UUID zoneId) {
+    return nodes.containsKey(zoneId);
+  }
+
+  public Optional<Node> getZone(UUID zoneId) {
+    return Optional.ofNullable(nodes.get(zoneId));
+  }
+
+  /**
+   * Returns all zones, in the order the tree was built from.
+   */
+  public Collection<Node> getZones() {
+    return nodes.values();
+  }
+
+  public Optional<UUID> findIdByCode(String code) {
+    return Optional.ofNullable(codes.get(code));
+  }
+
+  /**
+   * Returns the id of the parent of the given zone.
+   *
+   * @param zoneId id of the zone
+   * @return the parent id, or empty when the zone is a root or does not exist
+   */
+  public Optional<UUID> getParentId(UUID zoneId) {
+    return getZone(zoneId).map(Node::getParentId);
+  }
+
+  /**
+   * Returns ids of all ancestors of the given zone, starting with its parent.
+   *
+   * @param zoneId id of the zone
+   * @return ancestor ids ordered from the nearest, empty when the zone does not exist
+   */
+  public List<UUID> getAncestorIds(UUID zoneId) {
+    return ancestors.getOrDefault(zoneId, Collections.emptyList());
+  }
+
+  /**
+   * Returns ids of all zones below the given one, at any depth.
+   *
+   * @param zoneId id of the zone
+   * @return descendant ids, empty when the zone has no children or does not exist
+   */
+  public Set<UUID> getDescendantIds(UUID zoneId) {
+    return descendants.getOrDefault(zoneId, Collections.emptySet());
+  }
+
+  /**
+   * Returns ids of the direct children of the given zone that are on the given level.
+   *
+   * @param parentId id of the parent zone
+   * @param levelId id of the geographic level
+   * @return ids of the matching zones
+   */
+  public Set<UUID> findIdsByParentAndLevel(UUID parentId, UUID levelId) {
+    ImmutableSet.Builder<UUID> result = ImmutableSet.builder();
+    children
+        .getOrDefault(parentId, Collections.emptySet())
+        .stream()
+        .filter(childId -> levelId.equals(nodes.get(childId).getLevelId()))
+        .forEach(result::add);
+
+    return result.build();
+  }
+
+  private static Map<UUID, Set<UUID>> toImmutable(Map<UUID, Set<UUID>> map) {
+    ImmutableMap.Builder<UUID, Set<UUID>> builder = ImmutableMap.builder();
+    map.forEach((id, ids) -> builder.put(id, ImmutableSet.copyOf(ids)));
+
+    return builder.build();
+  }
+
+  /**
+   * Single zone of the tree, with only the fields needed to navigate it and to present it as a
+   * location.
+   */
+  @Getter
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  @ToString
+  public static final class Node {
+    private final UUID id;
+    private final String code;
+    private final String name;
+    private final UUID parentId;
+    private final UUID levelId;
+    private final Integer levelNumber;
+    private final Double latitude;
+    private final Double longitude;
+  }
+
+}
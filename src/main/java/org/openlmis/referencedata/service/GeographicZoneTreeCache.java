@@ -0,0 +1,157 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import org.openlmis.referencedata.repository.GeographicZoneRepository;
+import org.openlmis.referencedata.service.GeographicZoneTree.Node;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps an in-process {@link GeographicZoneTree} snapshot. The snapshot is tagged with a version
+ * kept in Redis; every change to zones bumps that version, and each instance of the service
+ * compares it with the version of its own snapshot at most once per configured interval. When
+ * they differ, the whole snapshot is rebuilt and replaced at once, so readers never see a
+ * partially updated tree.
+ */
+@Service
+public class GeographicZoneTreeCache {
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(GeographicZoneTreeCache.class);
+
+  static final String VERSION_KEY = "GEOGRAPHIC_ZONE_TREE_VERSION";
+
+  @Autowired
+  private GeographicZoneRepository geographicZoneRepository;
+
+  @Autowired
+  private RedisTemplate<String, Object> redisTemplate;
+
+  @Autowired
+  private Clock clock;
+
+  @Value("${geographicZones.tree.versionCheckInterval}")
+  private long versionCheckInterval;
+
+  private volatile Snapshot snapshot;
+
+  /**
+   * Returns the current zone tree. The tree is rebuilt first if zones were changed since it was
+   * built, here or on any other instance of the service.
+   *
+   * @return the zone tree
+   */
+  public GeographicZoneTree getTree() {
+    Snapshot current = snapshot;
+
+    if (null != current && current.isFresh(clock.millis(), versionCheckInterval)) {
+      return current.tree;
+    }
+
+    return refresh();
+  }
+
+  /**
+   * Marks the zone tree as changed, on all instances of the service. When called within a
+   * transaction, this happens only after the transaction is committed, so that the tree is not
+   * rebuilt from data that other transactions can not see yet.
+   */
+  public void invalidate() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              bumpVersion();
+            }
+          });
+    } else {
+      bumpVersion();
+    }
+  }
+
+  private synchronized GeographicZoneTree refresh() {
+    long now = clock.millis();
+    Snapshot current = snapshot;
+
+    if (null != current && current.isFresh(now, versionCheckInterval)) {
+      return current.tree;
+    }
+
+    String version = readVersion();
+
+    if (null != current && Objects.equals(version, current.version)) {
+      snapshot = new Snapshot(current.tree, version, now);
+      return current.tree;
+    }
+
+    Profiler profiler = new Profiler("BUILD_GEOGRAPHIC_ZONE_TREE");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("LOAD_ZONES");
+    List<Node> nodes = geographicZoneRepository
+        .findAllTreeNodes()
+        .stream()
+        .map(row -> new Node((UUID) row[0], (String) row[1], (String) row[2], (UUID) row[3],
+            (UUID) row[4], (Integer) row[5], (Double) row[6], (Double) row[7]))
+        .collect(Collectors.toList());
+
+    profiler.start("BUILD_TREE");
+    GeographicZoneTree tree = GeographicZoneTree.of(nodes);
+    snapshot = new Snapshot(tree, version, now);
+
+    profiler.stop().log();
+    XLOGGER.debug("Built geographic zone tree version {} with {} zones", version, tree.size());
+
+    return tree;
+  }
+
+  private synchronized void bumpVersion() {
+    redisTemplate.opsForValue().increment(VERSION_KEY);
+    snapshot = null;
+  }
+
+  private String readVersion() {
+    Object version = redisTemplate.opsForValue().get(VERSION_KEY);
+    return null == version ? null : version.toString();
+  }
+
+  @AllArgsConstructor
+  private static final class Snapshot {
+    private final GeographicZoneTree tree;
+    private final String version;
+    private final long checkedAt;
+
+    boolean isFresh(long now, long versionCheckInterval) {
+      return now - checkedAt < versionCheckInterval;
+    }
+  }
+
+}
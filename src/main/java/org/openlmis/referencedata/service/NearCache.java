@@ -0,0 +1,214 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import com.google.common.cache.Cache;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache of objects looked up by id, kept in two tiers: a bounded in-process cache in
+ * front of Redis, which is shared by all instances of the service. Entries of both tiers expire
+ * after a configured time. An eviction is published on a Redis channel, so that other instances
+ * drop the entry from their in-process tier too. A disabled cache passes every read through to
+ * the loader. Instances are created by {@link NearCacheManager}.
+ */
+public class NearCache<T> {
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(NearCache.class);
+
+  static final String KEY_PREFIX = "NEAR_CACHE:";
+
+  @Getter
+  private final String name;
+
+  @Getter
+  private final boolean enabled;
+
+  private final RedisTemplate<String, T> redisTemplate;
+  private final long ttl;
+
+  @Getter(AccessLevel.PACKAGE)
+  private final Cache<UUID, T> local;
+
+  private final Consumer<UUID> invalidationPublisher;
+  private final LongAdder remoteHits = new LongAdder();
+  private final LongAdder remoteMisses = new LongAdder();
+
+  NearCache(String name, RedisTemplate<String, T> redisTemplate, long ttl,
+      Cache<UUID, T> local, Consumer<UUID> invalidationPublisher) {
+    this(name, true, redisTemplate, ttl, local, invalidationPublisher);
+  }
+
+  private NearCache(String name, boolean enabled, RedisTemplate<String, T> redisTemplate,
+      long ttl, Cache<UUID, T> local, Consumer<UUID> invalidationPublisher) {
+    this.name = name;
+    this.enabled = enabled;
+    this.redisTemplate = redisTemplate;
+    this.ttl = ttl;
+    this.local = local;
+    this.invalidationPublisher = invalidationPublisher;
+  }
+
+  static <T> NearCache<T> disabled(String name) {
+    return new NearCache<>(name, false, null, 0, null, null);
+  }
+
+  /**
+   * Returns the cached object with the given id. Redis is asked only when the in-process tier
+   * does not have the object, with a single request.
+   *
+   * @param id id of the object
+   * @return the object, null if it is not cached or the cache is disabled
+   */
+  public T get(UUID id) {
+    if (!enabled) {
+      return null;
+    }
+
+    T value = local.getIfPresent(id);
+
+    if (null == value) {
+      value = getRemote(id);
+
+      if (null != value) {
+        local.put(id, value);
+      }
+    }
+
+    return value;
+  }
+
+  /**
+   * Returns the cached object with the given id or, when it is not cached, the object returned
+   * by the loader, which is then cached. The loader may throw an exception to signal that the
+   * object does not exist; null values are not cached.
+   *
+   * @param id     id of the object
+   * @param loader source of the object when it is not cached
+   * @return the object
+   */
+  public T get(UUID id, Supplier<T> loader) {
+    T value = get(id);
+
+    if (null == value) {
+      value = loader.get();
+      put(id, value);
+    }
+
+    return value;
+  }
+
+  /**
+   * Checks whether an object with the given id is cached.
+   */
+  public boolean contains(UUID id) {
+    return enabled
+        && (null != local.getIfPresent(id) || Boolean.TRUE.equals(redisTemplate.hasKey(key(id))));
+  }
+
+  /**
+   * Caches the given object in both tiers.
+   */
+  public void put(UUID id, T value) {
+    if (!enabled || null == value) {
+      return;
+    }
+
+    redisTemplate.opsForValue().set(key(id), value, ttl, TimeUnit.SECONDS);
+    local.put(id, value);
+  }
+
+  /**
+   * Drops the object with the given id from the cache, on all instances of the service. When
+   * called within a transaction, the object is dropped once more after the transaction is
+   * committed, so that a copy loaded by a concurrent read before the commit does not survive.
+   */
+  public void evict(UUID id) {
+    if (!enabled) {
+      return;
+    }
+
+    evictEverywhere(id);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              evictEverywhere(id);
+            }
+          });
+    }
+  }
+
+  void evictLocal(UUID id) {
+    if (enabled) {
+      local.invalidate(id);
+    }
+  }
+
+  long getRemoteHitCount() {
+    return remoteHits.sum();
+  }
+
+  long getRemoteMissCount() {
+    return remoteMisses.sum();
+  }
+
+  String key(UUID id) {
+    return KEY_PREFIX + name + ':' + id;
+  }
+
+  private T getRemote(UUID id) {
+    T value;
+
+    try {
+      value = redisTemplate.opsForValue().get(key(id));
+    } catch (SerializationException exp) {
+      // an entry written by an older version of the service, it will be loaded again
+      XLOGGER.warn("Dropping unreadable entry {} from the {} cache", id, name, exp);
+      redisTemplate.delete(key(id));
+      value = null;
+    }
+
+    if (null == value) {
+      remoteMisses.increment();
+    } else {
+      remoteHits.increment();
+    }
+
+    return value;
+  }
+
+  private void evictEverywhere(UUID id) {
+    redisTemplate.delete(key(id));
+    local.invalidate(id);
+    invalidationPublisher.accept(id);
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import org.openlmis.referencedata.domain.FacilityType;
+import org.openlmis.referencedata.domain.ProcessingSchedule;
+import org.openlmis.referencedata.dto.FacilityDto;
+import org.openlmis.referencedata.dto.GeographicZoneDto;
+import org.openlmis.referencedata.dto.RightDto;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class NearCacheConfiguration {
+
+  public static final String FACILITIES = "facilities";
+  public static final String FACILITY_TYPES = "facilityTypes";
+  public static final String GEOGRAPHIC_ZONES = "geographicZones";
+  public static final String PROCESSING_SCHEDULES = "processingSchedules";
+  public static final String RIGHTS = "rights";
+
+  /**
+   * Listens to evictions published by other instances of the service.
+   */
+  @Bean
+  public RedisMessageListenerContainer nearCacheListenerContainer(
+      RedisConnectionFactory connectionFactory, NearCacheManager nearCacheManager) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(nearCacheManager,
+        new ChannelTopic(NearCacheManager.INVALIDATION_CHANNEL));
+
+    return container;
+  }
+
+  /**
+   * Cache of facilities returned by id. Facilities embed their type, geographic zone and
+   * supported programs, so changes of those are visible only after the entry expires.
+   */
+  @Bean
+  public NearCache<FacilityDto> facilityNearCache(NearCacheManager nearCacheManager) {
+    return nearCacheManager.create(FACILITIES, FacilityDto.class);
+  }
+
+  @Bean
+  public NearCache<FacilityType> facilityTypeNearCache(NearCacheManager nearCacheManager) {
+    return nearCacheManager.create(FACILITY_TYPES, FacilityType.class);
+  }
+
+  /**
+   * Cache of geographic zones returned by id. Zones embed their level and parent, so changes of
+   * those are visible only after the entry expires.
+   */
+  @Bean
+  public NearCache<GeographicZoneDto> geographicZoneNearCache(
+      NearCacheManager nearCacheManager) {
+    return nearCacheManager.create(GEOGRAPHIC_ZONES, GeographicZoneDto.class);
+  }
+
+  @Bean
+  public NearCache<ProcessingSchedule> processingScheduleNearCache(
+      NearCacheManager nearCacheManager) {
+    return nearCacheManager.create(PROCESSING_SCHEDULES, ProcessingSchedule.class);
+  }
+
+  @Bean
+  public NearCache<RightDto> rightNearCache(NearCacheManager nearCacheManager) {
+    return nearCacheManager.create(RIGHTS, RightDto.class);
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates {@link NearCache} instances and relays evictions between instances of the service.
+ * Every cache is configured by properties prefixed with {@code nearCache.<name>}: whether it is
+ * enabled, the maximum number of in-process entries and how long entries are kept in-process and
+ * in Redis. Properties of a cache that are not set fall back to the {@code nearCache} defaults.
+ */
+@Component
+public class NearCacheManager implements MessageListener {
+
+  static final String INVALIDATION_CHANNEL = "NEAR_CACHE_INVALIDATIONS";
+
+  private static final String PROPERTY_PREFIX = "nearCache.";
+  private static final String SEPARATOR = " ";
+
+  @Autowired
+  private RedisConnectionFactory connectionFactory;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private Environment environment;
+
+  @Autowired
+  private ObjectProvider<MeterRegistry> meterRegistry;
+
+  private final String instanceId = UUID.randomUUID().toString();
+  private final Map<String, NearCache<?>> caches = new ConcurrentHashMap<>();
+  private StringRedisTemplate invalidationTemplate;
+
+  @PostConstruct
+  void init() {
+    invalidationTemplate = new StringRedisTemplate(connectionFactory);
+  }
+
+  /**
+   * Creates a cache of objects of the given type. Objects are stored in Redis as JSON.
+   *
+   * @param name name of the cache, used in its properties, Redis keys and metrics
+   * @param type type of the cached objects
+   * @return the cache, a disabled one unless enabled by configuration
+   */
+  public <T> NearCache<T> create(String name, Class<T> type) {
+    if (!environment.getProperty(PROPERTY_PREFIX + name + ".enabled", Boolean.class, false)) {
+      return NearCache.disabled(name);
+    }
+
+    Jackson2JsonRedisSerializer<T> serializer = new Jackson2JsonRedisSerializer<>(type);
+    serializer.setObjectMapper(objectMapper);
+
+    RedisTemplate<String, T> redisTemplate = new RedisTemplate<>();
+    redisTemplate.setConnectionFactory(connectionFactory);
+    redisTemplate.setKeySerializer(new StringRedisSerializer());
+    redisTemplate.setValueSerializer(serializer);
+    redisTemplate.afterPropertiesSet();
+
+    Cache<UUID, T> local = CacheBuilder.newBuilder()
+        .maximumSize(getLongProperty(name, "maxSize"))
+        .expireAfterWrite(getLongProperty(name, "localTtl"), TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+
+    NearCache<T> cache = new NearCache<>(name, redisTemplate, getLongProperty(name, "ttl"),
+        local, id -> publishInvalidation(name, id));
+
+    if (null != caches.putIfAbsent(name, cache)) {
+      throw new IllegalStateException("Near cache " + name + " has already been created");
+    }
+
+    meterRegistry.ifAvailable(registry -> monitor(registry, cache));
+    return cache;
+  }
+
+  /**
+   * Drops an entry evicted on another instance of the service from the in-process tier.
+   */
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String[] parts = new String(message.getBody(), UTF_8).split(SEPARATOR);
+
+    if (parts.length != 3 || instanceId.equals(parts[0])) {
+      return;
+    }
+
+    NearCache<?> cache = caches.get(parts[1]);
+
+    if (null != cache) {
+      cache.evictLocal(UUID.fromString(parts[2]));
+    }
+  }
+
+  String invalidationMessage(String name, UUID id) {
+    return String.join(SEPARATOR, instanceId, name, id.toString());
+  }
+
+  private void publishInvalidation(String name, UUID id) {
+    invalidationTemplate.convertAndSend(INVALIDATION_CHANNEL, invalidationMessage(name, id));
+  }
+
+  private long getLongProperty(String name, String property) {
+    return environment.getProperty(PROPERTY_PREFIX + name + '.' + property, Long.class,
+        environment.getRequiredProperty(PROPERTY_PREFIX + property, Long.class));
+  }
+
+  // in-process hits and misses are reported like other Guava caches, the Redis ones separately
+  private void monitor(MeterRegistry registry, NearCache<?> cache) {
+    GuavaCacheMetrics.monitor(registry, cache.getLocal(), PROPERTY_PREFIX + cache.getName());
+
+    FunctionCounter.builder("nearCache.remote.gets", cache, NearCache::getRemoteHitCount)
+        .tags("cache", cache.getName(), "result", "hit")
+        .description("The number of times the entry was found in Redis")
+        .register(registry);
+    FunctionCounter.builder("nearCache.remote.gets", cache, NearCache::getRemoteMissCount)
+        .tags("cache", cache.getName(), "result", "miss")
+        .description("The number of times the entry was not found in Redis")
+        .register(registry);
+  }
+
+}
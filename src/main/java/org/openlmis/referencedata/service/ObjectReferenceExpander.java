@@ -19,15 +19,22 @@ import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.openlmis.referencedata.util.messagekeys.DtoExpansionMessageKeys.ERROR;
 
-import java.lang.reflect.InvocationTargetException;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
-import org.apache.commons.beanutils.PropertyUtils;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 import org.openlmis.referencedata.domain.BaseEntity;
 import org.openlmis.referencedata.dto.ObjectReferenceDto;
 import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -36,12 +43,26 @@ public class ObjectReferenceExpander {
   private static final String EXPORT_METHOD_NAME = "export";
   private static final String EXPORTER_INTERFACE_NAME = "Exporter";
 
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType EXPORT_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+  private final Map<Triple<Class<?>, Class<?>, String>, ExpandPlan> plans =
+      new ConcurrentHashMap<>();
+  private final Map<Pair<Class<?>, Class<?>>, MethodHandle> exportMethods =
+      new ConcurrentHashMap<>();
+
   /**
    * Expands the DTO object. The requirement is that the field names in the {@code expands}
    * list exactly correspond to the field names in the passed DTO object. Moreover, those fields
    * need to extend the {@link ObjectReferenceDto}. If that's the case, this method will
    * use export method from entity objects and populates dto fields.
    *
+   * <p>Accessors needed to expand a path are looked up once for each DTO and entity class and
+   * kept as method handles, so repeated expansions do not use reflection.
+   *
    * @param dto     the DTO to expand
    * @param entity  entity object to get data from
    * @param expands a set of field names from the passed DTO to expand
@@ -53,63 +74,114 @@ public class ObjectReferenceExpander {
     expands.forEach(e -> expand(dto, entity, e));
   }
 
+  // plans are kept per property, not per expand path, so that paths sent by clients do not
+  // add entries; a new plan is kept only once the whole path was expanded with it
   private void expand(Object dto, Object entity, String expand) {
-    String propertyName = null;
+    String[] parts = expand.split("\\.", 2);
+    String propertyName = parts[0];
+    String nestedExpand = parts.length == 2 && isNotBlank(parts[1]) ? parts[1] : null;
 
-    try {
-      String[] parts = expand.split("\\.", 2);
-      propertyName = parts[0];
+    Triple<Class<?>, Class<?>, String> key =
+        Triple.of(dto.getClass(), entity.getClass(), propertyName);
+    ExpandPlan plan = plans.get(key);
+    boolean newPlan = plan == null;
+
+    if (newPlan) {
+      plan = compilePlan(dto.getClass(), entity.getClass(), propertyName);
+    }
 
-      Object entityProperty = PropertyUtils.getProperty(entity, propertyName);
+    try {
+      Object entityProperty = (Object) plan.entityGetter.invokeExact(entity);
 
-      if (entityProperty == null) {
-        return;
+      if (entityProperty != null && plan.isCollection()) {
+        expandCollection(dto, (Collection<?>) entityProperty, plan, nestedExpand);
+      } else if (entityProperty != null) {
+        expandField(dto, entityProperty, plan, nestedExpand);
       }
+    } catch (ValidationMessageException | Error ex) {
+      throw ex;
+    } catch (Throwable ex) {
+      throw new ValidationMessageException(ex, ERROR, propertyName, dto.getClass());
+    }
 
-      if (entityProperty instanceof Collection) {
-        expandCollection(dto, entityProperty, propertyName, parts.length == 2 ? parts[1] : null);
-      } else {
-        expandField(dto, entityProperty, propertyName, parts.length == 2 ? parts[1] : null);
-      }
-    } catch (InvocationTargetException | IllegalAccessException | NoSuchMethodException
-        | InstantiationException | NoSuchFieldException e) {
-      throw new ValidationMessageException(e, ERROR, propertyName, dto.getClass());
+    if (newPlan) {
+      plans.putIfAbsent(key, plan);
     }
   }
 
-  private void expandCollection(Object dto, Object entity, String propertyName, String expand)
-      throws NoSuchFieldException, IllegalAccessException, NoSuchMethodException,
-      InvocationTargetException, InstantiationException {
-    Class dtoClass = getGenericClassFromCollection(dto, propertyName);
-    Object dtoProperty = PropertyUtils.getProperty(dto, propertyName);
-
-    Collection collection = ((Collection) dtoProperty);
+  private void expandCollection(Object dto, Collection<?> entity, ExpandPlan plan,
+      String nestedExpand) throws Throwable {
+    Object dtoProperty = (Object) plan.dtoGetter.invokeExact(dto);
+    @SuppressWarnings("unchecked")
+    Collection<Object> collection = (Collection<Object>) dtoProperty;
     collection.clear();
 
-    for (Object e : (Collection) entity) {
-      Object dtoInstance = dtoClass.newInstance();
-      getExportMethod(e, dtoClass).invoke(e, dtoInstance);
+    for (Object e : entity) {
+      Object dtoInstance = (Object) plan.elementConstructor.invokeExact();
+      getExportMethod(e.getClass(), plan.elementClass).invokeExact(e, dtoInstance);
       collection.add(dtoInstance);
 
-      if (isNotBlank(expand)) {
-        expand(dtoInstance, entity, expand);
+      if (nestedExpand != null) {
+        expand(dtoInstance, e, nestedExpand);
+      }
+    }
+  }
+
+  private void expandField(Object dto, Object entity, ExpandPlan plan, String nestedExpand)
+      throws Throwable {
+    Object dtoProperty = (Object) plan.dtoGetter.invokeExact(dto);
+    getExportMethod(entity.getClass(), dtoProperty.getClass()).invokeExact(entity, dtoProperty);
+
+    if (nestedExpand != null) {
+      expand(dtoProperty, entity, nestedExpand);
+    }
+  }
+
+  private ExpandPlan compilePlan(Class<?> dtoClass, Class<?> entityClass, String propertyName) {
+    try {
+      Method entityGetter = getReadMethod(entityClass, propertyName);
+      MethodHandle dtoGetter = toGetterHandle(getReadMethod(dtoClass, propertyName));
+
+      if (!Collection.class.isAssignableFrom(entityGetter.getReturnType())) {
+        return new ExpandPlan(toGetterHandle(entityGetter), dtoGetter, null, null);
       }
+
+      Class<?> elementClass = getGenericClassFromCollection(dtoClass, propertyName);
+      MethodHandle elementConstructor = LOOKUP
+          .findConstructor(elementClass, MethodType.methodType(void.class))
+          .asType(CONSTRUCTOR_TYPE);
+
+      return new ExpandPlan(toGetterHandle(entityGetter), dtoGetter, elementClass,
+          elementConstructor);
+    } catch (ReflectiveOperationException ex) {
+      throw new ValidationMessageException(ex, ERROR, propertyName, dtoClass);
     }
   }
 
-  private void expandField(Object dto, Object entity, String propertyName, String expand)
-      throws IllegalAccessException, NoSuchMethodException, InvocationTargetException {
-    Object dtoProperty = PropertyUtils.getProperty(dto, propertyName);
-    getExportMethod(entity, dtoProperty.getClass()).invoke(entity, dtoProperty);
+  private MethodHandle getExportMethod(Class<?> entityClass, Class<?> dtoClass)
+      throws ReflectiveOperationException {
+    Pair<Class<?>, Class<?>> key = Pair.of(entityClass, dtoClass);
+    MethodHandle exportMethod = exportMethods.get(key);
+
+    if (exportMethod == null) {
+      Class<?> exporter = getExporter(dtoClass.getInterfaces());
+
+      if (exporter == null) {
+        throw new NoSuchMethodException(dtoClass.getName() + " does not implement an exporter");
+      }
 
-    if (isNotBlank(expand)) {
-      expand(dtoProperty, entity, expand);
+      exportMethod = LOOKUP
+          .unreflect(entityClass.getMethod(EXPORT_METHOD_NAME, exporter))
+          .asType(EXPORT_TYPE);
+      exportMethods.putIfAbsent(key, exportMethod);
     }
+
+    return exportMethod;
   }
 
-  private Class getExporter(Class<?>[] asd) {
-    Class importer = null;
-    for (Class inter : asd) {
+  private Class<?> getExporter(Class<?>[] asd) {
+    Class<?> importer = null;
+    for (Class<?> inter : asd) {
       if (inter.getName().contains(EXPORTER_INTERFACE_NAME)) {
         importer = inter;
       }
@@ -117,15 +189,50 @@ public class ObjectReferenceExpander {
     return importer;
   }
 
-  private Method getExportMethod(Object entity, Class dtoClass) throws NoSuchMethodException {
-    return entity.getClass().getMethod(EXPORT_METHOD_NAME, getExporter(dtoClass.getInterfaces()));
+  private Method getReadMethod(Class<?> type, String propertyName)
+      throws NoSuchMethodException {
+    PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, propertyName);
+
+    if (descriptor == null || descriptor.getReadMethod() == null) {
+      throw new NoSuchMethodException("Unknown property '" + propertyName + "' on " + type);
+    }
+
+    return descriptor.getReadMethod();
   }
 
-  private Class getGenericClassFromCollection(Object dto, String propertyName)
+  private MethodHandle toGetterHandle(Method getter) throws IllegalAccessException {
+    getter.setAccessible(true);
+    return LOOKUP.unreflect(getter).asType(GETTER_TYPE);
+  }
+
+  private Class<?> getGenericClassFromCollection(Class<?> dtoClass, String propertyName)
       throws NoSuchFieldException {
-    return (Class) ((ParameterizedType) dto.getClass()
+    return (Class<?>) ((ParameterizedType) dtoClass
         .getDeclaredField(propertyName)
         .getGenericType())
         .getActualTypeArguments()[0];
   }
+
+  /**
+   * Accessors needed to expand a single property, resolved for a single pair of DTO and entity
+   * classes. The rest of an expand path is expanded with plans of the property classes.
+   */
+  private static final class ExpandPlan {
+    private final MethodHandle entityGetter;
+    private final MethodHandle dtoGetter;
+    private final Class<?> elementClass;
+    private final MethodHandle elementConstructor;
+
+    ExpandPlan(MethodHandle entityGetter, MethodHandle dtoGetter, Class<?> elementClass,
+        MethodHandle elementConstructor) {
+      this.entityGetter = entityGetter;
+      this.dtoGetter = dtoGetter;
+      this.elementClass = elementClass;
+      this.elementConstructor = elementConstructor;
+    }
+
+    boolean isCollection() {
+      return elementClass != null;
+    }
+  }
 }
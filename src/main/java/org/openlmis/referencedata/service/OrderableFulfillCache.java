@@ -0,0 +1,204 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.openlmis.referencedata.web.OrderableFulfill;
+import org.openlmis.referencedata.web.OrderableFulfillFactory;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps an in-process projection of {@link OrderableFulfill} resources of all latest orderables.
+ * The projection is tagged with a version kept in Redis; every change to orderables, trade items
+ * or commodity types bumps that version, and each instance of the service compares it with the
+ * version of its own projection at most once per configured interval. When they differ, the
+ * whole projection is rebuilt and replaced at once, so readers never see a partially updated map.
+ * The check and the rebuild run in the background, one at a time, and readers get the previous
+ * projection until the new one is ready; only the very first projection is waited for.
+ */
+@Service
+public class OrderableFulfillCache {
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(OrderableFulfillCache.class);
+
+  static final String VERSION_KEY = "ORDERABLE_FULFILLS_VERSION";
+  static final String MODIFIED_AT_KEY = "ORDERABLE_FULFILLS_MODIFIED_AT";
+
+  @Autowired
+  private OrderableFulfillFactory orderableFulfillFactory;
+
+  @Autowired
+  private RedisTemplate<String, Object> redisTemplate;
+
+  @Autowired
+  private Clock clock;
+
+  @Autowired
+  @Qualifier("orderableFulfillRefreshExecutor")
+  private TaskExecutor refreshExecutor;
+
+  @Value("${orderableFulfills.cache.versionCheckInterval}")
+  private long versionCheckInterval;
+
+  private volatile Snapshot snapshot;
+
+  private final AtomicLong invalidations = new AtomicLong();
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+
+  /**
+   * Returns the current projection. If orderables, trade items or commodity types may have been
+   * changed since it was built, here or on any other instance of the service, a rebuild is
+   * started in the background and the current projection is returned meanwhile.
+   *
+   * @return the projection
+   */
+  public Projection getProjection() {
+    Snapshot current = snapshot;
+
+    if (null == current) {
+      return refresh();
+    }
+
+    if (!current.isFresh(clock.millis(), versionCheckInterval, invalidations.get())) {
+      refreshInBackground();
+    }
+
+    return current.projection;
+  }
+
+  /**
+   * Marks the projection as changed, on all instances of the service. When called within a
+   * transaction, this happens only after the transaction is committed, so that the projection is
+   * not rebuilt from data that other transactions can not see yet.
+   */
+  public void invalidate() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              bumpVersion();
+            }
+          });
+    } else {
+      bumpVersion();
+    }
+  }
+
+  private void refreshInBackground() {
+    if (!refreshing.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          refresh();
+        } catch (RuntimeException ex) {
+          XLOGGER.warn("Could not rebuild orderable fulfills", ex);
+        } finally {
+          refreshing.set(false);
+        }
+      });
+    } catch (TaskRejectedException ex) {
+      refreshing.set(false);
+    }
+  }
+
+  // the invalidation count is read before the version, so a projection built from a version
+  // older than a local change is never taken as fresh
+  private synchronized Projection refresh() {
+    long now = clock.millis();
+    long invalidation = invalidations.get();
+    Snapshot current = snapshot;
+
+    if (null != current && current.isFresh(now, versionCheckInterval, invalidation)) {
+      return current.projection;
+    }
+
+    String version = readVersion();
+
+    if (null != current && Objects.equals(version, current.projection.version)) {
+      snapshot = new Snapshot(current.projection, now, invalidation);
+      return current.projection;
+    }
+
+    Object modifiedAt = redisTemplate.opsForValue().get(MODIFIED_AT_KEY);
+    Map<UUID, OrderableFulfill> fulfills = orderableFulfillFactory.createForAll();
+
+    Projection projection = new Projection(Collections.unmodifiableMap(fulfills), version,
+        null == modifiedAt ? now : Long.parseLong(modifiedAt.toString()));
+    snapshot = new Snapshot(projection, now, invalidation);
+
+    XLOGGER.debug("Built orderable fulfills version {} with {} orderables",
+        version, fulfills.size());
+
+    return projection;
+  }
+
+  private void bumpVersion() {
+    redisTemplate.opsForValue().set(MODIFIED_AT_KEY, clock.millis());
+    redisTemplate.opsForValue().increment(VERSION_KEY);
+    invalidations.incrementAndGet();
+  }
+
+  private String readVersion() {
+    Object version = redisTemplate.opsForValue().get(VERSION_KEY);
+    return null == version ? "0" : version.toString();
+  }
+
+  /**
+   * Orderable fulfills of all latest orderables, with the version and the time of the last change
+   * they were built after.
+   */
+  @Getter
+  @AllArgsConstructor
+  public static final class Projection {
+    private final Map<UUID, OrderableFulfill> fulfills;
+    private final String version;
+    private final long lastModified;
+  }
+
+  @AllArgsConstructor
+  private static final class Snapshot {
+    private final Projection projection;
+    private final long checkedAt;
+    private final long invalidation;
+
+    boolean isFresh(long now, long versionCheckInterval, long invalidations) {
+      return invalidation == invalidations && now - checkedAt < versionCheckInterval;
+    }
+  }
+
+}
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.validation.constraints.NotNull;
 import org.openlmis.referencedata.domain.Orderable;
@@ -84,6 +85,8 @@ public class OrderableService implements ExportableDataService<OrderableDto> {
 
   /**
    * Method returns the latest last updated date out of all orderables with matched parameters.
+   * Without parameters, or with program codes only, the date maintained by the database for all
+   * orderables or for each program is returned, so the orderables are not scanned.
    *
    * @param queryParams request parameters (code, name, description, program).
    * @return the ZonedDateTime of latest last updated date.
@@ -98,6 +101,19 @@ public class OrderableService implements ExportableDataService<OrderableDto> {
       return getZoneDateTime(timestamp);
     }
 
+    if (queryParams.containsOnlyProgramCodes()) {
+      LOGGER.info("Find latest modified date out of orderables from programs");
+      profiler.start("SEARCH_PROGRAM_CODES_ONLY");
+      Set<String> programCodes = queryParams.getProgramCodes()
+          .stream()
+          .map(String::toLowerCase)
+          .collect(Collectors.toSet());
+      Timestamp timestamp = programCodes.isEmpty()
+          ? orderableRepository.findLatestModifiedDateOfAll()
+          : orderableRepository.findLatestModifiedDateByProgramCodes(programCodes);
+      return getZoneDateTime(timestamp);
+    }
+
     Set<UUID> ids = queryParams.getIds();
     if (!ids.isEmpty()) {
       LOGGER.info("Find latest modified date out of orderables from ids list");
@@ -128,6 +144,11 @@ public class OrderableService implements ExportableDataService<OrderableDto> {
     return toDto(orderables);
   }
 
+  @Override
+  public Stream<OrderableDto> streamAllExportableItems() {
+    return orderableRepository.streamAll().map(this::exportToDto);
+  }
+
   @Override
   public Class<OrderableDto> getExportableType() {
     return OrderableDto.class;
@@ -136,12 +157,14 @@ public class OrderableService implements ExportableDataService<OrderableDto> {
   private List<OrderableDto> toDto(Iterable<Orderable> items) {
     return StreamSupport
             .stream(items.spliterator(), false)
-            .map(o -> {
-              OrderableDto dto = new OrderableDto();
-              o.export(dto);
-              return dto;
-            })
+            .map(this::exportToDto)
             .collect(Collectors.toList());
   }
 
+  private OrderableDto exportToDto(Orderable orderable) {
+    OrderableDto dto = new OrderableDto();
+    orderable.export(dto);
+    return dto;
+  }
+
 }
\ No newline at end of file
@@ -16,6 +16,7 @@
 package org.openlmis.referencedata.service;
 
 import java.util.List;
+import java.util.stream.Stream;
 import org.openlmis.referencedata.domain.ProgramOrderable;
 import org.openlmis.referencedata.repository.ProgramOrderableRepository;
 import org.openlmis.referencedata.service.export.ExportableDataService;
@@ -33,6 +34,11 @@ public class ProgramOrderableService implements ExportableDataService<ProgramOrd
     return programOrderableRepository.findAll();
   }
 
+  @Override
+  public Stream<ProgramOrderable> streamAllExportableItems() {
+    return programOrderableRepository.streamAll();
+  }
+
   @Override
   public Class<ProgramOrderable> getExportableType() {
     return ProgramOrderable.class;
@@ -19,6 +19,7 @@ import com.google.common.collect.Lists;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.openlmis.referencedata.domain.Code;
@@ -53,6 +54,9 @@ public class RequisitionGroupService {
   @Autowired
   private GeographicZoneRepository geographicZoneRepository;
 
+  @Autowired
+  private GeographicZoneTreeCache geographicZoneTreeCache;
+
   @Autowired
   private RequisitionGroupRepository requisitionGroupRepository;
 
@@ -100,18 +104,25 @@ public class RequisitionGroupService {
   private List<SupervisoryNode> getSupervisoryNodeBasedOnZone(String zoneCode) {
     List<SupervisoryNode> supervisoryNodes = null;
     if (!StringUtils.isEmpty(zoneCode)) {
-      GeographicZone zone = geographicZoneRepository.findByCode(zoneCode);
-      if (zone == null) {
-        throw new ValidationMessageException(GeographicZoneMessageKeys.ERROR_NOT_FOUND);
-      }
+      UUID zoneId = geographicZoneTreeCache.getTree()
+          .findIdByCode(zoneCode)
+          .orElseGet(() -> findZoneIdByCode(zoneCode));
       SupervisoryNodeSearchParams params = new SupervisoryNodeSearchParams(
-          null, null, null, null, zone.getId(), null);
+          null, null, null, null, zoneId, null);
       supervisoryNodes = supervisoryNodeRepository.search(params,
           PageRequest.of(0, Integer.MAX_VALUE)).getContent();
     }
     return supervisoryNodes;
   }
 
+  private UUID findZoneIdByCode(String zoneCode) {
+    GeographicZone zone = geographicZoneRepository.findByCode(zoneCode);
+    if (zone == null) {
+      throw new ValidationMessageException(GeographicZoneMessageKeys.ERROR_NOT_FOUND);
+    }
+    return zone.getId();
+  }
+
   private Program getProgramByCode(String programCode) {
     Program program = null;
     if (!StringUtils.isEmpty(programCode)) {
@@ -20,15 +20,20 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
-import org.apache.commons.lang3.tuple.MutablePair;
 import org.openlmis.referencedata.dto.RightAssignmentDto;
 import org.openlmis.referencedata.util.Resource2Db;
 import org.slf4j.ext.XLogger;
@@ -38,6 +43,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.AsyncResult;
 import org.springframework.stereotype.Service;
@@ -57,26 +64,75 @@ public class RightAssignmentService {
 
   private static final String USER_ID = "userid";
   private static final String RIGHT_NAME = "rightname";
+  private static final String FACILITY_ID = "facilityid";
+  private static final String PROGRAM_ID = "programid";
   private static final String RIGHT_ASSIGNMENTS_PATH = "classpath:db/right-assignments/";
 
-  static final String DELETE_SQL = "DELETE FROM referencedata.right_assignments;";
+  private static final String USER_IDS = "userIds";
+  private static final String SUPERVISORY_NODE_IDS = "supervisoryNodeIds";
+  private static final int BATCH_SIZE = 100;
+  private static final int USER_BATCH_SIZE = 500;
+  private static final int SUPERVISORY_NODE_BATCH_SIZE = 500;
+
+  private static final String RIGHT_ASSIGNMENTS_TABLE = "referencedata.right_assignments";
+  private static final List<String> RIGHT_ASSIGNMENTS_COLUMNS = Arrays.asList("id",
+      USER_ID,
+      RIGHT_NAME,
+      FACILITY_ID,
+      PROGRAM_ID);
+
+  static final String SELECT_USER_IDS_SQL = "SELECT id FROM referencedata.users";
+
+  static final String SELECT_EXISTING_FOR_USERS_SQL = "SELECT id, userid, rightname, facilityid,"
+      + " programid"
+      + " FROM referencedata.right_assignments"
+      + " WHERE userid IN (:userIds)";
+
+  static final String DELETE_BY_IDS_SQL = "DELETE FROM referencedata.right_assignments"
+      + " WHERE id IN (:ids)";
+
+  static final String SELECT_USERS_BY_ROLE_SQL = "SELECT DISTINCT userid"
+      + " FROM referencedata.role_assignments"
+      + " WHERE roleid = :roleId";
+
+  static final String SELECT_USERS_BY_HOME_FACILITY_SQL = "SELECT id"
+      + " FROM referencedata.users"
+      + " WHERE homefacilityid = :facilityId";
+
+  static final String SELECT_NODES_BY_MEMBER_FACILITY_SQL = "SELECT DISTINCT rg.supervisorynodeid"
+      + " FROM referencedata.requisition_groups rg"
+      + "   JOIN referencedata.requisition_group_members rgm ON rgm.requisitiongroupid = rg.id"
+      + " WHERE rgm.facilityid = :facilityId";
 
   @Value(value = RIGHT_ASSIGNMENTS_PATH + "get_right_assignments.sql")
   private Resource rightAssignmentsResource;
 
-  @Value(value = RIGHT_ASSIGNMENTS_PATH + "get_all_supervised_facilities_from_node.sql")
+  @Value(value = RIGHT_ASSIGNMENTS_PATH + "get_supervised_facilities_from_nodes.sql")
   private Resource supervisedFacilitiesResource;
 
+  @Value(value = RIGHT_ASSIGNMENTS_PATH + "get_users_supervising_nodes.sql")
+  private Resource supervisingUsersResource;
+
   @Autowired
   private JdbcTemplate template;
 
+  @Autowired
+  private NamedParameterJdbcTemplate namedTemplate;
+
+  @Autowired
+  private UserPermissionCache userPermissionCache;
+
   /**
-   * Re-generates right assignments. This operation needs to be transactional so that dropping 
-   * and re-generating is one transaction. The isolation level is specified to READ_COMMITTED, 
-   * to allow proper reads on the right assignments table. This is so that any permission checks 
-   * do not have to wait for this re-generation to finish, but can use the "old" right 
-   * assignments. This is acceptable since the right assignments table is not expected to change 
-   * very often, and the re-generation could take several seconds to finish.
+   * Re-generates right assignments of all users. The users are processed in batches, and for
+   * each batch the right assignments are derived from scratch, but only the difference against
+   * the existing rows is applied: rows that are no longer valid are deleted and missing rows are
+   * copied in, so unchanged rows are left untouched and only one batch is kept in memory at a
+   * time. This operation needs to be transactional so that the whole diff is applied in one
+   * transaction. The isolation level is specified to READ_COMMITTED, to allow proper reads on
+   * the right assignments table. This is so that any permission checks do not have to wait for
+   * this re-generation to finish, but can use the "old" right assignments. This is acceptable
+   * since the right assignments table is not expected to change very often, and the
+   * re-generation could take several seconds to finish.
    */
   @Async("rightAssignmentTaskExecutor")
   @Transactional(isolation = Isolation.READ_COMMITTED)
@@ -85,87 +141,185 @@ public class RightAssignmentService {
     profiler.setLogger(XLOGGER);
     XLOGGER.entry();
 
-    // Drop existing rows; we are regenerating from scratch
-    profiler.start("DROP_RIGHT_ASSIGNMENTS");
-    template.update(DELETE_SQL);
+    profiler.start("GET_USER_IDS");
+    List<UUID> userIds = template.queryForList(SELECT_USER_IDS_SQL, UUID.class);
+
+    regenerateRightAssignments(userIds, profiler);
 
-    // Get a right assignment matrix from database
-    profiler.start("GET_INTERMEDIATE_RIGHT_ASSIGNMENTS");
-    List<RightAssignmentDto> dbRightAssignments = new ArrayList<>();
+    XLOGGER.exit();
+    profiler.stop().log();
+    return new AsyncResult<>(null);
+  }
+
+  /**
+   * Re-generates right assignments of the given users only. Right assignments of other users are
+   * not read nor modified. The affected users should be resolved with one of the
+   * findUserIdsAffectedBy* methods while the change that triggers the regeneration is visible.
+   * Like the full regeneration, only the difference against the existing rows is applied, in
+   * one READ_COMMITTED transaction.
+   *
+   * @param userIds IDs of users whose right assignments should be re-generated
+   */
+  @Async("rightAssignmentTaskExecutor")
+  @Transactional(isolation = Isolation.READ_COMMITTED)
+  public Future<Void> regenerateRightAssignments(Set<UUID> userIds) {
+    Profiler profiler = new Profiler("REGENERATE_RIGHT_ASSIGNMENTS_FOR_USERS");
+    profiler.setLogger(XLOGGER);
+    XLOGGER.entry(userIds.size());
+
+    regenerateRightAssignments(userIds, profiler);
+
+    XLOGGER.exit();
+    profiler.stop().log();
+    return new AsyncResult<>(null);
+  }
+
+  private void regenerateRightAssignments(Collection<UUID> userIds, Profiler profiler) {
     try {
-      dbRightAssignments = getRightAssignmentsFromDbResource(rightAssignmentsResource);
+      String rightAssignmentsSql = resourceToString(rightAssignmentsResource);
+
+      for (List<UUID> partialUserIds : Iterables.partition(userIds, USER_BATCH_SIZE)) {
+        MapSqlParameterSource params = new MapSqlParameterSource(USER_IDS, partialUserIds);
+
+        profiler.start("GET_INTERMEDIATE_RIGHT_ASSIGNMENTS");
+        List<RightAssignmentDto> dbRightAssignments = namedTemplate.query(
+            rightAssignmentsSql, params, this::mapIntermediateRightAssignment);
+
+        profiler.start("CHANGE_SUPERVISORY_NODES_TO_FACILITIES_IN_RIGHT_ASSIGNMENTS");
+        Set<RightAssignmentDto> rightAssignments = convertForInsert(dbRightAssignments,
+            supervisedFacilitiesResource);
+
+        profiler.start("GET_EXISTING_RIGHT_ASSIGNMENTS");
+        Map<RightAssignmentDto, UUID> existing = getExistingRightAssignments(params);
+
+        profiler.start("APPLY_RIGHT_ASSIGNMENTS_DIFF");
+        applyDiff(existing, rightAssignments);
+      }
+
+      userPermissionCache.invalidate();
     } catch (IOException ioe) {
-      XLOGGER.warn("Error when getting right assignments: " + ioe.getMessage());
+      XLOGGER.warn("Error when regenerating right assignments: " + ioe.getMessage());
     }
+  }
 
-    profiler.start("RESOURCE_2_DB");
-    Resource2Db r2db = new Resource2Db(template);
-    try {
-      profiler.start("CHANGE_SUPERVISORY_NODES_TO_FACILITIES_IN_RIGHT_ASSIGNMENTS");
-      Set<RightAssignmentDto> rightAssignmentsToInsert = convertForInsert(dbRightAssignments,
-          supervisedFacilitiesResource);
+  /**
+   * Finds users whose right assignments depend on the given role.
+   *
+   * @param roleId ID of the changed role
+   * @return IDs of users who have the role assigned
+   */
+  public Set<UUID> findUserIdsAffectedByRole(UUID roleId) {
+    return new HashSet<>(namedTemplate.queryForList(SELECT_USERS_BY_ROLE_SQL,
+        new MapSqlParameterSource("roleId", roleId), UUID.class));
+  }
 
-      profiler.start("INSERT_INTO_DB");
-      for (List partialRightAssignments : Iterables.partition(rightAssignmentsToInsert, 100)) {
-        insertFromDbRightAssignmentList(r2db, partialRightAssignments);
-      }
+  /**
+   * Finds users whose right assignments depend on the given supervisory nodes, which are users
+   * with a supervision role assignment on any of the nodes or any of their ancestors.
+   *
+   * @param supervisoryNodeIds IDs of the changed supervisory nodes
+   * @return IDs of affected users
+   */
+  public Set<UUID> findUserIdsAffectedBySupervisoryNodes(Collection<UUID> supervisoryNodeIds) {
+    Set<UUID> nodeIds = supervisoryNodeIds
+        .stream()
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+
+    if (nodeIds.isEmpty()) {
+      return new HashSet<>();
+    }
+
+    try {
+      return new HashSet<>(namedTemplate.queryForList(resourceToString(supervisingUsersResource),
+          new MapSqlParameterSource(SUPERVISORY_NODE_IDS, nodeIds), UUID.class));
     } catch (IOException ioe) {
-      XLOGGER.warn("Error when getting inserting right assignments: " + ioe.getMessage());
+      XLOGGER.warn("Error when getting users supervising nodes: " + ioe.getMessage());
+      return new HashSet<>();
     }
+  }
 
-    XLOGGER.exit();
-    profiler.stop().log();
-    return new AsyncResult<>(null);
+  /**
+   * Finds users whose right assignments depend on the given facility, which are users with the
+   * facility set as home facility and users supervising any requisition group the facility is a
+   * member of.
+   *
+   * @param facilityId ID of the changed facility
+   * @return IDs of affected users
+   */
+  public Set<UUID> findUserIdsAffectedByFacility(UUID facilityId) {
+    MapSqlParameterSource params = new MapSqlParameterSource("facilityId", facilityId);
+
+    Set<UUID> userIds = new HashSet<>(namedTemplate.queryForList(
+        SELECT_USERS_BY_HOME_FACILITY_SQL, params, UUID.class));
+    userIds.addAll(findUserIdsAffectedBySupervisoryNodes(namedTemplate.queryForList(
+        SELECT_NODES_BY_MEMBER_FACILITY_SQL, params, UUID.class)));
+
+    return userIds;
   }
 
-  private void insertFromDbRightAssignmentList(Resource2Db resource2Db,
-      List<RightAssignmentDto> rightAssignmentDtos) {
-    // Convert set of right assignments to insert to a set of SQL inserts
-    XLOGGER.debug("Convert right assignments to SQL inserts");
-    MutablePair dataWithHeader = new MutablePair<List<String>, List<Object[]>>();
-    dataWithHeader.setRight(rightAssignmentDtos.stream()
-        .map(rad -> rad.toColumnArray())
-        .collect(Collectors.toList()));
-
-    // set column headers
-    dataWithHeader.setLeft(Arrays.asList("id",
-        USER_ID,
-        RIGHT_NAME,
-        "facilityid",
-        "programid"));
-
-    // insert into right_assignments
-    XLOGGER.debug("Perform SQL inserts");
-    resource2Db.insertToDbFromBatchedPair("referencedata.right_assignments", dataWithHeader);
+  /*
+   deletes existing rows which are not part of the regenerated set and inserts regenerated rows
+   which do not exist yet
+   */
+  void applyDiff(Map<RightAssignmentDto, UUID> existing,
+      Set<RightAssignmentDto> rightAssignments) {
+    List<UUID> idsToDelete = existing.entrySet()
+        .stream()
+        .filter(entry -> !rightAssignments.contains(entry.getKey()))
+        .map(Map.Entry::getValue)
+        .collect(Collectors.toList());
+
+    for (List<UUID> partialIds : Iterables.partition(idsToDelete, BATCH_SIZE)) {
+      namedTemplate.update(DELETE_BY_IDS_SQL, new MapSqlParameterSource("ids", partialIds));
+    }
+
+    // Missing rows are streamed straight from the set into a COPY operation
+    long copied = new Resource2Db(template).copyToDb(RIGHT_ASSIGNMENTS_TABLE,
+        RIGHT_ASSIGNMENTS_COLUMNS,
+        rightAssignments
+            .stream()
+            .filter(rightAssignment -> !existing.containsKey(rightAssignment))
+            .map(RightAssignmentDto::toColumnArray));
+
+    XLOGGER.debug("Right assignments deleted: {}, copied: {}", idsToDelete.size(), copied);
   }
 
-  List<RightAssignmentDto> getRightAssignmentsFromDbResource(Resource resource)
-      throws IOException {
-    return template.query(
-        resourceToString(resource),
-        (ResultSet rs, int rowNum) -> {
-
-          RightAssignmentDto rightAssignmentMap = new RightAssignmentDto();
-          rightAssignmentMap.setUserId(UUID.fromString(rs.getString(USER_ID)));
-          rightAssignmentMap.setRightName(rs.getString(RIGHT_NAME));
-          if (null != rs.getString("facilityid")) {
-            rightAssignmentMap.setFacilityId(UUID.fromString(rs.getString("facilityid")));
-          }
-          if (null != rs.getString("programid")) {
-            rightAssignmentMap.setProgramId(UUID.fromString(rs.getString("programid")));
-          }
-          if (null != rs.getString("supervisorynodeid")) {
-            rightAssignmentMap.setSupervisoryNodeId(
-                UUID.fromString(rs.getString("supervisorynodeid")));
-          }
-          return rightAssignmentMap;
-        }
-    );
+  private Map<RightAssignmentDto, UUID> getExistingRightAssignments(
+      MapSqlParameterSource params) {
+    Map<RightAssignmentDto, UUID> existing = new HashMap<>();
+    namedTemplate.query(SELECT_EXISTING_FOR_USERS_SQL, params, (ResultSet rs) -> {
+      RightAssignmentDto rightAssignment = new RightAssignmentDto(
+          UUID.fromString(rs.getString(USER_ID)),
+          rs.getString(RIGHT_NAME),
+          toUuid(rs.getString(FACILITY_ID)),
+          toUuid(rs.getString(PROGRAM_ID)));
+      existing.put(rightAssignment, UUID.fromString(rs.getString("id")));
+    });
+    return existing;
+  }
+
+  private RightAssignmentDto mapIntermediateRightAssignment(ResultSet rs, int rowNum)
+      throws SQLException {
+    RightAssignmentDto rightAssignmentMap = new RightAssignmentDto();
+    rightAssignmentMap.setUserId(UUID.fromString(rs.getString(USER_ID)));
+    rightAssignmentMap.setRightName(rs.getString(RIGHT_NAME));
+    rightAssignmentMap.setFacilityId(toUuid(rs.getString(FACILITY_ID)));
+    rightAssignmentMap.setProgramId(toUuid(rs.getString(PROGRAM_ID)));
+    rightAssignmentMap.setSupervisoryNodeId(toUuid(rs.getString("supervisorynodeid")));
+    return rightAssignmentMap;
+  }
+
+  private UUID toUuid(String value) {
+    return null != value ? UUID.fromString(value) : null;
   }
 
   Set<RightAssignmentDto> convertForInsert(List<RightAssignmentDto> rightAssignments,
       Resource supervisedFacilitiesResource)
       throws IOException {
+    Map<UUID, Map<UUID, List<UUID>>> supervisedFacilities = getSupervisedFacilityIds(
+        supervisedFacilitiesResource, rightAssignments);
+
     Set<RightAssignmentDto> rightAssignmentsToInsert = new HashSet<>();
     for (RightAssignmentDto rightAssignment : rightAssignments) {
 
@@ -175,9 +329,9 @@ public class RightAssignmentService {
         // turn it into a list of all facility IDs being supervised by this node.
 
         // Get all supervised facilities. Add each facility to the set.
-        List<UUID> facilityIds = getSupervisedFacilityIds(supervisedFacilitiesResource,
-            rightAssignment.getSupervisoryNodeId(),
-            rightAssignment.getProgramId());
+        List<UUID> facilityIds = supervisedFacilities
+            .getOrDefault(rightAssignment.getSupervisoryNodeId(), Collections.emptyMap())
+            .getOrDefault(rightAssignment.getProgramId(), Collections.emptyList());
 
         for (UUID facilityId : facilityIds) {
 
@@ -202,15 +356,42 @@ public class RightAssignmentService {
     return rightAssignmentsToInsert;
   }
 
-  private List<UUID> getSupervisedFacilityIds(Resource supervisedFacilitiesResource,
-      UUID supervisoryNodeId, UUID programId)
+  /*
+   expands all supervisory nodes of the given right assignments into supervised facility IDs,
+   grouped by supervisory node ID and then by program ID. Nodes are expanded in batches, with a
+   single query per batch, so the number of queries does not grow with the number of
+   assignments.
+   */
+  private Map<UUID, Map<UUID, List<UUID>>> getSupervisedFacilityIds(
+      Resource supervisedFacilitiesResource, List<RightAssignmentDto> rightAssignments)
       throws IOException {
+    Set<UUID> supervisoryNodeIds = rightAssignments
+        .stream()
+        .map(RightAssignmentDto::getSupervisoryNodeId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+
+    Map<UUID, Map<UUID, List<UUID>>> supervisedFacilities = new HashMap<>();
+    if (supervisoryNodeIds.isEmpty()) {
+      return supervisedFacilities;
+    }
+
+    String supervisedFacilitiesSql = resourceToString(supervisedFacilitiesResource);
+    for (List<UUID> partialNodeIds
+        : Iterables.partition(supervisoryNodeIds, SUPERVISORY_NODE_BATCH_SIZE)) {
+      namedTemplate.query(supervisedFacilitiesSql,
+          new MapSqlParameterSource(SUPERVISORY_NODE_IDS, partialNodeIds),
+          (ResultSet rs) -> {
+            supervisedFacilities
+                .computeIfAbsent(UUID.fromString(rs.getString("supervisorynodeid")),
+                    id -> new HashMap<>())
+                .computeIfAbsent(UUID.fromString(rs.getString(PROGRAM_ID)),
+                    id -> new ArrayList<>())
+                .add(UUID.fromString(rs.getString(FACILITY_ID)));
+          });
+    }
 
-    return template.queryForList(
-        resourceToString(supervisedFacilitiesResource),
-        UUID.class,
-        supervisoryNodeId,
-        programId);
+    return supervisedFacilities;
   }
 
   private String resourceToString(final Resource resource) throws IOException {
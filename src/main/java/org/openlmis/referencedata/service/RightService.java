@@ -20,7 +20,6 @@ import static org.apache.commons.lang3.StringUtils.startsWith;
 
 import java.util.UUID;
 import org.openlmis.referencedata.exception.UnauthorizedException;
-import org.openlmis.referencedata.repository.RightAssignmentRepository;
 import org.openlmis.referencedata.repository.UserRepository;
 import org.openlmis.referencedata.util.Message;
 import org.openlmis.referencedata.util.messagekeys.SystemMessageKeys;
@@ -44,7 +43,7 @@ public class RightService {
   private UserRepository userRepository;
 
   @Autowired
-  private RightAssignmentRepository rightAssignmentRepository;
+  private UserPermissionCache userPermissionCache;
 
   @Autowired
   private AuthenticationHelper authenticationHelper;
@@ -144,6 +143,11 @@ public class RightService {
 
     UUID userId = authenticationHelper.getCurrentUser().getId();
 
+    if (userPermissionCache.get(userId).hasRight(rightName)) {
+      XLOGGER.exit("User has right");
+      return true;
+    }
+
     if (null != expectedUserId
         && userId.equals(expectedUserId)
         && userRepository.existsById(userId)) {
@@ -151,11 +155,6 @@ public class RightService {
       return true;
     }
 
-    if (rightAssignmentRepository.existsByUserIdAndRightName(userId, rightName)) {
-      XLOGGER.exit("User has right");
-      return true;
-    }
-
     return false;
   }
 
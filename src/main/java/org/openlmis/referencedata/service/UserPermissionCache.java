@@ -0,0 +1,150 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.time.Clock;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import lombok.AllArgsConstructor;
+import org.openlmis.referencedata.repository.RightAssignmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps {@link UserPermissions} of recently active users in memory. Permissions of a user are
+ * loaded on first use. All of them are dropped when right assignments are regenerated, on every
+ * instance of the service: the regeneration bumps a version kept in Redis, which each instance
+ * compares with its own at most once per configured interval.
+ */
+@Service
+public class UserPermissionCache {
+
+  static final String VERSION_KEY = "RIGHT_ASSIGNMENTS_VERSION";
+
+  @Autowired
+  private RightAssignmentRepository rightAssignmentRepository;
+
+  @Autowired
+  private RedisTemplate<String, Object> redisTemplate;
+
+  @Autowired
+  private Clock clock;
+
+  @Value("${rightAssignments.cache.maxSize}")
+  private long maxSize;
+
+  @Value("${rightAssignments.cache.versionCheckInterval}")
+  private long versionCheckInterval;
+
+  private volatile Generation generation;
+
+  /**
+   * Returns permissions of the given user.
+   *
+   * @param userId id of the user
+   * @return the permissions, empty if the user has none or does not exist
+   */
+  public UserPermissions get(UUID userId) {
+    Cache<UUID, UserPermissions> permissions = getGeneration().permissions;
+
+    try {
+      return permissions.get(userId,
+          () -> UserPermissions.of(rightAssignmentRepository.findByUser(userId)));
+    } catch (ExecutionException | UncheckedExecutionException exp) {
+      if (exp.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exp.getCause();
+      }
+      throw new IllegalStateException(exp.getCause());
+    }
+  }
+
+  /**
+   * Drops cached permissions of all users, on all instances of the service. When called within
+   * a transaction, this happens only after the transaction is committed.
+   */
+  public void invalidate() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              bumpVersion();
+            }
+          });
+    } else {
+      bumpVersion();
+    }
+  }
+
+  private Generation getGeneration() {
+    Generation current = generation;
+
+    if (null != current && current.isFresh(clock.millis(), versionCheckInterval)) {
+      return current;
+    }
+
+    return refreshGeneration();
+  }
+
+  // a new version gets a new cache, so permissions that were still being loaded from the old
+  // right assignments can not end up in it
+  private synchronized Generation refreshGeneration() {
+    long now = clock.millis();
+    Generation current = generation;
+
+    if (null != current && current.isFresh(now, versionCheckInterval)) {
+      return current;
+    }
+
+    String version = readVersion();
+    generation = null != current && Objects.equals(version, current.version)
+        ? new Generation(version, now, current.permissions)
+        : new Generation(version, now, CacheBuilder.newBuilder().maximumSize(maxSize).build());
+
+    return generation;
+  }
+
+  private synchronized void bumpVersion() {
+    redisTemplate.opsForValue().increment(VERSION_KEY);
+    generation = null;
+  }
+
+  private String readVersion() {
+    Object version = redisTemplate.opsForValue().get(VERSION_KEY);
+    return null == version ? null : version.toString();
+  }
+
+  @AllArgsConstructor
+  private static final class Generation {
+    private final String version;
+    private final long checkedAt;
+    private final Cache<UUID, UserPermissions> permissions;
+
+    boolean isFresh(long now, long versionCheckInterval) {
+      return now - checkedAt < versionCheckInterval;
+    }
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable index of the right assignments of a single user, built from the user's permission
+ * strings (RIGHT, RIGHT|FACILITY or RIGHT|FACILITY|PROGRAM). Every check is a single hash lookup.
+ */
+public final class UserPermissions {
+
+  private static final String SEPARATOR = "|";
+
+  private final Set<String> permissionStrings;
+  private final Set<String> rightNames;
+  private final Set<String> facilityRights;
+
+  private UserPermissions(Set<String> permissionStrings, Set<String> rightNames,
+      Set<String> facilityRights) {
+    this.permissionStrings = permissionStrings;
+    this.rightNames = rightNames;
+    this.facilityRights = facilityRights;
+  }
+
+  /**
+   * Builds the index from permission strings.
+   *
+   * @param permissionStrings permission strings of the user
+   * @return the index
+   */
+  public static UserPermissions of(Collection<String> permissionStrings) {
+    ImmutableSet.Builder<String> rightNames = ImmutableSet.builder();
+    ImmutableSet.Builder<String> facilityRights = ImmutableSet.builder();
+
+    for (String permissionString : permissionStrings) {
+      String[] parts = permissionString.split("\\" + SEPARATOR);
+      rightNames.add(parts[0]);
+
+      if (parts.length > 1) {
+        facilityRights.add(parts[0] + SEPARATOR + parts[1]);
+      }
+    }
+
+    return new UserPermissions(ImmutableSet.copyOf(permissionStrings), rightNames.build(),
+        facilityRights.build());
+  }
+
+  public Set<String> getPermissionStrings() {
+    return permissionStrings;
+  }
+
+  /**
+   * Checks if the user has the right, at home facility, supervised facility or fulfillment
+   * facility level, or without any facility at all.
+   */
+  public boolean hasRight(String rightName) {
+    return rightNames.contains(rightName);
+  }
+
+  /**
+   * Checks if the user has the right for the facility, for any program.
+   */
+  public boolean hasRight(String rightName, UUID facilityId) {
+    return facilityRights.contains(rightName + SEPARATOR + facilityId);
+  }
+
+  /**
+   * Checks if the user has the right for the program at the facility.
+   */
+  public boolean hasRight(String rightName, UUID facilityId, UUID programId) {
+    return permissionStrings.contains(rightName + SEPARATOR + facilityId + SEPARATOR + programId);
+  }
+
+}
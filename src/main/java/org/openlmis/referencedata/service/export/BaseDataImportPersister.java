@@ -0,0 +1,172 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service.export;
+
+import static org.openlmis.referencedata.util.messagekeys.CsvUploadMessageKeys.ERROR_UPLOAD_RECORD_INVALID;
+
+import com.google.common.collect.Iterators;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import lombok.Setter;
+import org.openlmis.referencedata.exception.BaseMessageException;
+import org.openlmis.referencedata.util.FileHelper;
+import org.openlmis.referencedata.util.Message;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.supercsv.exception.SuperCsvException;
+
+/**
+ * Base for persisters that import CSV rows in chunks. Rows are read lazily, and each chunk is
+ * persisted, flushed and cleared from the persistence context before the next one is read, so
+ * the entities loaded do not grow with the size of the file. Existing records should be looked up
+ * for the whole chunk at once in {@link #createOrUpdate(List)}.
+ *
+ * @param <E> The entity type being imported.
+ * @param <D> The DTO type containing parsed data.
+ * @param <U> The DTO type for data retrieved from files.
+ */
+public abstract class BaseDataImportPersister<E, D, U> implements DataImportPersister<E, D, U> {
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(BaseDataImportPersister.class);
+
+  static final int DEFAULT_CHUNK_SIZE = 500;
+
+  // the rest of a file is not checked once this many invalid rows were found in it
+  static final int MAX_ROW_ERRORS = 100;
+
+  @Autowired
+  protected FileHelper fileHelper;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Setter
+  @Value("${dataImport.chunkSize:" + DEFAULT_CHUNK_SIZE + "}")
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+  @Override
+  public List<U> processAndPersist(InputStream dataStream) {
+    Iterator<List<D>> chunks = partition(dataStream);
+    List<U> result = new ArrayList<>();
+    int rows = 0;
+
+    while (chunks.hasNext()) {
+      List<D> chunk = chunks.next();
+      result.addAll(persistChunk(chunk));
+
+      rows += chunk.size();
+      XLOGGER.info("Imported {} rows of {}", rows, getImportedType().getSimpleName());
+    }
+
+    return result;
+  }
+
+  @Override
+  public int processAndPersist(InputStream dataStream, IntConsumer progressListener,
+      Consumer<DataImportRowError> errorListener) {
+    Iterator<List<D>> chunks = partition(dataStream);
+    List<DataImportRowError> errors = new ArrayList<>();
+    int imported = 0;
+    int rows = 0;
+
+    try {
+      while (errors.size() < MAX_ROW_ERRORS && chunks.hasNext()) {
+        List<D> chunk = chunks.next();
+
+        if (errors.isEmpty()) {
+          imported += persistOrCheckChunk(chunk, rows, errors);
+        } else {
+          checkRows(chunk, rows, errors);
+        }
+
+        rows += chunk.size();
+        XLOGGER.info("Processed {} rows of {}", rows, getImportedType().getSimpleName());
+        progressListener.accept(chunk.size());
+      }
+    } catch (SuperCsvException ex) {
+      // the reader cannot go past a row it failed to parse
+      int rowNumber = ex.getCsvContext().getRowNumber() - 1;
+      errors.add(new DataImportRowError(rowNumber,
+          new Message(ERROR_UPLOAD_RECORD_INVALID, rowNumber, ex.getMessage())));
+    }
+
+    errors.stream().limit(MAX_ROW_ERRORS).forEach(errorListener);
+    return imported;
+  }
+
+  /**
+   * Returns the type CSV rows are mapped to.
+   */
+  protected abstract Class<D> getImportedType();
+
+  /**
+   * Creates or updates the records for one chunk of rows and returns them as DTOs. The DTOs
+   * must not depend on the persistence context, as it is cleared afterwards.
+   */
+  protected abstract List<U> persist(List<D> chunk);
+
+  private Iterator<List<D>> partition(InputStream dataStream) {
+    return Iterators.partition(fileHelper.iterateCsv(getImportedType(), dataStream), chunkSize);
+  }
+
+  private List<U> persistChunk(List<D> chunk) {
+    List<U> imported = persist(chunk);
+    entityManager.flush();
+    entityManager.clear();
+    return imported;
+  }
+
+  // if the chunk is invalid, its rows are checked one by one to find the invalid ones
+  private int persistOrCheckChunk(List<D> chunk, int processedRows,
+      List<DataImportRowError> errors) {
+    try {
+      return persistChunk(chunk).size();
+    } catch (BaseMessageException ex) {
+      entityManager.clear();
+      checkRows(chunk, processedRows, errors);
+
+      if (errors.isEmpty()) {
+        errors.add(new DataImportRowError(null, ex.asMessage()));
+      }
+
+      return 0;
+    }
+  }
+
+  // rows are not flushed, so the import can only be rolled back once a row is invalid; rows that
+  // depend on earlier rows of the same file may be reported too
+  private void checkRows(List<D> chunk, int processedRows, List<DataImportRowError> errors) {
+    for (int index = 0; index < chunk.size(); ++index) {
+      try {
+        persist(Collections.singletonList(chunk.get(index)));
+      } catch (BaseMessageException ex) {
+        errors.add(new DataImportRowError(processedRows + index + 1, ex.asMessage()));
+      } finally {
+        entityManager.clear();
+      }
+    }
+  }
+
+}
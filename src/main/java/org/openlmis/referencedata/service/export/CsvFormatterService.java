@@ -17,7 +17,6 @@ package org.openlmis.referencedata.service.export;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.List;
 
 import org.openlmis.referencedata.web.csv.format.CsvFormatter;
 import org.openlmis.referencedata.web.csv.model.ModelClass;
@@ -35,12 +34,12 @@ public class CsvFormatterService implements DataFormatterService {
    * specific model.
    *
    * @param outputStream output stream to which the data will be written
-   * @param data         list of objects to be parsed
+   * @param data         objects to be parsed
    * @param type         class type of objects
    * @param <T>          type of objects contained in data
    */
   @Override
-  public <T> void process(OutputStream outputStream, List<T> data, Class<T> type)
+  public <T> void process(OutputStream outputStream, Iterable<T> data, Class<T> type)
           throws IOException {
     csvFormatter.process(outputStream, new ModelClass(type), data);
   }
@@ -16,15 +16,20 @@
 package org.openlmis.referencedata.service.export;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
-
-import org.apache.commons.io.output.ByteArrayOutputStream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.util.messagekeys.MessageKeys;
 import org.springframework.beans.BeansException;
@@ -33,6 +38,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class DataExportService {
@@ -42,84 +48,115 @@ public class DataExportService {
   public static final String DATA_EXPORT_MAPPING_PATH = "data-export/mapping/";
   public static final String MAPPING_FILE_SUFFIX = "_mapping";
 
+  private static final int CLEAR_EVERY_ROWS = 500;
+
   @Autowired
   private BeanFactory beanFactory;
 
   @Autowired
   private ResourceLoader loader;
 
+  @PersistenceContext
+  private EntityManager entityManager;
+
   /**
-   * Return zip archive with files in specific format.
+   * Writes zip archive with files in specific format to the given output stream. All params are
+   * validated before anything is written. Items are streamed from the database and each file is
+   * written straight into its zip entry, so the memory used does not depend on the amount of
+   * data. The output stream is not closed.
    *
-   * @param params query parameters.
-   * @return byte data in zip format
+   * @param params       query parameters.
+   * @param outputStream stream the zip archive is written to.
    */
-  public byte[] exportData(ExportParams params) {
-    try (ByteArrayOutputStream outputStream = toZip(params)) {
+  @Transactional(readOnly = true)
+  public void exportData(ExportParams params, OutputStream outputStream) {
+    DataFormatterService formatter = getFormatter(params.getFormat());
+    Map<String, ExportableDataService<?>> services = new LinkedHashMap<>();
+    Map<String, Resource> mappingFiles = new LinkedHashMap<>();
+
+    for (String file : params.getData().split(",")) {
+      services.put(file, getExportableDataService(file));
+      mappingFiles.put(file, getMappingFile(params.getFormat(), file));
+    }
 
-      return outputStream.toByteArray();
+    try {
+      ZipOutputStream zip = new ZipOutputStream(outputStream);
+      for (Map.Entry<String, ExportableDataService<?>> file : services.entrySet()) {
+        zip.putNextEntry(new ZipEntry(file.getKey() + "." + params.getFormat()));
+        writeFile(formatter, file.getValue(), new CloseShieldOutputStream(zip));
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry(
+            file.getKey() + MAPPING_FILE_SUFFIX + "." + params.getFormat()));
+        try (InputStream mapping = mappingFiles.get(file.getKey()).getInputStream()) {
+          IOUtils.copy(mapping, zip);
+        }
+        zip.closeEntry();
+      }
+      zip.finish();
     } catch (IOException ex) {
       throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
     }
   }
 
-  private ByteArrayOutputStream toZip(ExportParams params) {
-    try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-         ZipOutputStream zip = new ZipOutputStream(baos)) {
-      for (Map.Entry<String, ByteArrayOutputStream> file : generateFiles(params).entrySet()) {
-        ZipEntry entry = new ZipEntry(file.getKey() + "." + params.getFormat());
-        entry.setSize(file.getValue().toByteArray().length);
-        zip.putNextEntry(entry);
-        zip.write(file.getValue().toByteArray());
-      }
-      zip.closeEntry();
-
-      return baos;
-    } catch (IOException ex) {
+  private DataFormatterService getFormatter(String format) {
+    try {
+      return beanFactory.getBean(format + FORMATTER_SERVICE_NAME_SUFFIX,
+          DataFormatterService.class);
+    } catch (BeansException ex) {
       throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
     }
   }
 
-  private Map<String, ByteArrayOutputStream> generateFiles(ExportParams params)
-          throws IOException {
-    Map<String, ByteArrayOutputStream> output = new HashMap<>();
-    String[] filenames = params.getData().split(",");
-
-    for (String file : filenames) {
-      output.put(file, generateFile(params.getFormat(), file));
-      output.put(file + MAPPING_FILE_SUFFIX, getMappingFile(params.getFormat(), file));
+  private ExportableDataService<?> getExportableDataService(String filename) {
+    try {
+      return beanFactory.getBean(filename + SERVICE_NAME_SUFFIX, ExportableDataService.class);
+    } catch (BeansException ex) {
+      throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
     }
-
-    return output;
   }
 
-  private <T> ByteArrayOutputStream generateFile(String format, String filename) {
-    try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
-      DataFormatterService formatter = beanFactory.getBean(format
-              + FORMATTER_SERVICE_NAME_SUFFIX, DataFormatterService.class);
-
-      ExportableDataService<T> service = beanFactory.getBean(filename
-              + SERVICE_NAME_SUFFIX, ExportableDataService.class);
+  private Resource getMappingFile(String format, String filename) {
+    String mappingFilePath = buildFilePath(format, filename);
+    Resource resource = loader.getResource(mappingFilePath);
 
-      List<T> data = service.findAllExportableItems();
+    if (!resource.exists()) {
+      throw new ValidationMessageException(MessageKeys.ERROR_IO,
+          "Mapping file " + mappingFilePath + " does not exist");
+    }
+    return resource;
+  }
 
-      formatter.process(output, data, service.getExportableType());
-      return output;
-    } catch (IOException | BeansException ex) {
-      throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
+  private <T> void writeFile(DataFormatterService formatter, ExportableDataService<T> service,
+      OutputStream output) throws IOException {
+    try (Stream<T> items = service.streamAllExportableItems()) {
+      Iterator<T> iterator = clearingIterator(items.iterator());
+      formatter.process(output, () -> iterator, service.getExportableType());
     }
   }
 
-  private ByteArrayOutputStream getMappingFile(String format, String filename) throws IOException {
-    String mappingFilePath = buildFilePath(format, filename);
-    try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
-      Resource resource = loader.getResource(mappingFilePath);
-      output.write(resource.getInputStream());
+  /**
+   * Clears the persistence context every few hundred rows, before the next row is fetched,
+   * so that exported entities do not pile up in memory.
+   */
+  private <T> Iterator<T> clearingIterator(Iterator<T> delegate) {
+    return new Iterator<T>() {
+      private int returned;
+
+      @Override
+      public boolean hasNext() {
+        if (returned > 0 && returned % CLEAR_EVERY_ROWS == 0) {
+          entityManager.clear();
+        }
+        return delegate.hasNext();
+      }
 
-      return output;
-    } catch (IOException ex) {
-      throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
-    }
+      @Override
+      public T next() {
+        returned++;
+        return delegate.next();
+      }
+    };
   }
 
   private String buildFilePath(String format, String filename) {
@@ -142,5 +179,3 @@ public class DataExportService {
   }
 
 }
-
-
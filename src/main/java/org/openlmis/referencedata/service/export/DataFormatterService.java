@@ -17,10 +17,9 @@ package org.openlmis.referencedata.service.export;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.List;
 
 public interface DataFormatterService {
 
-  <T> void process(OutputStream outputStream, List<T> data, Class<T> type) throws IOException;
+  <T> void process(OutputStream outputStream, Iterable<T> data, Class<T> type) throws IOException;
 
 }
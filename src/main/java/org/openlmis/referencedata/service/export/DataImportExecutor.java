@@ -0,0 +1,74 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service.export;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class DataImportExecutor {
+
+  @Value("${dataImport.thread.corePool}")
+  private int corePoolSize;
+
+  @Value("${dataImport.thread.maxPool}")
+  private int maxPoolSize;
+
+  @Value("${dataImport.queue.capacity}")
+  private int queueCapacity;
+
+  @Value("${dataImport.thread.timeout}")
+  private int threadTimeout;
+
+  /**
+   * Executor for background data imports. Each running import holds a database connection for
+   * its whole transaction, so the pool is kept small to leave the rest of the connection pool to
+   * the API. Imports that do not fit in the queue are rejected instead of waiting. The state of
+   * the jobs is saved by {@link #dataImportProgressExecutor()}, so the imports need one more
+   * connection in total, not one more each.
+   */
+  @Bean
+  @Qualifier("dataImportTaskExecutor")
+  public ThreadPoolTaskExecutor dataImportTaskExecutor() {
+    ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+    threadPoolTaskExecutor.setCorePoolSize(corePoolSize);
+    threadPoolTaskExecutor.setMaxPoolSize(maxPoolSize);
+    threadPoolTaskExecutor.setQueueCapacity(queueCapacity);
+    threadPoolTaskExecutor.setKeepAliveSeconds(threadTimeout);
+    threadPoolTaskExecutor.setThreadNamePrefix("data-import-");
+
+    return threadPoolTaskExecutor;
+  }
+
+  /**
+   * Executor saving the state of data import jobs, one update at a time, in the order they were
+   * reported. Updates are short, so they are never rejected.
+   */
+  @Bean
+  @Qualifier("dataImportProgressExecutor")
+  public ThreadPoolTaskExecutor dataImportProgressExecutor() {
+    ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+    threadPoolTaskExecutor.setCorePoolSize(1);
+    threadPoolTaskExecutor.setMaxPoolSize(1);
+    threadPoolTaskExecutor.setThreadNamePrefix("data-import-progress-");
+
+    return threadPoolTaskExecutor;
+  }
+}
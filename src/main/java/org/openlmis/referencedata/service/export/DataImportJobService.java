@@ -0,0 +1,222 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.openlmis.referencedata.domain.DataImportJob;
+import org.openlmis.referencedata.domain.DataImportJob.RowError;
+import org.openlmis.referencedata.domain.DataImportJob.Status;
+import org.openlmis.referencedata.exception.BaseMessageException;
+import org.openlmis.referencedata.exception.NotFoundException;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.i18n.MessageService;
+import org.openlmis.referencedata.repository.DataImportJobRepository;
+import org.openlmis.referencedata.util.FileHelper;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.messagekeys.DataImportMessageKeys;
+import org.openlmis.referencedata.util.messagekeys.MessageKeys;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Runs data imports in the background. The uploaded archive is stored in a temporary file and
+ * imported by the data import executor, while the state of the job is kept in the database, so
+ * clients can poll it instead of waiting for the whole import on one request.
+ */
+@Service
+public class DataImportJobService {
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(DataImportJobService.class);
+
+  @Autowired
+  private DataImportService dataImportService;
+
+  @Autowired
+  private DataImportJobRepository dataImportJobRepository;
+
+  @Autowired
+  private FileHelper fileHelper;
+
+  @Autowired
+  private MessageService messageService;
+
+  @Autowired
+  @Qualifier("dataImportTaskExecutor")
+  private TaskExecutor dataImportTaskExecutor;
+
+  @Autowired
+  @Qualifier("dataImportProgressExecutor")
+  private TaskExecutor dataImportProgressExecutor;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  // new jobs may be submitted before the interrupted ones are failed
+  private final ZonedDateTime serviceStartDate = ZonedDateTime.now();
+
+  /**
+   * Validates the archive and queues its import. If the queue of the data import executor is
+   * full, the archive is rejected.
+   *
+   * @param zipFile ZIP archive being imported.
+   * @return the queued job.
+   */
+  public DataImportJob submit(MultipartFile zipFile) {
+    fileHelper.validateMultipartFile(zipFile);
+    Path archive = storeArchive(zipFile);
+
+    DataImportJob job = dataImportJobRepository
+        .save(DataImportJob.newInstance(zipFile.getOriginalFilename()));
+
+    try {
+      // the job runs as the user who submitted it, e.g. for audit logs and price changes
+      dataImportTaskExecutor.execute(
+          new DelegatingSecurityContextRunnable(() -> runJob(job.getId(), archive)));
+    } catch (TaskRejectedException ex) {
+      deleteArchive(archive);
+      dataImportJobRepository.delete(job);
+      throw new ValidationMessageException(ex, DataImportMessageKeys.ERROR_TOO_MANY_JOBS);
+    }
+
+    return job;
+  }
+
+  /**
+   * Returns the job with the given id.
+   *
+   * @throws NotFoundException if there is no such job.
+   */
+  public DataImportJob getJob(UUID jobId) {
+    return dataImportJobRepository
+        .findById(jobId)
+        .orElseThrow(() -> new NotFoundException(
+            new Message(DataImportMessageKeys.ERROR_JOB_NOT_FOUND, jobId)));
+  }
+
+  /**
+   * Marks the jobs that were queued or in progress before the service started as failed. Jobs
+   * are run by an in-memory executor, so those left behind by a restart will never finish.
+   */
+  @Transactional
+  public void failInterruptedJobs() {
+    List<DataImportJob> interrupted = dataImportJobRepository.findByStatusInAndCreatedDateBefore(
+        EnumSet.of(Status.QUEUED, Status.IN_PROGRESS), serviceStartDate);
+
+    if (!interrupted.isEmpty()) {
+      String error = localize(new Message(DataImportMessageKeys.ERROR_JOB_INTERRUPTED));
+      interrupted.forEach(job -> job.fail(error));
+      dataImportJobRepository.saveAll(interrupted);
+      XLOGGER.warn("Marked {} interrupted data import jobs as failed", interrupted.size());
+    }
+  }
+
+  void runJob(UUID jobId, Path archive) {
+    XLOGGER.entry(jobId);
+    updateJob(jobId, DataImportJob::start);
+
+    try (InputStream zipStream = Files.newInputStream(archive)) {
+      Map<String, Integer> imported = dataImportService.importData(zipStream,
+          rows -> dataImportProgressExecutor.execute(
+              () -> updateJob(jobId, job -> job.addProcessedRows(rows))));
+      int importedRecords = imported.values().stream().mapToInt(Integer::intValue).sum();
+      finishJob(jobId, job -> job.complete(importedRecords));
+    } catch (DataImportRowsException ex) {
+      String error = localize(ex.asMessage());
+      List<RowError> rowErrors = ex.getRowErrors()
+          .stream()
+          .map(rowError -> new RowError(ex.getFileName(), rowError.getRowNumber(),
+              localize(rowError.getMessage())))
+          .collect(Collectors.toList());
+      finishJob(jobId, job -> job.fail(error, rowErrors));
+    } catch (BaseMessageException ex) {
+      String error = localize(ex.asMessage());
+      finishJob(jobId, job -> job.fail(error));
+    } catch (IOException | RuntimeException ex) {
+      XLOGGER.error("Data import job {} failed", jobId, ex);
+      finishJob(jobId, job -> job.fail(ExceptionUtils.getRootCauseMessage(ex)));
+    } finally {
+      deleteArchive(archive);
+    }
+
+    XLOGGER.exit();
+  }
+
+  // progress is reported from within the import transaction, so it is saved by another thread
+  // instead of opening a second connection for every import; the final state is saved by that
+  // thread too, after all the progress reported before it
+  private void finishJob(UUID jobId, Consumer<DataImportJob> update) {
+    CompletableFuture
+        .runAsync(() -> updateJob(jobId, update), dataImportProgressExecutor)
+        .join();
+  }
+
+  // job state is committed separately from the import, so that it is visible while the import
+  // is in progress and survives its rollback
+  private void updateJob(UUID jobId, Consumer<DataImportJob> update) {
+    TransactionTemplate template = new TransactionTemplate(transactionManager);
+    template.executeWithoutResult(status -> {
+      DataImportJob job = getJob(jobId);
+      update.accept(job);
+      dataImportJobRepository.save(job);
+    });
+  }
+
+  private String localize(Message message) {
+    return messageService.localize(message).asMessage();
+  }
+
+  private Path storeArchive(MultipartFile zipFile) {
+    try {
+      Path archive = Files.createTempFile("data-import-", ".zip");
+      zipFile.transferTo(archive);
+      return archive;
+    } catch (IOException ex) {
+      throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
+    }
+  }
+
+  private void deleteArchive(Path archive) {
+    try {
+      Files.deleteIfExists(archive);
+    } catch (IOException ex) {
+      XLOGGER.warn("Could not delete the data import archive {}", archive, ex);
+    }
+  }
+
+}
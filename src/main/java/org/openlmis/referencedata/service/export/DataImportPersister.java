@@ -17,6 +17,8 @@ package org.openlmis.referencedata.service.export;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * This interface handle importing data from files to database.
@@ -27,8 +29,28 @@ import java.util.List;
  */
 public interface DataImportPersister<E, D, U> {
 
+  /**
+   * Imports the data and returns the imported records.
+   *
+   * @param dataStream CSV data being imported.
+   * @return the imported records.
+   */
   List<U> processAndPersist(InputStream dataStream);
 
+  /**
+   * Imports the data, reporting the number of rows processed after each batch of them. Only the
+   * number of imported records is kept, so the memory used does not depend on the size of
+   * the file. Invalid rows do not stop the import of the file; once one is found, the remaining
+   * rows are only checked, so that all of them can be reported.
+   *
+   * @param dataStream CSV data being imported.
+   * @param progressListener called with the number of rows processed since the last call.
+   * @param errorListener called with each invalid row, in the order of the file.
+   * @return the number of imported records, meaningful only if no invalid row was reported.
+   */
+  int processAndPersist(InputStream dataStream, IntConsumer progressListener,
+      Consumer<DataImportRowError> errorListener);
+
   List<E> createOrUpdate(List<D> dtoList);
 
 }
@@ -0,0 +1,45 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service.export;
+
+import java.util.List;
+import lombok.Getter;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.util.messagekeys.DataImportMessageKeys;
+
+/**
+ * Signals that a file of an imported archive has invalid rows. Thrown after the whole file was
+ * checked, so that it carries all the invalid rows found and not only the first one.
+ */
+@Getter
+public class DataImportRowsException extends ValidationMessageException {
+
+  private final String fileName;
+  private final transient List<DataImportRowError> rowErrors;
+
+  /**
+   * Creates a new exception for the given file and its invalid rows.
+   *
+   * @param fileName  the name of the file with invalid rows.
+   * @param rowErrors the invalid rows, in the order they were found.
+   */
+  public DataImportRowsException(String fileName, List<DataImportRowError> rowErrors) {
+    super(DataImportMessageKeys.ERROR_ROWS_INVALID, fileName, rowErrors.size());
+    this.fileName = fileName;
+    this.rowErrors = rowErrors;
+  }
+
+}
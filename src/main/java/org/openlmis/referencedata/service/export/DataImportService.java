@@ -17,8 +17,10 @@ package org.openlmis.referencedata.service.export;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntConsumer;
 import org.openlmis.referencedata.dto.BaseDto;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.util.FileHelper;
@@ -41,29 +43,68 @@ public class DataImportService {
   private BeanFactory beanFactory;
 
   /**
-   * Imports the data from a ZIP with CSV files.
+   * Imports the data from a ZIP with CSV files. Entries are imported in the order they appear
+   * in the archive, each read as a stream, without unpacking the whole archive first.
+   *
+   * <p>The archive is imported in one transaction, so an invalid row leaves the database as it
+   * was and the corrected archive can simply be imported again. Committing each chunk would leave
+   * a partial import behind instead. The persistence context is still flushed and cleared after
+   * each chunk, so only the returned records grow with the size of the archive; archives too big
+   * for that should be imported with {@link DataImportJobService}, which keeps only counts.
    *
    * @param zipFile ZIP archive being imported.
+   * @return the imported records, in the order of the archive.
    */
   @Transactional
   public List<BaseDto> importData(MultipartFile zipFile) {
     fileHelper.validateMultipartFile(zipFile);
-    Map<String, InputStream> fileMap = fileHelper.convertMultipartFileToZipFileMap(zipFile);
 
     List<BaseDto> result = new ArrayList<>();
-    for (Map.Entry<String, InputStream> entry: fileMap.entrySet()) {
-      try {
-        fileHelper.validateCsvFile(entry.getKey());
-        DataImportPersister<?, ?, ? extends BaseDto> persister =
-                beanFactory.getBean(entry.getKey(), DataImportPersister.class);
-        result.addAll(persister.processAndPersist(entry.getValue()));
-      } catch (NoSuchBeanDefinitionException e) {
-        throw new ValidationMessageException(e, new Message(
-                CsvUploadMessageKeys.ERROR_FILE_NAME_INVALID, entry.getKey()));
+    fileHelper.readZipEntries(zipFile, (fileName, stream) ->
+        result.addAll(getPersister(fileName).processAndPersist(stream)));
+
+    return result;
+  }
+
+  /**
+   * Imports the data from a ZIP with CSV files in one transaction, like
+   * {@link #importData(MultipartFile)} does, reporting the progress as the rows are persisted.
+   * Only the number of imported records is kept. The archive should be validated already.
+   *
+   * <p>A file with invalid rows is checked to its end, and the import stops after it, as the
+   * following files usually depend on it.
+   *
+   * @param zipStream ZIP archive being imported.
+   * @param progressListener called with the number of rows processed since the last call.
+   * @return the number of imported records by file name, in the order of the archive.
+   * @throws DataImportRowsException with the invalid rows of the first file that has them.
+   */
+  @Transactional
+  public Map<String, Integer> importData(InputStream zipStream, IntConsumer progressListener) {
+    Map<String, Integer> result = new LinkedHashMap<>();
+    fileHelper.readZipEntries(zipStream, (fileName, stream) -> {
+      List<DataImportRowError> rowErrors = new ArrayList<>();
+      int imported = getPersister(fileName)
+          .processAndPersist(stream, progressListener, rowErrors::add);
+
+      if (!rowErrors.isEmpty()) {
+        throw new DataImportRowsException(fileName, rowErrors);
       }
-    }
+
+      result.merge(fileName, imported, Integer::sum);
+    });
 
     return result;
   }
 
+  private DataImportPersister<?, ?, ? extends BaseDto> getPersister(String fileName) {
+    try {
+      fileHelper.validateCsvFile(fileName);
+      return beanFactory.getBean(fileName, DataImportPersister.class);
+    } catch (NoSuchBeanDefinitionException e) {
+      throw new ValidationMessageException(e, new Message(
+              CsvUploadMessageKeys.ERROR_FILE_NAME_INVALID, fileName));
+    }
+  }
+
 }
@@ -16,11 +16,20 @@
 package org.openlmis.referencedata.service.export;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ExportableDataService<T> {
 
   List<T> findAllExportableItems();
 
+  /**
+   * Returns the items to export one by one. Services with a lot of data should override it
+   * with a scrolled query, so that the export does not load everything into memory.
+   */
+  default Stream<T> streamAllExportableItems() {
+    return findAllExportableItems().stream();
+  }
+
   Class<T> getExportableType();
 
 }
@@ -15,24 +15,26 @@
 
 package org.openlmis.referencedata.service.export;
 
-import java.io.InputStream;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.dto.OrderableDto;
 import org.openlmis.referencedata.repository.OrderableRepository;
-import org.openlmis.referencedata.util.FileHelper;
+import org.openlmis.referencedata.service.OrderableFulfillCache;
 import org.openlmis.referencedata.util.OrderableBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service("orderable.csv")
 public class OrderableImportPersister
-    implements DataImportPersister<Orderable, OrderableDto, OrderableDto> {
-
-  @Autowired
-  private FileHelper fileHelper;
+    extends BaseDataImportPersister<Orderable, OrderableDto, OrderableDto> {
 
   @Autowired
   private OrderableBuilder orderableBuilder;
@@ -40,22 +42,37 @@ public class OrderableImportPersister
   @Autowired
   private OrderableRepository orderableRepository;
 
+  @Autowired
+  private OrderableFulfillCache orderableFulfillCache;
+
   @Override
-  public List<OrderableDto> processAndPersist(InputStream dataStream) {
-    List<OrderableDto> importedDtos = fileHelper.readCsv(OrderableDto.class, dataStream);
-    List<Orderable> persistedObjects = orderableRepository.saveAll(
-        createOrUpdate(importedDtos));
+  protected Class<OrderableDto> getImportedType() {
+    return OrderableDto.class;
+  }
+
+  @Override
+  protected List<OrderableDto> persist(List<OrderableDto> chunk) {
+    List<Orderable> persistedObjects = orderableRepository.saveAll(createOrUpdate(chunk));
+    orderableFulfillCache.invalidate();
 
     return OrderableDto.newInstances(persistedObjects);
   }
 
   @Override
   public List<Orderable> createOrUpdate(List<OrderableDto> dtoList) {
+    Set<String> codes = dtoList.stream()
+        .map(dto -> Code.code(dto.getProductCode()).toString())
+        .collect(toSet());
+    Map<String, Orderable> latestOrderables = orderableRepository
+        .findAllLatestByProductCodes(codes)
+        .stream()
+        .collect(toMap(orderable -> orderable.getProductCode().toString(),
+            Function.identity()));
+
     List<Orderable> persistList = new LinkedList<>();
     for (OrderableDto dto: dtoList) {
-      Orderable latestOrderable = orderableRepository
-          .findFirstByProductCodeOrderByIdentityVersionNumberDesc(
-              Code.code(dto.getProductCode()));
+      Orderable latestOrderable = latestOrderables
+          .get(Code.code(dto.getProductCode()).toString());
 
       if (!Orderable.isEqualForCsvFields(dto, latestOrderable)) {
         persistList.add(orderableBuilder.newOrderable(dto, latestOrderable));
@@ -15,10 +15,16 @@
 
 package org.openlmis.referencedata.service.export;
 
-import java.io.InputStream;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
 import org.joda.money.CurrencyUnit;
 import org.joda.money.Money;
 import org.openlmis.referencedata.domain.Code;
@@ -32,17 +38,13 @@ import org.openlmis.referencedata.repository.OrderableDisplayCategoryRepository;
 import org.openlmis.referencedata.repository.OrderableRepository;
 import org.openlmis.referencedata.repository.ProgramOrderableRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
-import org.openlmis.referencedata.util.FileHelper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service("programOrderable.csv")
-public class ProgramOrderableImportPersister implements DataImportPersister<ProgramOrderable,
+public class ProgramOrderableImportPersister extends BaseDataImportPersister<ProgramOrderable,
     ProgramOrderableCsvModel, ProgramOrderableDto> {
 
-  @Autowired
-  private FileHelper fileHelper;
-
   @Autowired
   private ProgramOrderableRepository programOrderableRepository;
 
@@ -56,11 +58,14 @@ public class ProgramOrderableImportPersister implements DataImportPersister<Prog
   private OrderableDisplayCategoryRepository orderableDisplayCategoryRepository;
 
   @Override
-  public List<ProgramOrderableDto> processAndPersist(InputStream dataStream) {
-    List<ProgramOrderableCsvModel> importedDtos =
-        fileHelper.readCsv(ProgramOrderableCsvModel.class, dataStream);
+  protected Class<ProgramOrderableCsvModel> getImportedType() {
+    return ProgramOrderableCsvModel.class;
+  }
+
+  @Override
+  protected List<ProgramOrderableDto> persist(List<ProgramOrderableCsvModel> chunk) {
     List<ProgramOrderable> persistedObjects = programOrderableRepository.saveAll(
-        createOrUpdate(importedDtos)
+        createOrUpdate(chunk)
     );
 
     return new ArrayList<>(ProgramOrderableDto.newInstance(persistedObjects));
@@ -68,17 +73,30 @@ public class ProgramOrderableImportPersister implements DataImportPersister<Prog
 
   @Override
   public List<ProgramOrderable> createOrUpdate(List<ProgramOrderableCsvModel> dtoList) {
+    Map<String, Program> programs = programRepository
+        .findAllByCodes(collectCodes(dtoList, ProgramOrderableCsvModel::getProgramCode))
+        .stream()
+        .collect(toMap(program -> program.getCode().toString(), Function.identity()));
+    Map<String, Orderable> orderables = orderableRepository
+        .findAllLatestByProductCodes(
+            collectCodes(dtoList, ProgramOrderableCsvModel::getOrderableCode))
+        .stream()
+        .collect(toMap(orderable -> orderable.getProductCode().toString(),
+            Function.identity()));
+    Map<String, OrderableDisplayCategory> categories = orderableDisplayCategoryRepository
+        .findAllByCodes(collectCodes(dtoList, ProgramOrderableCsvModel::getCategoryCode))
+        .stream()
+        .collect(toMap(category -> category.getCode().toString(), Function.identity()));
+    Map<String, ProgramOrderable> programOrderables = findProgramOrderables(dtoList);
+
+    CurrencyUnit currency = CurrencyUnit.of(System.getenv("CURRENCY_CODE"));
     List<ProgramOrderable> persistList = new LinkedList<>();
 
     for (ProgramOrderableCsvModel dto: dtoList) {
-      Program program = programRepository.findByCode(Code.code(dto.getProgramCode()));
-      Orderable orderable = orderableRepository
-          .findFirstByProductCodeOrderByIdentityVersionNumberDesc(
-              Code.code(dto.getOrderableCode()));
-      OrderableDisplayCategory orderableDisplayCategory = orderableDisplayCategoryRepository
-          .findByCode(Code.code(dto.getCategoryCode()));
-
-      CurrencyUnit currency = CurrencyUnit.of(System.getenv("CURRENCY_CODE"));
+      Program program = programs.get(Code.code(dto.getProgramCode()).toString());
+      Orderable orderable = orderables.get(Code.code(dto.getOrderableCode()).toString());
+      OrderableDisplayCategory orderableDisplayCategory = categories
+          .get(Code.code(dto.getCategoryCode()).toString());
 
       ProgramOrderableDto programOrderableDto = new ProgramOrderableDto(
           program.getId(),
@@ -94,10 +112,8 @@ public class ProgramOrderableImportPersister implements DataImportPersister<Prog
           null
       );
 
-      ProgramOrderable programOrderable = programOrderableRepository
-          .findByProgramCodeOrderableCodeCategoryCode(dto.getProgramCode(),
-              dto.getOrderableCode(), dto.getCategoryCode()
-          );
+      ProgramOrderable programOrderable = programOrderables.get(programOrderableKey(
+          dto.getProgramCode(), dto.getOrderableCode(), dto.getCategoryCode()));
 
       if (programOrderable == null) {
         programOrderable = ProgramOrderable.createNew(program, orderableDisplayCategory,
@@ -111,4 +127,33 @@ public class ProgramOrderableImportPersister implements DataImportPersister<Prog
     return persistList;
   }
 
+  private Map<String, ProgramOrderable> findProgramOrderables(
+      List<ProgramOrderableCsvModel> dtoList) {
+    List<Object[]> rows = programOrderableRepository.findIdsByOrderableCodes(
+        dtoList.stream().map(ProgramOrderableCsvModel::getOrderableCode).collect(toSet()));
+
+    Map<UUID, String> keys = rows.stream()
+        .collect(toMap(row -> UUID.fromString((String) row[0]),
+            row -> programOrderableKey((String) row[1], (String) row[2], (String) row[3])));
+
+    return programOrderableRepository
+        .findAllById(keys.keySet())
+        .stream()
+        .collect(toMap(programOrderable -> keys.get(programOrderable.getId()),
+            Function.identity()));
+  }
+
+  private Set<String> collectCodes(List<ProgramOrderableCsvModel> dtoList,
+      Function<ProgramOrderableCsvModel, String> codeExtractor) {
+    return dtoList.stream()
+        .map(codeExtractor)
+        .map(code -> Code.code(code).toString())
+        .collect(toSet());
+  }
+
+  private String programOrderableKey(String programCode, String orderableCode,
+      String categoryCode) {
+    return String.join("|", programCode, orderableCode, categoryCode);
+  }
+
 }
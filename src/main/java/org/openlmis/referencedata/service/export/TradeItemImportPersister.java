@@ -15,7 +15,9 @@
 
 package org.openlmis.referencedata.service.export;
 
-import java.io.InputStream;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -23,7 +25,10 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.domain.TradeItem;
@@ -33,17 +38,16 @@ import org.openlmis.referencedata.dto.TradeItemDto;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.repository.OrderableRepository;
 import org.openlmis.referencedata.repository.TradeItemRepository;
-import org.openlmis.referencedata.util.FileHelper;
+import org.openlmis.referencedata.service.OrderableFulfillCache;
 import org.openlmis.referencedata.util.Message;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service("tradeItem.csv")
-public class TradeItemImportPersister implements DataImportPersister<Orderable,
+public class TradeItemImportPersister extends BaseDataImportPersister<Orderable,
     TradeItemCsvModel, OrderableDto> {
 
-  @Autowired
-  private FileHelper fileHelper;
+  private static final String TRADE_ITEM = "tradeItem";
 
   @Autowired
   private TradeItemRepository tradeItemRepository;
@@ -51,13 +55,20 @@ public class TradeItemImportPersister implements DataImportPersister<Orderable,
   @Autowired
   private OrderableRepository orderableRepository;
 
+  @Autowired
+  private OrderableFulfillCache orderableFulfillCache;
+
+  @Override
+  protected Class<TradeItemCsvModel> getImportedType() {
+    return TradeItemCsvModel.class;
+  }
+
   @Override
-  public List<OrderableDto> processAndPersist(InputStream dataStream) {
-    List<TradeItemCsvModel> importedDtos =
-        fileHelper.readCsv(TradeItemCsvModel.class, dataStream);
+  protected List<OrderableDto> persist(List<TradeItemCsvModel> chunk) {
     List<Orderable> persistedObjects = orderableRepository.saveAll(
-        createOrUpdate(importedDtos)
+        createOrUpdate(chunk)
     );
+    orderableFulfillCache.invalidate();
 
     return new ArrayList<>(OrderableDto.newInstances(persistedObjects));
   }
@@ -91,7 +102,7 @@ public class TradeItemImportPersister implements DataImportPersister<Orderable,
 
       UUID tradeItemId = tradeItem.getId();
       Map<String, String> identifiers = new HashMap<>();
-      identifiers.put("tradeItem", tradeItemId.toString());
+      identifiers.put(TRADE_ITEM, tradeItemId.toString());
       orderable.setIdentifiers(identifiers);
 
       orderablePersistList.add(orderable);
@@ -101,11 +112,31 @@ public class TradeItemImportPersister implements DataImportPersister<Orderable,
   }
 
   private Map<Orderable, TradeItem> prepareTradeItems(List<TradeItemCsvModel> dtoList) {
+    Set<String> codes = dtoList.stream()
+        .map(dto -> Code.code(dto.getCode()).toString())
+        .collect(toSet());
+    Map<String, Orderable> orderables = orderableRepository
+        .findAllLatestByProductCodes(codes)
+        .stream()
+        .collect(toMap(orderable -> orderable.getProductCode().toString(),
+            Function.identity()));
+
+    Set<UUID> tradeItemIds = orderables.values().stream()
+        .map(Orderable::getIdentifiers)
+        .filter(Objects::nonNull)
+        .map(identifiers -> identifiers.get(TRADE_ITEM))
+        .filter(Objects::nonNull)
+        .map(UUID::fromString)
+        .collect(toSet());
+    Map<UUID, TradeItem> tradeItems = tradeItemRepository
+        .findAllById(tradeItemIds)
+        .stream()
+        .collect(toMap(TradeItem::getId, Function.identity()));
+
     Map<Orderable, TradeItem> tradeItemPersistMap = new LinkedHashMap<>();
 
     for (TradeItemCsvModel dto: dtoList) {
-      Orderable orderable = orderableRepository
-          .findFirstByProductCodeOrderByIdentityVersionNumberDesc(Code.code(dto.getCode()));
+      Orderable orderable = orderables.get(Code.code(dto.getCode()).toString());
 
       if (orderable == null) {
         throw new NotFoundException(new Message(
@@ -115,15 +146,19 @@ public class TradeItemImportPersister implements DataImportPersister<Orderable,
       TradeItem tradeItem;
       Map<String, String> identifiers = orderable.getIdentifiers();
 
-      if (identifiers == null || !identifiers.containsKey("tradeItem")) {
+      if (identifiers == null || !identifiers.containsKey(TRADE_ITEM)) {
         TradeItemDto tradeItemDto = new TradeItemDto();
         tradeItemDto.setManufacturerOfTradeItem(dto.getManufacturerOfTradeItem());
         tradeItem = TradeItem.newInstance(tradeItemDto);
       } else {
-        String tradeItemIdentifier = identifiers.get("tradeItem");
-        tradeItem = tradeItemRepository.findById(UUID.fromString(tradeItemIdentifier))
-            .orElseThrow(() -> new NotFoundException(
-                "Could not find trade item with id: " + tradeItemIdentifier));
+        String tradeItemIdentifier = identifiers.get(TRADE_ITEM);
+        tradeItem = tradeItems.get(UUID.fromString(tradeItemIdentifier));
+
+        if (tradeItem == null) {
+          throw new NotFoundException(
+              "Could not find trade item with id: " + tradeItemIdentifier);
+        }
+
         tradeItem.setManufacturerOfTradeItem(dto.getManufacturerOfTradeItem());
       }
 
@@ -0,0 +1,71 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
+import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.dto.ApprovedProductDto;
+import org.openlmis.referencedata.repository.OrderableRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ApprovedProductDtoBuilder {
+
+  @Autowired
+  private OrderableRepository orderableRepository;
+
+  /**
+   * Builds approved product dtos from the given {@link FacilityTypeApprovedProduct}s. The latest
+   * versions of their orderables are retrieved with a single query.
+   *
+   * @param ftaps list of {@link FacilityTypeApprovedProduct}s
+   * @return list of approved product dtos, in the same order.
+   */
+  public List<ApprovedProductDto> build(List<FacilityTypeApprovedProduct> ftaps) {
+    Set<UUID> orderableIds = ftaps
+        .stream()
+        .map(FacilityTypeApprovedProduct::getOrderableId)
+        .collect(Collectors.toSet());
+
+    Map<UUID, Orderable> orderables = orderableIds.isEmpty()
+        ? Collections.emptyMap()
+        : orderableRepository
+            .findAllLatestByIds(orderableIds, PageRequest.of(0, orderableIds.size()))
+            .getContent()
+            .stream()
+            .collect(Collectors.toMap(Orderable::getId, Function.identity()));
+
+    List<ApprovedProductDto> dtos = new ArrayList<>(ftaps.size());
+    for (FacilityTypeApprovedProduct ftap : ftaps) {
+      ApprovedProductDto productDto = new ApprovedProductDto();
+      ftap.export(productDto);
+      productDto.setOrderable(orderables.get(ftap.getOrderableId()));
+      dtos.add(productDto);
+    }
+
+    return dtos;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.util.Base64;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.util.messagekeys.PageableMessageKeys;
+
+/**
+ * Position of the last element returned by a keyset search. Elements are ordered by name (nulls
+ * last) and then by id, so the position is enough to fetch the next page without an offset. The
+ * token handed over to clients is opaque; they should only pass it back unchanged.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+@AllArgsConstructor
+public final class ContinuationToken {
+
+  private static final int UUID_LENGTH = 36;
+  private static final char NAME_SEPARATOR = ':';
+
+  private final String name;
+  private final UUID id;
+
+  /**
+   * Encodes this position as an URL safe string.
+   */
+  public String encode() {
+    String value = null == name ? id.toString() : id.toString() + NAME_SEPARATOR + name;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(UTF_8));
+  }
+
+  /**
+   * Decodes the position from a token created by {@link #encode()}.
+   *
+   * @param token the token passed by the client, blank for the first page.
+   * @return the position or null if the token is blank.
+   * @throws ValidationMessageException if the token is malformed.
+   */
+  public static ContinuationToken decode(String token) {
+    if (isBlank(token)) {
+      return null;
+    }
+
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(token), UTF_8);
+      UUID id = UUID.fromString(value.substring(0, UUID_LENGTH));
+
+      if (value.length() == UUID_LENGTH) {
+        return new ContinuationToken(null, id);
+      }
+
+      if (value.charAt(UUID_LENGTH) != NAME_SEPARATOR) {
+        throw new IllegalArgumentException("Missing name separator in " + value);
+      }
+
+      return new ContinuationToken(value.substring(UUID_LENGTH + 1), id);
+    } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+      throw new ValidationMessageException(ex,
+          PageableMessageKeys.ERROR_CONTINUATION_TOKEN_INVALID);
+    }
+  }
+}
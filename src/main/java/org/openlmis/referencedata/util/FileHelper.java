@@ -15,18 +15,16 @@
 
 package org.openlmis.referencedata.util;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import com.google.common.collect.AbstractIterator;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.function.BiConsumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import lombok.Setter;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.util.messagekeys.CsvUploadMessageKeys;
 import org.openlmis.referencedata.util.messagekeys.MessageKeys;
@@ -49,68 +47,79 @@ public class FileHelper {
   protected String zipMaxSize;
 
   /**
-   * Reads CSV data from an input stream and maps it to a list of objects of the specified class.
+   * Reads CSV data from an input stream lazily. A row is parsed and mapped to an object of
+   * the specified class only when the iterator advances, so the file is never held in memory.
+   * The stream is not closed.
    *
    * @param clazz the class representing the target type for mapping CSV data
    * @param csvStream the input stream containing the CSV data to be read
-   * @return a list of objects populated from the CSV
-   * @throws ValidationMessageException if an error occurs while reading the multipart file or
-   *                                    parsing the zip archive
+   * @return an iterator over objects populated from the CSV rows
+   * @throws ValidationMessageException if an error occurs while reading the CSV data
    */
-  public <T> List<T> readCsv(Class<T> clazz, InputStream csvStream) {
-    List<T> dtoList = new ArrayList<>();
-
+  public <T> Iterator<T> iterateCsv(Class<T> clazz, InputStream csvStream) {
+    CsvBeanReader<T> reader;
     try {
-      ModelClass<T> model = new ModelClass<>(clazz);
-      CsvBeanReader<T> reader = new CsvBeanReader<>(
-          model,
-          csvStream,
-          validator);
-
-      T readObject;
-      while ((readObject = reader.readWithCellProcessors()) != null) {
-        dtoList.add(readObject);
-      }
+      reader = new CsvBeanReader<>(new ModelClass<>(clazz), csvStream, validator);
     } catch (IOException e) {
       throw new ValidationMessageException(e, MessageKeys.ERROR_IO, e.getMessage());
     }
 
-    return dtoList;
+    return new AbstractIterator<T>() {
+      @Override
+      protected T computeNext() {
+        try {
+          T row = reader.readWithCellProcessors();
+          return null == row ? endOfData() : row;
+        } catch (IOException e) {
+          throw new ValidationMessageException(e, MessageKeys.ERROR_IO, e.getMessage());
+        }
+      }
+    };
   }
 
   /**
-   * Converts a multipart file containing a zip archive to a map of file names to input streams of
-   * the corresponding file contents.
+   * Reads a zip archive from a multipart file entry by entry, in the order of the archive, and
+   * passes the name and the content of each entry to the consumer. Entries are not buffered, so
+   * the stream given to the consumer can be read only until the consumer returns.
    *
    * @param multipartFile the multipart file containing the zip archive
-   * @return a map of file names to input streams of the corresponding file contents
+   * @param entryConsumer called with the file name and the content of each entry
    * @throws ValidationMessageException if an error occurs while reading the multipart file or
-   *                                    parsing the zip archive
+   *                                    parsing the zip archive, or if the archive is empty
    */
-  public Map<String, InputStream> convertMultipartFileToZipFileMap(
-          MultipartFile multipartFile) {
-    byte[] buffer = new byte[1024];
+  public void readZipEntries(MultipartFile multipartFile,
+                             BiConsumer<String, InputStream> entryConsumer) {
+    try (InputStream archiveStream = multipartFile.getInputStream()) {
+      readZipEntries(archiveStream, entryConsumer);
+    } catch (IOException e) {
+      throw new ValidationMessageException(e, MessageKeys.ERROR_IO, e.getMessage());
+    }
+  }
 
-    try (ZipInputStream zipInputStream = new ZipInputStream(multipartFile.getInputStream())) {
-      Map<String, InputStream> zipFileMap = new HashMap<>();
+  /**
+   * Reads a zip archive from a stream entry by entry, the same way as
+   * {@link #readZipEntries(MultipartFile, BiConsumer)} does.
+   *
+   * @param archiveStream the stream containing the zip archive
+   * @param entryConsumer called with the file name and the content of each entry
+   * @throws ValidationMessageException if an error occurs while parsing the zip archive, or if
+   *                                    the archive is empty
+   */
+  public void readZipEntries(InputStream archiveStream,
+                             BiConsumer<String, InputStream> entryConsumer) {
+    try (ZipInputStream zipInputStream = new ZipInputStream(
+        new CloseShieldInputStream(archiveStream))) {
+      boolean empty = true;
       ZipEntry zipEntry;
-      int bytesRead;
 
       while ((zipEntry = zipInputStream.getNextEntry()) != null) {
-        // Read bytes from zip file and write it to output stream
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        while ((bytesRead = zipInputStream.read(buffer)) != -1) {
-          outputStream.write(buffer, 0, bytesRead);
-        }
-
-        zipFileMap.put(zipEntry.getName(), new ByteArrayInputStream(outputStream.toByteArray()));
+        empty = false;
+        entryConsumer.accept(zipEntry.getName(), new CloseShieldInputStream(zipInputStream));
       }
 
-      if (zipFileMap.isEmpty()) {
+      if (empty) {
         throw new ValidationMessageException(MessageKeys.ERROR_IO, "Empty archive");
       }
-
-      return zipFileMap;
     } catch (IOException e) {
       throw new ValidationMessageException(e, MessageKeys.ERROR_IO, e.getMessage());
     }
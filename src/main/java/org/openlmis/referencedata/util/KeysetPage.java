@@ -0,0 +1,90 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A page of a keyset search. Unlike {@link org.springframework.data.domain.Page} it has no page
+ * number; the next page is requested with the continuation token, which is null on the last page.
+ * The total number of elements is only present if it was requested.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class KeysetPage<T> {
+
+  /*
+    Page size used when the client did not specify one. Keyset pages are never unpaged.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 500;
+
+  private final List<T> content;
+  private final int size;
+  private final String continuationToken;
+  private final Long totalElements;
+
+  /**
+   * Creates a page from rows fetched by a keyset search. The search is expected to fetch one row
+   * more than the page size; that row is dropped and only signals that a next page exists.
+   *
+   * @param rows          rows in the search order, at most size + 1 of them.
+   * @param size          requested page size.
+   * @param position      extracts the position of a row to build the continuation token.
+   * @param totalElements number of all matching elements, null if it was not calculated.
+   */
+  public static <T> KeysetPage<T> of(List<T> rows, int size,
+      Function<T, ContinuationToken> position, Long totalElements) {
+    if (rows.size() <= size) {
+      return new KeysetPage<>(rows, size, null, totalElements);
+    }
+
+    List<T> content = new ArrayList<>(rows.subList(0, size));
+    String token = position.apply(content.get(size - 1)).encode();
+    return new KeysetPage<>(content, size, token, totalElements);
+  }
+
+  /**
+   * Returns the page size that should be used for a keyset search with the given pageable size.
+   */
+  public static int getPageSize(int requestedSize) {
+    return requestedSize == Pagination.NO_PAGINATION ? DEFAULT_PAGE_SIZE : requestedSize;
+  }
+
+  /**
+   * Creates a page with the same position and total but a different content, for example after
+   * the elements were converted to DTOs.
+   */
+  public <R> KeysetPage<R> withContent(List<R> newContent) {
+    return new KeysetPage<>(newContent, size, continuationToken, totalElements);
+  }
+
+  public int getNumberOfElements() {
+    return content.size();
+  }
+
+  public boolean isLast() {
+    return null == continuationToken;
+  }
+}
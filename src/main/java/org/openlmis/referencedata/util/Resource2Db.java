@@ -18,24 +18,30 @@ package org.openlmis.referencedata.util;
 import static java.util.stream.Collectors.joining;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.apache.commons.collections4.IteratorUtils;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.io.ByteOrderMark;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.lang3.Validate;
-import org.apache.commons.lang3.tuple.MutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
@@ -47,6 +53,8 @@ import org.springframework.jdbc.core.JdbcTemplate;
 public class Resource2Db {
   private static final XLogger XLOGGER = XLoggerFactory.getXLogger(Resource2Db.class);
 
+  private static final int COPY_BUFFER_SIZE = 65536;
+
   private final JdbcTemplate template;
 
   /**
@@ -74,71 +82,137 @@ public class Resource2Db {
   }
 
   /**
-   * Insert into the database (a table) from a Resource with CSV data.
+   * Copy into the database (a table) from a Resource with CSV data, using the PostgreSQL COPY
+   * protocol. The records are streamed from the Resource straight to the database, so they are
+   * never held in memory all at once.
    * @param tableName the name of the table (incl schema) to load the data into.
    * @param resource the Resource as a CSV, with a header, that has the data to load.
    * @throws IOException if the Resource can't be used.
    * @throws NullPointerException if any of the arguments are null
    * @throws IllegalArgumentException if the tableName is blank
    */
-  public void insertToDbFromCsv(String tableName, Resource resource) throws IOException {
+  public void copyToDbFromCsv(String tableName, Resource resource) throws IOException {
     XLOGGER.entry(tableName, resource);
     Validate.notBlank(tableName);
     Validate.notNull(resource);
-    insertToDbFromBatchedPair(tableName, resourceCsvToBatchedPair(resource));
+
+    try (InputStreamReader isReader = new InputStreamReader(
+        new BOMInputStream(resource.getInputStream(), ByteOrderMark.UTF_8))) {
+      CSVParser parser = CSVFormat.DEFAULT.withHeader().withNullString("").parse(isReader);
+      List<String> columns = new ArrayList<>(parser.getHeaderMap().keySet());
+      XLOGGER.info("Read header: " + columns);
+
+      Stream<Object[]> rows = StreamSupport
+          .stream(parser.spliterator(), false)
+          .map(record -> {
+            if (!record.isConsistent()) {
+              throw new IllegalArgumentException("CSV record inconsistent: " + record);
+            }
+            return IteratorUtils.toList(record.iterator()).toArray();
+          });
+
+      copyToDb(tableName, columns, rows);
+    }
+
     XLOGGER.exit();
   }
 
-  /*
-   converts a Resource into a List of Strings - used when those strings are direct SQL
+  /**
+   * Copies data into a single table, using the PostgreSQL COPY protocol in CSV format. Rows are
+   * pulled from the given stream one at a time and sent to the database in buffered chunks, so
+   * the producer of the stream decides how much data is kept in memory.
+   * @param tableName the name of the table (including schema) to copy into.
+   * @param columns an ordered list of column names.
+   * @param rows the rows to copy, where each row is similarly ordered as the columns. A null
+   *             element is copied as SQL NULL.
+   * @return the number of copied rows.
    */
-  private List<String> resourceToStrings(final Resource resource) throws IOException {
-    XLOGGER.entry(resource.getDescription());
+  public long copyToDb(String tableName, List<String> columns,
+                       Stream<? extends Object[]> rows) {
+    XLOGGER.entry(tableName);
 
-    List<String> lines;
-    try (InputStreamReader isReader = new InputStreamReader(resource.getInputStream())) {
-      lines = new BufferedReader(isReader).lines().collect(Collectors.toList());
+    Iterator<? extends Object[]> iterator = rows.iterator();
+    if (!iterator.hasNext()) {
+      XLOGGER.exit("Total " + tableName + " copied: 0");
+      return 0;
     }
-    assert null != lines;
 
-    XLOGGER.exit("SQL lines read: " + lines.size());
-    return lines;
+    String copySql = String.format("COPY %s (%s) FROM STDIN WITH (FORMAT csv)",
+        tableName,
+        String.join(",", columns));
+    XLOGGER.info("Copy SQL: " + copySql);
+
+    Long copyCount = template.execute((ConnectionCallback<Long>) connection -> {
+      CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+      try {
+        long count = copyRows(copyIn, iterator);
+        copyIn.endCopy();
+        return count;
+      } finally {
+        if (copyIn.isActive()) {
+          copyIn.cancelCopy();
+        }
+      }
+    });
+
+    long copied = null == copyCount ? 0 : copyCount;
+    XLOGGER.exit("Total " + tableName + " copied: " + copied);
+    return copied;
   }
 
   /*
-   converts a Resource which is a CSV, into a Pair where Pair.left is the SQL column names,
-   and Pair.right is the rows of data which go into those columns (each row is an array, the array
-   matches the order of the columns
+   writes the rows as CSV lines into the active COPY operation, flushing the buffer whenever
+   it grows over COPY_BUFFER_SIZE
    */
-  Pair<List<String>, List<Object[]>> resourceCsvToBatchedPair(final Resource resource)
-      throws IOException {
-    XLOGGER.entry(resource.getDescription());
+  private long copyRows(CopyIn copyIn, Iterator<? extends Object[]> iterator)
+      throws SQLException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_BUFFER_SIZE);
+    long count = 0;
+
+    while (iterator.hasNext()) {
+      byte[] line = toCsvLine(iterator.next()).getBytes(StandardCharsets.UTF_8);
+      buffer.write(line, 0, line.length);
+      count++;
+
+      if (buffer.size() >= COPY_BUFFER_SIZE) {
+        copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+        buffer.reset();
+      }
+    }
 
-    // parse CSV
-    try (InputStreamReader isReader = new InputStreamReader(
-        new BOMInputStream(resource.getInputStream(), ByteOrderMark.UTF_8))) {
-      CSVParser parser = CSVFormat.DEFAULT.withHeader().withNullString("").parse(isReader);
+    if (buffer.size() > 0) {
+      copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+    }
 
-      // read header row
-      MutablePair<List<String>, List<Object[]>> readData = new MutablePair<>();
-      readData.setLeft(new ArrayList<>(parser.getHeaderMap().keySet()));
-      XLOGGER.info("Read header: " + readData.getLeft());
+    return count;
+  }
 
-      // read data rows
-      List<Object[]> rows = new ArrayList<>();
-      for (CSVRecord record : parser.getRecords()) {
-        if (!record.isConsistent()) {
-          throw new IllegalArgumentException("CSV record inconsistent: " + record);
-        }
+  /*
+   converts a row into a line of PostgreSQL CSV - every value is quoted, so that an empty string
+   stays an empty string, while null is written as an unquoted empty value (NULL)
+   */
+  static String toCsvLine(Object[] row) {
+    return Arrays.stream(row)
+        .map(value -> null == value
+            ? ""
+            : '"' + value.toString().replace("\"", "\"\"") + '"')
+        .collect(joining(",", "", "\n"));
+  }
 
-        List theRow = IteratorUtils.toList(record.iterator());
-        rows.add(theRow.toArray());
-      }
-      readData.setRight(rows);
+  /*
+   converts a Resource into a List of Strings - used when those strings are direct SQL
+   */
+  private List<String> resourceToStrings(final Resource resource) throws IOException {
+    XLOGGER.entry(resource.getDescription());
 
-      XLOGGER.exit("Records read: " + readData.getRight().size());
-      return readData;
+    List<String> lines;
+    try (InputStreamReader isReader = new InputStreamReader(resource.getInputStream())) {
+      lines = new BufferedReader(isReader).lines().collect(Collectors.toList());
     }
+    assert null != lines;
+
+    XLOGGER.exit("SQL lines read: " + lines.size());
+    return lines;
   }
 
   /*
@@ -154,36 +228,4 @@ public class Resource2Db {
     int[] updateCounts = template.batchUpdate(sqlLines.toArray(new String[sqlLines.size()]));
     XLOGGER.exit("Total db updates: " + Arrays.stream(updateCounts).sum());
   }
-
-  /**
-   * Inserts data into a single table.  Given the columns and a list of data to insert, will
-   * run a batch update to insert it.
-   * @param tableName the name of the table (including schema) to insert into.
-   * @param dataWithHeader a pair where pair.left is an ordered list of column names and pair.right
-   *                       is an array of rows to insert, where each row is similarly ordered as
-   *                       the columns in pair.left.
-   */
-  public void insertToDbFromBatchedPair(String tableName,
-                                        Pair<List<String>, List<Object[]>> dataWithHeader) {
-    XLOGGER.entry(tableName);
-
-    String columnDesc = dataWithHeader.getLeft()
-        .stream()
-        .collect(joining(","));
-    String valueDesc = dataWithHeader.getLeft()
-        .stream()
-        .map(s -> "?")
-        .collect((joining(",")));
-    String insertSql = String.format("INSERT INTO %s (%s) VALUES (%s)",
-        tableName,
-        columnDesc,
-        valueDesc);
-    XLOGGER.info("Insert SQL: " + insertSql);
-
-    List<Object[]> data = dataWithHeader.getRight();
-    data.forEach(e -> XLOGGER.info(tableName + ": " + Arrays.toString(e)));
-    int[] updateCount = template.batchUpdate(insertSql, data);
-
-    XLOGGER.exit("Total " + tableName + " inserts: " + Arrays.stream(updateCount).sum());
-  }
 }
@@ -124,9 +124,14 @@ public abstract class MessageKeys {
   protected static final String SUPPLY_PARTNER = "supplyPartner";
   protected static final String SYSTEM_NOTIFICATION = "systemNotification";
   protected static final String DATA_EXPORT = "dataExport";
+  protected static final String DATA_IMPORT = "dataImport";
+  protected static final String JOB = "job";
   protected static final String EXTENSION = "extension";
   protected static final String TOO = "too";
   protected static final String LARGE = "large";
+  protected static final String MANY = "many";
+  protected static final String ROWS = "rows";
+  protected static final String INTERRUPTED = "interrupted";
 
   // Common to subclasses
   protected static final String EMAIL = "email";
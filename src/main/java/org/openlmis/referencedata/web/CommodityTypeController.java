@@ -27,6 +27,7 @@ import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.CommodityTypeRepository;
 import org.openlmis.referencedata.repository.TradeItemRepository;
+import org.openlmis.referencedata.service.OrderableFulfillCache;
 import org.openlmis.referencedata.util.Message;
 import org.openlmis.referencedata.util.Pagination;
 import org.openlmis.referencedata.util.messagekeys.CommodityTypeMessageKeys;
@@ -62,6 +63,9 @@ public class CommodityTypeController extends BaseController {
   @Autowired
   private CommodityTypeValidator validator;
 
+  @Autowired
+  private OrderableFulfillCache orderableFulfillCache;
+
   /**
    * Add or update a commodity type.
    *
@@ -96,7 +100,10 @@ public class CommodityTypeController extends BaseController {
       commodityType.assignParent(parent);
     }
 
-    return CommodityTypeDto.newInstance(repository.save(commodityType));
+    CommodityType saved = repository.save(commodityType);
+    orderableFulfillCache.invalidate();
+
+    return CommodityTypeDto.newInstance(saved);
   }
 
   /**
@@ -140,6 +147,7 @@ public class CommodityTypeController extends BaseController {
 
     // update the trade items with new classifications
     tradeItemRepository.saveAll(tradeItems);
+    orderableFulfillCache.invalidate();
   }
 
   /**
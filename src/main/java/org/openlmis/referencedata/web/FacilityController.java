@@ -17,20 +17,19 @@ package org.openlmis.referencedata.web;
 
 import com.vividsolutions.jts.geom.Polygon;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
-import java.util.function.Function;
 import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
 
 import lombok.NoArgsConstructor;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
-import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.domain.RightName;
 import org.openlmis.referencedata.dto.ApprovedProductDto;
 import org.openlmis.referencedata.dto.BasicFacilityDto;
@@ -41,10 +40,12 @@ import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.fhir.FhirClient;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.FacilityTypeApprovedProductRepository;
-import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.service.ApprovedProductStreamingService;
 import org.openlmis.referencedata.service.FacilityBuilder;
 import org.openlmis.referencedata.service.FacilityService;
+import org.openlmis.referencedata.service.NearCache;
 import org.openlmis.referencedata.service.RightAssignmentService;
+import org.openlmis.referencedata.util.ApprovedProductDtoBuilder;
 import org.openlmis.referencedata.util.messagekeys.FacilityMessageKeys;
 import org.openlmis.referencedata.validate.FacilityValidator;
 import org.slf4j.ext.XLogger;
@@ -52,10 +53,10 @@ import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
@@ -88,7 +89,7 @@ public class FacilityController extends BaseController {
   private FacilityTypeApprovedProductRepository facilityTypeApprovedProductRepository;
 
   @Autowired
-  private OrderableRepository orderableRepository;
+  private ApprovedProductDtoBuilder approvedProductDtoBuilder;
 
   @Autowired
   private FacilityService facilityService;
@@ -105,6 +106,12 @@ public class FacilityController extends BaseController {
   @Autowired
   private FacilityBuilder facilityBuilder;
 
+  @Autowired
+  private ApprovedProductStreamingService approvedProductStreamingService;
+
+  @Autowired
+  private NearCache<FacilityDto> facilityNearCache;
+
   /**
    * Allows creating new facilities. If the id is specified, it will be ignored.
    *
@@ -276,12 +283,14 @@ public class FacilityController extends BaseController {
 
     profiler.start("SAVE_FACILITY");
     facilityToSave = facilityRepository.saveAndFlush(facilityToSave);
+    facilityNearCache.evict(facilityToSave.getId());
 
     profiler.start("SYNC_FHIR_RESOURCE");
     fhirClient.synchronizeFacility(facilityToSave);
 
     profiler.start("REGENERATE_RIGHT_ASSIGNMENTS");
-    rightAssignmentService.regenerateRightAssignments();
+    rightAssignmentService.regenerateRightAssignments(
+        rightAssignmentService.findUserIdsAffectedByFacility(facilityToSave.getId()));
 
     XLOGGER.info("Saved facility with id: {}", facilityToSave.getId());
     FacilityDto dto = toDto(facilityToSave, profiler);
@@ -303,8 +312,9 @@ public class FacilityController extends BaseController {
     Profiler profiler = new Profiler("GET_FACILITY");
     profiler.setLogger(XLOGGER);
 
-    Facility facility = findFacility(facilityId, profiler);
-    FacilityDto dto = toDto(facility, profiler);
+    profiler.start("GET_FACILITY_FROM_CACHE");
+    FacilityDto dto = facilityNearCache.get(facilityId,
+        () -> toDto(findFacility(facilityId, profiler), profiler));
 
     profiler.stop().log();
     return dto;
@@ -347,6 +357,77 @@ public class FacilityController extends BaseController {
     return list;
   }
 
+  /**
+   * Streams all full or non-full supply approved products for the given facility. Used instead
+   * of {@link #getApprovedProducts} when the stream parameter is true. The response has the same
+   * format as a page with all approved products, but it is written as the products are read
+   * from the database, so the memory used does not depend on the number of products. Paging
+   * parameters are ignored.
+   *
+   * @param facilityId ID of the facility
+   * @param response   response the approved products are written to
+   */
+  @GetMapping(value = RESOURCE_PATH + "/{id}/approvedProducts", params = "stream=true")
+  @ResponseStatus(HttpStatus.OK)
+  public void streamApprovedProducts(
+      @PathVariable("id") UUID facilityId,
+      @RequestParam(required = false, value = "programId") UUID programId,
+      @RequestParam(required = false, value = "fullSupply") Boolean fullSupply,
+      @RequestParam(required = false, value = "orderableId") List<UUID> orderablesId,
+      @RequestParam(required = false, value = "active") Boolean active,
+      @RequestParam(required = false, value = "orderableCode") String orderableCode,
+      @RequestParam(required = false, value = "orderableName") String orderableName,
+      HttpServletResponse response) throws IOException {
+    Profiler profiler = new Profiler("STREAM_FACILITY_APPROVED_PRODUCTS");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("WRITE_APPROVED_PRODUCTS");
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    approvedProductStreamingService.writeApprovedProducts(facilityId, programId, fullSupply,
+        orderablesId, active, orderableCode, orderableName, response.getOutputStream());
+
+    profiler.stop().log();
+  }
+
+  /**
+   * Searches approved products of many facilities at once. Facilities of the same type share
+   * approved products, so the products are searched once per distinct facility type instead of
+   * once per facility.
+   *
+   * @param params IDs of the facilities, optionally with a program, full supply and active flags
+   * @return approved products of each facility, by facility ID
+   */
+  @RequestMapping(value = RESOURCE_PATH + "/approvedProducts/search", method = RequestMethod.POST)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public Map<UUID, List<ApprovedProductDto>> searchApprovedProducts(
+      @RequestBody FacilityApprovedProductsSearchParams params) {
+    Profiler profiler = new Profiler("SEARCH_FACILITIES_APPROVED_PRODUCTS");
+    profiler.setLogger(XLOGGER);
+
+    if (null == params.getFacilityIds() || params.getFacilityIds().isEmpty()) {
+      profiler.stop().log();
+      throw new ValidationMessageException(
+          FacilityMessageKeys.ERROR_APPROVED_PRODUCTS_SEARCH_LACKS_PARAMS);
+    }
+
+    profiler.start("FIND_APPROVED_PRODUCTS");
+    Map<UUID, List<FacilityTypeApprovedProduct>> products = facilityTypeApprovedProductRepository
+        .searchProductsByFacilities(params.getFacilityIds(), params.getProgramId(),
+            params.getFullSupply(), params.getActive());
+
+    profiler.start("EXPORT_PRODUCTS_TO_DTO");
+    // facilities of the same type share one list, so each list is exported only once
+    Map<List<FacilityTypeApprovedProduct>, List<ApprovedProductDto>> dtosByList =
+        new IdentityHashMap<>();
+    Map<UUID, List<ApprovedProductDto>> result = new HashMap<>();
+    products.forEach((facilityId, ftaps) -> result
+        .put(facilityId, dtosByList.computeIfAbsent(ftaps, approvedProductDtoBuilder::build)));
+
+    profiler.stop().log();
+    return result;
+  }
+
   /**
    * Retrieves all facilities within a boundary.
    *
@@ -391,6 +472,7 @@ public class FacilityController extends BaseController {
 
     profiler.start("DELETE_FACILITY");
     facilityRepository.delete(facility);
+    facilityNearCache.evict(facilityId);
   }
 
   /**
@@ -481,31 +563,7 @@ public class FacilityController extends BaseController {
   private Page<ApprovedProductDto> toDto(Page<FacilityTypeApprovedProduct> products,
       Pageable pageable, Profiler profiler) {
     profiler.start("EXPORT_PRODUCTS_TO_DTO");
-
-    List<FacilityTypeApprovedProduct> ftaps = products.getContent();
-
-    Set<UUID> orderableId = ftaps
-        .stream()
-        .map(FacilityTypeApprovedProduct::getOrderableId)
-        .collect(Collectors.toSet());
-
-    Map<UUID, Orderable> orderables = orderableId.isEmpty()
-        ? Collections.emptyMap()
-        : orderableRepository
-        .findAllLatestByIds(orderableId, PageRequest.of(0, orderableId.size()))
-        .getContent()
-        .stream()
-        .collect(Collectors.toMap(Orderable::getId, Function.identity()));
-
-    List<ApprovedProductDto> dtos = new ArrayList<>();
-    for (FacilityTypeApprovedProduct ftap : ftaps) {
-      ApprovedProductDto productDto = new ApprovedProductDto();
-      ftap.export(productDto);
-
-      productDto.setOrderable(orderables.get(ftap.getOrderableId()));
-
-      dtos.add(productDto);
-    }
+    List<ApprovedProductDto> dtos = approvedProductDtoBuilder.build(products.getContent());
 
     return toPage(dtos, pageable, products.getTotalElements(), profiler);
   }
@@ -36,6 +36,7 @@ import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.FacilityTypeApprovedProductRepository;
 import org.openlmis.referencedata.repository.OrderableRepository;
 import org.openlmis.referencedata.service.FacilityTypeApprovedProductBuilder;
+import org.openlmis.referencedata.util.KeysetPage;
 import org.openlmis.referencedata.util.Pagination;
 import org.openlmis.referencedata.util.UuidUtil;
 import org.openlmis.referencedata.util.messagekeys.FacilityTypeApprovedProductMessageKeys;
@@ -232,6 +233,38 @@ public class FacilityTypeApprovedProductController extends BaseController {
     return page;
   }
 
+  /**
+   * Search approved products by search criteria using keyset pagination. The approved products
+   * are ordered by the full product name of their orderables and by id. The response contains
+   * a continuation token that should be passed to get the next page; it is null on the last page.
+   *
+   * @param queryParams a map containing search parameters. Supported keys are the same as for
+   *                    the regular search, plus continuationToken (empty for the first page) and
+   *                    optional includeTotal.
+   * @param pageable    object used to get the page size; the page number is ignored.
+   * @return a keyset page of approved products matching the criteria
+   */
+  @GetMapping(params = KeysetSearchParams.CONTINUATION_TOKEN)
+  public KeysetPage<ApprovedProductDto> seekFacilityTypeApprovedProducts(
+      @RequestParam MultiValueMap<String, Object> queryParams, Pageable pageable) {
+    Profiler profiler = new Profiler("SEEK_FACILITY_TYPE_APPROVED_PRODUCT");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("PARSE_QUERY_PARAMETERS");
+    KeysetSearchParams keysetParams = new KeysetSearchParams(queryParams, pageable);
+    QueryFacilityTypeApprovedProductSearchParams searchParams =
+        new QueryFacilityTypeApprovedProductSearchParams(keysetParams.getFilters());
+
+    profiler.start("SEEK_FTAPS");
+    KeysetPage<FacilityTypeApprovedProduct> ftaps = repository.seekProducts(searchParams,
+        keysetParams.getAfter(), keysetParams.getSize(), keysetParams.isIncludeTotal());
+
+    List<ApprovedProductDto> content = toDto(ftaps.getContent(), profiler);
+
+    profiler.stop().log();
+    return ftaps.withContent(content);
+  }
+
   /**
    * Search approved products by search criteria.
    *
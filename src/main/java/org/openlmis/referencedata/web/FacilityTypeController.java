@@ -24,6 +24,7 @@ import org.openlmis.referencedata.exception.IntegrityViolationException;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.repository.FacilityTypeRepository;
 import org.openlmis.referencedata.service.FacilityTypeService;
+import org.openlmis.referencedata.service.NearCache;
 import org.openlmis.referencedata.util.messagekeys.FacilityTypeMessageKeys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,6 +62,9 @@ public class FacilityTypeController extends BaseController {
   @Autowired
   private FacilityTypeService facilityTypeService;
 
+  @Autowired
+  private NearCache<FacilityType> facilityTypeNearCache;
+
   /**
    * Allows creating new facilityType. If the id is specified, it will be ignored.
    *
@@ -118,6 +122,7 @@ public class FacilityTypeController extends BaseController {
 
       facilityTypeToUpdate.updateFrom(facilityType);
       facilityTypeRepository.save(facilityTypeToUpdate);
+      facilityTypeNearCache.evict(facilityTypeToUpdate.getId());
 
       LOGGER.debug("Updating facility type with id: %s", facilityTypeToUpdate.getId());
       return facilityTypeToUpdate;
@@ -137,12 +142,14 @@ public class FacilityTypeController extends BaseController {
   @ResponseBody
   public FacilityType getFacilityType(@PathVariable("id") UUID facilityTypeId) {
 
-    FacilityType facilityType = facilityTypeRepository.findById(facilityTypeId).orElse(null);
-    if (facilityType == null) {
-      throw new NotFoundException(FacilityTypeMessageKeys.ERROR_NOT_FOUND);
-    } else {
-      return facilityType;
-    }
+    return facilityTypeNearCache.get(facilityTypeId, () -> {
+      FacilityType facilityType = facilityTypeRepository.findById(facilityTypeId).orElse(null);
+      if (facilityType == null) {
+        throw new NotFoundException(FacilityTypeMessageKeys.ERROR_NOT_FOUND);
+      } else {
+        return facilityType;
+      }
+    });
   }
 
   /**
@@ -160,6 +167,7 @@ public class FacilityTypeController extends BaseController {
     } else {
       try {
         facilityTypeRepository.delete(facilityType);
+        facilityTypeNearCache.evict(facilityTypeId);
       } catch (DataIntegrityViolationException ex) {
         throw new IntegrityViolationException(FacilityTypeMessageKeys.ERROR_DELETING_WITH_ID, ex);
       }
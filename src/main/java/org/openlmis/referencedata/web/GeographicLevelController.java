@@ -22,6 +22,7 @@ import java.util.UUID;
 import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.repository.GeographicLevelRepository;
+import org.openlmis.referencedata.service.GeographicZoneTreeCache;
 import org.openlmis.referencedata.util.messagekeys.GeographicLevelMessageKeys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +54,9 @@ public class GeographicLevelController extends BaseController {
   @Autowired
   private GeographicLevelRepository geographicLevelRepository;
 
+  @Autowired
+  private GeographicZoneTreeCache geographicZoneTreeCache;
+
   /**
    * Allows creating new geographicLevels.
    *
@@ -107,6 +111,7 @@ public class GeographicLevelController extends BaseController {
 
     LOGGER.debug("Updating geographicLevel");
     geographicLevelRepository.save(geographicLevel);
+    geographicZoneTreeCache.invalidate();
     return geographicLevel;
   }
 
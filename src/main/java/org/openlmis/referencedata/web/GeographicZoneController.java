@@ -29,6 +29,8 @@ import org.openlmis.referencedata.fhir.FhirClient;
 import org.openlmis.referencedata.repository.GeographicZoneRepository;
 import org.openlmis.referencedata.service.GeographicZoneBuilder;
 import org.openlmis.referencedata.service.GeographicZoneService;
+import org.openlmis.referencedata.service.GeographicZoneTreeCache;
+import org.openlmis.referencedata.service.NearCache;
 import org.openlmis.referencedata.util.messagekeys.GeographicZoneMessageKeys;
 import org.openlmis.referencedata.validate.GeographicZoneValidator;
 import org.slf4j.ext.XLogger;
@@ -67,6 +69,12 @@ public class GeographicZoneController extends BaseController {
   @Autowired
   private GeographicZoneBuilder geographicZoneBuilder;
 
+  @Autowired
+  private GeographicZoneTreeCache geographicZoneTreeCache;
+
+  @Autowired
+  private NearCache<GeographicZoneDto> geographicZoneNearCache;
+
   @Autowired
   private GeographicZoneValidator geographicZoneValidator;
 
@@ -101,6 +109,7 @@ public class GeographicZoneController extends BaseController {
 
     profiler.start("SAVE_TO_DB");
     GeographicZone zone = geographicZoneRepository.save(geographicZone);
+    geographicZoneTreeCache.invalidate();
 
     profiler.start("SYNC_FHIR_RESOURCE");
     fhirClient.synchronizeGeographicZone(zone);
@@ -164,6 +173,8 @@ public class GeographicZoneController extends BaseController {
     XLOGGER.debug("Updating geographicZone");
     profiler.start("SAVE");
     GeographicZone zone = geographicZoneRepository.save(geoZoneToSave);
+    geographicZoneTreeCache.invalidate();
+    geographicZoneNearCache.evict(geographicZoneId);
 
     profiler.start("SYNC_FHIR_RESOURCE");
     fhirClient.synchronizeGeographicZone(zone);
@@ -188,16 +199,19 @@ public class GeographicZoneController extends BaseController {
     Profiler profiler = new Profiler("GET_GEO_ZONE");
     profiler.setLogger(XLOGGER);
 
-    profiler.start("FIND_ONE_BY_ID");
-    GeographicZone geographicZone = geographicZoneRepository.findById(geographicZoneId)
-        .orElse(null);
+    profiler.start("GET_FROM_CACHE");
+    GeographicZoneDto dto = geographicZoneNearCache.get(geographicZoneId, () -> {
+      profiler.start("FIND_ONE_BY_ID");
+      GeographicZone geographicZone = geographicZoneRepository.findById(geographicZoneId)
+          .orElse(null);
 
-    if (geographicZone == null) {
-      profiler.stop().log();
-      throw new NotFoundException(GeographicZoneMessageKeys.ERROR_NOT_FOUND);
-    }
+      if (geographicZone == null) {
+        profiler.stop().log();
+        throw new NotFoundException(GeographicZoneMessageKeys.ERROR_NOT_FOUND);
+      }
 
-    GeographicZoneDto dto = toDto(geographicZone, profiler);
+      return toDto(geographicZone, profiler);
+    });
 
     profiler.stop().log();
 
@@ -227,6 +241,8 @@ public class GeographicZoneController extends BaseController {
 
     profiler.start("DELETE_INSTANCE");
     geographicZoneRepository.deleteById(geographicZoneId);
+    geographicZoneTreeCache.invalidate();
+    geographicZoneNearCache.evict(geographicZoneId);
 
     profiler.stop().log();
   }
@@ -191,7 +191,7 @@ public class IdealStockAmountController extends BaseController {
     profiler.start("PARSE_FILE");
     try {
       int result = csvParser.parse(file.getInputStream(), modelClass, csvHeaderValidator,
-          idealStockAmountProcessor, idealStockAmountWriter);
+          idealStockAmountProcessor.forUpload(), idealStockAmountWriter.forUpload());
       profiler.start("UPLOAD_RESULT_DTO");
       UploadResultDto dto = new UploadResultDto(result);
       return dto;
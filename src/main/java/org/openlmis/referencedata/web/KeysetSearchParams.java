@@ -0,0 +1,60 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.web;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.openlmis.referencedata.util.ContinuationToken;
+import org.openlmis.referencedata.util.KeysetPage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Extracts keyset pagination parameters from request params. A request opts into keyset
+ * pagination by passing the continuation token, left empty for the first page. The total
+ * number of elements is only calculated if the "includeTotal" param is true.
+ */
+@Getter
+@ToString
+public final class KeysetSearchParams {
+
+  public static final String CONTINUATION_TOKEN = "continuationToken";
+  public static final String INCLUDE_TOTAL = "includeTotal";
+
+  private final ContinuationToken after;
+  private final boolean includeTotal;
+  private final int size;
+  private final MultiValueMap<String, Object> filters;
+
+  /**
+   * Wraps the query params, separating the keyset pagination ones from the search filters.
+   */
+  public KeysetSearchParams(MultiValueMap<String, Object> queryMap, Pageable pageable) {
+    filters = new LinkedMultiValueMap<>(queryMap);
+    after = ContinuationToken.decode(getFirst(filters, CONTINUATION_TOKEN));
+    includeTotal = Boolean.parseBoolean(getFirst(filters, INCLUDE_TOTAL));
+    size = KeysetPage.getPageSize(pageable.getPageSize());
+
+    filters.remove(CONTINUATION_TOKEN);
+    filters.remove(INCLUDE_TOTAL);
+  }
+
+  private static String getFirst(MultiValueMap<String, Object> params, String key) {
+    Object value = params.getFirst(key);
+    return null == value ? null : value.toString();
+  }
+}
@@ -22,7 +22,7 @@ import java.util.List;
 import org.openlmis.referencedata.fhir.FhirLocation;
 import org.openlmis.referencedata.fhir.LocationFactory;
 import org.openlmis.referencedata.repository.FacilityRepository;
-import org.openlmis.referencedata.repository.GeographicZoneRepository;
+import org.openlmis.referencedata.service.GeographicZoneTreeCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -35,7 +35,7 @@ public class LocationController extends BaseController {
   public static final String RESOURCE_PATH = "/Location";
 
   @Autowired
-  private GeographicZoneRepository geographicZoneRepository;
+  private GeographicZoneTreeCache geographicZoneTreeCache;
 
   @Autowired
   private FacilityRepository facilityRepository;
@@ -51,10 +51,10 @@ public class LocationController extends BaseController {
   public List<FhirLocation> getLocations() {
     List<FhirLocation> list = new ArrayList<>();
 
-    handlePage(
-        geographicZoneRepository::findAll,
-        zone -> list.add(locationFactory.createFor(zone))
-    );
+    geographicZoneTreeCache
+        .getTree()
+        .getZones()
+        .forEach(zone -> list.add(locationFactory.createFor(zone)));
     handlePage(
         facilityRepository::findAll,
         facility -> list.add(locationFactory.createFor(facility))
@@ -32,7 +32,9 @@ import org.openlmis.referencedata.extension.point.ExtensionPointId;
 import org.openlmis.referencedata.extension.point.OrderableCreatePostProcessor;
 import org.openlmis.referencedata.extension.point.OrderableUpdatePostProcessor;
 import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.service.OrderableFulfillCache;
 import org.openlmis.referencedata.service.OrderableService;
+import org.openlmis.referencedata.util.KeysetPage;
 import org.openlmis.referencedata.util.OrderableBuilder;
 import org.openlmis.referencedata.util.Pagination;
 import org.openlmis.referencedata.util.UuidUtil;
@@ -89,6 +91,9 @@ public class OrderableController extends BaseController {
   @Autowired
   private ExtensionManager extensionManager;
 
+  @Autowired
+  private OrderableFulfillCache orderableFulfillCache;
+
   /**
    * Create an orderable.
    *
@@ -114,6 +119,7 @@ public class OrderableController extends BaseController {
 
     profiler.start("SAVE_ORDERABLE");
     repository.save(orderable);
+    orderableFulfillCache.invalidate();
 
     OrderableCreatePostProcessor orderableCreatePostProcessor = extensionManager.getExtension(
         ExtensionPointId.ORDERABLE_CREATE_POST_POINT_ID, OrderableCreatePostProcessor.class);
@@ -157,6 +163,7 @@ public class OrderableController extends BaseController {
 
     Orderable savedOrderable = repository
         .save(orderableBuilder.newOrderable(orderableDto, foundOrderable));
+    orderableFulfillCache.invalidate();
 
     OrderableUpdatePostProcessor orderableUpdatePostProcessor = extensionManager.getExtension(
         ExtensionPointId.ORDERABLE_UPDATE_POST_POINT_ID, OrderableUpdatePostProcessor.class);
@@ -224,6 +231,40 @@ public class OrderableController extends BaseController {
     }
   }
 
+  /**
+   * Finds the latest orderables matching all of the provided parameters using keyset pagination.
+   * The orderables are ordered by full product name and id. The response contains a continuation
+   * token that should be passed to get the next page; it is null on the last page.
+   *
+   * @param queryParams request parameters (code, name, program, id, tradeItemId) together with
+   *                    continuationToken (empty for the first page) and optional includeTotal.
+   * @param pageable    object used to get the page size; the page number is ignored.
+   * @return a keyset page of orderables
+   */
+  @GetMapping(value = RESOURCE_PATH, params = KeysetSearchParams.CONTINUATION_TOKEN)
+  public KeysetPage<OrderableDto> findAllWithContinuationToken(
+      @RequestParam MultiValueMap<String, Object> queryParams, Pageable pageable) {
+    XLOGGER.entry(queryParams, pageable);
+    Profiler profiler = new Profiler("ORDERABLES_SEEK");
+    profiler.setLogger(XLOGGER);
+
+    KeysetSearchParams keysetParams = new KeysetSearchParams(queryParams, pageable);
+    QueryOrderableSearchParams searchParams =
+        new QueryOrderableSearchParams(keysetParams.getFilters());
+
+    profiler.start("SEEK_ORDERABLES");
+    KeysetPage<Orderable> orderables = repository.seek(searchParams, keysetParams.getAfter(),
+        keysetParams.getSize(), keysetParams.isIncludeTotal());
+
+    profiler.start("EXPORT_TO_DTO");
+    KeysetPage<OrderableDto> page =
+        orderables.withContent(OrderableDto.newInstances(orderables.getContent()));
+
+    profiler.stop().log();
+    XLOGGER.exit(page);
+    return page;
+  }
+
   /**
    * Search orderables by search criteria.
    *
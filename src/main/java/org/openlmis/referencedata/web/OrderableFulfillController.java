@@ -17,37 +17,30 @@ package org.openlmis.referencedata.web;
 
 import static org.openlmis.referencedata.web.OrderableFulfillController.RESOURCE_PATH;
 
-import com.google.common.collect.Maps;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import org.openlmis.referencedata.domain.CommodityType;
 import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
-import org.openlmis.referencedata.domain.Orderable;
-import org.openlmis.referencedata.domain.TradeItem;
-import org.openlmis.referencedata.repository.CommodityTypeRepository;
 import org.openlmis.referencedata.repository.FacilityTypeApprovedProductRepository;
-import org.openlmis.referencedata.repository.OrderableRepository;
-import org.openlmis.referencedata.repository.TradeItemRepository;
-import org.openlmis.referencedata.util.EntityCollection;
+import org.openlmis.referencedata.service.OrderableFulfillCache;
+import org.openlmis.referencedata.service.OrderableFulfillCache.Projection;
 import org.openlmis.referencedata.util.Pagination;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @Transactional
@@ -60,16 +53,7 @@ public class OrderableFulfillController extends BaseController {
   public static final String RESOURCE_PATH = API_PATH + "/orderableFulfills";
 
   @Autowired
-  private OrderableRepository orderableRepository;
-
-  @Autowired
-  private OrderableFulfillFactory orderableFulfillFactory;
-
-  @Autowired
-  private TradeItemRepository tradeItemRepository;
-
-  @Autowired
-  private CommodityTypeRepository commodityTypeRepository;
+  private OrderableFulfillCache orderableFulfillCache;
 
   @Autowired
   private FacilityTypeApprovedProductRepository ftapRepository;
@@ -78,12 +62,14 @@ public class OrderableFulfillController extends BaseController {
       Pagination.NO_PAGINATION);
 
   /**
-   * Gets orderable fulfills.
+   * Gets orderable fulfills. They are served from the {@link OrderableFulfillCache} projection,
+   * with an ETag of the projection version (and of the requested orderables) and, unless searched
+   * by facility and program, with the last modified date of the projection. A conditional request
+   * that matches them gets no content.
    */
   @GetMapping
-  @ResponseStatus(HttpStatus.OK)
-  public Map<UUID, OrderableFulfill> getOrderableFulfills(
-      @RequestParam MultiValueMap<String, Object> requestParams) {
+  public ResponseEntity<Map<UUID, OrderableFulfill>> getOrderableFulfills(
+      @RequestParam MultiValueMap<String, Object> requestParams, WebRequest request) {
     Profiler profiler = new Profiler("GET_ORDERABLE_FULFILLS");
     profiler.setLogger(XLOGGER);
 
@@ -92,35 +78,45 @@ public class OrderableFulfillController extends BaseController {
 
     Set<UUID> ids = getOrderableIds(searchParams, profiler);
 
-    profiler.start("FIND_ALL_TRADE_ITEMS_AND_COMMODITY_TYPES");
-    EntityCollection<TradeItem> tradeItems = new EntityCollection<>(tradeItemRepository.findAll());
-    EntityCollection<CommodityType> commodityTypes
-        = new EntityCollection<>(commodityTypeRepository.findAll());
+    profiler.start("GET_PROJECTION");
+    Projection projection = orderableFulfillCache.getProjection();
+    String etag = ids.isEmpty()
+        ? '"' + projection.getVersion() + '"'
+        : '"' + projection.getVersion() + '-' + Integer.toHexString(ids.hashCode()) + '"';
 
-    profiler.start("GET_ORDERABLES");
-    List<Orderable> orderables = getOrderables(ids);
+    // approved products are not part of the projection, so its date says nothing about them
+    boolean notModified = searchParams.isSearchByFacilityIdAndProgramId()
+        ? request.checkNotModified(etag)
+        : request.checkNotModified(etag, projection.getLastModified());
+
+    if (notModified) {
+      profiler.stop().log();
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+    }
 
-    profiler.start("CONVERT_TO_ORDERABLE_FULFILLS");
-    Map<UUID, OrderableFulfill> map = Maps.newHashMap();
-    orderables.forEach(orderable -> addEntry(map, orderable, tradeItems, commodityTypes));
+    profiler.start("FILTER_ORDERABLE_FULFILLS");
+    Map<UUID, OrderableFulfill> map = filter(projection.getFulfills(), ids);
 
     profiler.stop().log();
-    return map;
+    return ResponseEntity.ok().body(map);
   }
 
-  private List<Orderable> getOrderables(Set<UUID> ids) {
-    Page<Orderable> pageWithAllOrderables = ids.isEmpty()
-        ? orderableRepository.findAllLatest(noPaginationRequest)
-        : orderableRepository.findAllLatestByIds(ids, noPaginationRequest);
-    return pageWithAllOrderables.getContent();
-  }
+  private Map<UUID, OrderableFulfill> filter(Map<UUID, OrderableFulfill> fulfills,
+      Set<UUID> ids) {
+    if (ids.isEmpty()) {
+      return fulfills;
+    }
+
+    Map<UUID, OrderableFulfill> map = new HashMap<>();
+    for (UUID id : ids) {
+      OrderableFulfill fulfill = fulfills.get(id);
 
-  private void addEntry(Map<UUID, OrderableFulfill> map, Orderable orderable,
-                        EntityCollection<TradeItem> tradeItems,
-                        EntityCollection<CommodityType> commodityTypes) {
-    Optional
-        .ofNullable(orderableFulfillFactory.createFor(orderable, tradeItems, commodityTypes))
-        .ifPresent(resource -> map.put(orderable.getId(), resource));
+      if (null != fulfill) {
+        map.put(id, fulfill);
+      }
+    }
+
+    return map;
   }
 
   private Set<UUID> getOrderableIds(OrderableFulfillSearchParams queryMap, Profiler profiler) {
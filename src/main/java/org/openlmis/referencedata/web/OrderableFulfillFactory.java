@@ -20,20 +20,29 @@ import static org.openlmis.referencedata.domain.Orderable.COMMODITY_TYPE;
 import static org.openlmis.referencedata.domain.Orderable.TRADE_ITEM;
 
 import com.google.common.collect.Lists;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import org.openlmis.referencedata.domain.BaseEntity;
+import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.referencedata.domain.CommodityType;
 import org.openlmis.referencedata.domain.Dispensable;
-import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.domain.TradeItem;
+import org.openlmis.referencedata.domain.TradeItemClassification;
+import org.openlmis.referencedata.repository.CommodityTypeRepository;
 import org.openlmis.referencedata.repository.OrderableRepository;
-import org.openlmis.referencedata.util.EntityCollection;
+import org.openlmis.referencedata.repository.TradeItemRepository;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 @Component
 public class OrderableFulfillFactory {
@@ -43,81 +52,145 @@ public class OrderableFulfillFactory {
   @Autowired
   private OrderableRepository orderableRepository;
 
+  @Autowired
+  private TradeItemRepository tradeItemRepository;
+
+  @Autowired
+  private CommodityTypeRepository commodityTypeRepository;
+
   /**
-   * Create new instance of {@link OrderableFulfill} for the given orderable.
+   * Creates {@link OrderableFulfill} resources for all latest orderables with a trade item or
+   * commodity type identifier. The orderables themselves are not loaded; their identifiers and
+   * dispensables come from the same query that is used to index them. Trade items, commodity
+   * types and identifiers are each loaded with a single query, whatever the number of orderables.
+   *
+   * @return resources by orderable ID
    */
-  public OrderableFulfill createFor(Orderable orderable, EntityCollection<TradeItem> tradeItems,
-                                    EntityCollection<CommodityType> commodityTypes) {
-    Profiler profiler = new Profiler("CREATE_ORDERABLE_FULFILL");
+  @Transactional(readOnly = true)
+  public Map<UUID, OrderableFulfill> createForAll() {
+    Profiler profiler = new Profiler("CREATE_ALL_ORDERABLE_FULFILLS");
     profiler.setLogger(XLOGGER);
-    profiler.start("GET_IDENTIFIERS");
-    String tradeItemId = orderable.getTradeItemIdentifier();
-    String commodityTypeId = orderable.getCommodityTypeIdentifier();
 
-    OrderableFulfill result = null;
-    if (isNotBlank(tradeItemId)) {
-      result = createForTradeItem(tradeItems, commodityTypes, tradeItemId, orderable, profiler);
-    } else if (isNotBlank(commodityTypeId)) {
-      result = createForCommodityType(tradeItems, commodityTypes, commodityTypeId, orderable,
-          profiler);
+    profiler.start("INDEX_FULFILLMENT_RELATIONS");
+    Map<UUID, Set<UUID>> commodityTypesByTradeItem = new HashMap<>();
+    Map<UUID, Set<UUID>> tradeItemsByCommodityType = new HashMap<>();
+    indexFulfillmentRelations(commodityTypesByTradeItem, tradeItemsByCommodityType);
+
+    profiler.start("INDEX_ORDERABLE_IDENTIFIERS");
+    Map<Pair<String, String>, List<Pair<UUID, Dispensable>>> orderablesByIdentifier =
+        new HashMap<>();
+    Map<UUID, Map<String, String>> identifiersByOrderable = new LinkedHashMap<>();
+    Map<UUID, Dispensable> dispensables = new HashMap<>();
+    List<Object[]> rows = findAllLatestIdentifiers();
+
+    for (Object[] row : rows) {
+      identifiersByOrderable
+          .computeIfAbsent((UUID) row[0], key -> new HashMap<>())
+          .put((String) row[1], (String) row[2]);
+      dispensables.put((UUID) row[0], (Dispensable) row[3]);
+    }
+    indexOrderableIdentifiers(rows, orderablesByIdentifier);
+
+    profiler.start("CREATE_ORDERABLE_FULFILLS");
+    Map<UUID, OrderableFulfill> result = new HashMap<>();
+    for (Map.Entry<UUID, Map<String, String>> entry : identifiersByOrderable.entrySet()) {
+      OrderableFulfill fulfill = create(commodityTypesByTradeItem, tradeItemsByCommodityType,
+          orderablesByIdentifier, entry.getValue().get(TRADE_ITEM),
+          entry.getValue().get(COMMODITY_TYPE), dispensables.get(entry.getKey()));
+
+      if (null != fulfill) {
+        result.put(entry.getKey(), fulfill);
+      }
     }
 
     profiler.stop().log();
     return result;
   }
 
-  private OrderableFulfill createForTradeItem(EntityCollection<TradeItem> tradeItems,
-      EntityCollection<CommodityType> commodityTypes, String id,
-      Orderable tradeItemOrderable, Profiler profiler) {
-    profiler.start("FETCH_TRADE_ITEM");
-    TradeItem tradeItem = tradeItems.getById(UUID.fromString(id));
-
-    profiler.start("CREATE_ORDERABLE_FULFILL_FOR_TRADE_ITEM");
-    List<UUID> canBeFulfilledByMe = Lists.newArrayList();
-    commodityTypes.values().forEach(
-        commodityType -> {
-          if (tradeItem.canFulfill(commodityType)) {
-            addToListIfDispensableMatches(canBeFulfilledByMe, COMMODITY_TYPE, commodityType,
-                tradeItemOrderable.getDispensable());
-          }
-        }
-    );
+  private OrderableFulfill create(Map<UUID, Set<UUID>> commodityTypesByTradeItem,
+      Map<UUID, Set<UUID>> tradeItemsByCommodityType,
+      Map<Pair<String, String>, List<Pair<UUID, Dispensable>>> orderablesByIdentifier,
+      String tradeItemId, String commodityTypeId, Dispensable dispensable) {
+    if (isNotBlank(tradeItemId)) {
+      Set<UUID> commodityTypes = commodityTypesByTradeItem
+          .getOrDefault(UUID.fromString(tradeItemId), Collections.emptySet());
+      return OrderableFulfill.ofTradeItem(findOrderables(
+          orderablesByIdentifier, COMMODITY_TYPE, commodityTypes, dispensable));
+    }
 
-    return OrderableFulfill.ofTradeItem(canBeFulfilledByMe);
+    if (isNotBlank(commodityTypeId)) {
+      Set<UUID> tradeItems = tradeItemsByCommodityType
+          .getOrDefault(UUID.fromString(commodityTypeId), Collections.emptySet());
+      return OrderableFulfill.ofCommodityType(findOrderables(
+          orderablesByIdentifier, TRADE_ITEM, tradeItems, dispensable));
+    }
+
+    return null;
   }
 
-  private OrderableFulfill createForCommodityType(EntityCollection<TradeItem> tradeItems,
-      EntityCollection<CommodityType> commodityTypes, String id,
-      Orderable commodityTypeOrderable, Profiler profiler) {
-    profiler.start("FETCH_COMMODITY_TYPE");
-    CommodityType commodityType = commodityTypes.getById(UUID.fromString(id));
-
-    profiler.start("CREATE_ORDERABLE_FULFILL_FOR_COMMODITY_TYPE");
-    List<UUID> canFulfillForMe = Lists.newArrayList();
-    tradeItems.values().forEach(
-        tradeItem -> {
-          if (tradeItem.canFulfill(commodityType)) {
-            addToListIfDispensableMatches(canFulfillForMe, TRADE_ITEM, tradeItem,
-                commodityTypeOrderable.getDispensable());
-          }
+  /**
+   * A trade item can fulfill a commodity type if one of its classifications has the
+   * classification system and ID of the commodity type.
+   */
+  private void indexFulfillmentRelations(Map<UUID, Set<UUID>> commodityTypesByTradeItem,
+      Map<UUID, Set<UUID>> tradeItemsByCommodityType) {
+    Map<Pair<String, String>, List<UUID>> commodityTypesByClassification = new HashMap<>();
+    for (CommodityType commodityType : commodityTypeRepository.findAll()) {
+      commodityTypesByClassification
+          .computeIfAbsent(Pair.of(commodityType.getClassificationSystem(),
+              commodityType.getClassificationId()), key -> Lists.newArrayList())
+          .add(commodityType.getId());
+    }
+
+    for (TradeItem tradeItem : tradeItemRepository.findAllWithClassifications()) {
+      for (TradeItemClassification classification : tradeItem.getClassifications()) {
+        List<UUID> commodityTypes = commodityTypesByClassification.getOrDefault(
+            Pair.of(classification.getClassificationSystem(),
+                classification.getClassificationId()), Collections.emptyList());
+
+        for (UUID commodityType : commodityTypes) {
+          commodityTypesByTradeItem
+              .computeIfAbsent(tradeItem.getId(), key -> new LinkedHashSet<>())
+              .add(commodityType);
+          tradeItemsByCommodityType
+              .computeIfAbsent(commodityType, key -> new LinkedHashSet<>())
+              .add(tradeItem.getId());
         }
-    );
+      }
+    }
+  }
 
-    return OrderableFulfill.ofCommodityType(canFulfillForMe);
+  private List<Object[]> findAllLatestIdentifiers() {
+    return orderableRepository.findAllLatestIdentifiers(Arrays.asList(TRADE_ITEM, COMMODITY_TYPE));
   }
 
-  private void addToListIfDispensableMatches(List<UUID> list, String key, BaseEntity entity,
-                                             Dispensable dispensableToMatch) {
-    List<Orderable> orderables = orderableRepository
-        .findAllLatestByIdentifier(key, entity.getId().toString());
+  private void indexOrderableIdentifiers(List<Object[]> rows,
+      Map<Pair<String, String>, List<Pair<UUID, Dispensable>>> orderablesByIdentifier) {
+    for (Object[] row : rows) {
+      orderablesByIdentifier
+          .computeIfAbsent(Pair.of((String) row[1], (String) row[2]),
+              key -> Lists.newArrayList())
+          .add(Pair.of((UUID) row[0], (Dispensable) row[3]));
+    }
+  }
+
+  private List<UUID> findOrderables(
+      Map<Pair<String, String>, List<Pair<UUID, Dispensable>>> orderablesByIdentifier,
+      String key, Set<UUID> entityIds, Dispensable dispensableToMatch) {
+    List<UUID> list = Lists.newArrayList();
+
+    for (UUID entityId : entityIds) {
+      List<Pair<UUID, Dispensable>> orderables = orderablesByIdentifier
+          .getOrDefault(Pair.of(key, entityId.toString()), Collections.emptyList());
 
-    orderables.forEach(
-        item -> {
-          if (item.hasDispensable(dispensableToMatch)) {
-            list.add(item.getId());
-          }
+      for (Pair<UUID, Dispensable> item : orderables) {
+        if (item.getRight().equals(dispensableToMatch)) {
+          list.add(item.getLeft());
         }
-    );
+      }
+    }
+
+    return list;
   }
 
 }
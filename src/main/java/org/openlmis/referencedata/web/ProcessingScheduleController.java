@@ -28,6 +28,7 @@ import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProcessingScheduleRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
+import org.openlmis.referencedata.service.NearCache;
 import org.openlmis.referencedata.service.RequisitionGroupProgramScheduleService;
 import org.openlmis.referencedata.util.Message;
 import org.openlmis.referencedata.util.messagekeys.FacilityMessageKeys;
@@ -71,6 +72,9 @@ public class ProcessingScheduleController extends BaseController {
   @Autowired
   private FacilityRepository facilityRepository;
 
+  @Autowired
+  private NearCache<ProcessingSchedule> processingScheduleNearCache;
+
   /**
    * Allows creating new ProcessingSchedules.
    *
@@ -105,6 +109,7 @@ public class ProcessingScheduleController extends BaseController {
     rightService.checkAdminRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
     LOGGER.debug("Updating processingSchedule");
     scheduleRepository.save(schedule);
+    processingScheduleNearCache.evict(scheduleId);
     return schedule;
   }
 
@@ -188,12 +193,14 @@ public class ProcessingScheduleController extends BaseController {
   public ProcessingSchedule getProcessingSchedule(
       @PathVariable("id") UUID scheduleId) {
 
-    ProcessingSchedule schedule = scheduleRepository.findById(scheduleId).orElse(null);
-    if (schedule == null) {
-      throw new NotFoundException(ProcessingScheduleMessageKeys.ERROR_NOT_FOUND);
-    } else {
-      return schedule;
-    }
+    return processingScheduleNearCache.get(scheduleId, () -> {
+      ProcessingSchedule schedule = scheduleRepository.findById(scheduleId).orElse(null);
+      if (schedule == null) {
+        throw new NotFoundException(ProcessingScheduleMessageKeys.ERROR_NOT_FOUND);
+      } else {
+        return schedule;
+      }
+    });
   }
 
   /**
@@ -211,6 +218,7 @@ public class ProcessingScheduleController extends BaseController {
       throw new NotFoundException(ProcessingScheduleMessageKeys.ERROR_NOT_FOUND);
     } else {
       scheduleRepository.delete(schedule);
+      processingScheduleNearCache.evict(scheduleId);
     }
   }
 
@@ -179,7 +179,7 @@ public class ProgramController extends BaseController {
     Program program = programRepository.findById(programId).orElse(null);
 
     if (AvailableFeatures.REDIS_CACHING.isActive()) {
-      deleteProgramFromCache(programId);
+      programRedisRepository.evict(programId);
     }
 
     if (program == null) {
@@ -228,7 +228,7 @@ public class ProgramController extends BaseController {
     programRepository.save(updatedProgram);
 
     if (AvailableFeatures.REDIS_CACHING.isActive()) {
-      deleteProgramFromCache(id);
+      programRedisRepository.evict(id);
     }
 
     return updatedProgram;
@@ -295,37 +295,22 @@ public class ProgramController extends BaseController {
    * Get the program from cache.
    */
   private Program getProgramFromCache(UUID programId, Profiler profiler) {
-    Program program;
-
-    profiler.start("CHECK_IF_PROGRAM_EXISTS_IN_CACHE");
-    boolean programInCache = programRedisRepository
-        .exists(programId);
+    profiler.start("GET_PROGRAM_FROM_CACHE");
+    Program program = programRedisRepository.findById(programId);
 
-    if (programInCache) {
-      profiler.start("GET_PROGRAM_FROM_CACHE");
-      program = programRedisRepository.findById(programId);
-    } else if (!programRepository.existsById(programId)) {
-      profiler.stop().log();
-      throw new NotFoundException(ProgramMessageKeys.ERROR_NOT_FOUND);
-    } else {
+    if (null == program) {
       profiler.start("GET_PROGRAM_FROM_DATABASE");
       program = programRepository.findById(programId).orElse(null);
+
+      if (null == program) {
+        profiler.stop().log();
+        throw new NotFoundException(ProgramMessageKeys.ERROR_NOT_FOUND);
+      }
+
       profiler.start("SAVE_PROGRAM_IN_CACHE");
       programRedisRepository.save(program);
     }
 
     return program;
   }
-
-  /**
-   * Delete the program from cache.
-   */
-  private void deleteProgramFromCache(UUID programId) {
-    if (!programRedisRepository.exists(programId)) {
-      throw new NotFoundException(ProgramMessageKeys.ERROR_NOT_FOUND);
-    } else {
-      Program program = programRedisRepository.findById(programId);
-      programRedisRepository.delete(program);
-    }
-  }
 }
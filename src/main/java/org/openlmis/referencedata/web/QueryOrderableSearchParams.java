@@ -41,9 +41,10 @@ public class QueryOrderableSearchParams implements OrderableRepositoryCustom.Sea
   private static final String PROGRAM_CODE = "program";
   private static final String TRADE_ITEM_ID = "tradeItemId";
   private static final String ID = "id";
+  private static final String QUERY = "q";
 
   private static final List<String> ALL_PARAMETERS = Collections.unmodifiableList(Arrays.asList(
-      ID, CODE, NAME, PROGRAM_CODE, TRADE_ITEM_ID));
+      ID, CODE, NAME, PROGRAM_CODE, TRADE_ITEM_ID, QUERY));
 
   private final SearchParams queryParams;
 
@@ -86,6 +87,16 @@ public class QueryOrderableSearchParams implements OrderableRepositoryCustom.Sea
     return defaultIfBlank(queryParams.getFirst(NAME), EMPTY);
   }
 
+  /**
+   * Gets free text query matched against orderable code and full product name.
+   *
+   * @return String value of query or null if params doesn't contain "q" param.
+   */
+  @Override
+  public String getQuery() {
+    return queryParams.getFirst(QUERY);
+  }
+
   /**
    * Gets program codes.
    *
@@ -111,6 +122,7 @@ public class QueryOrderableSearchParams implements OrderableRepositoryCustom.Sea
   /**
    * Gets and collection of {@link UUID} for "ids" key from params.
    */
+  @Override
   public Set<UUID> getIds() {
     if (!queryParams.containsKey(ID)) {
       return Collections.emptySet();
@@ -125,6 +137,14 @@ public class QueryOrderableSearchParams implements OrderableRepositoryCustom.Sea
     return queryParams.isEmpty();
   }
 
+  /**
+   * Checks if program codes are the only search criteria.
+   */
+  public boolean containsOnlyProgramCodes() {
+    return !queryParams.isEmpty()
+        && Collections.singleton(PROGRAM_CODE).containsAll(queryParams.keySet());
+  }
+
   private void validate() {
     if (!ALL_PARAMETERS.containsAll(queryParams.keySet())) {
       throw new ValidationMessageException(new Message(ERROR_INVALID_PARAMS));
@@ -18,8 +18,11 @@ package org.openlmis.referencedata.web;
 import static org.openlmis.referencedata.domain.RightName.REQUISITION_GROUPS_MANAGE;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.openlmis.referencedata.domain.RequisitionGroup;
@@ -112,7 +115,8 @@ public class RequisitionGroupController extends BaseController {
       requisitionGroupRepository.saveAndFlush(requisitionGroup);
 
       profiler.start("REGENERATE_RIGHT_ASSIGNMENTS");
-      rightAssignmentService.regenerateRightAssignments();
+      rightAssignmentService.regenerateRightAssignments(
+          findUsersAffectedByRequisitionGroup(requisitionGroup));
 
       LOGGER.info("Created new requisitionGroup with id: {}", requisitionGroup.getId());
       profiler.start("EXPORT_REQUISITION_GROUP_TO_DTO");
@@ -189,11 +193,14 @@ public class RequisitionGroupController extends BaseController {
       RequisitionGroup requisitionGroupToUpdate =
           requisitionGroupRepository.findById(requisitionGroupId).orElse(null);
 
+      Set<UUID> affectedUserIds = new HashSet<>();
       if (null == requisitionGroupToUpdate) {
         profiler.start("CREATE_REQUISITION_GROUP");
         requisitionGroupToUpdate = new RequisitionGroup();
       } else {
         LOGGER.info("Updating requisitionGroup with id: {}", requisitionGroupId);
+        profiler.start("FIND_USERS_AFFECTED_BY_REQUISITION_GROUP");
+        affectedUserIds.addAll(findUsersAffectedByRequisitionGroup(requisitionGroupToUpdate));
       }
 
       profiler.start("IMPORT_REQUISITION_GROUP_FROM_DTO");
@@ -208,7 +215,8 @@ public class RequisitionGroupController extends BaseController {
       requisitionGroupToUpdate = requisitionGroupRepository.saveAndFlush(requisitionGroupToUpdate);
 
       profiler.start("REGENERATE_RIGHT_ASSIGNMENTS");
-      rightAssignmentService.regenerateRightAssignments();
+      affectedUserIds.addAll(findUsersAffectedByRequisitionGroup(requisitionGroupToUpdate));
+      rightAssignmentService.regenerateRightAssignments(affectedUserIds);
 
       LOGGER.info("Saved requisitionGroup with id: {}", requisitionGroupToUpdate.getId());
       profiler.start("EXPORT_REQUISITION_GROUP_TO_DTO");
@@ -243,12 +251,15 @@ public class RequisitionGroupController extends BaseController {
       profiler.stop().log();
       throw new NotFoundException(RequisitionGroupMessageKeys.ERROR_NOT_FOUND);
     } else {
+      profiler.start("FIND_USERS_AFFECTED_BY_REQUISITION_GROUP");
+      Set<UUID> affectedUserIds = findUsersAffectedByRequisitionGroup(requisitionGroup);
+
       profiler.start("DELETE_REQUISITION_GROUP");
       requisitionGroupRepository.delete(requisitionGroup);
       requisitionGroupRepository.flush();
 
       profiler.start("REGENERATE_RIGHT_ASSIGNMENTS");
-      rightAssignmentService.regenerateRightAssignments();
+      rightAssignmentService.regenerateRightAssignments(affectedUserIds);
 
       profiler.stop().log();
     }
@@ -326,4 +337,12 @@ public class RequisitionGroupController extends BaseController {
   private SupervisoryNode getUpdatedSupervisoryNode(RequisitionGroupDto dto) {
     return supervisoryNodeRepository.findById(dto.getSupervisoryNode().getId()).orElse(null);
   }
+
+  private Set<UUID> findUsersAffectedByRequisitionGroup(RequisitionGroup requisitionGroup) {
+    SupervisoryNode supervisoryNode = requisitionGroup.getSupervisoryNode();
+    return null == supervisoryNode
+        ? new HashSet<>()
+        : rightAssignmentService.findUserIdsAffectedBySupervisoryNodes(
+            Collections.singleton(supervisoryNode.getId()));
+  }
 }
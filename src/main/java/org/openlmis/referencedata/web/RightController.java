@@ -32,6 +32,7 @@ import org.openlmis.referencedata.dto.RightDto;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.RightRepository;
+import org.openlmis.referencedata.service.NearCache;
 import org.openlmis.referencedata.util.Message;
 import org.openlmis.referencedata.util.messagekeys.RightMessageKeys;
 import org.slf4j.Logger;
@@ -61,6 +62,9 @@ public class RightController extends BaseController {
   @Autowired
   private RightRepository rightRepository;
 
+  @Autowired
+  private NearCache<RightDto> rightNearCache;
+
   public RightController(RightRepository repository) {
     this.rightRepository = Objects.requireNonNull(repository);
   }
@@ -95,13 +99,15 @@ public class RightController extends BaseController {
     
     rightService.checkRootAccess();
 
-    Right right = rightRepository.findById(rightId).orElse(null);
+    return rightNearCache.get(rightId, () -> {
+      Right right = rightRepository.findById(rightId).orElse(null);
 
-    if (right == null) {
-      throw new NotFoundException(RightMessageKeys.ERROR_NOT_FOUND);
-    } else {
-      return exportToDto(right);
-    }
+      if (right == null) {
+        throw new NotFoundException(RightMessageKeys.ERROR_NOT_FOUND);
+      } else {
+        return exportToDto(right);
+      }
+    });
   }
 
   /**
@@ -172,6 +178,7 @@ public class RightController extends BaseController {
 
     LOGGER.debug("Saving right");
     rightToSave = rightRepository.save(rightToSave);
+    rightNearCache.evict(rightToSave.getId());
 
 
     LOGGER.debug("Saved right with id: " + rightToSave.getId());
@@ -197,6 +204,7 @@ public class RightController extends BaseController {
 
     LOGGER.debug("Deleting right");
     rightRepository.deleteById(rightId);
+    rightNearCache.evict(rightId);
   }
 
   /**
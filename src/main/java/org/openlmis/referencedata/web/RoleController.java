@@ -208,7 +208,8 @@ public class RoleController extends BaseController {
     roleRepository.saveAndFlush(roleToSave);
 
     profiler.start("REGENERATE_RIGHT_ASSIGNMENTS");
-    rightAssignmentService.regenerateRightAssignments();
+    rightAssignmentService.regenerateRightAssignments(
+        rightAssignmentService.findUserIdsAffectedByRole(roleId));
     
     LOGGER.info("Saved role with id: {}", roleToSave.getId());
 
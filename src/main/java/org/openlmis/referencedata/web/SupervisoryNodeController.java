@@ -18,22 +18,26 @@ package org.openlmis.referencedata.web;
 import static java.util.stream.Collectors.toSet;
 import static org.openlmis.referencedata.domain.RightName.SUPERVISORY_NODES_MANAGE;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.openlmis.referencedata.AvailableFeatures;
 import org.openlmis.referencedata.domain.Facility;
-import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.RequisitionGroup;
 import org.openlmis.referencedata.domain.RightName;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.domain.User;
 import org.openlmis.referencedata.dto.FacilityDto;
+import org.openlmis.referencedata.dto.ObjectReferenceDto;
 import org.openlmis.referencedata.dto.SupervisoryNodeDto;
 import org.openlmis.referencedata.dto.UserDto;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.repository.RequisitionGroupRepository;
 import org.openlmis.referencedata.repository.RightRepository;
@@ -106,6 +110,9 @@ public class SupervisoryNodeController extends BaseController {
   @Autowired
   private RequisitionGroupRepository requisitionGroupRepository;
 
+  @Autowired
+  private FacilityRepository facilityRepository;
+
   @Value("${service.url}")
   private String serviceUrl;
 
@@ -208,6 +215,10 @@ public class SupervisoryNodeController extends BaseController {
     validator.validate(supervisoryNodeDto, bindingResult);
     throwValidationMessageExceptionIfErrors(bindingResult);
 
+    profiler.start("FIND_USERS_AFFECTED_BY_SUPERVISORY_NODE");
+    Set<UUID> affectedUserIds = rightAssignmentService
+        .findUserIdsAffectedBySupervisoryNodes(getNodeIdsInHierarchy(supervisoryNodeDto));
+
     profiler.start("BUILD_DOMAIN_OBJ_FROM_DTO");
     SupervisoryNode supervisoryNodeToUpdate = builder.build(supervisoryNodeDto);
 
@@ -224,11 +235,13 @@ public class SupervisoryNodeController extends BaseController {
 
     profiler.start("DELETE_UPDATED_SUPERVISORY_NODE_FROM_CACHE");
     if (AvailableFeatures.REDIS_CACHING.isActive()) {
-      deleteSupervisoryNodeDtoFromCache(supervisoryNodeId);
+      supervisoryNodeDtoRedisRepository.evict(supervisoryNodeId);
     }
 
     profiler.start("REGENERATE_RIGHT_ASSIGNMENTS");
-    rightAssignmentService.regenerateRightAssignments();
+    affectedUserIds.addAll(rightAssignmentService.findUserIdsAffectedBySupervisoryNodes(
+        Collections.singleton(supervisoryNodeId)));
+    rightAssignmentService.regenerateRightAssignments(affectedUserIds);
 
     LOGGER.info("Updated supervisoryNode with id: {}", supervisoryNodeId);
     profiler.start("EXPORT_SUPERVISORY_NODE_TO_DTO");
@@ -248,7 +261,7 @@ public class SupervisoryNodeController extends BaseController {
     rightService.checkAdminRight(SUPERVISORY_NODES_MANAGE);
 
     if (AvailableFeatures.REDIS_CACHING.isActive()) {
-      deleteSupervisoryNodeDtoFromCache(supervisoryNodeId);
+      supervisoryNodeDtoRedisRepository.evict(supervisoryNodeId);
     }
 
     SupervisoryNode supervisoryNode = supervisoryNodeRepository.findById(supervisoryNodeId)
@@ -316,27 +329,30 @@ public class SupervisoryNodeController extends BaseController {
       Pageable pageable) {
     rightService.checkAdminRight(RightName.SUPERVISORY_NODES_MANAGE);
 
-    SupervisoryNode supervisoryNode = supervisoryNodeRepository.findById(supervisoryNodeId)
-        .orElseThrow(() -> new NotFoundException(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND));
+    if (!supervisoryNodeRepository.existsById(supervisoryNodeId)) {
+      throw new NotFoundException(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND);
+    }
 
-    Program program;
+    Page<Facility> facilityPage;
 
     if (null == programId) {
-      program = null;
+      facilityPage = facilityRepository.findSupervisedFacilities(supervisoryNodeId, pageable);
     } else {
-      program = programRepository.findById(programId)
-          .orElseThrow(() -> new NotFoundException(ProgramMessageKeys.ERROR_NOT_FOUND));
+      if (!programRepository.existsById(programId)) {
+        throw new NotFoundException(ProgramMessageKeys.ERROR_NOT_FOUND);
+      }
+
+      facilityPage = facilityRepository
+          .findSupervisedFacilities(supervisoryNodeId, programId, pageable);
     }
 
-    Set<Facility> facilities = supervisoryNode.getAllSupervisedFacilities(program);
-    Page<Facility> facilityPage = Pagination.getPage(facilities, pageable);
     List<FacilityDto> facilityDtos = facilityPage
         .getContent()
         .stream()
         .map(FacilityDto::newInstance)
         .collect(Collectors.toList());
 
-    return Pagination.getPage(facilityDtos, pageable, facilities.size());
+    return Pagination.getPage(facilityDtos, pageable, facilityPage.getTotalElements());
   }
 
   /**
@@ -406,22 +422,20 @@ public class SupervisoryNodeController extends BaseController {
    */
   private SupervisoryNodeDto getSupervisoryNodeDtoFromCache(UUID supervisoryNodeId,
       Profiler profiler) {
-    SupervisoryNodeDto supervisoryNodeDto;
-    SupervisoryNode supervisoryNode;
-
-    profiler.start("CHECK_IF_SUPERVISORY_NODE_EXISTS_IN_CACHE");
-    boolean supervisoryNodeIsInCache = supervisoryNodeDtoRedisRepository
-        .exists(supervisoryNodeId);
+    profiler.start("GET_SUPERVISORY_NODE_FROM_CACHE");
+    SupervisoryNodeDto supervisoryNodeDto = supervisoryNodeDtoRedisRepository
+        .findById(supervisoryNodeId);
 
-    if (supervisoryNodeIsInCache) {
-      profiler.start("GET_SUPERVISORY_NODE_FROM_CACHE");
-      supervisoryNodeDto = supervisoryNodeDtoRedisRepository.findById(supervisoryNodeId);
-    } else if (!supervisoryNodeRepository.existsById(supervisoryNodeId)) {
-      profiler.stop().log();
-      throw new NotFoundException(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND);
-    } else {
+    if (null == supervisoryNodeDto) {
       profiler.start("GET_SUPERVISORY_NODE_FROM_DATABASE");
-      supervisoryNode = supervisoryNodeRepository.findById(supervisoryNodeId).orElse(null);
+      SupervisoryNode supervisoryNode = supervisoryNodeRepository.findById(supervisoryNodeId)
+          .orElse(null);
+
+      if (null == supervisoryNode) {
+        profiler.stop().log();
+        throw new NotFoundException(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND);
+      }
+
       profiler.start("EXPORT_TO_DTO");
       supervisoryNodeDto = exportToDto(supervisoryNode);
       profiler.start("SAVE_SUPERVISORY_NODE_IN_CACHE");
@@ -430,17 +444,19 @@ public class SupervisoryNodeController extends BaseController {
     return supervisoryNodeDto;
   }
 
-  /**
-   * Delete the supervisory node from cache.
-   */
-  private void deleteSupervisoryNodeDtoFromCache(UUID supervisoryNodeId) {
-    if (!supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)) {
-      throw new NotFoundException(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND);
-    } else {
-      SupervisoryNodeDto supervisoryNodeDto = supervisoryNodeDtoRedisRepository
-          .findById(supervisoryNodeId);
-      supervisoryNodeDtoRedisRepository.delete(supervisoryNodeDto);
+  private Set<UUID> getNodeIdsInHierarchy(SupervisoryNodeDto supervisoryNodeDto) {
+    Set<UUID> nodeIds = new HashSet<>();
+    nodeIds.add(supervisoryNodeDto.getId());
+
+    if (null != supervisoryNodeDto.getChildNodes()) {
+      supervisoryNodeDto.getChildNodes()
+          .stream()
+          .filter(Objects::nonNull)
+          .map(ObjectReferenceDto::getId)
+          .forEach(nodeIds::add);
     }
+
+    return nodeIds;
   }
 
   private SupervisoryNodeDto exportToDto(SupervisoryNode supervisoryNode) {
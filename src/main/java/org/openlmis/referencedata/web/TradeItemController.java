@@ -23,6 +23,7 @@ import org.openlmis.referencedata.domain.TradeItem;
 import org.openlmis.referencedata.dto.TradeItemDto;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.repository.TradeItemRepository;
+import org.openlmis.referencedata.service.OrderableFulfillCache;
 import org.openlmis.referencedata.util.Pagination;
 import org.openlmis.referencedata.util.messagekeys.TradeItemMessageKeys;
 import org.openlmis.referencedata.validate.TradeItemValidator;
@@ -51,6 +52,9 @@ public class TradeItemController extends BaseController {
   @Autowired
   private TradeItemValidator validator;
 
+  @Autowired
+  private OrderableFulfillCache orderableFulfillCache;
+
   /**
    * Create or update a trade item.
    *
@@ -66,7 +70,10 @@ public class TradeItemController extends BaseController {
 
     TradeItem tradeItem = TradeItem.newInstance(tradeItemDto);
 
-    return TradeItemDto.newInstance(repository.save(tradeItem));
+    TradeItem saved = repository.save(tradeItem);
+    orderableFulfillCache.invalidate();
+
+    return TradeItemDto.newInstance(saved);
   }
 
   /**
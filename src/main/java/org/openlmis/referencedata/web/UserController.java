@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.validation.Valid;
 import lombok.NoArgsConstructor;
@@ -50,13 +51,14 @@ import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
-import org.openlmis.referencedata.repository.RightAssignmentRepository;
 import org.openlmis.referencedata.repository.RightRepository;
 import org.openlmis.referencedata.repository.RoleAssignmentRepository;
 import org.openlmis.referencedata.repository.RoleRepository;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
 import org.openlmis.referencedata.repository.UserRepository;
 import org.openlmis.referencedata.repository.UserSearchParams;
+import org.openlmis.referencedata.service.UserPermissionCache;
+import org.openlmis.referencedata.service.UserPermissions;
 import org.openlmis.referencedata.service.UserService;
 import org.openlmis.referencedata.util.Message;
 import org.openlmis.referencedata.util.Pagination;
@@ -131,7 +133,7 @@ public class UserController extends BaseController {
   private UserValidator userValidator;
   
   @Autowired
-  private RightAssignmentRepository rightAssignmentRepository;
+  private UserPermissionCache userPermissionCache;
   
   @Autowired
   private RoleAssignmentRepository roleAssignmentRepository;
@@ -214,6 +216,11 @@ public class UserController extends BaseController {
     profiler.start("SAVE_USER");
     user = userRepository.save(user);
 
+    if (roleAssignmentDtos != null) {
+      // right assignments of the user were rewritten with the roles
+      userPermissionCache.invalidate();
+    }
+
     profiler.start(PROFILER_TO_DTO);
     UserDto responseDto = exportUserToDto(user);
 
@@ -353,6 +360,7 @@ public class UserController extends BaseController {
     } else {
       profiler.start("DELETE_USER_FROM_DB");
       userRepository.deleteById(userId);
+      userPermissionCache.invalidate();
     }
     profiler.stop().log();
   }
@@ -419,52 +427,28 @@ public class UserController extends BaseController {
 
     checkAdminRight(RightName.USERS_MANAGE_RIGHT, true, userId, profiler);
 
-    checkUserExists(userId, profiler);
-
-    boolean hasRight;
-
     profiler.start("GET_RIGHT");
-    Right right = rightRepository.findById(rightId)
-        .orElseThrow(() -> new ValidationMessageException(
-            new Message(RightMessageKeys.ERROR_NOT_FOUND_WITH_ID, rightId)));
-
-    if (programId != null) {
-      profiler.start("CHECK_PROGRAM_EXISTS");
-      if (!programRepository.existsById(programId)) {
-        throw new ValidationMessageException(new Message(
-            ProgramMessageKeys.ERROR_NOT_FOUND_WITH_ID, programId));
-      }
-
-      if (facilityId != null) {
-        profiler.start("CHECK_FACILITY_EXISTS");
-        if (!facilityRepository.existsById(facilityId)) {
-          throw new ValidationMessageException(new Message(
-              FacilityMessageKeys.ERROR_NOT_FOUND_WITH_ID, facilityId));
-        }
+    Right right = rightRepository.findById(rightId).orElse(null);
 
-        profiler.start("CHECK_HAS_RIGHT_BY_USER_RIGHT_FACILITY_PROGRAM");
-        hasRight = rightAssignmentRepository.existsByUserIdAndAndRightNameAndFacilityIdAndProgramId(
-            userId, right.getName(), facilityId, programId);
-
-      } else {
-        throw new ValidationMessageException(UserMessageKeys.ERROR_PROGRAM_WITHOUT_FACILITY);
-      }
+    profiler.start("CHECK_HAS_RIGHT");
+    UserPermissions permissions = userPermissionCache.get(userId);
+    boolean hasRight;
 
+    if (null == right) {
+      hasRight = false;
+    } else if (programId != null) {
+      hasRight = permissions.hasRight(right.getName(), facilityId, programId);
     } else if (warehouseId != null) {
-
-      profiler.start("CHECK_WAREHOUSE_EXISTS");
-      if (!facilityRepository.existsById(warehouseId)) {
-        throw new ValidationMessageException(new Message(
-            FacilityMessageKeys.ERROR_NOT_FOUND_WITH_ID, warehouseId));
-      }
-
-      profiler.start("CHECK_HAS_RIGHT_BY_USER_RIGHT_WAREHOUSE");
-      hasRight = rightAssignmentRepository.existsByUserIdAndAndRightNameAndFacilityId(
-          userId, right.getName(), warehouseId);
-
+      hasRight = permissions.hasRight(right.getName(), warehouseId);
     } else {
-      profiler.start("CHECK_HAS_RIGHT_BY_USER_RIGHT");
-      hasRight = rightAssignmentRepository.existsByUserIdAndRightName(userId, right.getName());
+      hasRight = permissions.hasRight(right.getName());
+    }
+
+    // a right assignment can only exist for an existing user, program and facility, so the
+    // parameters have to be validated only when the user does not have the right
+    if (!hasRight) {
+      validateHasRightParams(userId, rightId, right, programId, facilityId, warehouseId,
+          profiler);
     }
 
     profiler.stop().log();
@@ -657,7 +641,7 @@ public class UserController extends BaseController {
     checkUserExists(userId, profiler);
 
     profiler.start("GET_PERM_STRINGS_FROM_RIGHT_ASSIGNMENTS");
-    Set<String> permissionStrings = rightAssignmentRepository.findByUser(userId);
+    Set<String> permissionStrings = userPermissionCache.get(userId).getPermissionStrings();
 
     profiler.stop().log();
     XLOGGER.exit(permissionStrings);
@@ -844,4 +828,39 @@ public class UserController extends BaseController {
       throw new NotFoundException(new Message(UserMessageKeys.ERROR_NOT_FOUND_WITH_ID, userId));
     }
   }
+
+  private void validateHasRightParams(UUID userId, UUID rightId, Right right, UUID programId,
+      UUID facilityId, UUID warehouseId, Profiler profiler) {
+    checkUserExists(userId, profiler);
+
+    if (null == right) {
+      throw new ValidationMessageException(
+          new Message(RightMessageKeys.ERROR_NOT_FOUND_WITH_ID, rightId));
+    }
+
+    if (programId != null) {
+      checkExists(programRepository::existsById, programId,
+          ProgramMessageKeys.ERROR_NOT_FOUND_WITH_ID, profiler);
+
+      if (facilityId == null) {
+        throw new ValidationMessageException(UserMessageKeys.ERROR_PROGRAM_WITHOUT_FACILITY);
+      }
+
+      checkExists(facilityRepository::existsById, facilityId,
+          FacilityMessageKeys.ERROR_NOT_FOUND_WITH_ID, profiler);
+    } else {
+      checkExists(facilityRepository::existsById, warehouseId,
+          FacilityMessageKeys.ERROR_NOT_FOUND_WITH_ID, profiler);
+    }
+  }
+
+  private void checkExists(Predicate<UUID> exists, UUID id, String messageKey,
+      Profiler profiler) {
+    if (null != id) {
+      profiler.start("CHECK_EXISTS");
+      if (!exists.test(id)) {
+        throw new ValidationMessageException(new Message(messageKey, id));
+      }
+    }
+  }
 }
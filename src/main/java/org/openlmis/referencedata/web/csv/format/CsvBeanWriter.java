@@ -64,7 +64,7 @@ class CsvBeanWriter<T extends Object> {
     profiler.stop().log();
   }
 
-  void writeWithCellProcessors(List<? extends Object> dtos) throws IOException {
+  void writeWithCellProcessors(Iterable<? extends Object> dtos) throws IOException {
     Profiler profiler = new Profiler("CSV_WRITE_CELLS");
     profiler.setLogger(LOGGER);
 
@@ -19,7 +19,6 @@ import static org.openlmis.referencedata.util.messagekeys.CsvExportMessageKeys.E
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.List;
 import lombok.NoArgsConstructor;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.util.Message;
@@ -46,10 +45,11 @@ public class CsvFormatter {
    *
    * @param outputStream input stream of csv file
    * @param modelClass   java model to which the csv row will be mapped
+   * @param dtos         rows to write, consumed only once
    */
   public <T extends Object> void process(OutputStream outputStream,
                                          ModelClass<T> modelClass,
-                                         List<T> dtos) throws IOException {
+                                         Iterable<T> dtos) throws IOException {
 
     Profiler profiler = new Profiler("CSV_PROCESS");
     profiler.setLogger(LOGGER);
@@ -20,7 +20,13 @@ import static org.openlmis.referencedata.util.messagekeys.CsvUploadMessageKeys.E
 import com.google.common.collect.Lists;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.NoArgsConstructor;
 import org.openlmis.referencedata.domain.BaseEntity;
 import org.openlmis.referencedata.dto.BaseDto;
@@ -33,8 +39,13 @@ import org.openlmis.referencedata.web.csv.recordhandler.RecordWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.supercsv.exception.SuperCsvException;
 import org.supercsv.util.CsvContext;
 
@@ -42,7 +53,11 @@ import org.supercsv.util.CsvContext;
  * This class has logic to invoke corresponding respective record handler to parse data from input
  * stream into the corresponding model. To speed up the process for huge files the stream is divided
  * into smaller chunks. The chunk size is set by {@code csvParser.chunkSize} property. Each chunk is
- * executed asynchronously in the thread pool with size set by {@code csvParser.poolSize}.
+ * processed asynchronously, in its own read-only transaction, in the thread pool with size set by
+ * {@code csvParser.poolSize}, while the calling thread keeps reading the stream and writes the
+ * processed chunks in their original order, within its own transaction. At most
+ * {@code csvParser.maxPendingChunks} chunks are read ahead of the writes, and the first chunk that
+ * fails stops the processing of the ones that have not started yet.
  */
 @Component
 @NoArgsConstructor
@@ -53,6 +68,16 @@ public class CsvParser {
   @Value("${csvParser.chunkSize}")
   private int chunkSize;
 
+  @Value("${csvParser.maxPendingChunks}")
+  private int maxPendingChunks;
+
+  @Autowired
+  @Qualifier("csvParserTaskExecutor")
+  private AsyncTaskExecutor csvParserTaskExecutor;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
   /**
    * Parses data from input stream into the corresponding model.
    *
@@ -76,14 +101,30 @@ public class CsvParser {
     csvBeanReader.validateHeaders();
 
     profiler.start("PROCESS_CSV");
-    while (true) {
-      List<D> imported = doRead(csvBeanReader);
+    Deque<Future<List<E>>> pending = new ArrayDeque<>();
+    AtomicBoolean failed = new AtomicBoolean();
 
-      if (imported.isEmpty()) {
-        break;
+    try {
+      while (!failed.get()) {
+        List<D> imported = doRead(csvBeanReader);
+
+        if (imported.isEmpty()) {
+          break;
+        }
+
+        pending.add(csvParserTaskExecutor.submit(() -> doProcess(processor, imported, failed)));
+
+        if (pending.size() >= maxPendingChunks) {
+          doWrite(writer, pending.poll());
+        }
       }
 
-      doWrite(processor, writer, imported);
+      while (!pending.isEmpty()) {
+        doWrite(writer, pending.poll());
+      }
+    } finally {
+      failed.set(true);
+      pending.forEach(future -> future.cancel(true));
     }
 
     profiler.stop().log();
@@ -111,14 +152,30 @@ public class CsvParser {
     }
   }
 
-  private <D extends BaseDto, E extends BaseEntity> void doWrite(RecordProcessor<D, E> processor,
-                                                                 RecordWriter<E> writer,
-                                                                 List<D> imported) {
+  private <D extends BaseDto, E extends BaseEntity> List<E> doProcess(
+      RecordProcessor<D, E> processor, List<D> imported, AtomicBoolean failed) {
+    // chunks start in the order they were read, so the ones skipped here all come after the
+    // failed chunk, which is the one reported
+    if (failed.get()) {
+      return Collections.emptyList();
+    }
+
+    try {
+      TransactionTemplate template = new TransactionTemplate(transactionManager);
+      template.setReadOnly(true);
+      return template.execute(status -> processor.process(imported));
+    } catch (RuntimeException ex) {
+      failed.set(true);
+      throw ex;
+    }
+  }
+
+  private <E extends BaseEntity> void doWrite(RecordWriter<E> writer, Future<List<E>> processed) {
     Profiler profiler = new Profiler("WRITE_CSV_CHUNK");
     profiler.setLogger(LOGGER);
 
-    profiler.start("PROCESS");
-    List<E> entities = processor.process(imported);
+    profiler.start("WAIT_FOR_PROCESSING");
+    List<E> entities = getProcessed(processed);
 
     profiler.start("WRITE_TO_DB");
     writer.write(entities);
@@ -126,6 +183,20 @@ public class CsvParser {
     profiler.stop().log();
   }
 
+  private <E extends BaseEntity> List<E> getProcessed(Future<List<E>> processed) {
+    try {
+      return processed.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
   private Message getCsvRowErrorMessage(SuperCsvException err) {
     CsvContext context = err.getCsvContext();
     int row = context.getRowNumber() - 1;
@@ -21,9 +21,16 @@ import static org.openlmis.referencedata.util.messagekeys.IdealStockAmountMessag
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.CommodityType;
 import org.openlmis.referencedata.domain.Facility;
@@ -47,7 +54,8 @@ import org.springframework.stereotype.Component;
 
 /**
  * IdealStockAmountProcessor is used for uploads of Ideal Stock Amount.
- * It uploads each ideal stock amount by record.
+ * It uploads each ideal stock amount by record. Facilities, processing schedules, processing
+ * periods and commodity types of a chunk are resolved with one query per type.
  */
 @Component
 public class IdealStockAmountProcessor
@@ -72,23 +80,45 @@ public class IdealStockAmountProcessor
 
   @Override
   public List<IdealStockAmount> process(List<IdealStockAmountCsvModel> records) {
+    return process(records, new References());
+  }
+
+  /**
+   * Creates a processor for a single upload. It keeps the references resolved for earlier chunks
+   * of the upload, so each of them is queried at most once. Chunks may be processed concurrently.
+   *
+   * @return processor to pass to the parser
+   */
+  public RecordProcessor<IdealStockAmountCsvModel, IdealStockAmount> forUpload() {
+    References references = new References();
+    return records -> process(records, references);
+  }
+
+  private List<IdealStockAmount> process(List<IdealStockAmountCsvModel> records,
+      References references) {
     Profiler profiler = new Profiler("PROCESS_DTO_CHUNK");
     profiler.setLogger(LOGGER);
 
     profiler.start("SEARCH_EXISTING_ISA");
     List<IdealStockAmount> idealStockAmounts = convert(records);
-    Map<Integer, IdealStockAmount> isaMap = new HashMap<>();
+    Map<IdealStockAmountKey, IdealStockAmount> isaMap = new HashMap<>();
     for (IdealStockAmount isa : idealStockAmountService.search(idealStockAmounts)) {
-      isaMap.put(hash(isa), isa);
+      isaMap.put(IdealStockAmountKey.of(isa), isa);
     }
 
+    profiler.start("RESOLVE_REFERENCES");
+    references.resolve(idealStockAmounts
+        .stream()
+        .filter(isa -> !isaMap.containsKey(IdealStockAmountKey.of(isa)))
+        .collect(Collectors.toList()));
+
     List<IdealStockAmount> resultList = new ArrayList<>();
 
     profiler.start("PROCESS_RECORDS");
     for (IdealStockAmount isa : idealStockAmounts) {
-      IdealStockAmount result = isaMap.getOrDefault(hash(isa), null);
+      IdealStockAmount result = isaMap.get(IdealStockAmountKey.of(isa));
       if (null == result) {
-        resultList.add(prepareNewIdealStockAmountObject(isa));
+        resultList.add(prepareNewIdealStockAmountObject(isa, references));
       } else {
         result.setAmount(isa.getAmount());
         resultList.add(result);
@@ -100,28 +130,26 @@ public class IdealStockAmountProcessor
     return resultList;
   }
 
-  private IdealStockAmount prepareNewIdealStockAmountObject(IdealStockAmount isa) {
-    Facility facility = facilityRepository.findByCode(isa.getFacility().getCode())
+  private IdealStockAmount prepareNewIdealStockAmountObject(IdealStockAmount isa,
+      References references) {
+    Facility facility = Optional
+        .ofNullable(references.facilities.get(isa.getFacility().getCode()))
         .orElseThrow(() -> new ValidationMessageException(new Message(ERROR_FACILITY_NOT_FOUND,
             isa.getFacility().getCode())));
 
-    ProcessingSchedule schedule = processingScheduleRepository
-        .findOneByCode(isa.getProcessingPeriod().getProcessingSchedule().getCode())
-        .orElseThrow(() -> new ValidationMessageException(new Message(
-            ProcessingScheduleMessageKeys.ERROR_NOT_FOUND_WITH_CODE,
-            isa.getProcessingPeriod().getProcessingSchedule().getCode()
-        )));
-    ProcessingPeriod period = processingPeriodRepository.findOneByNameAndProcessingSchedule(
-        isa.getProcessingPeriod().getName(),
-        schedule)
+    Code scheduleCode = isa.getProcessingPeriod().getProcessingSchedule().getCode();
+    if (!references.schedules.containsKey(scheduleCode)) {
+      throw new ValidationMessageException(new Message(
+          ProcessingScheduleMessageKeys.ERROR_NOT_FOUND_WITH_CODE, scheduleCode));
+    }
+    ProcessingPeriod period = Optional
+        .ofNullable(references.periods.get(periodKey(isa.getProcessingPeriod())))
         .orElseThrow(() -> new ValidationMessageException(
             new Message(ERROR_PROCESSING_PERIOD_NOT_FOUND,
-            isa.getProcessingPeriod().getName(),
-            isa.getProcessingPeriod().getProcessingSchedule().getCode())));
+            isa.getProcessingPeriod().getName(), scheduleCode)));
 
-    CommodityType commodityType = commodityTypeRepository
-        .findByClassificationIdAndClassificationSystem(isa.getCommodityType().getClassificationId(),
-            isa.getCommodityType().getClassificationSystem())
+    CommodityType commodityType = Optional
+        .ofNullable(references.commodityTypes.get(commodityTypeKey(isa.getCommodityType())))
         .orElseThrow(() -> new ValidationMessageException(new Message(
             ERROR_COMMODITY_TYPE_NOT_FOUND,
             isa.getCommodityType().getClassificationId(),
@@ -152,11 +180,109 @@ public class IdealStockAmountProcessor
     return result;
   }
 
-  private int hash(IdealStockAmount isa) {
-    return Objects.hash(isa.getFacility().getCode(),
-        isa.getCommodityType().getClassificationId(),
-        isa.getCommodityType().getClassificationSystem(),
-        isa.getProcessingPeriod().getName(),
-        isa.getProcessingPeriod().getProcessingSchedule().getCode());
+  private static Pair<Code, String> periodKey(ProcessingPeriod period) {
+    return Pair.of(period.getProcessingSchedule().getCode(), period.getName());
+  }
+
+  private static Pair<String, String> commodityTypeKey(CommodityType commodityType) {
+    return Pair.of(commodityType.getClassificationId(), commodityType.getClassificationSystem());
+  }
+
+  /**
+   * References of ideal stock amounts, by the values they are identified by in the CSV file. Only
+   * references that exist are kept, so the ones that are missing are looked up again and reported
+   * for every chunk that needs them.
+   */
+  private final class References {
+    private final Map<String, Facility> facilities = new ConcurrentHashMap<>();
+    private final Map<Code, ProcessingSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<Pair<Code, String>, ProcessingPeriod> periods = new ConcurrentHashMap<>();
+    private final Map<Pair<String, String>, CommodityType> commodityTypes =
+        new ConcurrentHashMap<>();
+
+    void resolve(List<IdealStockAmount> idealStockAmounts) {
+      Set<String> facilityCodes = new HashSet<>();
+      Set<String> scheduleCodes = new HashSet<>();
+      Set<Pair<Code, String>> periodKeys = new HashSet<>();
+      Set<String> classificationIds = new HashSet<>();
+
+      for (IdealStockAmount isa : idealStockAmounts) {
+        if (!facilities.containsKey(isa.getFacility().getCode())) {
+          facilityCodes.add(isa.getFacility().getCode());
+        }
+
+        Code scheduleCode = isa.getProcessingPeriod().getProcessingSchedule().getCode();
+        if (!schedules.containsKey(scheduleCode)) {
+          scheduleCodes.add(scheduleCode.toString());
+        }
+
+        Pair<Code, String> periodKey = periodKey(isa.getProcessingPeriod());
+        if (!periods.containsKey(periodKey)) {
+          periodKeys.add(periodKey);
+        }
+
+        if (!commodityTypes.containsKey(commodityTypeKey(isa.getCommodityType()))) {
+          classificationIds.add(isa.getCommodityType().getClassificationId());
+        }
+      }
+
+      if (!facilityCodes.isEmpty()) {
+        facilityRepository.findAllByCodeIn(facilityCodes)
+            .forEach(facility -> facilities.put(facility.getCode(), facility));
+      }
+
+      if (!scheduleCodes.isEmpty()) {
+        processingScheduleRepository.findAllByCodes(scheduleCodes)
+            .forEach(schedule -> schedules.put(schedule.getCode(), schedule));
+      }
+
+      resolvePeriods(periodKeys);
+
+      if (!classificationIds.isEmpty()) {
+        commodityTypeRepository.findAllByClassificationIdIn(classificationIds)
+            .forEach(commodityType -> commodityTypes
+                .put(commodityTypeKey(commodityType), commodityType));
+      }
+    }
+
+    // periods of all requested names in all requested schedules are loaded with one query, and
+    // the pairs that were not requested are kept as well
+    private void resolvePeriods(Set<Pair<Code, String>> periodKeys) {
+      Set<ProcessingSchedule> periodSchedules = new HashSet<>();
+      Set<String> periodNames = new HashSet<>();
+
+      for (Pair<Code, String> periodKey : periodKeys) {
+        ProcessingSchedule schedule = schedules.get(periodKey.getLeft());
+
+        if (null != schedule) {
+          periodSchedules.add(schedule);
+          periodNames.add(periodKey.getRight());
+        }
+      }
+
+      if (!periodSchedules.isEmpty()) {
+        processingPeriodRepository
+            .findAllByProcessingScheduleInAndNameIn(periodSchedules, periodNames)
+            .forEach(period -> periods.put(periodKey(period), period));
+      }
+    }
+  }
+
+  @EqualsAndHashCode
+  @AllArgsConstructor
+  private static final class IdealStockAmountKey {
+    private final String facilityCode;
+    private final String classificationId;
+    private final String classificationSystem;
+    private final String periodName;
+    private final Code scheduleCode;
+
+    static IdealStockAmountKey of(IdealStockAmount isa) {
+      return new IdealStockAmountKey(isa.getFacility().getCode(),
+          isa.getCommodityType().getClassificationId(),
+          isa.getCommodityType().getClassificationSystem(),
+          isa.getProcessingPeriod().getName(),
+          isa.getProcessingPeriod().getProcessingSchedule().getCode());
+    }
   }
 }
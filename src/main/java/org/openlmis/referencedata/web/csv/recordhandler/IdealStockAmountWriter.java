@@ -15,6 +15,12 @@
 
 package org.openlmis.referencedata.web.csv.recordhandler;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.commons.lang3.tuple.Triple;
 import org.openlmis.referencedata.domain.IdealStockAmount;
 import org.openlmis.referencedata.repository.IdealStockAmountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,4 +39,43 @@ public class IdealStockAmountWriter implements RecordWriter<IdealStockAmount> {
   public void write(Iterable<IdealStockAmount> records) {
     repository.saveAll(records);
   }
+
+  /**
+   * Creates a writer for a single upload. Chunks of an upload are processed concurrently, so a
+   * chunk can not see ideal stock amounts created by the chunks before it. The writer remembers
+   * every ideal stock amount it saved, and a later record for the same facility, commodity type
+   * and period updates the amount of the saved one instead of creating a duplicate.
+   *
+   * @return writer to pass to the parser
+   */
+  public RecordWriter<IdealStockAmount> forUpload() {
+    Map<Triple<UUID, UUID, UUID>, IdealStockAmount> written = new HashMap<>();
+    return records -> write(records, written);
+  }
+
+  private void write(Iterable<IdealStockAmount> records,
+      Map<Triple<UUID, UUID, UUID>, IdealStockAmount> written) {
+    List<IdealStockAmount> toSave = new ArrayList<>();
+
+    for (IdealStockAmount isa : records) {
+      IdealStockAmount previous = written.get(keyOf(isa));
+
+      if (null == previous) {
+        written.put(keyOf(isa), isa);
+        toSave.add(isa);
+      } else {
+        previous.setAmount(isa.getAmount());
+      }
+    }
+
+    // existing ideal stock amounts are merged, so the saved instances are the ones to update
+    for (IdealStockAmount saved : repository.saveAll(toSave)) {
+      written.put(keyOf(saved), saved);
+    }
+  }
+
+  private static Triple<UUID, UUID, UUID> keyOf(IdealStockAmount isa) {
+    return Triple.of(isa.getFacility().getId(), isa.getCommodityType().getId(),
+        isa.getProcessingPeriod().getId());
+  }
 }
@@ -17,19 +17,20 @@ package org.openlmis.referencedata.web.export;
 
 import static org.openlmis.referencedata.web.export.DataExportController.RESOURCE_PATH;
 
+import java.io.IOException;
 import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
 import org.openlmis.referencedata.domain.RightName;
 import org.openlmis.referencedata.service.export.DataExportService;
 import org.openlmis.referencedata.web.BaseController;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
 
 @Controller
 @RequestMapping(RESOURCE_PATH)
@@ -45,21 +46,23 @@ public class DataExportController extends BaseController {
 
   /**
    * Exports the given data to a ZIP with CSV files in OpenLMIS
-   * Configuration Data Export File format.
+   * Configuration Data Export File format. The archive is streamed to the response.
    *
    * @param requestParams Required parameters: format (output format for files) and date
    *                      (names of requested files).
-   * @return Zip archive bytes containing formatted files
+   * @param response      response the zip archive is written to
    */
   @GetMapping
-  @ResponseBody
-  public ResponseEntity<byte[]> exportData(@RequestParam Map<String, String> requestParams) {
+  @ResponseStatus(HttpStatus.OK)
+  public void exportData(@RequestParam Map<String, String> requestParams,
+                         HttpServletResponse response) throws IOException {
     rightService.checkAdminRight(RightName.DATA_EXPORT);
+    DataExportParams params = new DataExportParams(requestParams);
 
-    return ResponseEntity.ok()
-            .contentType(MediaType.valueOf(ZIP_MEDIA_TYPE))
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=" + RESPONSE_FILE_NAME)
-            .body(dataExportService.exportData(new DataExportParams(requestParams)));
+    response.setContentType(ZIP_MEDIA_TYPE);
+    response.addHeader(HttpHeaders.CONTENT_DISPOSITION,
+        "attachment;filename=" + RESPONSE_FILE_NAME);
+    dataExportService.exportData(params, response.getOutputStream());
   }
 
-}
\ No newline at end of file
+}
@@ -18,17 +18,23 @@ package org.openlmis.referencedata.web.export;
 import static org.openlmis.referencedata.web.export.DataImportController.RESOURCE_PATH;
 
 import java.util.List;
+import java.util.UUID;
 import org.openlmis.referencedata.domain.RightName;
 import org.openlmis.referencedata.dto.BaseDto;
+import org.openlmis.referencedata.dto.DataImportJobDto;
+import org.openlmis.referencedata.service.export.DataImportJobService;
 import org.openlmis.referencedata.service.export.DataImportService;
 import org.openlmis.referencedata.web.BaseController;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -37,10 +43,14 @@ import org.springframework.web.multipart.MultipartFile;
 public class DataImportController extends BaseController {
 
   public static final String RESOURCE_PATH = BaseController.API_PATH + "/importData";
+  public static final String JOBS = "/jobs";
 
   @Autowired
   private DataImportService dataImportService;
 
+  @Autowired
+  private DataImportJobService dataImportJobService;
+
   /**
    * Imports the data from a ZIP with CSV files.
    *
@@ -54,4 +64,31 @@ public class DataImportController extends BaseController {
     return ResponseEntity.ok().body(importedData);
   }
 
+  /**
+   * Queues an import of the data from a ZIP with CSV files and returns the job right away. The
+   * progress of the import can be checked with {@link #getImportJob(UUID)}.
+   *
+   * @param file ZIP archive being imported.
+   */
+  @PostMapping(JOBS)
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  @ResponseBody
+  public DataImportJobDto submitImportJob(@RequestPart("file") MultipartFile file) {
+    rightService.checkAdminRight(RightName.DATA_IMPORT);
+    return DataImportJobDto.newInstance(dataImportJobService.submit(file));
+  }
+
+  /**
+   * Returns the status, progress and errors of the data import job with the given id.
+   *
+   * @param jobId id of the job.
+   */
+  @GetMapping(JOBS + "/{id}")
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public DataImportJobDto getImportJob(@PathVariable("id") UUID jobId) {
+    rightService.checkAdminRight(RightName.DATA_IMPORT);
+    return DataImportJobDto.newInstance(dataImportJobService.getJob(jobId));
+  }
+
 }
\ No newline at end of file
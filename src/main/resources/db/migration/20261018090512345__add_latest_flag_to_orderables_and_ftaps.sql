@@ -0,0 +1,71 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+ALTER TABLE orderables ADD COLUMN latest BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE facility_type_approved_products ADD COLUMN latest BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE orderables o
+SET latest = TRUE
+FROM (SELECT id, MAX(versionnumber) AS versionnumber FROM orderables GROUP BY id) AS m
+WHERE o.id = m.id AND o.versionnumber = m.versionnumber;
+
+UPDATE facility_type_approved_products ftap
+SET latest = TRUE
+FROM (SELECT id, MAX(versionnumber) AS versionnumber
+      FROM facility_type_approved_products GROUP BY id) AS m
+WHERE ftap.id = m.id AND ftap.versionnumber = m.versionnumber;
+
+CREATE INDEX orderables_latest_id_idx ON orderables (id) WHERE latest;
+CREATE INDEX orderables_latest_fullproductname_idx ON orderables (fullproductname) WHERE latest;
+CREATE INDEX ftaps_latest_id_idx ON facility_type_approved_products (id) WHERE latest;
+CREATE INDEX ftaps_latest_facilitytypeid_programid_idx
+    ON facility_type_approved_products (facilitytypeid, programid) WHERE latest;
+
+-- The flag is recalculated once per statement for every id touched by it, so bulk loads
+-- (COPY, batched inserts) do not pay for a MAX() lookup per row.
+CREATE FUNCTION refresh_latest_orderables() RETURNS trigger AS $$
+    BEGIN
+        UPDATE referencedata.orderables o
+        SET latest = (o.versionnumber = m.versionnumber)
+        FROM (SELECT id, MAX(versionnumber) AS versionnumber
+              FROM referencedata.orderables
+              WHERE id IN (SELECT DISTINCT id FROM changed_rows)
+              GROUP BY id) AS m
+        WHERE o.id = m.id AND o.latest <> (o.versionnumber = m.versionnumber);
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION refresh_latest_ftaps() RETURNS trigger AS $$
+    BEGIN
+        UPDATE referencedata.facility_type_approved_products ftap
+        SET latest = (ftap.versionnumber = m.versionnumber)
+        FROM (SELECT id, MAX(versionnumber) AS versionnumber
+              FROM referencedata.facility_type_approved_products
+              WHERE id IN (SELECT DISTINCT id FROM changed_rows)
+              GROUP BY id) AS m
+        WHERE ftap.id = m.id AND ftap.latest <> (ftap.versionnumber = m.versionnumber);
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER orderables_latest_on_insert
+    AFTER INSERT ON orderables
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_latest_orderables();
+
+CREATE TRIGGER orderables_latest_on_delete
+    AFTER DELETE ON orderables
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_latest_orderables();
+
+CREATE TRIGGER ftaps_latest_on_insert
+    AFTER INSERT ON facility_type_approved_products
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_latest_ftaps();
+
+CREATE TRIGGER ftaps_latest_on_delete
+    AFTER DELETE ON facility_type_approved_products
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_latest_ftaps();
@@ -0,0 +1,12 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+
+-- Backs the case-insensitive substring searches (LOWER(...) LIKE '%...%') by code and name,
+-- which could not use the b-tree indexes.
+CREATE INDEX orderables_latest_code_trgm_idx
+    ON orderables USING gin (LOWER(code) public.gin_trgm_ops) WHERE latest;
+CREATE INDEX orderables_latest_fullproductname_trgm_idx
+    ON orderables USING gin (LOWER(fullproductname) public.gin_trgm_ops) WHERE latest;
@@ -0,0 +1,106 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+-- Last modification date of orderables, kept for all orderables (the row with the nil UUID)
+-- and for each program. The value only ever moves forward, so it may be later than
+-- the last updated date of the current orderables, but never earlier.
+CREATE TABLE orderables_last_modified (
+    programid UUID PRIMARY KEY,
+    lastmodified TIMESTAMPTZ NOT NULL
+);
+
+INSERT INTO orderables_last_modified (programid, lastmodified)
+SELECT '00000000-0000-0000-0000-000000000000', MAX(lastupdated)
+FROM orderables
+HAVING MAX(lastupdated) IS NOT NULL;
+
+INSERT INTO orderables_last_modified (programid, lastmodified)
+SELECT po.programid, MAX(o.lastupdated)
+FROM program_orderables po
+JOIN orderables o ON o.id = po.orderableid
+GROUP BY po.programid;
+
+-- Rows are locked in a fixed order so that concurrent writers cannot deadlock on them.
+CREATE FUNCTION bump_orderables_last_modified(programids UUID[], modified TIMESTAMPTZ)
+RETURNS void AS $$
+    BEGIN
+        IF modified IS NULL THEN
+            RETURN;
+        END IF;
+
+        INSERT INTO referencedata.orderables_last_modified AS w (programid, lastmodified)
+        SELECT DISTINCT p.id, modified
+        FROM unnest(programids || '00000000-0000-0000-0000-000000000000'::UUID) AS p(id)
+        ORDER BY p.id
+        ON CONFLICT (programid)
+            DO UPDATE SET lastmodified = GREATEST(w.lastmodified, EXCLUDED.lastmodified);
+    END;
+$$ LANGUAGE plpgsql;
+
+-- A new version may leave a program, so the programs of all versions of an orderable are bumped.
+CREATE FUNCTION orderables_last_modified_trigger() RETURNS trigger AS $$
+    BEGIN
+        IF TG_OP = 'DELETE' THEN
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT po.programid FROM referencedata.program_orderables po
+                      WHERE po.orderableid IN (SELECT id FROM old_rows)),
+                CASE WHEN EXISTS (SELECT 1 FROM old_rows) THEN now() END);
+        ELSE
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT po.programid FROM referencedata.program_orderables po
+                      WHERE po.orderableid IN (SELECT id FROM new_rows)),
+                (SELECT MAX(lastupdated) FROM new_rows));
+        END IF;
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION program_orderables_last_modified_trigger() RETURNS trigger AS $$
+    BEGIN
+        IF TG_OP = 'INSERT' THEN
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT programid FROM new_rows),
+                CASE WHEN EXISTS (SELECT 1 FROM new_rows) THEN now() END);
+        ELSIF TG_OP = 'UPDATE' THEN
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT programid FROM old_rows UNION SELECT programid FROM new_rows),
+                CASE WHEN EXISTS (SELECT 1 FROM new_rows) THEN now() END);
+        ELSE
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT programid FROM old_rows),
+                CASE WHEN EXISTS (SELECT 1 FROM old_rows) THEN now() END);
+        END IF;
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER orderables_last_modified_on_insert
+    AFTER INSERT ON orderables
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE orderables_last_modified_trigger();
+
+CREATE TRIGGER orderables_last_modified_on_update
+    AFTER UPDATE ON orderables
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE orderables_last_modified_trigger();
+
+CREATE TRIGGER orderables_last_modified_on_delete
+    AFTER DELETE ON orderables
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE orderables_last_modified_trigger();
+
+CREATE TRIGGER program_orderables_last_modified_on_insert
+    AFTER INSERT ON program_orderables
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE program_orderables_last_modified_trigger();
+
+CREATE TRIGGER program_orderables_last_modified_on_update
+    AFTER UPDATE ON program_orderables
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE program_orderables_last_modified_trigger();
+
+CREATE TRIGGER program_orderables_last_modified_on_delete
+    AFTER DELETE ON program_orderables
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE program_orderables_last_modified_trigger();
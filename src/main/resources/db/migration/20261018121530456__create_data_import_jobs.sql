@@ -0,0 +1,21 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+CREATE TABLE data_import_jobs (
+    id UUID PRIMARY KEY,
+    filename TEXT,
+    status VARCHAR(20) NOT NULL,
+    processedrows INTEGER NOT NULL DEFAULT 0,
+    importedrecords INTEGER,
+    createddate TIMESTAMP WITH TIME ZONE NOT NULL,
+    startdate TIMESTAMP WITH TIME ZONE,
+    finishdate TIMESTAMP WITH TIME ZONE
+);
+
+CREATE TABLE data_import_job_errors (
+    jobid UUID NOT NULL REFERENCES data_import_jobs (id) ON DELETE CASCADE,
+    error TEXT NOT NULL
+);
+
+CREATE INDEX data_import_job_errors_jobid_idx ON data_import_job_errors (jobid);
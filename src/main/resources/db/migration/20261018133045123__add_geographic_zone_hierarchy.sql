@@ -0,0 +1,87 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+-- Closure table of the geographic zone tree: a row for every zone and each of its ancestors,
+-- including the zone itself at depth 0, so that all descendants of a zone can be found with
+-- a single index lookup instead of walking the tree level by level.
+CREATE TABLE geographic_zone_hierarchy (
+    ancestorid UUID NOT NULL REFERENCES geographic_zones (id) ON DELETE CASCADE,
+    descendantid UUID NOT NULL REFERENCES geographic_zones (id) ON DELETE CASCADE,
+    depth INTEGER NOT NULL,
+    PRIMARY KEY (ancestorid, descendantid)
+);
+
+CREATE INDEX geographic_zone_hierarchy_descendantid_idx
+    ON geographic_zone_hierarchy (descendantid);
+
+WITH RECURSIVE paths (ancestorid, descendantid, depth) AS (
+    SELECT id, id, 0 FROM geographic_zones
+    UNION ALL
+    SELECT z.parentid, p.descendantid, p.depth + 1
+    FROM paths p
+    JOIN geographic_zones z ON z.id = p.ancestorid
+    WHERE z.parentid IS NOT NULL
+)
+INSERT INTO geographic_zone_hierarchy (ancestorid, descendantid, depth)
+SELECT ancestorid, descendantid, depth FROM paths;
+
+-- New zones get their paths by walking up the parents in geographic_zones, so a bulk load
+-- (COPY) adds the whole hierarchy at once, whatever the order of the rows.
+CREATE FUNCTION insert_geographic_zone_hierarchy() RETURNS trigger AS $$
+    BEGIN
+        WITH RECURSIVE paths (ancestorid, descendantid, depth) AS (
+            SELECT id, id, 0 FROM new_rows
+            UNION ALL
+            SELECT z.parentid, p.descendantid, p.depth + 1
+            FROM paths p
+            JOIN referencedata.geographic_zones z ON z.id = p.ancestorid
+            WHERE z.parentid IS NOT NULL
+        )
+        INSERT INTO referencedata.geographic_zone_hierarchy (ancestorid, descendantid, depth)
+        SELECT ancestorid, descendantid, depth FROM paths;
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+-- A zone moved to another parent takes its whole subtree with it: the subtree is detached
+-- from its old ancestors and attached to every ancestor of the new parent.
+CREATE FUNCTION update_geographic_zone_hierarchy() RETURNS trigger AS $$
+    BEGIN
+        IF NEW.parentid IS NOT DISTINCT FROM OLD.parentid THEN
+            RETURN NULL;
+        END IF;
+
+        IF EXISTS (SELECT 1
+                   FROM referencedata.geographic_zone_hierarchy
+                   WHERE ancestorid = NEW.id AND descendantid = NEW.parentid) THEN
+            RAISE EXCEPTION 'Geographic zone % cannot be moved under its descendant %',
+                NEW.id, NEW.parentid;
+        END IF;
+
+        DELETE FROM referencedata.geographic_zone_hierarchy h
+        WHERE h.descendantid IN (SELECT descendantid
+                                 FROM referencedata.geographic_zone_hierarchy
+                                 WHERE ancestorid = NEW.id)
+            AND h.ancestorid NOT IN (SELECT descendantid
+                                     FROM referencedata.geographic_zone_hierarchy
+                                     WHERE ancestorid = NEW.id);
+
+        INSERT INTO referencedata.geographic_zone_hierarchy (ancestorid, descendantid, depth)
+        SELECT sup.ancestorid, sub.descendantid, sup.depth + sub.depth + 1
+        FROM referencedata.geographic_zone_hierarchy sup
+        CROSS JOIN referencedata.geographic_zone_hierarchy sub
+        WHERE sup.descendantid = NEW.parentid AND sub.ancestorid = NEW.id;
+
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER geographic_zone_hierarchy_on_insert
+    AFTER INSERT ON geographic_zones
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE insert_geographic_zone_hierarchy();
+
+CREATE TRIGGER geographic_zone_hierarchy_on_update
+    AFTER UPDATE OF parentid ON geographic_zones
+    FOR EACH ROW EXECUTE PROCEDURE update_geographic_zone_hierarchy();
@@ -0,0 +1,49 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+CREATE INDEX geographic_zones_boundary_idx ON geographic_zones USING GIST (boundary);
+
+-- Every boundary is also kept cut into small pieces (at most 256 vertices each). Their bounding
+-- boxes are a much tighter coarse filter than the box of a whole district or region, and the
+-- exact check then only has to go through a piece instead of the full boundary. The pieces
+-- cover exactly the same area as the boundary, so no zone is lost or gained.
+CREATE TABLE geographic_zone_boundary_parts (
+    zoneid UUID NOT NULL REFERENCES geographic_zones (id) ON DELETE CASCADE,
+    part geometry NOT NULL
+);
+
+CREATE INDEX geographic_zone_boundary_parts_part_idx
+    ON geographic_zone_boundary_parts USING GIST (part);
+CREATE INDEX geographic_zone_boundary_parts_zoneid_idx
+    ON geographic_zone_boundary_parts (zoneid);
+
+INSERT INTO geographic_zone_boundary_parts (zoneid, part)
+SELECT id, ST_Subdivide(boundary, 256)
+FROM geographic_zones
+WHERE boundary IS NOT NULL;
+
+CREATE FUNCTION refresh_geographic_zone_boundary_parts() RETURNS trigger AS $$
+    BEGIN
+        IF TG_OP = 'UPDATE' THEN
+            DELETE FROM referencedata.geographic_zone_boundary_parts WHERE zoneid = NEW.id;
+        END IF;
+
+        IF NEW.boundary IS NOT NULL THEN
+            INSERT INTO referencedata.geographic_zone_boundary_parts (zoneid, part)
+            SELECT NEW.id, ST_Subdivide(NEW.boundary, 256);
+        END IF;
+
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER geographic_zone_boundary_parts_on_insert
+    AFTER INSERT ON geographic_zones
+    FOR EACH ROW EXECUTE PROCEDURE refresh_geographic_zone_boundary_parts();
+
+CREATE TRIGGER geographic_zone_boundary_parts_on_update
+    AFTER UPDATE OF boundary ON geographic_zones
+    FOR EACH ROW
+    WHEN (ST_AsEWKB(OLD.boundary) IS DISTINCT FROM ST_AsEWKB(NEW.boundary))
+    EXECUTE PROCEDURE refresh_geographic_zone_boundary_parts();
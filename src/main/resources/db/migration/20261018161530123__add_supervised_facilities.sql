@@ -0,0 +1,166 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+-- Expansion of every supervisory node into the facilities it supervises, directly or through
+-- its child nodes. A row with a program is written for every program the facility supports
+-- (actively) and its requisition group is scheduled for; a row without a program is written
+-- for every member facility, whatever its programs.
+CREATE TABLE supervised_facilities (
+    supervisorynodeid UUID NOT NULL REFERENCES supervisory_nodes (id) ON DELETE CASCADE,
+    facilityid UUID NOT NULL REFERENCES facilities (id) ON DELETE CASCADE,
+    programid UUID REFERENCES programs (id) ON DELETE CASCADE
+);
+
+CREATE UNIQUE INDEX supervised_facilities_node_program_facility_unq
+    ON supervised_facilities (supervisorynodeid, programid, facilityid)
+    WHERE programid IS NOT NULL;
+CREATE UNIQUE INDEX supervised_facilities_node_facility_unq
+    ON supervised_facilities (supervisorynodeid, facilityid)
+    WHERE programid IS NULL;
+
+-- Recalculates rows of the given nodes and all of their ancestors, as a change below a node
+-- changes what each node above it supervises. Refreshes are serialized, so that concurrent
+-- transactions changing the same part of the tree do not write the same rows twice.
+CREATE FUNCTION refresh_supervised_facilities(nodeids UUID[]) RETURNS void AS $$
+    DECLARE
+        affectedids UUID[];
+    BEGIN
+        PERFORM pg_advisory_xact_lock(hashtext('referencedata.supervised_facilities'));
+
+        WITH RECURSIVE ancestors AS (
+            SELECT sn.id, sn.parentid
+            FROM referencedata.supervisory_nodes sn
+            WHERE sn.id = ANY(nodeids)
+            UNION
+            SELECT sn.id, sn.parentid
+            FROM ancestors
+            JOIN referencedata.supervisory_nodes sn ON sn.id = ancestors.parentid
+        )
+        SELECT ARRAY(SELECT id FROM ancestors) INTO affectedids;
+
+        DELETE FROM referencedata.supervised_facilities
+        WHERE supervisorynodeid = ANY(affectedids);
+
+        WITH RECURSIVE descendants AS (
+            SELECT sn.id AS rootid, sn.id
+            FROM referencedata.supervisory_nodes sn
+            WHERE sn.id = ANY(affectedids)
+            UNION
+            SELECT descendants.rootid, sn.id
+            FROM descendants
+            JOIN referencedata.supervisory_nodes sn ON sn.parentid = descendants.id
+        )
+        INSERT INTO referencedata.supervised_facilities (supervisorynodeid, facilityid, programid)
+        SELECT descendants.rootid, rgm.facilityid, CAST(NULL AS UUID)
+        FROM descendants
+            JOIN referencedata.requisition_groups rg ON rg.supervisorynodeid = descendants.id
+            JOIN referencedata.requisition_group_members rgm ON rgm.requisitiongroupid = rg.id
+        UNION
+        SELECT descendants.rootid, rgm.facilityid, rgps.programid
+        FROM descendants
+            JOIN referencedata.requisition_groups rg ON rg.supervisorynodeid = descendants.id
+            JOIN referencedata.requisition_group_members rgm ON rgm.requisitiongroupid = rg.id
+            JOIN referencedata.requisition_group_program_schedules rgps
+                ON rgps.requisitiongroupid = rg.id
+            JOIN referencedata.supported_programs sp ON sp.facilityid = rgm.facilityid
+                AND sp.programid = rgps.programid
+                AND sp.active = TRUE;
+    END;
+$$ LANGUAGE plpgsql;
+
+SELECT refresh_supervised_facilities(ARRAY(SELECT id FROM supervisory_nodes));
+
+-- Members and program schedules are refreshed once per statement, for the nodes of all
+-- requisition groups touched by it, so bulk loads do not refresh a node per row.
+CREATE FUNCTION refresh_supervised_facilities_by_requisition_groups() RETURNS trigger AS $$
+    BEGIN
+        PERFORM referencedata.refresh_supervised_facilities(ARRAY(
+            SELECT rg.supervisorynodeid
+            FROM referencedata.requisition_groups rg
+            WHERE rg.id IN (SELECT requisitiongroupid FROM changed_rows)));
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION refresh_supervised_facilities_by_facilities() RETURNS trigger AS $$
+    BEGIN
+        PERFORM referencedata.refresh_supervised_facilities(ARRAY(
+            SELECT rg.supervisorynodeid
+            FROM referencedata.requisition_group_members rgm
+                JOIN referencedata.requisition_groups rg ON rg.id = rgm.requisitiongroupid
+            WHERE rgm.facilityid IN (SELECT facilityid FROM changed_rows)));
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION refresh_supervised_facilities_by_requisition_group_node() RETURNS trigger AS $$
+    BEGIN
+        IF TG_OP = 'DELETE' THEN
+            PERFORM referencedata.refresh_supervised_facilities(ARRAY[OLD.supervisorynodeid]);
+        ELSIF NEW.supervisorynodeid IS DISTINCT FROM OLD.supervisorynodeid THEN
+            PERFORM referencedata.refresh_supervised_facilities(
+                ARRAY[OLD.supervisorynodeid, NEW.supervisorynodeid]);
+        END IF;
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+-- A node moved to another parent keeps its own rows; only the old and new ancestors change.
+CREATE FUNCTION refresh_supervised_facilities_by_node_parent() RETURNS trigger AS $$
+    BEGIN
+        IF NEW.parentid IS DISTINCT FROM OLD.parentid THEN
+            PERFORM referencedata.refresh_supervised_facilities(
+                ARRAY[OLD.parentid, NEW.parentid]);
+        END IF;
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER supervised_facilities_on_member_insert
+    AFTER INSERT ON requisition_group_members
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_supervised_facilities_by_requisition_groups();
+
+CREATE TRIGGER supervised_facilities_on_member_delete
+    AFTER DELETE ON requisition_group_members
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_supervised_facilities_by_requisition_groups();
+
+CREATE TRIGGER supervised_facilities_on_schedule_insert
+    AFTER INSERT ON requisition_group_program_schedules
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_supervised_facilities_by_requisition_groups();
+
+CREATE TRIGGER supervised_facilities_on_schedule_update
+    AFTER UPDATE ON requisition_group_program_schedules
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_supervised_facilities_by_requisition_groups();
+
+CREATE TRIGGER supervised_facilities_on_schedule_delete
+    AFTER DELETE ON requisition_group_program_schedules
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_supervised_facilities_by_requisition_groups();
+
+CREATE TRIGGER supervised_facilities_on_supported_program_insert
+    AFTER INSERT ON supported_programs
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_supervised_facilities_by_facilities();
+
+CREATE TRIGGER supervised_facilities_on_supported_program_update
+    AFTER UPDATE ON supported_programs
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_supervised_facilities_by_facilities();
+
+CREATE TRIGGER supervised_facilities_on_supported_program_delete
+    AFTER DELETE ON supported_programs
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE refresh_supervised_facilities_by_facilities();
+
+CREATE TRIGGER supervised_facilities_on_requisition_group_change
+    AFTER UPDATE OF supervisorynodeid OR DELETE ON requisition_groups
+    FOR EACH ROW EXECUTE PROCEDURE refresh_supervised_facilities_by_requisition_group_node();
+
+CREATE TRIGGER supervised_facilities_on_node_parent_change
+    AFTER UPDATE OF parentid ON supervisory_nodes
+    FOR EACH ROW EXECUTE PROCEDURE refresh_supervised_facilities_by_node_parent();
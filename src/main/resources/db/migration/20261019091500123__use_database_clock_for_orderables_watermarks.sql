@@ -0,0 +1,48 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+-- The watermarks used to mix the last updated date written by the service with the database
+-- clock (for deletions and program changes). If the two clocks differed, a watermark taken from
+-- the faster one could hide later changes stamped by the slower one. All bumps now use the
+-- database clock, read when the statement runs rather than when the transaction started.
+
+UPDATE orderables_last_modified
+SET lastmodified = clock_timestamp()
+WHERE lastmodified > clock_timestamp();
+
+CREATE OR REPLACE FUNCTION orderables_last_modified_trigger() RETURNS trigger AS $$
+    BEGIN
+        IF TG_OP = 'DELETE' THEN
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT po.programid FROM referencedata.program_orderables po
+                      WHERE po.orderableid IN (SELECT id FROM old_rows)),
+                CASE WHEN EXISTS (SELECT 1 FROM old_rows) THEN clock_timestamp() END);
+        ELSE
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT po.programid FROM referencedata.program_orderables po
+                      WHERE po.orderableid IN (SELECT id FROM new_rows)),
+                CASE WHEN EXISTS (SELECT 1 FROM new_rows) THEN clock_timestamp() END);
+        END IF;
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION program_orderables_last_modified_trigger() RETURNS trigger AS $$
+    BEGIN
+        IF TG_OP = 'INSERT' THEN
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT programid FROM new_rows),
+                CASE WHEN EXISTS (SELECT 1 FROM new_rows) THEN clock_timestamp() END);
+        ELSIF TG_OP = 'UPDATE' THEN
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT programid FROM old_rows UNION SELECT programid FROM new_rows),
+                CASE WHEN EXISTS (SELECT 1 FROM new_rows) THEN clock_timestamp() END);
+        ELSE
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT programid FROM old_rows),
+                CASE WHEN EXISTS (SELECT 1 FROM old_rows) THEN clock_timestamp() END);
+        END IF;
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,144 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+-- Supervisory nodes whose supervised facilities have to be recalculated before the current
+-- transaction commits. Rows are removed by the same transaction that added them, so other
+-- transactions never see them and the table does not need to survive a crash.
+CREATE UNLOGGED TABLE supervised_facilities_refresh_queue (
+    supervisorynodeid UUID NOT NULL
+);
+
+-- Refreshes lock only the affected nodes, in a fixed order, so that transactions changing
+-- unrelated parts of the tree no longer wait for each other.
+CREATE OR REPLACE FUNCTION refresh_supervised_facilities(nodeids UUID[]) RETURNS void AS $$
+    DECLARE
+        affectedids UUID[];
+    BEGIN
+        WITH RECURSIVE ancestors AS (
+            SELECT sn.id, sn.parentid
+            FROM referencedata.supervisory_nodes sn
+            WHERE sn.id = ANY(nodeids)
+            UNION
+            SELECT sn.id, sn.parentid
+            FROM ancestors
+            JOIN referencedata.supervisory_nodes sn ON sn.id = ancestors.parentid
+        )
+        SELECT ARRAY(SELECT id FROM ancestors ORDER BY id) INTO affectedids;
+
+        PERFORM pg_advisory_xact_lock(hashtext('referencedata.supervised_facilities'),
+            hashtext(CAST(affectedid AS text)))
+        FROM unnest(affectedids) AS affectedid;
+
+        DELETE FROM referencedata.supervised_facilities
+        WHERE supervisorynodeid = ANY(affectedids);
+
+        WITH RECURSIVE descendants AS (
+            SELECT sn.id AS rootid, sn.id
+            FROM referencedata.supervisory_nodes sn
+            WHERE sn.id = ANY(affectedids)
+            UNION
+            SELECT descendants.rootid, sn.id
+            FROM descendants
+            JOIN referencedata.supervisory_nodes sn ON sn.parentid = descendants.id
+        )
+        INSERT INTO referencedata.supervised_facilities (supervisorynodeid, facilityid, programid)
+        SELECT descendants.rootid, rgm.facilityid, CAST(NULL AS UUID)
+        FROM descendants
+            JOIN referencedata.requisition_groups rg ON rg.supervisorynodeid = descendants.id
+            JOIN referencedata.requisition_group_members rgm ON rgm.requisitiongroupid = rg.id
+        UNION
+        SELECT descendants.rootid, rgm.facilityid, rgps.programid
+        FROM descendants
+            JOIN referencedata.requisition_groups rg ON rg.supervisorynodeid = descendants.id
+            JOIN referencedata.requisition_group_members rgm ON rgm.requisitiongroupid = rg.id
+            JOIN referencedata.requisition_group_program_schedules rgps
+                ON rgps.requisitiongroupid = rg.id
+            JOIN referencedata.supported_programs sp ON sp.facilityid = rgm.facilityid
+                AND sp.programid = rgps.programid
+                AND sp.active = TRUE;
+    END;
+$$ LANGUAGE plpgsql;
+
+-- Triggers only remember the changed nodes; each node is queued once per transaction.
+CREATE FUNCTION queue_supervised_facilities_refresh(nodeids UUID[]) RETURNS void AS $$
+    BEGIN
+        INSERT INTO referencedata.supervised_facilities_refresh_queue (supervisorynodeid)
+        SELECT DISTINCT nodeid
+        FROM unnest(nodeids) AS nodeid
+        WHERE nodeid IS NOT NULL
+            AND NOT EXISTS (SELECT 1
+                            FROM referencedata.supervised_facilities_refresh_queue q
+                            WHERE q.supervisorynodeid = nodeid);
+    END;
+$$ LANGUAGE plpgsql;
+
+-- Runs at commit. The first run takes the whole queue of the transaction and refreshes it at
+-- once; runs for the other queued rows find the queue empty.
+CREATE FUNCTION refresh_queued_supervised_facilities() RETURNS trigger AS $$
+    DECLARE
+        nodeids UUID[];
+    BEGIN
+        WITH queued AS (
+            DELETE FROM referencedata.supervised_facilities_refresh_queue
+            RETURNING supervisorynodeid
+        )
+        SELECT ARRAY(SELECT DISTINCT supervisorynodeid FROM queued) INTO nodeids;
+
+        IF cardinality(nodeids) > 0 THEN
+            PERFORM referencedata.refresh_supervised_facilities(nodeids);
+        END IF;
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE CONSTRAINT TRIGGER supervised_facilities_refresh_on_commit
+    AFTER INSERT ON supervised_facilities_refresh_queue
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE PROCEDURE refresh_queued_supervised_facilities();
+
+CREATE OR REPLACE FUNCTION refresh_supervised_facilities_by_requisition_groups()
+RETURNS trigger AS $$
+    BEGIN
+        PERFORM referencedata.queue_supervised_facilities_refresh(ARRAY(
+            SELECT rg.supervisorynodeid
+            FROM referencedata.requisition_groups rg
+            WHERE rg.id IN (SELECT requisitiongroupid FROM changed_rows)));
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION refresh_supervised_facilities_by_facilities() RETURNS trigger AS $$
+    BEGIN
+        PERFORM referencedata.queue_supervised_facilities_refresh(ARRAY(
+            SELECT rg.supervisorynodeid
+            FROM referencedata.requisition_group_members rgm
+                JOIN referencedata.requisition_groups rg ON rg.id = rgm.requisitiongroupid
+            WHERE rgm.facilityid IN (SELECT facilityid FROM changed_rows)));
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION refresh_supervised_facilities_by_requisition_group_node()
+RETURNS trigger AS $$
+    BEGIN
+        IF TG_OP = 'DELETE' THEN
+            PERFORM referencedata.queue_supervised_facilities_refresh(
+                ARRAY[OLD.supervisorynodeid]);
+        ELSIF NEW.supervisorynodeid IS DISTINCT FROM OLD.supervisorynodeid THEN
+            PERFORM referencedata.queue_supervised_facilities_refresh(
+                ARRAY[OLD.supervisorynodeid, NEW.supervisorynodeid]);
+        END IF;
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION refresh_supervised_facilities_by_node_parent() RETURNS trigger AS $$
+    BEGIN
+        IF NEW.parentid IS DISTINCT FROM OLD.parentid THEN
+            PERFORM referencedata.queue_supervised_facilities_refresh(
+                ARRAY[OLD.parentid, NEW.parentid]);
+        END IF;
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
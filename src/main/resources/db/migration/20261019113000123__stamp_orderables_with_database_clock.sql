@@ -0,0 +1,86 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+-- Every orderable write used to bump the watermark of all orderables (the row with the nil UUID),
+-- so concurrent writers queued up on that single row until commit. Each orderable version now
+-- keeps its own modification date, stamped with the database clock, and the date of all
+-- orderables is the greatest of those dates and of the per-program watermarks. The nil UUID row
+-- is only bumped when orderables are deleted, as deleted rows leave no date behind.
+
+DROP TRIGGER orderables_last_modified_on_update ON orderables;
+
+ALTER TABLE orderables ADD COLUMN lastmodified TIMESTAMPTZ;
+
+UPDATE orderables
+SET lastmodified = LEAST(lastupdated, clock_timestamp());
+
+ALTER TABLE orderables ALTER COLUMN lastmodified SET NOT NULL;
+
+CREATE INDEX orderables_lastmodified_idx ON orderables (lastmodified);
+
+-- The latest flag is maintained by the database and does not change the orderable itself, so
+-- updates of that flag alone keep the previous date.
+CREATE FUNCTION stamp_orderables_last_modified() RETURNS trigger AS $$
+    BEGIN
+        IF TG_OP = 'INSERT'
+            OR to_jsonb(NEW) - 'latest' - 'lastmodified'
+                IS DISTINCT FROM to_jsonb(OLD) - 'latest' - 'lastmodified' THEN
+            NEW.lastmodified := clock_timestamp();
+        END IF;
+        RETURN NEW;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER orderables_stamp_last_modified
+    BEFORE INSERT OR UPDATE ON orderables
+    FOR EACH ROW EXECUTE PROCEDURE stamp_orderables_last_modified();
+
+CREATE OR REPLACE FUNCTION bump_orderables_last_modified(programids UUID[], modified TIMESTAMPTZ)
+RETURNS void AS $$
+    BEGIN
+        IF modified IS NULL THEN
+            RETURN;
+        END IF;
+
+        INSERT INTO referencedata.orderables_last_modified AS w (programid, lastmodified)
+        SELECT DISTINCT p.id, modified
+        FROM unnest(programids) AS p(id)
+        WHERE p.id IS NOT NULL
+        ORDER BY p.id
+        ON CONFLICT (programid)
+            DO UPDATE SET lastmodified = GREATEST(w.lastmodified, EXCLUDED.lastmodified);
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION orderables_last_modified_trigger() RETURNS trigger AS $$
+    BEGIN
+        IF TG_OP = 'DELETE' THEN
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT po.programid FROM referencedata.program_orderables po
+                      WHERE po.orderableid IN (SELECT id FROM old_rows))
+                    || '00000000-0000-0000-0000-000000000000'::UUID,
+                CASE WHEN EXISTS (SELECT 1 FROM old_rows) THEN clock_timestamp() END);
+        ELSIF TG_OP = 'UPDATE' THEN
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT po.programid FROM referencedata.program_orderables po
+                      WHERE po.orderableid IN (
+                          SELECT n.id
+                          FROM new_rows n
+                          JOIN old_rows o ON o.id = n.id AND o.versionnumber = n.versionnumber
+                          WHERE n.lastmodified IS DISTINCT FROM o.lastmodified)),
+                clock_timestamp());
+        ELSE
+            PERFORM referencedata.bump_orderables_last_modified(
+                ARRAY(SELECT po.programid FROM referencedata.program_orderables po
+                      WHERE po.orderableid IN (SELECT id FROM new_rows)),
+                CASE WHEN EXISTS (SELECT 1 FROM new_rows) THEN clock_timestamp() END);
+        END IF;
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER orderables_last_modified_on_update
+    AFTER UPDATE ON orderables
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE orderables_last_modified_trigger();
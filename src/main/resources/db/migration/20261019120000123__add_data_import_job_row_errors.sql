@@ -0,0 +1,13 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+-- Invalid rows found by a failed import, so that all of them can be fixed before the next try.
+CREATE TABLE data_import_job_row_errors (
+    jobid UUID NOT NULL REFERENCES data_import_jobs (id) ON DELETE CASCADE,
+    rowerrorindex INTEGER NOT NULL,
+    filename TEXT NOT NULL,
+    rownumber INTEGER,
+    error TEXT NOT NULL,
+    PRIMARY KEY (jobid, rowerrorindex)
+);
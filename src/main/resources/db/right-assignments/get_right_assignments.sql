@@ -4,22 +4,28 @@
 -- expanding a role into its rights. Facility ID is determined by: if it has a program ID, it is 
 -- a home facility supervision role assignment, so use user's home facility ID; if it has a 
 -- warehouse ID, it is a fulfillment role assignment, so use the warehouse ID itself; else use 
--- NULL.
+-- NULL. Only role assignments of the users whose IDs are passed in are taken into account, so 
+-- right assignments can be re-generated one batch of users at a time.
 -- 
 -- The CTE filtered_role_assignments is used to filter out all home facility supervision role 
 -- assignments where the home facility does not support the program, even though there is a home 
 -- facility supervision role assignment of that facility-program combo.
+--
+-- Input: a list of user IDs (named parameter userIds)
+-- Output: intermediate right assignments (supervisory node ID not yet expanded) of those users
 WITH filtered_role_assignments AS
 (
   SELECT ra.*
   FROM referencedata.role_assignments ra
+  WHERE ra.userid IN (:userIds)
   EXCEPT
   SELECT ra.*
   FROM referencedata.role_assignments ra
     INNER JOIN referencedata.users u ON ra.userid = u.id
     LEFT JOIN referencedata.supported_programs sp ON sp.facilityid = u.homefacilityid
       AND sp.programid = ra.programid
-  WHERE ra.type = 'supervision'
+  WHERE ra.userid IN (:userIds)
+    AND ra.type = 'supervision'
     AND ra.programid IS NOT NULL
     AND ra.supervisorynodeid IS NULL
     AND (sp.active = FALSE OR sp.active IS NULL)
@@ -36,4 +42,4 @@ FROM filtered_role_assignments ra
   INNER JOIN referencedata.role_rights rr ON rr.roleid = ra.roleid
   INNER JOIN referencedata.rights ri ON ri.id = rr.rightid
   INNER JOIN referencedata.users u ON u.id = ra.userid
-;
\ No newline at end of file
+;
@@ -0,0 +1,16 @@
+-- This SQL query gets all supervised facilities, direct and indirect, under a batch of
+-- supervisory nodes.
+--
+-- The recursion over child nodes is kept expanded in the supervised_facilities table, which
+-- has a row for every supervisory node, program and facility supervised by the node or any of
+-- its descendants, so the whole batch is expanded with a single index lookup.
+--
+-- Input: supervisory node IDs (named parameter supervisoryNodeIds)
+-- Output: distinct (supervisory node ID, program ID, facility ID) triples
+SELECT sf.supervisorynodeid
+  , sf.programid
+  , sf.facilityid
+FROM referencedata.supervised_facilities sf
+WHERE sf.supervisorynodeid IN (:supervisoryNodeIds)
+  AND sf.programid IS NOT NULL
+;
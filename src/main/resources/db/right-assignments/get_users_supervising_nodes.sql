@@ -0,0 +1,21 @@
+-- This SQL finds every user whose right assignments may change when the given supervisory nodes 
+-- change. A supervision role assignment on a node covers the facilities of all descendant nodes, 
+-- so the recursive CTE supervisory_nodes_ancestors walks up from each given node to the root, 
+-- and every user with a supervision role assignment on any of those nodes is returned.
+--
+-- Input: a list of supervisory node IDs (named parameter supervisoryNodeIds)
+-- Output: a distinct list of user IDs
+WITH RECURSIVE supervisory_nodes_ancestors AS
+(
+  SELECT sn.id, sn.parentid
+  FROM referencedata.supervisory_nodes sn
+  WHERE sn.id IN (:supervisoryNodeIds)
+  UNION
+  SELECT sn.id, sn.parentid
+  FROM supervisory_nodes_ancestors
+  JOIN referencedata.supervisory_nodes sn ON sn.id = supervisory_nodes_ancestors.parentid
+)
+SELECT DISTINCT ra.userid
+FROM supervisory_nodes_ancestors
+  JOIN referencedata.role_assignments ra ON ra.supervisorynodeid = supervisory_nodes_ancestors.id
+;
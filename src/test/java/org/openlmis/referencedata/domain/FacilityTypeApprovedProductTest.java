@@ -29,6 +29,7 @@ public class FacilityTypeApprovedProductTest {
         .forClass(FacilityTypeApprovedProduct.class)
         .withRedefinedSuperclass()
         .suppress(Warning.NONFINAL_FIELDS) // we can't make fields as final
+        .withIgnoredFields("latest") // maintained by the database, not part of the state
         .verify();
   }
 
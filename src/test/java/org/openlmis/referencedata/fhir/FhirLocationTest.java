@@ -29,6 +29,7 @@ import org.junit.Test;
 import org.openlmis.referencedata.ToStringTestUtils;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.GeographicZone;
+import org.openlmis.referencedata.service.GeographicZoneTree;
 import org.openlmis.referencedata.testbuilder.FacilityDataBuilder;
 import org.openlmis.referencedata.testbuilder.FacilityOperatorDataBuilder;
 import org.openlmis.referencedata.testbuilder.GeographicZoneDataBuilder;
@@ -79,6 +80,22 @@ public class FhirLocationTest {
     testCreateInstanceFromGeographicZone(zone);
   }
 
+  @Test
+  public void shouldCreateSameInstanceFromGeographicZoneTreeNode() {
+    GeographicZone zone = new GeographicZoneDataBuilder()
+        .withName("abc")
+        .withParent(new GeographicZoneDataBuilder().build())
+        .withLatitude(10)
+        .withLongitude(20)
+        .build();
+    GeographicZoneTree.Node node = new GeographicZoneTree.Node(zone.getId(), zone.getCode(),
+        zone.getName(), zone.getParent().getId(), zone.getLevel().getId(),
+        zone.getLevel().getLevelNumber(), zone.getLatitude(), zone.getLongitude());
+
+    assertThat(FhirLocation.newInstance(SERVICE_URL, node))
+        .isEqualTo(FhirLocation.newInstance(SERVICE_URL, zone));
+  }
+
   private void testCreateInstanceFromGeographicZone(GeographicZone zone) {
     FhirLocation fhirLocation = FhirLocation.newInstance(SERVICE_URL, zone);
 
@@ -17,8 +17,10 @@ package org.openlmis.referencedata.fhir;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.UUID;
 import org.junit.Before;
 import org.junit.Test;
+import org.openlmis.referencedata.service.GeographicZoneTree;
 import org.openlmis.referencedata.testbuilder.FacilityDataBuilder;
 import org.openlmis.referencedata.testbuilder.GeographicZoneDataBuilder;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -46,4 +48,11 @@ public class LocationFactoryTest {
     assertThat(locationFactory.createFor(new GeographicZoneDataBuilder().build()))
         .isNotNull();
   }
+
+  @Test
+  public void shouldCreateLocationForGeoFromTree() {
+    assertThat(locationFactory.createFor(new GeographicZoneTree.Node(UUID.randomUUID(), "code",
+        "name", null, UUID.randomUUID(), 1, null, null)))
+        .isNotNull();
+  }
 }
@@ -15,10 +15,16 @@
 
 package org.openlmis.referencedata.security;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Clock;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.Before;
@@ -36,6 +42,7 @@ import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.web.client.RestTemplate;
 
 @RunWith(MockitoJUnitRunner.class)
+@SuppressWarnings("PMD.TooManyMethods")
 public class CustomTokenServicesTest {
 
   private static final String CLIENT_ID = "client-id-1234";
@@ -43,10 +50,17 @@ public class CustomTokenServicesTest {
   private static final String CLIENT_CHECK_TOKEN_ENDPOINT_URI = "/oauth/check_token";
   private static final String ACCESS_TOKEN = "access-token-1234";
   private static final int INVALID_TOKEN_RETRY_LIMIT = 3;
+  private static final int CACHE_MAX_SIZE = 10;
+  private static final int CACHE_MAX_AGE = 60;
+  private static final int INVALID_TOKEN_MAX_AGE = 5;
+  private static final int TOKEN_EXPIRES_IN = 10;
 
   @Mock
   private RestTemplate restTemplate;
 
+  @Mock
+  private Clock clock;
+
   private CustomTokenServices customTokenServices;
 
   @Before
@@ -88,4 +102,123 @@ public class CustomTokenServicesTest {
     this.customTokenServices.setRestTemplate(restTemplate);
     this.customTokenServices.loadAuthentication(ACCESS_TOKEN);
   }
+
+  @Test
+  public void shouldCheckTokenOnlyOnceWhenCacheIsEnabled() {
+    CustomTokenServices tokenServices = createCachingTokenServices();
+    mockCheckTokenResponse(activeTokenResponse());
+
+    OAuth2Authentication first = tokenServices.loadAuthentication(ACCESS_TOKEN);
+    OAuth2Authentication second = tokenServices.loadAuthentication(ACCESS_TOKEN);
+
+    assertNotNull(second);
+    assertNotSame(first, second);
+    assertEquals(1, tokenServices.getAuthenticationCache().stats().hitCount());
+    verifyCheckTokenCalls(1);
+  }
+
+  @Test
+  public void shouldCheckTokenEveryTimeWhenCacheIsDisabled() {
+    mockCheckTokenResponse(activeTokenResponse());
+    this.customTokenServices.setRestTemplate(restTemplate);
+
+    this.customTokenServices.loadAuthentication(ACCESS_TOKEN);
+    this.customTokenServices.loadAuthentication(ACCESS_TOKEN);
+
+    verifyCheckTokenCalls(2);
+  }
+
+  @Test
+  public void shouldRememberInvalidTokenForShorterTime() {
+    CustomTokenServices tokenServices = createCachingTokenServices();
+    mockCheckTokenResponse(inactiveTokenResponse());
+    when(clock.millis()).thenReturn(0L);
+
+    loadInvalidToken(tokenServices);
+    loadInvalidToken(tokenServices);
+    verifyCheckTokenCalls(INVALID_TOKEN_RETRY_LIMIT + 1);
+
+    when(clock.millis()).thenReturn(INVALID_TOKEN_MAX_AGE * 1000L);
+    loadInvalidToken(tokenServices);
+    verifyCheckTokenCalls(2 * (INVALID_TOKEN_RETRY_LIMIT + 1));
+  }
+
+  @Test
+  public void shouldKeepValidTokenForMaxAge() {
+    CustomTokenServices tokenServices = createCachingTokenServices();
+    mockCheckTokenResponse(activeTokenResponse());
+    when(clock.millis()).thenReturn(0L);
+
+    tokenServices.loadAuthentication(ACCESS_TOKEN);
+    when(clock.millis()).thenReturn(CACHE_MAX_AGE * 1000L - 1);
+    tokenServices.loadAuthentication(ACCESS_TOKEN);
+    verifyCheckTokenCalls(1);
+
+    when(clock.millis()).thenReturn(CACHE_MAX_AGE * 1000L);
+    tokenServices.loadAuthentication(ACCESS_TOKEN);
+    verifyCheckTokenCalls(2);
+  }
+
+  @Test
+  public void shouldNotKeepValidTokenAfterItExpires() {
+    CustomTokenServices tokenServices = createCachingTokenServices();
+    Map responseAttributes = activeTokenResponse();
+    responseAttributes.put("exp", TOKEN_EXPIRES_IN);
+    mockCheckTokenResponse(responseAttributes);
+    when(clock.millis()).thenReturn(0L);
+
+    tokenServices.loadAuthentication(ACCESS_TOKEN);
+    tokenServices.loadAuthentication(ACCESS_TOKEN);
+    verifyCheckTokenCalls(1);
+
+    when(clock.millis()).thenReturn(TOKEN_EXPIRES_IN * 1000L);
+    tokenServices.loadAuthentication(ACCESS_TOKEN);
+    verifyCheckTokenCalls(2);
+  }
+
+  private CustomTokenServices createCachingTokenServices() {
+    CustomTokenServices tokenServices = new CustomTokenServices(
+        INVALID_TOKEN_RETRY_LIMIT, CACHE_MAX_SIZE, CACHE_MAX_AGE, INVALID_TOKEN_MAX_AGE);
+    tokenServices.setClientId(CLIENT_ID);
+    tokenServices.setClientSecret(CLIENT_SECRET);
+    tokenServices.setCheckTokenEndpointUrl(CLIENT_CHECK_TOKEN_ENDPOINT_URI);
+    tokenServices.setRestTemplate(restTemplate);
+    tokenServices.setClock(clock);
+    return tokenServices;
+  }
+
+  private void loadInvalidToken(CustomTokenServices tokenServices) {
+    try {
+      tokenServices.loadAuthentication(ACCESS_TOKEN);
+      fail("Expected " + InvalidTokenException.class.getSimpleName());
+    } catch (InvalidTokenException exp) {
+      // expected
+    }
+  }
+
+  private Map activeTokenResponse() {
+    Map responseAttributes = new HashMap();
+    responseAttributes.put("active", true);
+    responseAttributes.put("client_id", CLIENT_ID);
+    return responseAttributes;
+  }
+
+  private Map inactiveTokenResponse() {
+    Map responseAttributes = new HashMap();
+    responseAttributes.put("error", "no_active_token");
+    return responseAttributes;
+  }
+
+  private void mockCheckTokenResponse(Map responseAttributes) {
+    when(restTemplate.exchange(
+        anyString(), Matchers.any(HttpMethod.class), Matchers.any(HttpEntity.class),
+        Matchers.any(Class.class)
+    )).thenReturn(new ResponseEntity<>(responseAttributes, HttpStatus.OK));
+  }
+
+  private void verifyCheckTokenCalls(int times) {
+    verify(restTemplate, times(times)).exchange(
+        anyString(), Matchers.any(HttpMethod.class), Matchers.any(HttpEntity.class),
+        Matchers.any(Class.class));
+  }
 }
@@ -21,12 +21,14 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -65,6 +67,9 @@ public class FacilityServiceTest {
   @Mock
   private GeographicZoneRepository geographicZoneRepository;
 
+  @Mock
+  private GeographicZoneTreeCache geographicZoneTreeCache;
+
   @Mock
   private GeographicZoneService geographicZoneService;
 
@@ -83,8 +88,6 @@ public class FacilityServiceTest {
   private UUID facility1Id = UUID.randomUUID();
   private UUID facility2Id = UUID.randomUUID();
   private UUID parentId = UUID.randomUUID();
-  private UUID childId = UUID.randomUUID();
-  private UUID childOfChildId = UUID.randomUUID();
   private List<Facility> facilityList;
 
   @InjectMocks
@@ -101,6 +104,8 @@ public class FacilityServiceTest {
 
     when(facilityTypeRepository.existsByCode(FACILITY_TYPE)).thenReturn(true);
     when(geographicZoneRepository.existsById(parentId)).thenReturn(true);
+    when(geographicZoneTreeCache.getTree())
+        .thenReturn(GeographicZoneTree.of(Collections.emptyList()));
   }
 
   @Test
@@ -209,6 +214,27 @@ public class FacilityServiceTest {
     verifyAfterSearchWithRecurse(actual, searchParams);
   }
 
+  @Test
+  public void shouldSearchForFacilitiesInChildZonesFromTreeIfRecurseOptionProvided() {
+    UUID childId = UUID.randomUUID();
+    when(geographicZoneTreeCache.getTree()).thenReturn(GeographicZoneTree.of(
+        Collections.singletonList(new GeographicZoneTree.Node(parentId, CODE, NAME, null,
+            UUID.randomUUID(), 1, null, null))));
+    when(geographicZoneService.getAllZonesInHierarchy(parentId)).thenReturn(of(childId));
+
+    MultiValueMap<String, Object> params = new LinkedMultiValueMap<>();
+    params.add(RECURSE, true);
+    params.add(ZONE_ID, parentId.toString());
+    FacilitySearchParams searchParams = new FacilitySearchParams(params);
+
+    when(facilityRepository.search(searchParams, of(parentId, childId), null, pageable))
+        .thenReturn(Pagination.getPage(facilityList, pageable, 2));
+
+    List<Facility> actual = facilityService.searchFacilities(searchParams, pageable).getContent();
+
+    assertEquals(facilityList, actual);
+  }
+
   @Test
   public void shouldSearchForFacilitiesInParentZoneOnlyIfRecurseOptionIsOff() {
     MultiValueMap<String, Object> params = new LinkedMultiValueMap<>();
@@ -228,14 +254,30 @@ public class FacilityServiceTest {
     verifyAfterSearchWithoutRecurse(actual, params);
   }
 
+  @Test
+  public void shouldNotCheckDatabaseIfGeographicZoneIsInTree() {
+    when(geographicZoneTreeCache.getTree()).thenReturn(GeographicZoneTree.of(
+        Collections.singletonList(new GeographicZoneTree.Node(parentId, CODE, NAME, null,
+            UUID.randomUUID(), 1, null, null))));
+
+    MultiValueMap<String, Object> params = new LinkedMultiValueMap<>();
+    params.add(ZONE_ID, parentId.toString());
+    FacilitySearchParams searchParams = new FacilitySearchParams(params);
+
+    when(facilityRepository.search(searchParams, of(parentId), null, pageable))
+        .thenReturn(Pagination.getPage(facilityList, pageable, 2));
+
+    List<Facility> actual = facilityService.searchFacilities(searchParams, pageable).getContent();
+
+    assertEquals(facilityList, actual);
+    verify(geographicZoneRepository, never()).existsById(parentId);
+  }
+
   @Test
   public void shouldSearchForFacilitiesWithExtraData() {
     final String code = "FAC1";
     final String name = "Facility";
 
-    when(geographicZoneService.getAllZonesInHierarchy(parentId))
-        .thenReturn(Sets.newHashSet(childId, childOfChildId));
-
     Map<String, String> extraData = new HashMap<>();
     extraData.put("type", "rural");
 
@@ -248,7 +290,7 @@ public class FacilityServiceTest {
     params.add("extraData", extraData);
 
     when(facilityRepository
-        .search(new FacilitySearchParams(params), of(parentId, childId, childOfChildId),
+        .search(new FacilitySearchParams(params), of(),
             "{\"type\":\"rural\"}", pageable))
         .thenReturn(Pagination.getPage(Lists.newArrayList(facility2), pageable, 1));
 
@@ -260,17 +302,14 @@ public class FacilityServiceTest {
   }
 
   private void prepareForSearchWithRecurse(FacilitySearchParams params) {
-    when(geographicZoneService.getAllZonesInHierarchy(parentId))
-        .thenReturn(Sets.newHashSet(childId, childOfChildId));
-
     when(facilityRepository
-        .search(params, of(parentId, childId, childOfChildId), null, pageable))
+        .search(params, of(), null, pageable))
         .thenReturn(Pagination.getPage(Lists.newArrayList(facility, facility2), pageable, 2));
   }
 
   private void verifyAfterSearchWithRecurse(List<Facility> actual, FacilitySearchParams params) {
     verify(facilityRepository)
-        .search(params, of(parentId, childId, childOfChildId), null, pageable);
+        .search(params, of(), null, pageable);
 
     assertEquals(2, actual.size());
     assertThat(actual, hasItem(facility));
@@ -15,12 +15,14 @@
 
 package org.openlmis.referencedata.service;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.openlmis.referencedata.service.GeographicZoneService.CODE;
@@ -29,7 +31,6 @@ import static org.openlmis.referencedata.service.GeographicZoneService.NAME;
 import static org.openlmis.referencedata.service.GeographicZoneService.PARENT;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -63,6 +64,9 @@ public class GeographicZoneServiceTest {
   @Mock
   private GeographicLevelRepository geographicLevelRepository;
 
+  @Mock
+  private GeographicZoneTreeCache geographicZoneTreeCache;
+
   @Mock
   private GeographicZone parent;
 
@@ -83,6 +87,7 @@ public class GeographicZoneServiceTest {
 
   private UUID parentId = UUID.randomUUID();
   private UUID childId = UUID.randomUUID();
+  private UUID secondChildId = UUID.randomUUID();
   private UUID childOfChildId = UUID.randomUUID();
   private List<GeographicZone> geographicZones;
 
@@ -95,27 +100,26 @@ public class GeographicZoneServiceTest {
 
   @Test
   public void shouldRetrieveOneDescendantWhenParentHasOneChild() {
-    mockFindIdByParent(parentId, childId);
+    mockTree(node(parentId, null), node(childId, parentId));
     assertGetAllZonesInHierarchy(parentId, childId);
   }
 
   @Test
   public void shouldRetrieveManyDescendantsWhenTheChildHasAChild() {
-    mockFindIdByParent(parentId, childId);
-    mockFindIdByParent(childId, childOfChildId);
+    mockTree(node(parentId, null), node(childId, parentId), node(childOfChildId, childId));
 
     assertGetAllZonesInHierarchy(parentId, childId, childOfChildId);
   }
 
   @Test
   public void shouldRetrieveManyDescendantsWhenParentHasManyChildren() {
-    mockFindIdByParent(parentId, childId, childOfChildId);
-    assertGetAllZonesInHierarchy(parentId, childId, childOfChildId);
+    mockTree(node(parentId, null), node(childId, parentId), node(secondChildId, parentId));
+    assertGetAllZonesInHierarchy(parentId, childId, secondChildId);
   }
 
   @Test
   public void shouldNotRetrieveAnyDescendantsWhenParentHasNoChildren() {
-    mockFindIdByParent(parentId);
+    mockTree(node(parentId, null), node(childId, null));
     assertGetAllZonesInHierarchy(parentId);
   }
 
@@ -155,6 +159,7 @@ public class GeographicZoneServiceTest {
 
   @Test
   public void shouldSearchForRequisitionGroupsWithAllParametersProvided() {
+    mockTree();
     when(geographicZoneRepository.findById(parentId)).thenReturn(Optional.of(parent));
     when(geographicLevelRepository.findByLevelNumber(1)).thenReturn(level);
     when(geographicZoneRepository.search(eq("name"), eq("code"),
@@ -172,9 +177,30 @@ public class GeographicZoneServiceTest {
     assertEquals(geographicZones, actual.getContent());
   }
 
-  private void mockFindIdByParent(UUID parentId, UUID... children) {
-    when(geographicZoneRepository.findIdsByParent(parentId))
-        .thenReturn(Sets.newHashSet(children));
+  @Test
+  public void shouldNotLoadParentFoundInTreeWhenSearching() {
+    mockTree(node(parentId, null));
+    when(geographicZoneRepository.getOne(parentId)).thenReturn(parent);
+    when(geographicZoneRepository.search(eq("name"), eq(null),
+        eq(parent), eq(null), any(Pageable.class)))
+        .thenReturn(Pagination.getPage(geographicZones, PageRequest.of(0, 2), 2));
+
+    Map<String, Object> searchParams = new HashMap<>();
+    searchParams.put(NAME, "name");
+    searchParams.put(PARENT, parentId.toString());
+
+    Page<GeographicZone> actual = geographicZoneService.search(searchParams, pageable);
+    verify(geographicZoneRepository, never()).findById(any(UUID.class));
+    assertEquals(geographicZones, actual.getContent());
+  }
+
+  private GeographicZoneTree.Node node(UUID id, UUID parentId) {
+    return new GeographicZoneTree.Node(id, id.toString(), null, parentId, UUID.randomUUID(), 1,
+        null, null);
+  }
+
+  private void mockTree(GeographicZoneTree.Node... nodes) {
+    when(geographicZoneTreeCache.getTree()).thenReturn(GeographicZoneTree.of(asList(nodes)));
   }
 
   private void assertGetAllZonesInHierarchy(UUID parentId, UUID... expected) {
@@ -0,0 +1,128 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.openlmis.referencedata.service.GeographicZoneTreeCache.VERSION_KEY;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.repository.GeographicZoneRepository;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GeographicZoneTreeCacheTest {
+
+  private static final long CHECK_INTERVAL = 1000;
+
+  @Mock
+  private GeographicZoneRepository geographicZoneRepository;
+
+  @Mock
+  private RedisTemplate<String, Object> redisTemplate;
+
+  @Mock
+  private ValueOperations<String, Object> valueOperations;
+
+  @Mock
+  private Clock clock;
+
+  @InjectMocks
+  private GeographicZoneTreeCache cache;
+
+  private UUID zoneId = UUID.randomUUID();
+  private UUID levelId = UUID.randomUUID();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(cache, "versionCheckInterval", CHECK_INTERVAL);
+
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.get(VERSION_KEY)).thenReturn(1);
+    when(clock.millis()).thenReturn(0L);
+    when(geographicZoneRepository.findAllTreeNodes()).thenReturn(Collections.singletonList(
+        new Object[]{zoneId, "code", "name", null, levelId, 1, 10.5, 20.5}));
+  }
+
+  @Test
+  public void shouldBuildTreeFromZones() {
+    GeographicZoneTree tree = cache.getTree();
+
+    assertTrue(tree.contains(zoneId));
+    assertEquals(Optional.of(new GeographicZoneTree.Node(zoneId, "code", "name", null, levelId,
+        1, 10.5, 20.5)), tree.getZone(zoneId));
+  }
+
+  @Test
+  public void shouldNotCheckVersionWithinInterval() {
+    GeographicZoneTree tree = cache.getTree();
+
+    when(clock.millis()).thenReturn(CHECK_INTERVAL - 1);
+
+    assertSame(tree, cache.getTree());
+    verify(valueOperations).get(VERSION_KEY);
+    verify(geographicZoneRepository).findAllTreeNodes();
+  }
+
+  @Test
+  public void shouldKeepTreeIfVersionDidNotChange() {
+    GeographicZoneTree tree = cache.getTree();
+
+    when(clock.millis()).thenReturn(CHECK_INTERVAL);
+
+    assertSame(tree, cache.getTree());
+    verify(valueOperations, times(2)).get(VERSION_KEY);
+    verify(geographicZoneRepository).findAllTreeNodes();
+  }
+
+  @Test
+  public void shouldRebuildTreeIfVersionChanged() {
+    cache.getTree();
+
+    when(clock.millis()).thenReturn(CHECK_INTERVAL);
+    when(valueOperations.get(VERSION_KEY)).thenReturn(2);
+    cache.getTree();
+
+    verify(geographicZoneRepository, times(2)).findAllTreeNodes();
+  }
+
+  @Test
+  public void shouldBumpVersionAndRebuildTreeOnInvalidate() {
+    cache.getTree();
+
+    cache.invalidate();
+    cache.getTree();
+
+    verify(valueOperations).increment(VERSION_KEY);
+    verify(geographicZoneRepository, times(2)).findAllTreeNodes();
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.referencedata.service.GeographicZoneTree.Node;
+
+public class GeographicZoneTreeTest {
+
+  private UUID countryLevelId = UUID.randomUUID();
+  private UUID regionLevelId = UUID.randomUUID();
+  private UUID districtLevelId = UUID.randomUUID();
+
+  private Node country = node(null, countryLevelId);
+  private Node region = node(country.getId(), regionLevelId);
+  private Node secondRegion = node(country.getId(), regionLevelId);
+  private Node district = node(region.getId(), districtLevelId);
+
+  private GeographicZoneTree tree;
+
+  @Before
+  public void setUp() {
+    tree = GeographicZoneTree.of(asList(country, region, secondRegion, district));
+  }
+
+  @Test
+  public void shouldFindZones() {
+    assertEquals(4, tree.size());
+    assertTrue(tree.contains(district.getId()));
+    assertFalse(tree.contains(UUID.randomUUID()));
+    assertEquals(Optional.of(region), tree.getZone(region.getId()));
+  }
+
+  @Test
+  public void shouldKeepOrderOfZones() {
+    assertThat(tree.getZones(), contains(country, region, secondRegion, district));
+  }
+
+  @Test
+  public void shouldFindIdByCode() {
+    assertEquals(Optional.of(region.getId()), tree.findIdByCode(region.getCode()));
+    assertEquals(Optional.empty(), tree.findIdByCode("unknown"));
+  }
+
+  @Test
+  public void shouldReturnParentId() {
+    assertEquals(Optional.of(region.getId()), tree.getParentId(district.getId()));
+    assertEquals(Optional.empty(), tree.getParentId(country.getId()));
+    assertEquals(Optional.empty(), tree.getParentId(UUID.randomUUID()));
+  }
+
+  @Test
+  public void shouldReturnAncestorsStartingWithParent() {
+    assertThat(tree.getAncestorIds(district.getId()), contains(region.getId(), country.getId()));
+    assertThat(tree.getAncestorIds(country.getId()), is(empty()));
+  }
+
+  @Test
+  public void shouldReturnAllDescendants() {
+    assertThat(tree.getDescendantIds(country.getId()),
+        containsInAnyOrder(region.getId(), secondRegion.getId(), district.getId()));
+    assertThat(tree.getDescendantIds(region.getId()), contains(district.getId()));
+    assertThat(tree.getDescendantIds(district.getId()), is(empty()));
+    assertThat(tree.getDescendantIds(UUID.randomUUID()), is(empty()));
+  }
+
+  @Test
+  public void shouldFindIdsByParentAndLevel() {
+    assertThat(tree.findIdsByParentAndLevel(country.getId(), regionLevelId),
+        containsInAnyOrder(region.getId(), secondRegion.getId()));
+    assertThat(tree.findIdsByParentAndLevel(country.getId(), districtLevelId), is(empty()));
+  }
+
+  @Test
+  public void shouldIgnoreMissingParents() {
+    Node orphan = node(UUID.randomUUID(), districtLevelId);
+    tree = GeographicZoneTree.of(asList(country, orphan));
+
+    assertThat(tree.getAncestorIds(orphan.getId()), is(empty()));
+    assertThat(tree.getDescendantIds(country.getId()), is(empty()));
+  }
+
+  @Test
+  public void shouldStopAtParentLoops() {
+    UUID firstId = UUID.randomUUID();
+    UUID secondId = UUID.randomUUID();
+    Node first = new Node(firstId, "first", null, secondId, regionLevelId, 2, null, null);
+    Node second = new Node(secondId, "second", null, firstId, regionLevelId, 2, null, null);
+    tree = GeographicZoneTree.of(asList(first, second));
+
+    assertThat(tree.getAncestorIds(firstId), contains(secondId));
+    assertThat(tree.getDescendantIds(firstId), contains(secondId));
+  }
+
+  private Node node(UUID parentId, UUID levelId) {
+    UUID id = UUID.randomUUID();
+    return new Node(id, id.toString(), null, parentId, levelId, 1, null, null);
+  }
+}
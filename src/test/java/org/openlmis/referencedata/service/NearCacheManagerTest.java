@@ -0,0 +1,118 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NearCacheManagerTest {
+
+  private static final String NAME = "test";
+  private static final String VALUE = "value";
+
+  @Mock
+  private RedisConnectionFactory connectionFactory;
+
+  @Mock
+  private ObjectProvider<MeterRegistry> meterRegistry;
+
+  @InjectMocks
+  private NearCacheManager manager;
+
+  private MockEnvironment environment = new MockEnvironment()
+      .withProperty("nearCache.maxSize", "10")
+      .withProperty("nearCache.localTtl", "60")
+      .withProperty("nearCache.ttl", "3600");
+
+  private UUID id = UUID.randomUUID();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(manager, "environment", environment);
+    ReflectionTestUtils.setField(manager, "objectMapper", new ObjectMapper());
+  }
+
+  @Test
+  public void shouldCreateDisabledCacheUnlessEnabled() {
+    assertFalse(manager.create(NAME, String.class).isEnabled());
+  }
+
+  @Test
+  public void shouldCreateEnabledCache() {
+    environment.setProperty("nearCache.test.enabled", "true");
+
+    NearCache<String> cache = manager.create(NAME, String.class);
+
+    assertTrue(cache.isEnabled());
+    assertEquals(NAME, cache.getName());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldNotCreateTwoCachesWithTheSameName() {
+    environment.setProperty("nearCache.test.enabled", "true");
+
+    manager.create(NAME, String.class);
+    manager.create(NAME, String.class);
+  }
+
+  @Test
+  public void shouldDropLocalEntryEvictedOnAnotherInstance() {
+    environment.setProperty("nearCache.test.enabled", "true");
+    NearCache<String> cache = manager.create(NAME, String.class);
+    cache.getLocal().put(id, VALUE);
+
+    manager.onMessage(message(String.join(" ", UUID.randomUUID().toString(), NAME,
+        id.toString())), null);
+
+    assertNull(cache.getLocal().getIfPresent(id));
+  }
+
+  @Test
+  public void shouldIgnoreOwnEvictions() {
+    environment.setProperty("nearCache.test.enabled", "true");
+    NearCache<String> cache = manager.create(NAME, String.class);
+    cache.getLocal().put(id, VALUE);
+
+    manager.onMessage(message(manager.invalidationMessage(NAME, id)), null);
+
+    assertEquals(VALUE, cache.getLocal().getIfPresent(id));
+  }
+
+  private DefaultMessage message(String body) {
+    return new DefaultMessage(NearCacheManager.INVALIDATION_CHANNEL.getBytes(UTF_8),
+        body.getBytes(UTF_8));
+  }
+
+}
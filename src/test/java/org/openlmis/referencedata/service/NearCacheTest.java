@@ -0,0 +1,162 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.SerializationException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NearCacheTest {
+
+  private static final String NAME = "test";
+  private static final String VALUE = "value";
+  private static final long TTL = 60;
+
+  @Mock
+  private RedisTemplate<String, String> redisTemplate;
+
+  @Mock
+  private ValueOperations<String, String> valueOperations;
+
+  private Cache<UUID, String> local = CacheBuilder.newBuilder().build();
+  private List<UUID> published = new ArrayList<>();
+  private UUID id = UUID.randomUUID();
+  private NearCache<String> cache;
+  private String key;
+
+  @Before
+  public void setUp() {
+    cache = new NearCache<>(NAME, redisTemplate, TTL, local, published::add);
+    key = cache.key(id);
+  }
+
+  @Test
+  public void shouldReturnLocalEntryWithoutAskingRedis() {
+    local.put(id, VALUE);
+
+    assertEquals(VALUE, cache.get(id));
+    verifyZeroInteractions(redisTemplate);
+  }
+
+  @Test
+  public void shouldKeepEntryFoundInRedisLocally() {
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.get(key)).thenReturn(VALUE);
+
+    assertEquals(VALUE, cache.get(id));
+    assertEquals(VALUE, cache.get(id));
+
+    verify(valueOperations, times(1)).get(key);
+    assertEquals(VALUE, local.getIfPresent(id));
+    assertEquals(1, cache.getRemoteHitCount());
+  }
+
+  @Test
+  public void shouldLoadAndCacheMissingEntry() {
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+    assertEquals(VALUE, cache.get(id, () -> VALUE));
+
+    verify(valueOperations).set(key, VALUE, TTL, TimeUnit.SECONDS);
+    assertEquals(VALUE, local.getIfPresent(id));
+    assertEquals(1, cache.getRemoteMissCount());
+  }
+
+  @Test
+  public void shouldNotCacheNullValues() {
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+    assertNull(cache.get(id, () -> null));
+
+    verify(valueOperations, never()).set(any(), any(), anyLong(), any());
+    assertNull(local.getIfPresent(id));
+  }
+
+  @Test
+  public void shouldTreatUnreadableEntryAsMissing() {
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.get(key)).thenThrow(new SerializationException("unreadable"));
+
+    assertNull(cache.get(id));
+
+    verify(redisTemplate).delete(key);
+    assertEquals(1, cache.getRemoteMissCount());
+  }
+
+  @Test
+  public void shouldCheckRedisIfEntryIsNotKeptLocally() {
+    when(redisTemplate.hasKey(key)).thenReturn(true);
+
+    assertTrue(cache.contains(id));
+  }
+
+  @Test
+  public void shouldEvictEntryFromBothTiersAndPublishEviction() {
+    local.put(id, VALUE);
+
+    cache.evict(id);
+
+    verify(redisTemplate).delete(key);
+    assertNull(local.getIfPresent(id));
+    assertEquals(Collections.singletonList(id), published);
+  }
+
+  @Test
+  public void shouldEvictOnlyLocalEntryWhenEvictedOnAnotherInstance() {
+    local.put(id, VALUE);
+
+    cache.evictLocal(id);
+
+    assertNull(local.getIfPresent(id));
+    verifyZeroInteractions(redisTemplate);
+    assertTrue(published.isEmpty());
+  }
+
+  @Test
+  public void shouldPassReadsThroughWhenDisabled() {
+    NearCache<String> disabled = NearCache.disabled(NAME);
+
+    assertEquals(VALUE, disabled.get(id, () -> VALUE));
+    assertNull(disabled.get(id));
+    assertFalse(disabled.contains(id));
+  }
+
+}
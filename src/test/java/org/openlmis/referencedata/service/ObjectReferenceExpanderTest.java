@@ -16,14 +16,18 @@
 package org.openlmis.referencedata.service;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.javers.common.collections.Sets.asSet;
+import static org.junit.Assert.fail;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
+import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.domain.SupplyLine;
+import org.openlmis.referencedata.dto.SupervisoryNodeObjectReferenceDto;
 import org.openlmis.referencedata.dto.SupplyLineObjectReferenceDto;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.testbuilder.RequisitionGroupDataBuilder;
@@ -72,6 +76,38 @@ public class ObjectReferenceExpanderTest {
         notNullValue());
   }
 
+  @Test
+  public void shouldExpandDtoWithFieldOfCollectionElements() {
+    SupervisoryNode childNode = new SupervisoryNodeDataBuilder().build();
+    supplyLine.setSupervisoryNode(new SupervisoryNodeDataBuilder()
+        .withChildNode(childNode)
+        .build());
+    supplyLine.export(supplyLineDto);
+
+    objectReferenceExpander.expandDto(supplyLineDto,
+        supplyLine, asSet("supervisoryNode.childNodes.facility"));
+
+    SupervisoryNodeObjectReferenceDto childNodeDto = supplyLineDto.getSupervisoryNode()
+        .getChildNodes().iterator().next();
+    assertThat(childNodeDto.getFacility().getName(), is(childNode.getFacility().getName()));
+  }
+
+  @Test
+  public void shouldExpandManyDtosWithTheSameExpandPath() {
+    SupplyLine otherSupplyLine = new SupplyLineDataBuilder().build();
+    SupplyLineObjectReferenceDto otherSupplyLineDto = new SupplyLineObjectReferenceDto();
+    otherSupplyLine.export(otherSupplyLineDto);
+
+    objectReferenceExpander.expandDto(supplyLineDto, supplyLine, asSet("supervisoryNode"));
+    objectReferenceExpander
+        .expandDto(otherSupplyLineDto, otherSupplyLine, asSet("supervisoryNode"));
+
+    assertThat(supplyLineDto.getSupervisoryNode().getCode(),
+        is(supplyLine.getSupervisoryNode().getCode()));
+    assertThat(otherSupplyLineDto.getSupervisoryNode().getCode(),
+        is(otherSupplyLine.getSupervisoryNode().getCode()));
+  }
+
   @Test
   public void shouldNotThrowAnExceptionIfEntityFieldIsNull() {
     supplyLine.setSupervisoryNode(null);
@@ -85,4 +121,21 @@ public class ObjectReferenceExpanderTest {
   public void shouldThrowExceptionIfExpandFieldIsNotPresent() {
     objectReferenceExpander.expandDto(supplyLineDto, supplyLine, asSet("unknownField"));
   }
+
+  @Test
+  public void shouldExpandPathAfterFailedPathWithTheSameProperty() {
+    try {
+      objectReferenceExpander
+          .expandDto(supplyLineDto, supplyLine, asSet("supervisoryNode.unknownField"));
+      fail("Expected " + ValidationMessageException.class.getSimpleName());
+    } catch (ValidationMessageException ex) {
+      // expected
+    }
+
+    objectReferenceExpander
+        .expandDto(supplyLineDto, supplyLine, asSet("supervisoryNode.requisitionGroup"));
+
+    assertThat(supplyLineDto.getSupervisoryNode().getRequisitionGroup().getSupervisoryNode(),
+        notNullValue());
+  }
 }
@@ -0,0 +1,193 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.openlmis.referencedata.service.OrderableFulfillCache.MODIFIED_AT_KEY;
+import static org.openlmis.referencedata.service.OrderableFulfillCache.VERSION_KEY;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.service.OrderableFulfillCache.Projection;
+import org.openlmis.referencedata.web.OrderableFulfill;
+import org.openlmis.referencedata.web.OrderableFulfillFactory;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OrderableFulfillCacheTest {
+
+  private static final long CHECK_INTERVAL = 1000;
+  private static final long MODIFIED_AT = 500;
+
+  @Mock
+  private OrderableFulfillFactory orderableFulfillFactory;
+
+  @Mock
+  private RedisTemplate<String, Object> redisTemplate;
+
+  @Mock
+  private ValueOperations<String, Object> valueOperations;
+
+  @Mock
+  private Clock clock;
+
+  @Spy
+  private SyncTaskExecutor refreshExecutor = new SyncTaskExecutor();
+
+  @InjectMocks
+  private OrderableFulfillCache cache;
+
+  private UUID orderableId = UUID.randomUUID();
+  private OrderableFulfill fulfill = OrderableFulfill.ofTradeItem(UUID.randomUUID());
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(cache, "versionCheckInterval", CHECK_INTERVAL);
+
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.get(VERSION_KEY)).thenReturn(1);
+    when(valueOperations.get(MODIFIED_AT_KEY)).thenReturn(MODIFIED_AT);
+    when(clock.millis()).thenReturn(0L);
+    when(orderableFulfillFactory.createForAll())
+        .thenReturn(Collections.singletonMap(orderableId, fulfill));
+  }
+
+  @Test
+  public void shouldBuildProjectionFromAllOrderables() {
+    Projection projection = cache.getProjection();
+
+    assertSame(fulfill, projection.getFulfills().get(orderableId));
+    assertEquals("1", projection.getVersion());
+    assertEquals(MODIFIED_AT, projection.getLastModified());
+  }
+
+  @Test
+  public void shouldUseInitialVersionAndBuildTimeIfNothingWasChanged() {
+    when(valueOperations.get(VERSION_KEY)).thenReturn(null);
+    when(valueOperations.get(MODIFIED_AT_KEY)).thenReturn(null);
+    when(clock.millis()).thenReturn(MODIFIED_AT);
+
+    Projection projection = cache.getProjection();
+
+    assertEquals("0", projection.getVersion());
+    assertEquals(MODIFIED_AT, projection.getLastModified());
+  }
+
+  @Test
+  public void shouldNotCheckVersionWithinInterval() {
+    Projection projection = cache.getProjection();
+
+    when(clock.millis()).thenReturn(CHECK_INTERVAL - 1);
+
+    assertSame(projection, cache.getProjection());
+    verify(valueOperations).get(VERSION_KEY);
+    verify(orderableFulfillFactory).createForAll();
+  }
+
+  @Test
+  public void shouldKeepProjectionIfVersionDidNotChange() {
+    Projection projection = cache.getProjection();
+
+    when(clock.millis()).thenReturn(CHECK_INTERVAL);
+
+    assertSame(projection, cache.getProjection());
+    verify(valueOperations, times(2)).get(VERSION_KEY);
+    verify(orderableFulfillFactory).createForAll();
+  }
+
+  @Test
+  public void shouldRebuildProjectionIfVersionChanged() {
+    Projection projection = cache.getProjection();
+
+    when(clock.millis()).thenReturn(CHECK_INTERVAL);
+    when(valueOperations.get(VERSION_KEY)).thenReturn(2);
+
+    assertSame(projection, cache.getProjection());
+    assertEquals("2", cache.getProjection().getVersion());
+    verify(orderableFulfillFactory, times(2)).createForAll();
+  }
+
+  @Test
+  public void shouldBumpVersionAndRebuildProjectionOnInvalidate() {
+    cache.getProjection();
+
+    when(clock.millis()).thenReturn(MODIFIED_AT);
+    cache.invalidate();
+    when(valueOperations.get(VERSION_KEY)).thenReturn(2);
+    cache.getProjection();
+
+    verify(valueOperations).set(MODIFIED_AT_KEY, MODIFIED_AT);
+    verify(valueOperations).increment(VERSION_KEY);
+    verify(orderableFulfillFactory, times(2)).createForAll();
+  }
+
+  @Test
+  public void shouldServePreviousProjectionWhileOneRebuildIsRunning() {
+    Projection projection = cache.getProjection();
+    List<Runnable> tasks = new ArrayList<>();
+    doAnswer(invocation -> tasks.add(invocation.getArgument(0)))
+        .when(refreshExecutor).execute(any(Runnable.class));
+
+    when(clock.millis()).thenReturn(CHECK_INTERVAL);
+    when(valueOperations.get(VERSION_KEY)).thenReturn(2);
+
+    assertSame(projection, cache.getProjection());
+    assertSame(projection, cache.getProjection());
+    assertEquals(1, tasks.size());
+    verify(orderableFulfillFactory).createForAll();
+
+    tasks.get(0).run();
+
+    assertEquals("2", cache.getProjection().getVersion());
+    verify(orderableFulfillFactory, times(2)).createForAll();
+  }
+
+  @Test
+  public void shouldRetryRebuildIfExecutorRejectedIt() {
+    Projection projection = cache.getProjection();
+    doThrow(new TaskRejectedException("busy"))
+        .doCallRealMethod()
+        .when(refreshExecutor).execute(any(Runnable.class));
+
+    when(clock.millis()).thenReturn(CHECK_INTERVAL);
+    when(valueOperations.get(VERSION_KEY)).thenReturn(2);
+
+    assertSame(projection, cache.getProjection());
+    assertSame(projection, cache.getProjection());
+    assertEquals("2", cache.getProjection().getVersion());
+  }
+}
@@ -31,6 +31,7 @@ import java.sql.Timestamp;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
@@ -266,6 +267,25 @@ public class OrderableServiceTest {
     assertEquals(orderable2.getLastUpdated(), lastUpdated);
   }
 
+  @Test
+  public void shouldReturnLatestModifiedDateOfProgramsIfOnlyProgramCodesProvided() {
+    // given
+    Timestamp time = Timestamp.valueOf(orderable2.getLastUpdated().toLocalDateTime());
+    when(orderableRepository.findLatestModifiedDateByProgramCodes(
+        Collections.singleton(programCode.toLowerCase()))).thenReturn(time);
+
+    searchParams.add(PROGRAM_CODE, programCode.toUpperCase());
+
+    // when
+    ZonedDateTime lastUpdated = orderableService.getLatestLastUpdatedDate(
+            new QueryOrderableSearchParams(searchParams), profiler);
+
+    // then
+    verify(orderableRepository).findLatestModifiedDateByProgramCodes(
+        Collections.singleton(programCode.toLowerCase()));
+    assertEquals(orderable2.getLastUpdated(), lastUpdated);
+  }
+
   @Test
   public void shouldReturnLatestModifiedDateWhenSearchingForOrderablesWithParams() {
     // given
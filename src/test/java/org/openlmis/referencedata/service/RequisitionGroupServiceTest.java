@@ -18,6 +18,7 @@ package org.openlmis.referencedata.service;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -44,6 +45,7 @@ import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.repository.RequisitionGroupRepository;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
 import org.openlmis.referencedata.util.Pagination;
+import org.openlmis.referencedata.web.SupervisoryNodeSearchParams;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -65,6 +67,9 @@ public class RequisitionGroupServiceTest {
   @Mock
   private SupervisoryNodeRepository supervisoryNodeRepository;
 
+  @Mock
+  private GeographicZoneTreeCache geographicZoneTreeCache;
+
   @Mock
   private ProgramRepository programRepository;
 
@@ -101,6 +106,8 @@ public class RequisitionGroupServiceTest {
     when(requisitionGroup2.getName()).thenReturn("RG-2");
     when(pageable.getPageSize()).thenReturn(10);
     when(pageable.getPageNumber()).thenReturn(0);
+    when(geographicZoneTreeCache.getTree())
+        .thenReturn(GeographicZoneTree.of(Collections.emptyList()));
   }
 
   @Test(expected = ValidationMessageException.class)
@@ -160,4 +167,29 @@ public class RequisitionGroupServiceTest {
     verify(requisitionGroupRepository).search("code", "name", program, nodes, pageable);
     assertEquals(requisitionGroups, actual.getContent());
   }
+
+  @Test
+  public void shouldFindZoneByCodeInTreeWhenSearchingForRequisitionGroups() {
+    UUID zoneId = UUID.randomUUID();
+    when(geographicZoneTreeCache.getTree()).thenReturn(GeographicZoneTree.of(
+        Collections.singletonList(new GeographicZoneTree.Node(
+            zoneId, "zone-code", "zone", null, UUID.randomUUID(), 1, null, null))));
+    List<SupervisoryNode> nodes = Collections.singletonList(supervisoryNode);
+    doReturn(new PageImpl(nodes, pageable, nodes.size()))
+        .when(supervisoryNodeRepository).search(any(), any());
+    when(requisitionGroupRepository.search(any(), any(), any(), any(List.class),
+        any(Pageable.class)))
+        .thenReturn(Pagination.getPage(requisitionGroups, PageRequest.of(0, 2), 2));
+
+    Map<String, Object> searchParams = new HashMap<>();
+    searchParams.put(ZONE, "zone-code");
+
+    requisitionGroupService.searchRequisitionGroups(searchParams, pageable);
+
+    verify(geographicZoneRepository, never()).findByCode(any(String.class));
+    verify(supervisoryNodeRepository).search(
+        new SupervisoryNodeSearchParams(null, null, null, null, zoneId, null),
+        PageRequest.of(0, Integer.MAX_VALUE));
+    verify(requisitionGroupRepository).search(null, null, null, nodes, pageable);
+  }
 }
@@ -18,27 +18,41 @@ package org.openlmis.referencedata.service;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.Sets;
 import java.io.IOException;
 import java.io.InputStream;
+import java.sql.ResultSet;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.referencedata.dto.RightAssignmentDto;
 import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 @RunWith(MockitoJUnitRunner.class)
 public class RightAssignmentServiceTest {
@@ -48,6 +62,9 @@ public class RightAssignmentServiceTest {
   @Mock
   private JdbcTemplate jdbcTemplate;
 
+  @Mock
+  private NamedParameterJdbcTemplate namedTemplate;
+
   @InjectMocks
   private RightAssignmentService rightAssignmentService;
 
@@ -101,11 +118,18 @@ public class RightAssignmentServiceTest {
     UUID facility1Id = UUID.randomUUID();
     UUID facility2Id = UUID.randomUUID();
     List<UUID> facilityIds = Arrays.asList(facility1Id, facility2Id);
-    when(jdbcTemplate.queryForList(
-        any(String.class),
-        any(Class.class),
-        any(UUID.class),
-        any(UUID.class))).thenReturn(facilityIds);
+    doAnswer(invocation -> {
+      RowCallbackHandler handler = invocation.getArgument(2);
+      for (UUID facilityId : facilityIds) {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString("supervisorynodeid")).thenReturn(supervisoryNodeId.toString());
+        when(resultSet.getString("programid")).thenReturn(programId.toString());
+        when(resultSet.getString("facilityid")).thenReturn(facilityId.toString());
+        handler.processRow(resultSet);
+      }
+      return null;
+    }).when(namedTemplate).query(any(String.class), any(MapSqlParameterSource.class),
+        any(RowCallbackHandler.class));
     
     // when
     Set<RightAssignmentDto> actual = rightAssignmentService
@@ -119,5 +143,75 @@ public class RightAssignmentServiceTest {
       assertEquals(programId, current.getProgramId());
       assertTrue(facilityIds.contains(current.getFacilityId()));
     }
+    verify(namedTemplate, times(1)).query(any(String.class), any(MapSqlParameterSource.class),
+        any(RowCallbackHandler.class));
+  }
+
+  @Test
+  public void convertForInsertShouldExpandSupervisoryNodesWithSingleQuery()
+      throws IOException {
+    // given
+    Resource resource = mock(Resource.class);
+    when(resource.getDescription()).thenReturn("description");
+    when(resource.getInputStream()).thenReturn(IOUtils.toInputStream("some data"));
+
+    List<RightAssignmentDto> rightAssignments = Arrays.asList(
+        new RightAssignmentDto(userId, RIGHT_NAME, null, programId, supervisoryNodeId),
+        new RightAssignmentDto(UUID.randomUUID(), RIGHT_NAME, null, programId,
+            supervisoryNodeId),
+        new RightAssignmentDto(userId, RIGHT_NAME, null, UUID.randomUUID(),
+            UUID.randomUUID()));
+
+    // when
+    rightAssignmentService.convertForInsert(rightAssignments, resource);
+
+    // then
+    verify(namedTemplate, times(1)).query(any(String.class), any(MapSqlParameterSource.class),
+        any(RowCallbackHandler.class));
+    verify(jdbcTemplate, never()).queryForList(any(String.class), any(Class.class),
+        any(UUID.class), any(UUID.class));
+  }
+
+  @Test
+  public void applyDiffShouldDeleteStaleAndInsertMissingRightAssignmentsOnly() {
+    // given
+    RightAssignmentDto stale = new RightAssignmentDto(userId, RIGHT_NAME, UUID.randomUUID(),
+        programId);
+    RightAssignmentDto unchanged = new RightAssignmentDto(userId, RIGHT_NAME, UUID.randomUUID(),
+        programId);
+    RightAssignmentDto missing = new RightAssignmentDto(userId, RIGHT_NAME, UUID.randomUUID(),
+        programId);
+
+    UUID staleId = UUID.randomUUID();
+    Map<RightAssignmentDto, UUID> existing = new HashMap<>();
+    existing.put(stale, staleId);
+    existing.put(unchanged, UUID.randomUUID());
+
+    // when
+    rightAssignmentService.applyDiff(existing, Sets.newHashSet(unchanged, missing));
+
+    // then
+    ArgumentCaptor<MapSqlParameterSource> deleteParams = ArgumentCaptor
+        .forClass(MapSqlParameterSource.class);
+    verify(namedTemplate).update(eq(RightAssignmentService.DELETE_BY_IDS_SQL),
+        deleteParams.capture());
+    assertEquals(Collections.singletonList(staleId), deleteParams.getValue().getValue("ids"));
+
+    verify(jdbcTemplate).execute(any(ConnectionCallback.class));
+  }
+
+  @Test
+  public void applyDiffShouldNotTouchDatabaseIfNothingChanged() {
+    // given
+    RightAssignmentDto unchanged = new RightAssignmentDto(userId, RIGHT_NAME, null, null);
+    Map<RightAssignmentDto, UUID> existing = Collections.singletonMap(unchanged,
+        UUID.randomUUID());
+
+    // when
+    rightAssignmentService.applyDiff(existing, Collections.singleton(unchanged));
+
+    // then
+    verify(namedTemplate, never()).update(any(String.class), any(MapSqlParameterSource.class));
+    verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
   }
 }
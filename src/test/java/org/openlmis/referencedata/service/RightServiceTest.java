@@ -22,6 +22,7 @@ import static org.mockito.Mockito.when;
 import static org.openlmis.referencedata.testbuilder.OAuth2AuthenticationDataBuilder.API_KEY_PREFIX;
 import static org.openlmis.referencedata.testbuilder.OAuth2AuthenticationDataBuilder.SERVICE_CLIENT_ID;
 
+import java.util.Collections;
 import java.util.UUID;
 import org.junit.Before;
 import org.junit.Test;
@@ -31,7 +32,6 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.referencedata.domain.User;
 import org.openlmis.referencedata.exception.UnauthorizedException;
-import org.openlmis.referencedata.repository.RightAssignmentRepository;
 import org.openlmis.referencedata.repository.UserRepository;
 import org.openlmis.referencedata.testbuilder.OAuth2AuthenticationDataBuilder;
 import org.springframework.security.core.context.SecurityContext;
@@ -49,7 +49,7 @@ public class RightServiceTest {
   private UserRepository userRepository;
 
   @Mock
-  private RightAssignmentRepository rightAssignmentRepository;
+  private UserPermissionCache userPermissionCache;
 
   @Mock
   private AuthenticationHelper authenticationHelper;
@@ -107,8 +107,8 @@ public class RightServiceTest {
   @Test
   public void checkAdminRightShouldAllowUserWhoHasRight() {
     when(securityContext.getAuthentication()).thenReturn(userClient);
-    when(rightAssignmentRepository.existsByUserIdAndRightName(user.getId(), RIGHT_NAME))
-        .thenReturn(true);
+    when(userPermissionCache.get(userId))
+        .thenReturn(UserPermissions.of(Collections.singleton(RIGHT_NAME)));
 
     rightService.checkAdminRight(RIGHT_NAME);
   }
@@ -116,6 +116,8 @@ public class RightServiceTest {
   @Test
   public void checkAdminRightShouldAllowRequesterWithSpecifiedUserId() {
     when(securityContext.getAuthentication()).thenReturn(userClient);
+    when(userPermissionCache.get(userId))
+        .thenReturn(UserPermissions.of(Collections.emptySet()));
     when(userRepository.existsById(any(UUID.class))).thenReturn(true);
 
     rightService.checkAdminRight(RIGHT_NAME, true, user.getId());
@@ -124,8 +126,8 @@ public class RightServiceTest {
   @Test(expected = UnauthorizedException.class)
   public void checkAdminRightShouldThrowUnauthorizedExceptionForUserWhoDoesNotHaveRight() {
     when(securityContext.getAuthentication()).thenReturn(userClient);
-    when(rightAssignmentRepository.existsByUserIdAndRightName(user.getId(), RIGHT_NAME))
-        .thenReturn(false);
+    when(userPermissionCache.get(userId))
+        .thenReturn(UserPermissions.of(Collections.emptySet()));
 
     rightService.checkAdminRight(RIGHT_NAME);
   }
@@ -154,8 +156,8 @@ public class RightServiceTest {
   @Test
   public void shouldReturnTrueIfUserHasRight() {
     when(securityContext.getAuthentication()).thenReturn(userClient);
-    when(rightAssignmentRepository.existsByUserIdAndRightName(user.getId(), RIGHT_NAME))
-        .thenReturn(true);
+    when(userPermissionCache.get(userId))
+        .thenReturn(UserPermissions.of(Collections.singleton(RIGHT_NAME)));
 
     assertThat(rightService.hasRight(RIGHT_NAME)).isTrue();
   }
@@ -163,8 +165,8 @@ public class RightServiceTest {
   @Test
   public void shouldReturnFalseIfUserHasNoRight() {
     when(securityContext.getAuthentication()).thenReturn(userClient);
-    when(rightAssignmentRepository.existsByUserIdAndRightName(user.getId(), RIGHT_NAME))
-        .thenReturn(false);
+    when(userPermissionCache.get(userId))
+        .thenReturn(UserPermissions.of(Collections.emptySet()));
 
     assertThat(rightService.hasRight(RIGHT_NAME)).isFalse();
   }
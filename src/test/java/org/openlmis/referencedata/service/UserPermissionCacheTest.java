@@ -0,0 +1,116 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.openlmis.referencedata.service.UserPermissionCache.VERSION_KEY;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.repository.RightAssignmentRepository;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserPermissionCacheTest {
+
+  private static final String RIGHT_NAME = "RIGHT_NAME";
+  private static final long CHECK_INTERVAL = 1000;
+
+  @Mock
+  private RightAssignmentRepository rightAssignmentRepository;
+
+  @Mock
+  private RedisTemplate<String, Object> redisTemplate;
+
+  @Mock
+  private ValueOperations<String, Object> valueOperations;
+
+  @Mock
+  private Clock clock;
+
+  @InjectMocks
+  private UserPermissionCache cache;
+
+  private UUID userId = UUID.randomUUID();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(cache, "maxSize", 10L);
+    ReflectionTestUtils.setField(cache, "versionCheckInterval", CHECK_INTERVAL);
+
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.get(VERSION_KEY)).thenReturn(1);
+    when(clock.millis()).thenReturn(0L);
+    when(rightAssignmentRepository.findByUser(userId))
+        .thenReturn(Collections.singleton(RIGHT_NAME));
+  }
+
+  @Test
+  public void shouldLoadPermissionsOnce() {
+    assertTrue(cache.get(userId).hasRight(RIGHT_NAME));
+    assertTrue(cache.get(userId).hasRight(RIGHT_NAME));
+
+    verify(rightAssignmentRepository).findByUser(userId);
+    verify(valueOperations).get(VERSION_KEY);
+  }
+
+  @Test
+  public void shouldKeepPermissionsIfVersionDidNotChange() {
+    cache.get(userId);
+
+    when(clock.millis()).thenReturn(CHECK_INTERVAL);
+    cache.get(userId);
+
+    verify(valueOperations, times(2)).get(VERSION_KEY);
+    verify(rightAssignmentRepository).findByUser(userId);
+  }
+
+  @Test
+  public void shouldReloadPermissionsIfVersionChanged() {
+    cache.get(userId);
+
+    when(clock.millis()).thenReturn(CHECK_INTERVAL);
+    when(valueOperations.get(VERSION_KEY)).thenReturn(2);
+    when(rightAssignmentRepository.findByUser(userId)).thenReturn(Collections.emptySet());
+
+    assertFalse(cache.get(userId).hasRight(RIGHT_NAME));
+  }
+
+  @Test
+  public void shouldBumpVersionAndReloadPermissionsOnInvalidate() {
+    cache.get(userId);
+
+    cache.invalidate();
+    cache.get(userId);
+
+    verify(valueOperations).increment(VERSION_KEY);
+    verify(rightAssignmentRepository, times(2)).findByUser(userId);
+  }
+}
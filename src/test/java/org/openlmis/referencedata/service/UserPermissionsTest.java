@@ -0,0 +1,72 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Sets;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.Test;
+
+public class UserPermissionsTest {
+
+  private static final String ADMIN_RIGHT = "ADMIN_RIGHT";
+  private static final String FULFILLMENT_RIGHT = "FULFILLMENT_RIGHT";
+  private static final String SUPERVISION_RIGHT = "SUPERVISION_RIGHT";
+
+  private UUID facilityId = UUID.randomUUID();
+  private UUID programId = UUID.randomUUID();
+
+  private Set<String> permissionStrings = Sets.newHashSet(
+      ADMIN_RIGHT,
+      FULFILLMENT_RIGHT + "|" + facilityId,
+      SUPERVISION_RIGHT + "|" + facilityId + "|" + programId);
+
+  private UserPermissions permissions = UserPermissions.of(permissionStrings);
+
+  @Test
+  public void shouldKeepPermissionStrings() {
+    assertEquals(permissionStrings, permissions.getPermissionStrings());
+  }
+
+  @Test
+  public void shouldCheckRightOnAnyLevel() {
+    assertTrue(permissions.hasRight(ADMIN_RIGHT));
+    assertTrue(permissions.hasRight(FULFILLMENT_RIGHT));
+    assertTrue(permissions.hasRight(SUPERVISION_RIGHT));
+    assertFalse(permissions.hasRight("OTHER_RIGHT"));
+  }
+
+  @Test
+  public void shouldCheckRightForFacility() {
+    assertTrue(permissions.hasRight(FULFILLMENT_RIGHT, facilityId));
+    assertTrue(permissions.hasRight(SUPERVISION_RIGHT, facilityId));
+    assertFalse(permissions.hasRight(ADMIN_RIGHT, facilityId));
+    assertFalse(permissions.hasRight(FULFILLMENT_RIGHT, UUID.randomUUID()));
+  }
+
+  @Test
+  public void shouldCheckRightForFacilityAndProgram() {
+    assertTrue(permissions.hasRight(SUPERVISION_RIGHT, facilityId, programId));
+    assertFalse(permissions.hasRight(SUPERVISION_RIGHT, facilityId, UUID.randomUUID()));
+    assertFalse(permissions.hasRight(SUPERVISION_RIGHT, null, programId));
+    assertFalse(permissions.hasRight(FULFILLMENT_RIGHT, facilityId, programId));
+  }
+}
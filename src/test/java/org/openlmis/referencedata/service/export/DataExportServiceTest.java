@@ -15,25 +15,32 @@
 
 package org.openlmis.referencedata.service.export;
 
-import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
-import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.openlmis.referencedata.service.export.DataExportService.FORMATTER_SERVICE_NAME_SUFFIX;
 import static org.openlmis.referencedata.service.export.DataExportService.SERVICE_NAME_SUFFIX;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.assertj.core.util.Lists;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -60,6 +67,8 @@ public class DataExportServiceTest {
 
   private final InputStream inputStream = new ByteArrayInputStream("test-input-data".getBytes());
 
+  private final OutputStream outputStream = new ByteArrayOutputStream();
+
   @Mock
   private BeanFactory beanFactory;
 
@@ -89,18 +98,29 @@ public class DataExportServiceTest {
   }
 
   @Test
-  public void shouldReturnArrayOfBytes() throws IOException {
-    List<OrderableDto> productList = mock(List.class);
-
+  public void shouldWriteZipArchiveWithDataAndMappingFiles() throws IOException {
     setPreconditionsForServices();
-    when(orderableService.findAllExportableItems()).thenReturn(productList);
+    when(orderableService.streamAllExportableItems()).thenReturn(Stream.of(new OrderableDto()));
     when(orderableService.getExportableType()).thenReturn(OrderableDto.class);
     when(loader.getResource(anyString())).thenReturn(resource);
+    when(resource.exists()).thenReturn(true);
     when(resource.getInputStream()).thenReturn(inputStream);
 
-    byte[] result = dataExportService.exportData(new DataExportParams(queryParamsMap));
+    ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+    dataExportService.exportData(new DataExportParams(queryParamsMap), zipBytes);
+
+    List<String> entries = new ArrayList<>();
+    try (ZipInputStream zip = new ZipInputStream(
+        new ByteArrayInputStream(zipBytes.toByteArray()))) {
+      for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+        entries.add(entry.getName());
+      }
+    }
 
-    assertThat(result, is(instanceOf(byte[].class)));
+    assertThat(entries, contains("data-value.format-value",
+        "data-value_mapping.format-value"));
+    verify(csvFormatterService)
+        .process(any(OutputStream.class), any(Iterable.class), eq(OrderableDto.class));
   }
 
   @Test(expected = ValidationMessageException.class)
@@ -111,7 +131,7 @@ public class DataExportServiceTest {
     when(beanFactory.getBean(invalidFormat + FORMATTER_SERVICE_NAME_SUFFIX,
             DataFormatterService.class)).thenThrow(mock(BeansException.class));
 
-    dataExportService.exportData(new DataExportParams(queryParamsMap));
+    dataExportService.exportData(new DataExportParams(queryParamsMap), outputStream);
   }
 
   @Test(expected = ValidationMessageException.class)
@@ -122,31 +142,41 @@ public class DataExportServiceTest {
     when(beanFactory.getBean(invalidData + SERVICE_NAME_SUFFIX,
             ExportableDataService.class)).thenThrow(mock(BeansException.class));
 
-    dataExportService.exportData(new DataExportParams(queryParamsMap));
+    dataExportService.exportData(new DataExportParams(queryParamsMap), outputStream);
   }
 
   @Test
-  public void shouldReturnArrayOfBytesIfNoDataFound() throws IOException {
-    List<OrderableDto> emptyProductList = Lists.emptyList();
-
+  public void shouldWriteZipArchiveIfNoDataFound() throws IOException {
     setPreconditionsForServices();
-    when(orderableService.findAllExportableItems()).thenReturn(emptyProductList);
+    when(orderableService.streamAllExportableItems()).thenReturn(Stream.empty());
     when(loader.getResource(anyString())).thenReturn(resource);
+    when(resource.exists()).thenReturn(true);
     when(resource.getInputStream()).thenReturn(inputStream);
 
-    byte[] result = dataExportService.exportData(new DataExportParams(queryParamsMap));
+    ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+    dataExportService.exportData(new DataExportParams(queryParamsMap), zipBytes);
+
+    assertThat(zipBytes.size(), is(greaterThan(0)));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldReturnExceptionIfNoMappingFileFound() {
+    setPreconditionsForServices();
+    when(loader.getResource(anyString())).thenReturn(resource);
+    when(resource.exists()).thenReturn(false);
 
-    assertThat(result, is(notNullValue()));
-    assertThat(result, is(instanceOf(byte[].class)));
+    dataExportService.exportData(new DataExportParams(queryParamsMap), outputStream);
   }
 
   @Test(expected = ValidationMessageException.class)
-  public void shouldReturnExceptionIfNoMappingFileFound() throws IOException {
+  public void shouldReturnExceptionIfMappingFileCannotBeRead() throws IOException {
     setPreconditionsForServices();
+    when(orderableService.streamAllExportableItems()).thenReturn(Stream.empty());
     when(loader.getResource(anyString())).thenReturn(resource);
+    when(resource.exists()).thenReturn(true);
     when(resource.getInputStream()).thenThrow(IOException.class);
 
-    dataExportService.exportData(new DataExportParams(queryParamsMap));
+    dataExportService.exportData(new DataExportParams(queryParamsMap), outputStream);
   }
 
   @Test(expected = ValidationMessageException.class)
@@ -155,7 +185,7 @@ public class DataExportServiceTest {
     queryParamsMap.replace("data", dataWithParentDirIndicator);
     setPreconditionsForServices();
 
-    dataExportService.exportData(new DataExportParams(queryParamsMap));
+    dataExportService.exportData(new DataExportParams(queryParamsMap), outputStream);
   }
 
   private void setPreconditionsForServices() {
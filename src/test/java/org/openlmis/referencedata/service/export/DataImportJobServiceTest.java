@@ -0,0 +1,296 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+
+package org.openlmis.referencedata.service.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.DataImportJob;
+import org.openlmis.referencedata.domain.DataImportJob.RowError;
+import org.openlmis.referencedata.domain.DataImportJob.Status;
+import org.openlmis.referencedata.exception.NotFoundException;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.i18n.MessageService;
+import org.openlmis.referencedata.repository.DataImportJobRepository;
+import org.openlmis.referencedata.util.FileHelper;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.messagekeys.CsvUploadMessageKeys;
+import org.openlmis.referencedata.util.messagekeys.DataImportMessageKeys;
+import org.springframework.context.MessageSource;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DataImportJobServiceTest {
+
+  private static final String ERROR_MESSAGE = "Invalid record";
+
+  @Mock
+  private DataImportService dataImportService;
+
+  @Mock
+  private DataImportJobRepository dataImportJobRepository;
+
+  @Mock
+  private FileHelper fileHelper;
+
+  @Mock
+  private MessageService messageService;
+
+  @Mock
+  private MessageSource messageSource;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Spy
+  private TaskExecutor dataImportTaskExecutor = new SyncTaskExecutor();
+
+  @Spy
+  private TaskExecutor dataImportProgressExecutor = new SyncTaskExecutor();
+
+  @InjectMocks
+  private DataImportJobService dataImportJobService;
+
+  private final UUID jobId = UUID.randomUUID();
+  private final MockMultipartFile zipFile = new MockMultipartFile(
+      "file", "data.zip", "application/zip", "zip-content".getBytes());
+
+  private DataImportJob job;
+
+  @Before
+  public void setUp() {
+    when(dataImportJobRepository.save(any(DataImportJob.class))).thenAnswer(invocation -> {
+      job = invocation.getArgument(0, DataImportJob.class);
+      job.setId(jobId);
+      return job;
+    });
+    when(dataImportJobRepository.findById(jobId)).thenAnswer(invocation -> Optional.of(job));
+  }
+
+  @Test
+  public void shouldCompleteJobReportingProgress() {
+    // given
+    when(dataImportService.importData(any(InputStream.class), any())).thenAnswer(invocation -> {
+      IntConsumer progressListener = invocation.getArgument(1, IntConsumer.class);
+      progressListener.accept(2);
+      progressListener.accept(1);
+      return Collections.singletonMap("orderable.csv", 1);
+    });
+
+    // when
+    DataImportJob submitted = dataImportJobService.submit(zipFile);
+
+    // then
+    verify(fileHelper).validateMultipartFile(zipFile);
+    assertEquals(jobId, submitted.getId());
+    assertEquals("data.zip", job.getFileName());
+    assertEquals(Status.COMPLETED, job.getStatus());
+    assertEquals(3, job.getProcessedRows());
+    assertEquals(Integer.valueOf(1), job.getImportedRecords());
+    assertTrue(job.getErrors().isEmpty());
+    verify(dataImportProgressExecutor, times(3)).execute(any(Runnable.class));
+  }
+
+  @After
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void shouldRunJobAsSubmittingUser() {
+    // given
+    Authentication submitter = new TestingAuthenticationToken("admin", null);
+    SecurityContextHolder.getContext().setAuthentication(submitter);
+
+    doAnswer(invocation -> {
+      Thread worker = new Thread(invocation.getArgument(0, Runnable.class));
+      worker.start();
+      worker.join();
+      return null;
+    }).when(dataImportTaskExecutor).execute(any(Runnable.class));
+
+    Authentication[] jobAuthentication = new Authentication[1];
+    when(dataImportService.importData(any(InputStream.class), any())).thenAnswer(invocation -> {
+      jobAuthentication[0] = SecurityContextHolder.getContext().getAuthentication();
+      return Collections.emptyMap();
+    });
+
+    // when
+    dataImportJobService.submit(zipFile);
+
+    // then
+    assertEquals(submitter, jobAuthentication[0]);
+    assertEquals(Status.COMPLETED, job.getStatus());
+  }
+
+  @Test
+  public void shouldFailJobWithLocalizedErrorIfImportFails() {
+    // given
+    when(messageService.localize(any(Message.class))).thenAnswer(invocation -> invocation
+        .getArgument(0, Message.class).localMessage(messageSource, Locale.ENGLISH));
+    when(messageSource.getMessage(eq(CsvUploadMessageKeys.ERROR_UPLOAD_RECORD_INVALID), any(),
+        any(Locale.class))).thenReturn(ERROR_MESSAGE);
+    when(dataImportService.importData(any(InputStream.class), any())).thenThrow(
+        new ValidationMessageException(CsvUploadMessageKeys.ERROR_UPLOAD_RECORD_INVALID));
+
+    // when
+    dataImportJobService.submit(zipFile);
+
+    // then
+    assertEquals(Status.FAILED, job.getStatus());
+    assertNull(job.getImportedRecords());
+    assertEquals(Collections.singletonList(ERROR_MESSAGE), job.getErrors());
+  }
+
+  @Test
+  public void shouldFailJobWithLocalizedRowErrors() {
+    // given
+    when(messageService.localize(any(Message.class))).thenAnswer(invocation -> invocation
+        .getArgument(0, Message.class).localMessage(messageSource, Locale.ENGLISH));
+    when(messageSource.getMessage(eq(DataImportMessageKeys.ERROR_ROWS_INVALID), any(),
+        any(Locale.class))).thenReturn("Invalid rows");
+    when(messageSource.getMessage(eq(CsvUploadMessageKeys.ERROR_UPLOAD_RECORD_INVALID), any(),
+        any(Locale.class))).thenReturn(ERROR_MESSAGE);
+    when(dataImportService.importData(any(InputStream.class), any())).thenThrow(
+        new DataImportRowsException("orderable.csv", Arrays.asList(
+            new DataImportRowError(2,
+                new Message(CsvUploadMessageKeys.ERROR_UPLOAD_RECORD_INVALID)),
+            new DataImportRowError(5,
+                new Message(CsvUploadMessageKeys.ERROR_UPLOAD_RECORD_INVALID)))));
+
+    // when
+    dataImportJobService.submit(zipFile);
+
+    // then
+    assertEquals(Status.FAILED, job.getStatus());
+    assertEquals(Collections.singletonList("Invalid rows"), job.getErrors());
+    assertEquals(Arrays.asList(
+        new RowError("orderable.csv", 2, ERROR_MESSAGE),
+        new RowError("orderable.csv", 5, ERROR_MESSAGE)), job.getRowErrors());
+  }
+
+  @Test
+  public void shouldFailInterruptedJobs() {
+    // given
+    when(messageService.localize(any(Message.class))).thenAnswer(invocation -> invocation
+        .getArgument(0, Message.class).localMessage(messageSource, Locale.ENGLISH));
+    when(messageSource.getMessage(eq(DataImportMessageKeys.ERROR_JOB_INTERRUPTED), any(),
+        any(Locale.class))).thenReturn(ERROR_MESSAGE);
+
+    DataImportJob queued = DataImportJob.newInstance("queued.zip");
+    DataImportJob inProgress = DataImportJob.newInstance("in-progress.zip");
+    inProgress.start();
+    when(dataImportJobRepository.findByStatusInAndCreatedDateBefore(
+        eq(EnumSet.of(Status.QUEUED, Status.IN_PROGRESS)), any(ZonedDateTime.class)))
+        .thenReturn(Arrays.asList(queued, inProgress));
+
+    // when
+    dataImportJobService.failInterruptedJobs();
+
+    // then
+    assertEquals(Status.FAILED, queued.getStatus());
+    assertEquals(Status.FAILED, inProgress.getStatus());
+    assertEquals(Collections.singletonList(ERROR_MESSAGE), inProgress.getErrors());
+    verify(dataImportJobRepository).saveAll(Arrays.asList(queued, inProgress));
+  }
+
+  @Test
+  public void shouldFailJobIfUnexpectedErrorOccurs() {
+    // given
+    when(dataImportService.importData(any(InputStream.class), any()))
+        .thenThrow(new IllegalStateException("Connection lost"));
+
+    // when
+    dataImportJobService.submit(zipFile);
+
+    // then
+    assertEquals(Status.FAILED, job.getStatus());
+    assertEquals(1, job.getErrors().size());
+    assertTrue(job.getErrors().get(0).contains("Connection lost"));
+  }
+
+  @Test
+  public void shouldRejectJobIfQueueIsFull() {
+    // given
+    doThrow(new TaskRejectedException("Queue is full"))
+        .when(dataImportTaskExecutor).execute(any(Runnable.class));
+
+    // when
+    ValidationMessageException exception = null;
+    try {
+      dataImportJobService.submit(zipFile);
+    } catch (ValidationMessageException ex) {
+      exception = ex;
+    }
+
+    // then
+    assertEquals(new Message(DataImportMessageKeys.ERROR_TOO_MANY_JOBS), exception.asMessage());
+    verify(dataImportJobRepository).delete(job);
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void shouldThrowExceptionIfJobDoesNotExist() {
+    dataImportJobService.getJob(UUID.randomUUID());
+  }
+
+  @Test
+  public void shouldReturnJob() {
+    // given
+    UUID existingId = UUID.randomUUID();
+    DataImportJob existing = DataImportJob.newInstance("data.zip");
+    when(dataImportJobRepository.findById(existingId)).thenReturn(Optional.of(existing));
+
+    // when
+    DataImportJob found = dataImportJobService.getJob(existingId);
+
+    // then
+    assertEquals(existing, found);
+  }
+
+}
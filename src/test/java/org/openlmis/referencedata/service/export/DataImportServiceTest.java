@@ -20,7 +20,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.InputStream;
@@ -28,6 +31,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -39,6 +45,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.openlmis.referencedata.dto.BaseDto;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.util.FileHelper;
+import org.openlmis.referencedata.util.Message;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -67,11 +74,19 @@ public class DataImportServiceTest {
     dataImportPersister = mock(DataImportPersister.class);
   }
 
+  private void mockZipEntries() {
+    doAnswer(invocation -> {
+      BiConsumer<String, InputStream> consumer =
+          (BiConsumer<String, InputStream>) invocation.getArguments()[1];
+      fileMap.forEach(consumer);
+      return null;
+    }).when(fileHelper).readZipEntries(any(MultipartFile.class), any());
+  }
+
   @Test
   public void shouldSuccessfullyImportData() {
     // Given
-    when(fileHelper.convertMultipartFileToZipFileMap(any(MultipartFile.class)))
-        .thenReturn(fileMap);
+    mockZipEntries();
     when(beanFactory.getBean(anyString(), eq(DataImportPersister.class))).thenReturn(
         dataImportPersister);
     when(dataImportPersister.processAndPersist(any(InputStream.class)))
@@ -85,11 +100,68 @@ public class DataImportServiceTest {
     assertEquals(1, result.size());
   }
 
+  private void mockZipEntries(InputStream zipStream) {
+    doAnswer(invocation -> {
+      BiConsumer<String, InputStream> consumer =
+          (BiConsumer<String, InputStream>) invocation.getArguments()[1];
+      fileMap.forEach(consumer);
+      return null;
+    }).when(fileHelper).readZipEntries(eq(zipStream), any());
+  }
+
+  @Test
+  public void shouldImportDataFromStreamReportingProgress() {
+    // Given
+    InputStream zipStream = mock(InputStream.class);
+    IntConsumer progressListener = mock(IntConsumer.class);
+    mockZipEntries(zipStream);
+    when(beanFactory.getBean(anyString(), eq(DataImportPersister.class))).thenReturn(
+        dataImportPersister);
+    when(dataImportPersister.processAndPersist(any(InputStream.class), eq(progressListener),
+        any())).thenReturn(1);
+
+    // When
+    Map<String, Integer> result = dataImportService.importData(zipStream, progressListener);
+
+    // Then
+    assertEquals(Collections.singletonMap("test.csv", 1), result);
+    verify(fileHelper, never()).validateMultipartFile(any());
+  }
+
+  @Test
+  public void shouldThrowInvalidRowsOfFile() {
+    // Given
+    InputStream zipStream = mock(InputStream.class);
+    mockZipEntries(zipStream);
+    when(beanFactory.getBean(anyString(), eq(DataImportPersister.class))).thenReturn(
+        dataImportPersister);
+
+    DataImportRowError rowError = new DataImportRowError(2, new Message("Invalid row"));
+    when(dataImportPersister.processAndPersist(any(InputStream.class), any(), any()))
+        .thenAnswer(invocation -> {
+          Consumer<DataImportRowError> errorListener = invocation.getArgument(2);
+          errorListener.accept(rowError);
+          return 0;
+        });
+
+    // When
+    DataImportRowsException exception = null;
+    try {
+      dataImportService.importData(zipStream, rows -> { });
+    } catch (DataImportRowsException ex) {
+      exception = ex;
+    }
+
+    // Then
+    assertNotNull(exception);
+    assertEquals("test.csv", exception.getFileName());
+    assertEquals(Collections.singletonList(rowError), exception.getRowErrors());
+  }
+
   @Test(expected = ValidationMessageException.class)
   public void shouldThrowErrorIfBeanNotFound() {
     // given
-    when(fileHelper.convertMultipartFileToZipFileMap(any(MultipartFile.class)))
-        .thenReturn(fileMap);
+    mockZipEntries();
     when(beanFactory.getBean(anyString(), eq(DataImportPersister.class)))
         .thenThrow(ValidationMessageException.class);
 
@@ -18,22 +18,28 @@ package org.openlmis.referencedata.service.export;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import javax.persistence.EntityManager;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
-import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.dto.OrderableDto;
 import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.service.OrderableFulfillCache;
 import org.openlmis.referencedata.testbuilder.OrderableDataBuilder;
 import org.openlmis.referencedata.util.FileHelper;
 
@@ -50,6 +56,12 @@ public class OrderableImportPersisterTest {
   @Mock
   private OrderableRepository orderableRepository;
 
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private OrderableFulfillCache orderableFulfillCache;
+
   @InjectMocks
   private OrderableImportPersister orderableImportPersister;
 
@@ -70,15 +82,44 @@ public class OrderableImportPersisterTest {
 
     // Then
     assertEquals(1, result.size());
-    verify(fileHelper).readCsv(OrderableDto.class, dataStream);
+    verify(fileHelper).iterateCsv(OrderableDto.class, dataStream);
     verify(orderableRepository).saveAll(any());
+    verify(orderableFulfillCache).invalidate();
+    verify(entityManager).flush();
+    verify(entityManager).clear();
+  }
+
+  @Test
+  public void shouldPersistDataInChunksReportingProgress() {
+    // Given
+    setupMocksForSuccess();
+    when(fileHelper.iterateCsv(OrderableDto.class, dataStream))
+        .thenReturn(Arrays.asList(dto, dto, dto).iterator());
+    orderableImportPersister.setChunkSize(2);
+
+    IntConsumer progressListener = mock(IntConsumer.class);
+    Consumer<DataImportRowError> errorListener = mock(Consumer.class);
+
+    // When
+    int imported = orderableImportPersister
+        .processAndPersist(dataStream, progressListener, errorListener);
+
+    // Then
+    assertEquals(2, imported);
+    verify(progressListener).accept(2);
+    verify(progressListener).accept(1);
+    verifyZeroInteractions(errorListener);
+    verify(orderableRepository, times(2)).findAllLatestByProductCodes(any());
+    verify(orderableRepository, times(2)).saveAll(any());
+    verify(entityManager, times(2)).flush();
+    verify(entityManager, times(2)).clear();
   }
 
   private void setupMocksForSuccess() {
-    when(fileHelper.readCsv(OrderableDto.class, dataStream)).thenReturn(
-        Collections.singletonList(dto));
-    when(orderableRepository.findFirstByProductCodeOrderByIdentityVersionNumberDesc(
-        any(Code.class))).thenReturn(orderable);
+    when(fileHelper.iterateCsv(OrderableDto.class, dataStream)).thenReturn(
+        Collections.singletonList(dto).iterator());
+    when(orderableRepository.findAllLatestByProductCodes(any())).thenReturn(
+        Collections.singletonList(orderable));
     when(orderableRepository.saveAll(any())).thenReturn(
         Collections.singletonList(orderable));
   }
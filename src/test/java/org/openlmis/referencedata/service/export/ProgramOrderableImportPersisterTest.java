@@ -24,6 +24,8 @@ import static org.mockito.Mockito.when;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import javax.persistence.EntityManager;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -50,6 +52,9 @@ import org.openlmis.referencedata.util.FileHelper;
 public class ProgramOrderableImportPersisterTest {
 
   private static final String PRICE_PER_PACK = "123";
+  private static final String PROGRAM_CODE = "PRG001";
+  private static final String ORDERABLE_CODE = "C100";
+  private static final String CATEGORY_CODE = "CAT01";
 
   private InputStream dataStream;
   private ProgramOrderableCsvModel csvModel;
@@ -74,6 +79,9 @@ public class ProgramOrderableImportPersisterTest {
   @Mock
   private OrderableDisplayCategoryRepository orderableDisplayCategoryRepository;
 
+  @Mock
+  private EntityManager entityManager;
+
   @InjectMocks
   private ProgramOrderableImportPersister programOrderableImportPersister;
 
@@ -90,6 +98,9 @@ public class ProgramOrderableImportPersisterTest {
 
     // Set up mock behaviors
     when(csvModel.getPricePerPack()).thenReturn(PRICE_PER_PACK);
+    when(csvModel.getProgramCode()).thenReturn(PROGRAM_CODE);
+    when(csvModel.getOrderableCode()).thenReturn(ORDERABLE_CODE);
+    when(csvModel.getCategoryCode()).thenReturn(CATEGORY_CODE);
     when(orderableDisplayCategory.getOrderedDisplayValue()).thenReturn(
         mock(OrderedDisplayValue.class));
   }
@@ -105,18 +116,45 @@ public class ProgramOrderableImportPersisterTest {
 
     // Then
     assertEquals(1, result.size());
-    verify(fileHelper).readCsv(ProgramOrderableCsvModel.class, dataStream);
+    verify(fileHelper).iterateCsv(ProgramOrderableCsvModel.class, dataStream);
     verify(programOrderableRepository).saveAll(any());
   }
 
+  @Test
+  public void shouldUpdateExistingProgramOrderable() {
+    // Given
+    setupMocksForSuccess();
+    UUID programOrderableId = UUID.randomUUID();
+    when(programOrderable.getId()).thenReturn(programOrderableId);
+    when(programOrderableRepository.findIdsByOrderableCodes(any()))
+        .thenReturn(Collections.singletonList(new Object[]{
+            programOrderableId.toString(), PROGRAM_CODE, ORDERABLE_CODE, CATEGORY_CODE}));
+    when(programOrderableRepository.findAllById(any()))
+        .thenReturn(Collections.singletonList(programOrderable));
+
+    // When
+    List<ProgramOrderable> result = programOrderableImportPersister
+        .createOrUpdate(Collections.singletonList(csvModel));
+
+    // Then
+    assertEquals(Collections.singletonList(programOrderable), result);
+    verify(programOrderable).updateFrom(any(ProgramOrderableDto.class));
+  }
+
   private void setupMocksForSuccess() {
-    when(fileHelper.readCsv(ProgramOrderableCsvModel.class, dataStream))
-        .thenReturn(Collections.singletonList(csvModel));
-    when(programRepository.findByCode(any(Code.class))).thenReturn(mock(Program.class));
-    when(orderableRepository.findFirstByProductCodeOrderByIdentityVersionNumberDesc(
-        any(Code.class))).thenReturn(mock(Orderable.class));
-    when(orderableDisplayCategoryRepository.findByCode(any(Code.class))).thenReturn(
-        orderableDisplayCategory);
+    Program program = mock(Program.class);
+    when(program.getCode()).thenReturn(Code.code(PROGRAM_CODE));
+    Orderable orderable = mock(Orderable.class);
+    when(orderable.getProductCode()).thenReturn(Code.code(ORDERABLE_CODE));
+    when(orderableDisplayCategory.getCode()).thenReturn(Code.code(CATEGORY_CODE));
+
+    when(fileHelper.iterateCsv(ProgramOrderableCsvModel.class, dataStream))
+        .thenReturn(Collections.singletonList(csvModel).iterator());
+    when(programRepository.findAllByCodes(any())).thenReturn(Collections.singletonList(program));
+    when(orderableRepository.findAllLatestByProductCodes(any()))
+        .thenReturn(Collections.singletonList(orderable));
+    when(orderableDisplayCategoryRepository.findAllByCodes(any())).thenReturn(
+        Collections.singletonList(orderableDisplayCategory));
     when(programOrderableRepository.saveAll(any()))
         .thenReturn(Collections.singletonList(programOrderable));
   }
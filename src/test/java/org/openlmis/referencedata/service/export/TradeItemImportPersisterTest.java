@@ -18,17 +18,22 @@ package org.openlmis.referencedata.service.export;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import javax.persistence.EntityManager;
 import java.util.Map;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -43,9 +48,14 @@ import org.openlmis.referencedata.dto.TradeItemCsvModel;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.repository.OrderableRepository;
 import org.openlmis.referencedata.repository.TradeItemRepository;
+import org.openlmis.referencedata.service.OrderableFulfillCache;
 import org.openlmis.referencedata.testbuilder.OrderableDataBuilder;
 import org.openlmis.referencedata.testbuilder.TradeItemDataBuilder;
 import org.openlmis.referencedata.util.FileHelper;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.messagekeys.CsvUploadMessageKeys;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.util.CsvContext;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TradeItemImportPersisterTest {
@@ -66,6 +76,12 @@ public class TradeItemImportPersisterTest {
   @Mock
   private OrderableRepository orderableRepository;
 
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private OrderableFulfillCache orderableFulfillCache;
+
   @InjectMocks
   private TradeItemImportPersister tradeItemImportPersister;
 
@@ -75,11 +91,12 @@ public class TradeItemImportPersisterTest {
     dataStream = mock(InputStream.class);
 
     // Initialize objects
-    identifier = UUID.randomUUID().toString();
     csvModel = new TradeItemCsvModel("code", "manufacturer");
     tradeItem = new TradeItemDataBuilder()
         .build();
+    identifier = tradeItem.getId().toString();
     orderable = new OrderableDataBuilder()
+        .withProductCode(Code.code("code"))
         .withIdentifier("tradeItem", identifier)
         .build();
 
@@ -97,8 +114,9 @@ public class TradeItemImportPersisterTest {
 
     // Then
     assertEquals(1, result.size());
-    verify(fileHelper).readCsv(TradeItemCsvModel.class, dataStream);
+    verify(fileHelper).iterateCsv(TradeItemCsvModel.class, dataStream);
     verify(tradeItemRepository).saveAll(any());
+    verify(orderableFulfillCache).invalidate();
     verify(orderableRepository).saveAll(any());
   }
 
@@ -135,21 +153,99 @@ public class TradeItemImportPersisterTest {
     List<TradeItemCsvModel> list = Arrays.asList(
         mock(TradeItemCsvModel.class), mock(TradeItemCsvModel.class)
     );
-    when(orderableRepository.findFirstByProductCodeOrderByIdentityVersionNumberDesc(
-        any(Code.class))).thenReturn(null);
+    when(orderableRepository.findAllLatestByProductCodes(any()))
+        .thenReturn(Collections.emptyList());
 
     // When
     tradeItemImportPersister.createOrUpdate(list);
   }
 
+  @Test(expected = NotFoundException.class)
+  public void shouldThrowErrorIfTradeItemNotFound() {
+    // Given
+    when(orderableRepository.findAllLatestByProductCodes(any()))
+        .thenReturn(Collections.singletonList(orderable));
+    when(tradeItemRepository.findAllById(any())).thenReturn(Collections.emptyList());
+
+    // When
+    tradeItemImportPersister.createOrUpdate(Collections.singletonList(csvModel));
+  }
+
+  @Test
+  public void shouldReportAllInvalidRows() {
+    // Given
+    when(fileHelper.iterateCsv(TradeItemCsvModel.class, dataStream)).thenReturn(Arrays.asList(
+        csvModel,
+        new TradeItemCsvModel("unknown1", "manufacturer"),
+        new TradeItemCsvModel("unknown2", "manufacturer")).iterator());
+    when(orderableRepository.findAllLatestByProductCodes(any())).thenAnswer(invocation -> {
+      Collection<String> codes = invocation.getArgument(0);
+      return codes.contains(orderable.getProductCode().toString())
+          ? Collections.singletonList(orderable)
+          : Collections.emptyList();
+    });
+    when(tradeItemRepository.findAllById(any()))
+        .thenReturn(Collections.singletonList(tradeItem));
+    when(tradeItemRepository.saveAll(any()))
+        .thenReturn(Collections.singletonList(tradeItem));
+    when(orderableRepository.saveAll(any())).thenReturn(Collections.singletonList(orderable));
+    tradeItemImportPersister.setChunkSize(2);
+
+    IntConsumer progressListener = mock(IntConsumer.class);
+    List<DataImportRowError> errors = new ArrayList<>();
+
+    // When
+    tradeItemImportPersister.processAndPersist(dataStream, progressListener, errors::add);
+
+    // Then
+    assertEquals(Arrays.asList(2, 3), errors.stream()
+        .map(DataImportRowError::getRowNumber)
+        .collect(Collectors.toList()));
+    assertEquals(new Message("Orderable with code: unknown1 not found!"),
+        errors.get(0).getMessage());
+    verify(progressListener).accept(2);
+    verify(progressListener).accept(1);
+    verify(entityManager, never()).flush();
+  }
+
+  @Test
+  public void shouldReportRowThatCouldNotBeParsed() {
+    // Given
+    SuperCsvException parseError = new SuperCsvException("Invalid value",
+        new CsvContext(3, 3, 1));
+    when(fileHelper.iterateCsv(TradeItemCsvModel.class, dataStream))
+        .thenReturn(new Iterator<TradeItemCsvModel>() {
+          @Override
+          public boolean hasNext() {
+            throw parseError;
+          }
+
+          @Override
+          public TradeItemCsvModel next() {
+            throw parseError;
+          }
+        });
+
+    List<DataImportRowError> errors = new ArrayList<>();
+
+    // When
+    tradeItemImportPersister.processAndPersist(dataStream, rows -> { }, errors::add);
+
+    // Then
+    assertEquals(Collections.singletonList(new DataImportRowError(2, new Message(
+        CsvUploadMessageKeys.ERROR_UPLOAD_RECORD_INVALID, 2, parseError.getMessage()))),
+        errors);
+  }
+
   private void setupMocksForSuccess() {
-    when(fileHelper.readCsv(TradeItemCsvModel.class, dataStream))
-        .thenReturn(Collections.singletonList(csvModel));
-    when(orderableRepository.findFirstByProductCodeOrderByIdentityVersionNumberDesc(
-        any(Code.class))).thenReturn(orderable);
+    when(fileHelper.iterateCsv(TradeItemCsvModel.class, dataStream))
+        .thenReturn(Collections.singletonList(csvModel).iterator());
+    when(orderableRepository.findAllLatestByProductCodes(any()))
+        .thenReturn(Collections.singletonList(orderable));
     when(tradeItemRepository.saveAll(any()))
         .thenReturn(Collections.singletonList(tradeItem));
-    when(tradeItemRepository.findById(any(UUID.class))).thenReturn(Optional.ofNullable(tradeItem));
+    when(tradeItemRepository.findAllById(any()))
+        .thenReturn(Collections.singletonList(tradeItem));
     when(orderableRepository.saveAll(any())).thenReturn(Collections.singletonList(orderable));
   }
 
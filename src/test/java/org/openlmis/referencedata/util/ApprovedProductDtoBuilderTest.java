@@ -0,0 +1,88 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.Sets;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
+import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.dto.ApprovedProductDto;
+import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.testbuilder.FacilityTypeApprovedProductsDataBuilder;
+import org.openlmis.referencedata.testbuilder.OrderableDataBuilder;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ApprovedProductDtoBuilderTest {
+
+  @Mock
+  private OrderableRepository orderableRepository;
+
+  @InjectMocks
+  private ApprovedProductDtoBuilder approvedProductDtoBuilder;
+
+  @Test
+  public void shouldBuildDtosWithOrderablesRetrievedInOneQuery() {
+    Orderable first = new OrderableDataBuilder().build();
+    Orderable second = new OrderableDataBuilder().build();
+    FacilityTypeApprovedProduct firstFtap = new FacilityTypeApprovedProductsDataBuilder()
+        .withOrderableId(first.getId())
+        .build();
+    FacilityTypeApprovedProduct secondFtap = new FacilityTypeApprovedProductsDataBuilder()
+        .withOrderableId(second.getId())
+        .build();
+    FacilityTypeApprovedProduct thirdFtap = new FacilityTypeApprovedProductsDataBuilder()
+        .withOrderableId(first.getId())
+        .build();
+
+    when(orderableRepository.findAllLatestByIds(Sets.newHashSet(first.getId(), second.getId()),
+        PageRequest.of(0, 2)))
+        .thenReturn(new PageImpl<>(asList(first, second)));
+
+    List<ApprovedProductDto> dtos = approvedProductDtoBuilder
+        .build(asList(firstFtap, secondFtap, thirdFtap));
+
+    assertThat(dtos.size(), is(3));
+    assertThat(dtos.get(0).getId(), is(firstFtap.getId()));
+    assertThat(dtos.get(0).getOrderableId(), is(first.getId()));
+    assertThat(dtos.get(1).getOrderableId(), is(second.getId()));
+    assertThat(dtos.get(2).getOrderableId(), is(first.getId()));
+  }
+
+  @Test
+  public void shouldNotRetrieveOrderablesForNoProducts() {
+    List<ApprovedProductDto> dtos = approvedProductDtoBuilder.build(Collections.emptyList());
+
+    assertThat(dtos, is(empty()));
+    verify(orderableRepository, never()).findAllLatestByIds(any(), any());
+  }
+}
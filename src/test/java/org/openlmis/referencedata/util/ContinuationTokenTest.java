@@ -0,0 +1,73 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.UUID;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.Test;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+
+public class ContinuationTokenTest {
+
+  private static final UUID ID = UUID.randomUUID();
+
+  @Test
+  public void shouldDecodeEncodedToken() {
+    ContinuationToken token = new ContinuationToken("Acetylsalicylic: 100mg", ID);
+
+    assertEquals(token, ContinuationToken.decode(token.encode()));
+  }
+
+  @Test
+  public void shouldDecodeEncodedTokenWithoutName() {
+    ContinuationToken token = new ContinuationToken(null, ID);
+
+    assertEquals(token, ContinuationToken.decode(token.encode()));
+  }
+
+  @Test
+  public void shouldDistinguishEmptyNameFromNullName() {
+    ContinuationToken token = new ContinuationToken("", ID);
+
+    assertEquals(token, ContinuationToken.decode(token.encode()));
+  }
+
+  @Test
+  public void shouldReturnNullForBlankToken() {
+    assertNull(ContinuationToken.decode(null));
+    assertNull(ContinuationToken.decode(""));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldThrowExceptionIfTokenIsNotBase64() {
+    ContinuationToken.decode("not a token");
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldThrowExceptionIfTokenDoesNotStartWithId() {
+    ContinuationToken.decode(new ContinuationToken(null, ID).encode().substring(4));
+  }
+
+  @Test
+  public void equalsContract() {
+    EqualsVerifier
+        .forClass(ContinuationToken.class)
+        .verify();
+  }
+}
@@ -16,17 +16,20 @@
 package org.openlmis.referencedata.util;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -42,26 +45,31 @@ public class FileHelperTest {
   private FileHelper fileHelper;
 
   @Test
-  public void shouldConvertMultipartFileToZipFileMapWithValidZipFile() throws IOException {
+  public void shouldReadZipEntriesInOrderWithValidZipFile() throws IOException {
     byte[] fileContent = createValidZipFileContent();
     MockMultipartFile mockMultipartFile = new MockMultipartFile("test.zip", fileContent);
 
-    Map<String, InputStream> result = fileHelper
-            .convertMultipartFileToZipFileMap(mockMultipartFile);
-
-    assertNotNull(result);
-    assertEquals(2, result.size());
-    assertNotNull(result.get("file1.txt"));
-    assertNotNull(result.get("file2.txt"));
+    Map<String, String> result = new LinkedHashMap<>();
+    fileHelper.readZipEntries(mockMultipartFile, (name, stream) -> {
+      try {
+        result.put(name, IOUtils.toString(stream, StandardCharsets.UTF_8));
+      } catch (IOException ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+
+    assertEquals(Arrays.asList("file1.txt", "file2.txt"), new ArrayList<>(result.keySet()));
+    assertEquals("This is the contents of file1.txt", result.get("file1.txt"));
+    assertEquals("This is the contents of file2.txt", result.get("file2.txt"));
   }
 
   @Test(expected = ValidationMessageException.class)
-  public void shouldConvertMultipartFileToZipFileMapWithInvalidZipFile() {
+  public void shouldThrowExceptionWhenReadingZipEntriesOfInvalidZipFile() {
     String fileName = "test.zip";
     String fileContent = "This is not a valid zip file.";
     MockMultipartFile mockMultipartFile = new MockMultipartFile(fileName, fileName,
             "application/zip", fileContent.getBytes());
-    fileHelper.convertMultipartFileToZipFileMap(mockMultipartFile);
+    fileHelper.readZipEntries(mockMultipartFile, (name, stream) -> { });
   }
 
   private byte[] createValidZipFileContent() throws IOException {
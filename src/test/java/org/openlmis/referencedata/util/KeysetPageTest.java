@@ -0,0 +1,78 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Test;
+
+public class KeysetPageTest {
+
+  private static final UUID FIRST_ID = UUID.randomUUID();
+  private static final UUID SECOND_ID = UUID.randomUUID();
+  private static final UUID THIRD_ID = UUID.randomUUID();
+
+  private final List<UUID> rows = Arrays.asList(FIRST_ID, SECOND_ID, THIRD_ID);
+
+  @Test
+  public void shouldDropExtraRowAndReturnTokenOfLastElement() {
+    KeysetPage<UUID> page = KeysetPage.of(rows, 2, this::position, 10L);
+
+    assertEquals(Arrays.asList(FIRST_ID, SECOND_ID), page.getContent());
+    assertEquals(2, page.getSize());
+    assertEquals(2, page.getNumberOfElements());
+    assertEquals(Long.valueOf(10L), page.getTotalElements());
+    assertFalse(page.isLast());
+    assertEquals(position(SECOND_ID), ContinuationToken.decode(page.getContinuationToken()));
+  }
+
+  @Test
+  public void shouldReturnLastPageIfThereIsNoExtraRow() {
+    KeysetPage<UUID> page = KeysetPage.of(rows, 3, this::position, null);
+
+    assertEquals(rows, page.getContent());
+    assertNull(page.getContinuationToken());
+    assertNull(page.getTotalElements());
+    assertTrue(page.isLast());
+  }
+
+  @Test
+  public void shouldKeepPositionWhenContentIsReplaced() {
+    KeysetPage<UUID> page = KeysetPage.of(rows, 1, this::position, 3L);
+    KeysetPage<String> converted = page.withContent(Arrays.asList(FIRST_ID.toString()));
+
+    assertEquals(Arrays.asList(FIRST_ID.toString()), converted.getContent());
+    assertEquals(page.getContinuationToken(), converted.getContinuationToken());
+    assertEquals(page.getTotalElements(), converted.getTotalElements());
+    assertEquals(page.getSize(), converted.getSize());
+  }
+
+  @Test
+  public void shouldUseDefaultPageSizeIfRequestIsNotPaginated() {
+    assertEquals(KeysetPage.DEFAULT_PAGE_SIZE, KeysetPage.getPageSize(Pagination.NO_PAGINATION));
+    assertEquals(25, KeysetPage.getPageSize(25));
+  }
+
+  private ContinuationToken position(UUID id) {
+    return new ContinuationToken("name-" + id, id);
+  }
+}
@@ -18,24 +18,35 @@ package org.openlmis.referencedata.util;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
+import java.util.stream.Stream;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
 import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -64,57 +75,64 @@ public class Resource2DbTest {
   }
 
   @Test
-  public void insertToDbFromCsvShouldCloseInputStream() throws IOException {
+  public void copyToDbFromCsvShouldCloseInputStream() throws IOException {
     // given
     Resource resource = mock(Resource.class);
-    InputStream inputStream = spy(IOUtils.toInputStream("some data"));
+    InputStream inputStream = spy(IOUtils.toInputStream("Col1,Col2\na,b"));
     when(resource.getInputStream()).thenReturn(inputStream);
-    when(template.batchUpdate(any(String.class), any(List.class))).thenReturn(new int[]{1});
 
     // when
-    resource2Db.insertToDbFromCsv("sometable", resource);
+    resource2Db.copyToDbFromCsv("sometable", resource);
 
     // then
     verify(inputStream, times(1)).close();
-    assertFalse(resource.isOpen());
+    verify(template).execute(any(ConnectionCallback.class));
   }
 
   @Test
-  public void resourceCsvToBatchedPairShouldReturnListPair() throws IOException {
+  public void copyToDbShouldStreamRowsAsCsvIntoCopyOperation() throws SQLException {
     // given
-    Resource resource = mock(Resource.class);
-    InputStream inputStream = spy(IOUtils.toInputStream("Col1,Col2\na,b"));
-    when(resource.getInputStream()).thenReturn(inputStream);
+    Connection connection = mock(Connection.class);
+    PGConnection pgConnection = mock(PGConnection.class);
+    CopyManager copyManager = mock(CopyManager.class);
+    CopyIn copyIn = mock(CopyIn.class);
+    when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+    when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+    when(copyManager.copyIn(any(String.class))).thenReturn(copyIn);
+    when(template.execute(any(ConnectionCallback.class))).thenAnswer(invocation ->
+        ((ConnectionCallback<?>) invocation.getArgument(0)).doInConnection(connection));
+
+    ByteArrayOutputStream copied = new ByteArrayOutputStream();
+    doAnswer(invocation -> {
+      byte[] data = invocation.getArgument(0);
+      int length = invocation.getArgument(2);
+      copied.write(data, 0, length);
+      return null;
+    }).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
 
     // when
-    Pair<List<String>, List<Object[]>> batchedPair = resource2Db.resourceCsvToBatchedPair(resource);
+    long count = resource2Db.copyToDb("sometable", Arrays.asList("Col1", "Col2"),
+        Stream.of(new Object[]{"a", null}, new Object[]{"b\"c", ""}));
 
     // then
-    List headers = batchedPair.getLeft();
-    assertEquals(2, headers.size());
-    assertEquals("Col1", headers.get(0));
-    assertEquals("Col2", headers.get(1));
-
-    List rows = batchedPair.getRight();
-    assertEquals(1, rows.size());
-    Object[] rowData = batchedPair.getRight().get(0);
-    assertEquals(2, rowData.length);
-    assertEquals("a", rowData[0]);
-    assertEquals("b", rowData[1]);
+    assertEquals(2, count);
+    verify(copyManager).copyIn("COPY sometable (Col1,Col2) FROM STDIN WITH (FORMAT csv)");
+    verify(copyIn).endCopy();
+    assertEquals("\"a\",\n\"b\"\"c\",\"\"\n",
+        new String(copied.toByteArray(), StandardCharsets.UTF_8));
   }
 
-  @Test(expected = IllegalArgumentException.class)
-  public void resourceCsvToBatchedPairShouldThrowExceptionIfRecordIsInconsistent()
-      throws IOException {
-    // given
-    Resource resource = mock(Resource.class);
-    InputStream inputStream = spy(IOUtils.toInputStream("Col1,Col2\na,b,c"));
-    when(resource.getInputStream()).thenReturn(inputStream);
-
+  @Test
+  public void copyToDbShouldReturnWithoutCopyIfNoRows() {
     // when
-    resource2Db.resourceCsvToBatchedPair(resource);
+    long count = resource2Db.copyToDb("sometable", Arrays.asList("Col1", "Col2"),
+        Stream.empty());
+
+    // then
+    assertEquals(0, count);
+    verify(template, never()).execute(any(ConnectionCallback.class));
   }
-  
+
   @Test
   public void updateDbFromSqlStringsShouldReturnWithoutUpdateIfNoSqlLines() {
     // when
@@ -134,20 +152,20 @@ public class Resource2DbTest {
     resource2Db.updateDbFromSql(null);
   }
 
-  @Test(expected = IllegalArgumentException.class)
-  public void insertToDbFromCsvWithBlankTableNameShouldThrowException() throws IOException {
+  @Test(expected = NullPointerException.class)
+  public void copyToDbFromCsvWithNullTableNameShouldThrowException() throws IOException {
     Resource resource = mock(Resource.class);
-    resource2Db.insertToDbFromCsv("", resource);
+    resource2Db.copyToDbFromCsv(null, resource);
   }
 
   @Test(expected = NullPointerException.class)
-  public void insertToDbFromCsvWithNullTableNameShouldThrowException() throws IOException {
-    Resource resource = mock(Resource.class);
-    resource2Db.insertToDbFromCsv(null, resource);
+  public void copyToDbFromCsvWithNullResourceShouldThrowException() throws IOException {
+    resource2Db.copyToDbFromCsv("test", null);
   }
 
-  @Test(expected = NullPointerException.class)
-  public void insertToDbFromCsvWithNullResourceShouldThrowException() throws IOException {
-    resource2Db.insertToDbFromCsv("test", null);
+  @Test(expected = IllegalArgumentException.class)
+  public void copyToDbFromCsvWithBlankTableNameShouldThrowException() throws IOException {
+    Resource resource = mock(Resource.class);
+    resource2Db.copyToDbFromCsv("", resource);
   }
 }
@@ -18,27 +18,35 @@ package org.openlmis.referencedata.web;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
-import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.openlmis.referencedata.domain.Orderable.COMMODITY_TYPE;
 import static org.openlmis.referencedata.domain.Orderable.TRADE_ITEM;
 
 import com.google.common.collect.Lists;
 import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.referencedata.domain.CommodityType;
+import org.openlmis.referencedata.domain.Dispensable;
 import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.domain.TradeItem;
+import org.openlmis.referencedata.repository.CommodityTypeRepository;
 import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.repository.TradeItemRepository;
 import org.openlmis.referencedata.testbuilder.CommodityTypeDataBuilder;
 import org.openlmis.referencedata.testbuilder.OrderableDataBuilder;
 import org.openlmis.referencedata.testbuilder.TradeItemDataBuilder;
-import org.openlmis.referencedata.util.EntityCollection;
 
 @RunWith(MockitoJUnitRunner.class)
 public class OrderableFulfillFactoryTest {
@@ -46,6 +54,12 @@ public class OrderableFulfillFactoryTest {
   @Mock
   private OrderableRepository orderableRepository;
 
+  @Mock
+  private TradeItemRepository tradeItemRepository;
+
+  @Mock
+  private CommodityTypeRepository commodityTypeRepository;
+
   @InjectMocks
   private OrderableFulfillFactory factory;
 
@@ -62,19 +76,22 @@ public class OrderableFulfillFactoryTest {
       .withIdentifier(COMMODITY_TYPE, commodityType.getId())
       .build();
 
-  private EntityCollection<TradeItem> tradeItems = new EntityCollection<>(
-      Collections.singletonList(tradeItem));
-
-  private EntityCollection<CommodityType> commodityTypes = new EntityCollection<>(
-      Collections.singletonList(commodityType));
+  @Before
+  public void setUp() {
+    when(tradeItemRepository.findAllWithClassifications())
+        .thenReturn(Collections.singletonList(tradeItem));
+    when(commodityTypeRepository.findAll())
+        .thenReturn(Collections.singletonList(commodityType));
+    when(orderableRepository.findAllLatestIdentifiers(anyCollectionOf(String.class)))
+        .thenReturn(Lists.newArrayList(
+            toIdentifierRow(tradeItemOrderable, TRADE_ITEM, tradeItem.getId()),
+            toIdentifierRow(commodityTypeOrderable, COMMODITY_TYPE, commodityType.getId())));
+  }
 
   @Test
   public void shouldCreateResourceForTradeItem() {
-    when(orderableRepository.findAllLatestByIdentifier(
-        COMMODITY_TYPE, commodityType.getId().toString()))
-        .thenReturn(Lists.newArrayList(commodityTypeOrderable));
+    OrderableFulfill response = factory.createForAll().get(tradeItemOrderable.getId());
 
-    OrderableFulfill response = factory.createFor(tradeItemOrderable, tradeItems, commodityTypes);
     assertThat(response.getCanFulfillForMe(), hasSize(0));
     assertThat(response.getCanBeFulfilledByMe(), hasSize(1));
     assertThat(response.getCanBeFulfilledByMe(), hasItem(commodityTypeOrderable.getId()));
@@ -82,20 +99,61 @@ public class OrderableFulfillFactoryTest {
 
   @Test
   public void shouldCreateResourceForCommodityType() {
-    when(orderableRepository.findAllLatestByIdentifier(TRADE_ITEM, tradeItem.getId().toString()))
-        .thenReturn(Lists.newArrayList(tradeItemOrderable));
+    OrderableFulfill response = factory.createForAll().get(commodityTypeOrderable.getId());
 
-    OrderableFulfill response = factory.createFor(commodityTypeOrderable,
-        tradeItems, commodityTypes);
     assertThat(response.getCanFulfillForMe(), hasSize(1));
     assertThat(response.getCanFulfillForMe(), hasItem(tradeItemOrderable.getId()));
     assertThat(response.getCanBeFulfilledByMe(), hasSize(0));
   }
 
   @Test
-  public void shouldNotCreateResourceIfThereAreNoIdentifiers() {
-    OrderableFulfill response = factory.createFor(new OrderableDataBuilder().build(),
-        tradeItems, commodityTypes);
-    assertThat(response, is(nullValue()));
+  public void shouldNotAddOrderablesWithDifferentDispensable() {
+    Orderable otherTradeItemOrderable = new OrderableDataBuilder()
+        .withIdentifier(TRADE_ITEM, tradeItem.getId())
+        .withDispensable(Dispensable.createNew("each"))
+        .build();
+
+    when(orderableRepository.findAllLatestIdentifiers(anyCollectionOf(String.class)))
+        .thenReturn(Lists.newArrayList(
+            toIdentifierRow(otherTradeItemOrderable, TRADE_ITEM, tradeItem.getId()),
+            toIdentifierRow(commodityTypeOrderable, COMMODITY_TYPE, commodityType.getId())));
+
+    OrderableFulfill response = factory.createForAll().get(commodityTypeOrderable.getId());
+
+    assertThat(response.getCanFulfillForMe(), hasSize(0));
+  }
+
+  @Test
+  public void shouldCreateResourcesForAllOrderablesWithoutLoadingThem() {
+    Map<UUID, OrderableFulfill> response = factory.createForAll();
+
+    assertThat(response.size(), is(2));
+    assertThat(response.get(tradeItemOrderable.getId()).getCanBeFulfilledByMe(),
+        hasItem(commodityTypeOrderable.getId()));
+    assertThat(response.get(commodityTypeOrderable.getId()).getCanFulfillForMe(),
+        hasItem(tradeItemOrderable.getId()));
+    verify(orderableRepository, times(1))
+        .findAllLatestIdentifiers(anyCollectionOf(String.class));
+    verifyNoMoreInteractions(orderableRepository);
+    verify(tradeItemRepository, times(1)).findAllWithClassifications();
+    verify(commodityTypeRepository, times(1)).findAll();
+  }
+
+  @Test
+  public void shouldPreferTradeItemIdentifierWhenCreatingResourcesForAllOrderables() {
+    when(orderableRepository.findAllLatestIdentifiers(anyCollectionOf(String.class)))
+        .thenReturn(Lists.newArrayList(
+            toIdentifierRow(tradeItemOrderable, COMMODITY_TYPE, commodityType.getId()),
+            toIdentifierRow(tradeItemOrderable, TRADE_ITEM, tradeItem.getId()),
+            toIdentifierRow(commodityTypeOrderable, COMMODITY_TYPE, commodityType.getId())));
+
+    OrderableFulfill response = factory.createForAll().get(tradeItemOrderable.getId());
+
+    assertThat(response.getCanFulfillForMe(), hasSize(0));
+    assertThat(response.getCanBeFulfilledByMe(), hasItem(commodityTypeOrderable.getId()));
+  }
+
+  private Object[] toIdentifierRow(Orderable orderable, String key, UUID value) {
+    return new Object[]{orderable.getId(), key, value.toString(), orderable.getDispensable()};
   }
 }
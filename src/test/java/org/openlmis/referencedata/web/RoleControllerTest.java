@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -77,6 +78,7 @@ public class RoleControllerTest {
   private Role role1;
   private List<Role> roles;
   private RoleDto role1Dto;
+  private Set<UUID> affectedUserIds = Collections.singleton(UUID.randomUUID());
 
   /**
    * Constructor for test.
@@ -101,6 +103,8 @@ public class RoleControllerTest {
     when(repository.findFirstByName(role1Name)).thenReturn(role1);
     when(rightRepository.findFirstByName(right1Name)).thenReturn(right1);
     when(rightRepository.findFirstByName(right2Name)).thenReturn(right2);
+    when(rightAssignmentService.findUserIdsAffectedByRole(role1.getId()))
+        .thenReturn(affectedUserIds);
   }
 
   @Test
@@ -181,7 +185,7 @@ public class RoleControllerTest {
 
     //then
     verify(repository).saveAndFlush(updatedRole1);
-    verify(rightAssignmentService).regenerateRightAssignments();
+    verify(rightAssignmentService).regenerateRightAssignments(affectedUserIds);
   }
 
   @Test
@@ -198,7 +202,7 @@ public class RoleControllerTest {
 
     //then
     verify(repository).saveAndFlush(updatedRole1);
-    verify(rightAssignmentService).regenerateRightAssignments();
+    verify(rightAssignmentService).regenerateRightAssignments(affectedUserIds);
   }
 
   @Test
@@ -218,7 +222,7 @@ public class RoleControllerTest {
 
     //then
     verify(repository).saveAndFlush(updatedRole1);
-    verify(rightAssignmentService).regenerateRightAssignments();
+    verify(rightAssignmentService).regenerateRightAssignments(affectedUserIds);
   }
 
   @Test
@@ -238,7 +242,7 @@ public class RoleControllerTest {
 
     //then
     verify(repository).saveAndFlush(updatedRole1);
-    verify(rightAssignmentService).regenerateRightAssignments();
+    verify(rightAssignmentService).regenerateRightAssignments(affectedUserIds);
   }
 
   @Test
@@ -255,7 +259,7 @@ public class RoleControllerTest {
 
     //then
     verify(repository).saveAndFlush(updatedRole1);
-    verify(rightAssignmentService).regenerateRightAssignments();
+    verify(rightAssignmentService).regenerateRightAssignments(affectedUserIds);
   }
 
   @Test
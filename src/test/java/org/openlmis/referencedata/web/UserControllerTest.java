@@ -58,6 +58,7 @@ import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
 import org.openlmis.referencedata.repository.UserRepository;
 import org.openlmis.referencedata.repository.UserSearchParams;
 import org.openlmis.referencedata.service.RightService;
+import org.openlmis.referencedata.service.UserPermissionCache;
 import org.openlmis.referencedata.service.UserService;
 import org.openlmis.referencedata.testbuilder.SupportedProgramDataBuilder;
 import org.openlmis.referencedata.testbuilder.UserDataBuilder;
@@ -97,6 +98,9 @@ public class UserControllerTest {
   @Mock
   private RightService rightService;
 
+  @Mock
+  private UserPermissionCache userPermissionCache;
+
   @Mock
   private UserValidator validator;
   
@@ -287,6 +291,7 @@ public class UserControllerTest {
 
     //then
     verify(repository).save(user1);
+    verify(userPermissionCache).invalidate();
   }
 
   @Test(expected = ValidationMessageException.class)
@@ -417,6 +422,7 @@ public class UserControllerTest {
     //then
     assertThat(savedUserDto).isEqualToIgnoringGivenFields(user1Dto, IGNORED_FIELDS_ON_EQUAL_CHECK);
     verify(repository).save(user1);
+    verify(userPermissionCache).invalidate();
   }
 
   @Test
@@ -447,6 +453,7 @@ public class UserControllerTest {
 
     //then
     verify(repository).deleteById(userId);
+    verify(userPermissionCache).invalidate();
   }
 
   @Test(expected = NotFoundException.class)
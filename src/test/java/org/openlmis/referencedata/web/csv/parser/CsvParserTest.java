@@ -0,0 +1,163 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.web.csv.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.openlmis.referencedata.util.messagekeys.IdealStockAmountMessageKeys.ERROR_FACILITY_NOT_FOUND;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.IdealStockAmount;
+import org.openlmis.referencedata.dto.IdealStockAmountCsvModel;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.validate.CsvHeaderValidator;
+import org.openlmis.referencedata.web.csv.model.ModelClass;
+import org.openlmis.referencedata.web.csv.recordhandler.RecordProcessor;
+import org.openlmis.referencedata.web.csv.recordhandler.RecordWriter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CsvParserTest {
+
+  private static final String HEADER =
+      "Facility Code, Commodity Type, Period, Ideal Stock Amount\n";
+
+  @Mock
+  private CsvHeaderValidator csvHeaderValidator;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @InjectMocks
+  private CsvParser csvParser;
+
+  private ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+  private ModelClass<IdealStockAmountCsvModel> modelClass =
+      new ModelClass<>(IdealStockAmountCsvModel.class);
+  private List<List<Integer>> written = Collections.synchronizedList(new ArrayList<>());
+
+  @Before
+  public void setUp() {
+    executor.setCorePoolSize(2);
+    executor.setMaxPoolSize(2);
+    executor.initialize();
+
+    ReflectionTestUtils.setField(csvParser, "chunkSize", 2);
+    ReflectionTestUtils.setField(csvParser, "maxPendingChunks", 2);
+    ReflectionTestUtils.setField(csvParser, "csvParserTaskExecutor", executor);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void shouldWriteChunksInOrderWhenLaterOnesAreProcessedFirst() throws IOException {
+    CountDownLatch secondChunkProcessed = new CountDownLatch(1);
+
+    int result = csvParser.parse(csv(1, 2, 3, 4, 5), modelClass, csvHeaderValidator,
+        records -> {
+          if (amounts(records).contains(1)) {
+            await(secondChunkProcessed);
+          } else {
+            secondChunkProcessed.countDown();
+          }
+          return toIdealStockAmounts(records);
+        }, writer());
+
+    assertEquals(5, result);
+    assertEquals(3, written.size());
+    assertEquals(Arrays.asList(1, 2), written.get(0));
+    assertEquals(Arrays.asList(3, 4), written.get(1));
+    assertEquals(Arrays.asList(5), written.get(2));
+  }
+
+  @Test
+  public void shouldReportFailingChunkAndNotWriteChunksAfterIt() throws IOException {
+    RecordProcessor<IdealStockAmountCsvModel, IdealStockAmount> processor = records -> {
+      if (amounts(records).contains(3)) {
+        throw new ValidationMessageException(new Message(ERROR_FACILITY_NOT_FOUND, "code"));
+      }
+      return toIdealStockAmounts(records);
+    };
+
+    try {
+      csvParser.parse(csv(1, 2, 3, 4, 5, 6, 7, 8), modelClass, csvHeaderValidator, processor,
+          writer());
+      fail("Expected the failing chunk to be reported");
+    } catch (ValidationMessageException ex) {
+      assertEquals(new Message(ERROR_FACILITY_NOT_FOUND), ex.asMessage());
+    }
+
+    assertEquals(1, written.size());
+    assertEquals(Arrays.asList(1, 2), written.get(0));
+  }
+
+  private InputStream csv(int... amounts) {
+    StringBuilder builder = new StringBuilder(HEADER);
+    for (int amount : amounts) {
+      builder.append("facility-code, system|id, schedule|period, ").append(amount).append('\n');
+    }
+    return new ByteArrayInputStream(builder.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private RecordWriter<IdealStockAmount> writer() {
+    return entities -> {
+      List<Integer> amounts = new ArrayList<>();
+      entities.forEach(isa -> amounts.add(isa.getAmount()));
+      written.add(amounts);
+    };
+  }
+
+  private List<Integer> amounts(List<IdealStockAmountCsvModel> records) {
+    return records.stream().map(IdealStockAmountCsvModel::getAmount).collect(Collectors.toList());
+  }
+
+  private List<IdealStockAmount> toIdealStockAmounts(List<IdealStockAmountCsvModel> records) {
+    return records.stream()
+        .map(record -> new IdealStockAmount(null, null, null, record.getAmount()))
+        .collect(Collectors.toList());
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
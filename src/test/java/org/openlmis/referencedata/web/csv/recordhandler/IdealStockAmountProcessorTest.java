@@ -15,14 +15,19 @@
 
 package org.openlmis.referencedata.web.csv.recordhandler;
 
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -101,13 +106,15 @@ public class IdealStockAmountProcessorTest {
     when(service.search(anyListOf(IdealStockAmount.class)))
         .thenReturn(Collections.emptyList());
 
-    when(facilityRepository.findByCode(FACILITY_CODE)).thenReturn(Optional.of(facility));
-    when(processingScheduleRepository.findOneByCode(schedule.getCode()))
-        .thenReturn(Optional.of(schedule));
-    when(processingPeriodRepository.findOneByNameAndProcessingSchedule(PERIOD, schedule))
-        .thenReturn(Optional.of(processingPeriod));
-    when(commodityTypeRepository.findByClassificationIdAndClassificationSystem(ID, SYSTEM))
-        .thenReturn(Optional.of(commodityType));
+    when(facilityRepository.findAllByCodeIn(singleton(FACILITY_CODE)))
+        .thenReturn(singletonList(facility));
+    when(processingScheduleRepository.findAllByCodes(singleton(SCHEDULE)))
+        .thenReturn(singletonList(schedule));
+    when(processingPeriodRepository
+        .findAllByProcessingScheduleInAndNameIn(singleton(schedule), singleton(PERIOD)))
+        .thenReturn(singletonList(processingPeriod));
+    when(commodityTypeRepository.findAllByClassificationIdIn(singleton(ID)))
+        .thenReturn(singletonList(commodityType));
   }
 
   @Test
@@ -133,7 +140,8 @@ public class IdealStockAmountProcessorTest {
     idealStockAmountsValidator.validate(isa);
     when(service.search(anyListOf(IdealStockAmount.class)))
         .thenReturn(Collections.emptyList());
-    when(facilityRepository.findByCode(FACILITY_CODE)).thenReturn(Optional.empty());
+    when(facilityRepository.findAllByCodeIn(singleton(FACILITY_CODE)))
+        .thenReturn(Collections.emptyList());
 
     idealStockAmountProcessor.process(Collections.singletonList(isa));
   }
@@ -145,8 +153,8 @@ public class IdealStockAmountProcessorTest {
     idealStockAmountsValidator.validate(isa);
     when(service.search(anyListOf(IdealStockAmount.class)))
         .thenReturn(Collections.emptyList());
-    when(processingScheduleRepository.findOneByCode(schedule.getCode()))
-        .thenReturn(Optional.empty());
+    when(processingScheduleRepository.findAllByCodes(singleton(SCHEDULE)))
+        .thenReturn(Collections.emptyList());
 
     idealStockAmountProcessor.process(Collections.singletonList(isa));
   }
@@ -158,8 +166,9 @@ public class IdealStockAmountProcessorTest {
     idealStockAmountsValidator.validate(isa);
     when(service.search(anyListOf(IdealStockAmount.class)))
         .thenReturn(Collections.emptyList());
-    when(processingPeriodRepository.findOneByNameAndProcessingSchedule(PERIOD, schedule))
-        .thenReturn(Optional.empty());
+    when(processingPeriodRepository
+        .findAllByProcessingScheduleInAndNameIn(singleton(schedule), singleton(PERIOD)))
+        .thenReturn(Collections.emptyList());
 
     idealStockAmountProcessor.process(Collections.singletonList(isa));
   }
@@ -171,12 +180,68 @@ public class IdealStockAmountProcessorTest {
     idealStockAmountsValidator.validate(isa);
     when(service.search(anyListOf(IdealStockAmount.class)))
         .thenReturn(Collections.emptyList());
-    when(commodityTypeRepository.findByClassificationIdAndClassificationSystem(ID, SYSTEM))
-        .thenReturn(Optional.empty());
+    when(commodityTypeRepository.findAllByClassificationIdIn(singleton(ID)))
+        .thenReturn(Collections.emptyList());
 
     idealStockAmountProcessor.process(Collections.singletonList(isa));
   }
 
+  @Test
+  public void shouldResolveReferencesOfChunkWithOneQueryEach() {
+    List<IdealStockAmount> result = idealStockAmountProcessor
+        .process(Arrays.asList(createIsaDto(), createIsaDto(), createIsaDto()));
+
+    assertEquals(3, result.size());
+    verifyReferencesResolvedOnce();
+  }
+
+  @Test
+  public void shouldNotResolveReferencesAgainForLaterChunksOfUpload() {
+    RecordProcessor<IdealStockAmountCsvModel, IdealStockAmount> processor =
+        idealStockAmountProcessor.forUpload();
+
+    processor.process(Collections.singletonList(createIsaDto()));
+    List<IdealStockAmount> result = processor.process(Collections.singletonList(createIsaDto()));
+
+    assertEquals(result.get(0).getFacility(), facility);
+    verifyReferencesResolvedOnce();
+  }
+
+  @Test
+  public void shouldNotResolveReferencesOfExistingObjects() {
+    when(service.search(anyListOf(IdealStockAmount.class)))
+        .thenReturn(Collections.singletonList(idealStockAmount));
+
+    idealStockAmountProcessor.process(Collections.singletonList(createIsaDto()));
+
+    verifyZeroInteractions(facilityRepository, processingScheduleRepository,
+        processingPeriodRepository, commodityTypeRepository);
+  }
+
+  @Test
+  public void shouldNotUseExistingObjectOfOtherCommodityType() {
+    IdealStockAmount other = new IdealStockAmount(facility, new CommodityType(),
+        processingPeriod, 1);
+    other.getCommodityType().setClassificationSystem(SYSTEM + ID);
+    other.getCommodityType().setClassificationId("");
+    when(service.search(anyListOf(IdealStockAmount.class)))
+        .thenReturn(Collections.singletonList(other));
+
+    List<IdealStockAmount> result = idealStockAmountProcessor
+        .process(Collections.singletonList(createIsaDto()));
+
+    assertNotSame(other, result.get(0));
+    assertEquals(result.get(0).getCommodityType(), commodityType);
+  }
+
+  private void verifyReferencesResolvedOnce() {
+    verify(facilityRepository).findAllByCodeIn(anyCollectionOf(String.class));
+    verify(processingScheduleRepository).findAllByCodes(anyCollectionOf(String.class));
+    verify(processingPeriodRepository).findAllByProcessingScheduleInAndNameIn(
+        anyCollectionOf(ProcessingSchedule.class), anyCollectionOf(String.class));
+    verify(commodityTypeRepository).findAllByClassificationIdIn(anyCollectionOf(String.class));
+  }
+
   private IdealStockAmountCsvModel createIsaDto() {
     BasicFacilityDto facilityDto = new BasicFacilityDto();
     facilityDto.setCode(FACILITY_CODE);
@@ -15,13 +15,22 @@
 
 package org.openlmis.referencedata.web.csv.recordhandler;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -46,8 +55,11 @@ public class IdealStockAmountWriterTest {
     MockitoAnnotations.initMocks(this);
 
     Facility facility = new Facility("facility-code");
+    facility.setId(UUID.randomUUID());
     CommodityType commodityType = new CommodityType();
+    commodityType.setId(UUID.randomUUID());
     ProcessingPeriod processingPeriod = new ProcessingPeriod();
+    processingPeriod.setId(UUID.randomUUID());
     processingPeriod.setStartDate(LocalDate.of(2017, 10, 1));
     processingPeriod.setEndDate(LocalDate.of(2017, 10, 30));
 
@@ -63,4 +75,24 @@ public class IdealStockAmountWriterTest {
 
     verify(idealStockAmountRepository).saveAll(Arrays.asList(idealStockAmount));
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void shouldUpdateIdealStockAmountSavedForEarlierChunkOfUpload() {
+    when(idealStockAmountRepository.saveAll(anyListOf(IdealStockAmount.class)))
+        .thenAnswer(invocation -> invocation.getArguments()[0]);
+    RecordWriter<IdealStockAmount> writer = idealStockAmountWriter.forUpload();
+
+    IdealStockAmount duplicate = new IdealStockAmount(idealStockAmount.getFacility(),
+        idealStockAmount.getCommodityType(), idealStockAmount.getProcessingPeriod(), 456);
+
+    writer.write(Arrays.asList(idealStockAmount));
+    writer.write(Arrays.asList(duplicate));
+
+    ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+    verify(idealStockAmountRepository, times(2)).saveAll(captor.capture());
+    assertThat(captor.getAllValues().get(0), contains(idealStockAmount));
+    assertThat(captor.getAllValues().get(1), is(empty()));
+    assertThat(idealStockAmount.getAmount(), is(456));
+  }
 }